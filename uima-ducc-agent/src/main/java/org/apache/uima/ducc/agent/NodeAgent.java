@@ -40,9 +40,6 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.camel.CamelContext;
-import org.apache.camel.Processor;
-import org.apache.camel.Route;
-import org.apache.camel.builder.RouteBuilder;
 import org.apache.commons.lang.SerializationUtils;
 import org.apache.uima.ducc.agent.config.AgentConfiguration;
 import org.apache.uima.ducc.agent.event.ProcessLifecycleObserver;
@@ -139,6 +136,10 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
 
   private RogueProcessReaper rogueProcessReaper = new RogueProcessReaper(logger, 5, 10);
 
+  // samples metrics of all managed processes in one sweep
+  private ProcessMetricsSampler processMetricsSampler = new ProcessMetricsSampler(logger,
+          getProcessMetricsSamplingRate(), getProcessMetricsSamplerThreads());
+
   public volatile boolean useCgroups = false;
 
   public CGroupsManager cgroupsManager = null;
@@ -423,6 +424,29 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
     String ip = nodeIdentity.getIp();
     String jmxUrl = getProcessJmxUrl();
     DuccDaemonRuntimeProperties.getInstance().bootAgent(name, ip, jmxUrl);
+    processMetricsSampler.start();
+  }
+
+  private static long getProcessMetricsSamplingRate() {
+    String rate = System.getProperty("ducc.agent.process.metrics.sampling.rate");
+    if (rate != null) {
+      try {
+        return Long.parseLong(rate.trim());
+      } catch (NumberFormatException e) {
+      }
+    }
+    return ProcessMetricsSampler.DEFAULT_PERIOD;
+  }
+
+  private static int getProcessMetricsSamplerThreads() {
+    String threads = System.getProperty("ducc.agent.process.metrics.sampler.threads");
+    if (threads != null) {
+      try {
+        return Integer.parseInt(threads.trim());
+      } catch (NumberFormatException e) {
+      }
+    }
+    return ProcessMetricsSampler.DEFAULT_THREADS;
   }
 
   public DuccEventDispatcher getEventDispatcherForRemoteProcess() {
@@ -846,22 +870,14 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
   }
 
   /**
-   * Checks if process with a given PID has already registered memory collector Camel route. This
-   * route periodically fetches resident memory of a process with a given PID. Each process
-   * collector route is identified by process PID.
+   * Checks if process with a given PID has already been added to the process metrics sampler.
    * 
    * @param pid
-   *          - process PID also id of its route
-   * @return - true if memory collector route has already been created. False, otherwise
+   *          - process PID
+   * @return - false if the process is already being sampled. True, otherwise
    */
   private boolean addProcessMemoryCollector(String pid) {
-    // search all camel routes for one with a given id
-    for (Route route : super.getContext().getRoutes()) {
-      if (route.getId().equals(pid)) {
-        return false;
-      }
-    }
-    return true;
+    return !processMetricsSampler.isRegistered(pid);
   }
 
   /**
@@ -984,14 +1000,8 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
           // if a JP process has been deallocated, ignore any updates
           // from it. It's stopping.
           if (processEntry.getValue().isDeallocated()) {
-            // stop collecting process stats from /proc/<pid>/statm
-            if (duccEvent.getPid() != null) {
-            	try {
-                    super.getContext().stopRoute(duccEvent.getPid());
-            	} catch( Exception e) {
-            		logger.error(methodName, null, "Unable to stop Camel route for PID:"+duccEvent.getPid());
-            	}
-            }
+            // stop collecting process stats
+            processMetricsSampler.unregister(duccEvent.getPid());
             return;
           }
 
@@ -1027,19 +1037,14 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
             processEntry.getValue().setProcessState(duccEvent.getState());
             // if the process is Stopping, it must have hit an error threshold
           }
-          // Check if MemoryCollector should be created for this
-          // process. It collects
-          // resident memory of the process at regular intervals.
-          // Should only be added
-          // once for each process. This route will have its id set to
-          // process PID.
+          // Check if the process should be added to the metrics sampler. It
+          // collects resident memory of the process at regular intervals.
+          // Should only be added once for each process, keyed by PID.
           if (addProcessMemoryCollector(duccEvent.getPid())
                   && (duccEvent.getState().equals(ProcessState.Initializing) || duccEvent
                           .getState().equals(ProcessState.Running))) {
-            RouteBuilder rb = new ProcessMemoryUsageRoute(this, processEntry.getValue(),
-                    deployedProcess);
-            super.getContext().addRoutes(rb);
-            StringBuffer sb = new StringBuffer();
+            processMetricsSampler.register(duccEvent.getPid(), configurationFactory
+                    .processMetricsProcessor(this, processEntry.getValue(), deployedProcess));
             if ( duccEvent.getState().equals(ProcessState.Running) ) {
                if ( processEntry.getValue().getUimaPipelineComponents() != null && 
             		processEntry.getValue().getUimaPipelineComponents().size() > 0 ) {
@@ -1049,53 +1054,21 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
             	   }
                }
             }
-            for ( Route route : super.getContext().getRoutes() ) {
-            	sb.append("Camel Context - RouteId:"+route.getId()+"\n");
-            }
             logger.info(
                     methodName,
                     null,
-                    sb.toString());
-            
-            logger.info(
-                    methodName,
-                    null,
-                    ">>>> Agent Added new Process Memory Collector Thread for Process:"
-                            + duccEvent.getPid());
+                    ">>>> Agent Added Process to Metrics Sampler. PID:"
+                            + duccEvent.getPid() + " Sampled Processes:" + processMetricsSampler.size());
           } else if (duccEvent.getState().equals(ProcessState.Stopped)
                   || duccEvent.getState().equals(ProcessState.Failed)
                   || duccEvent.getState().equals(ProcessState.Killed)) {
-            	try {
-              	  // stop collecting process stats from /proc/<pid>/statm
-                    super.getContext().stopRoute(duccEvent.getPid());
-            	} catch( Exception e) {
-                    logger.error(methodName, null, "....Unable to stop Camel route for PID:" + duccEvent.getPid());
-            	}
-
-//            super.getContext().stopRoute(duccEvent.getPid());
-            
-            // remove route from context, otherwise the routes accumulate over time causing memory leak
-            super.getContext().removeRoute(duccEvent.getPid());
-            StringBuffer sb = new StringBuffer();
-            logger.info(
-                    methodName,
-                    null,
-                    "Removed Camel Route from Context for PID:"+duccEvent.getPid());
-            
-            for ( Route route : super.getContext().getRoutes() ) {
-            	sb.append("Camel Context - RouteId:"+route.getId()+"\n");
-            }
-            logger.info(
-                    methodName,
-                    null,
-                    sb.toString());
-            
-            
+            // stop collecting process stats
+            processMetricsSampler.unregister(duccEvent.getPid());
             if ( deployedProcess.getMetricsProcessor() != null ) {
-            	deployedProcess.getMetricsProcessor().close();  // close open fds (stat and statm files)
+            	deployedProcess.getMetricsProcessor().close();
             }
             logger.info(methodName, null,
-                    "----------- Agent Stopped ProcessMemoryUsagePollingRouter for Process:"
+                    "----------- Agent Removed Process from Metrics Sampler. PID:"
                             + duccEvent.getPid());
           } else if (duccEvent.getState().equals(ProcessState.FailedInitialization)) {
               logger.info(methodName, null, ">>>> Agent Handling Process FailedInitialization. PID:"
@@ -1156,6 +1129,10 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
             ((DuccProcess) processEntry.getValue()).setUimaPipelineComponents(duccEvent
                     .getUimaPipeline());
           }
+          if (duccEvent.getThreadInitTimes() != null) {
+            // unlike the pipeline components these survive the Running transition
+            processEntry.getValue().setThreadInitTimes(duccEvent.getThreadInitTimes());
+          }
           return; // found it. Done
         }
       }
@@ -1322,30 +1299,12 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
       ProcessStateUpdate processStateUpdate = new ProcessStateUpdate(process.getProcessState(),
               process.getPID(), process.getDuccId().getUnique());
       ProcessStateUpdateDuccEvent event = new ProcessStateUpdateDuccEvent(processStateUpdate);
-      // cleanup Camel route associated with a process that just stopped
-      if ( process.getPID() != null && super.getContext().getRoute(process.getPID()) != null ) {
-//          super.getContext().stopRoute(process.getPID());
-      	try {
-        	  // stop collecting process stats from /proc/<pid>/statm
-              super.getContext().stopRoute(process.getPID());
-      	} catch( Exception e) {
-              logger.error(methodName, null, "....Unable to stop Camel route for PID:" + process.getPID());
-      	}
-          // remove route from context, otherwise the routes accumulate over time causing memory leak
-          super.getContext().removeRoute(process.getPID());
-          StringBuffer sb = new StringBuffer("\n");
+      // stop sampling metrics of a process that just stopped
+      if ( processMetricsSampler.unregister(process.getPID()) ) {
           logger.info(
                   methodName,
                   null,
-                  "Removed Camel Route from Context for PID:"+process.getPID());
-          
-          for ( Route route : super.getContext().getRoutes() ) {
-          	sb.append("Camel Context - RouteId:"+route.getId()+"\n");
-          }
-          logger.info(
-                  methodName,
-                  null,
-                  sb.toString());
+                  "Removed Process from Metrics Sampler. PID:"+process.getPID());
       }
       updateProcessStatus(event);
     } catch (Exception e) {
@@ -1535,32 +1494,6 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
 
   }
 
-  /**
-   * Process resident memory collector routes. Collects resident memory at fixed interval from the
-   * OS.
-   * 
-   */
-  public class ProcessMemoryUsageRoute extends RouteBuilder {
-    private NodeAgent agent;
-
-    private IDuccProcess process;
-
-    private ManagedProcess managedProcess;
-
-    public ProcessMemoryUsageRoute(NodeAgent agent, IDuccProcess process,
-            ManagedProcess managedProcess) {
-      this.process = process;
-      this.managedProcess = managedProcess;
-      this.agent = agent;
-    }
-
-    public void configure() throws Exception {
-      Processor nmp = configurationFactory.processMetricsProcessor(agent, process, managedProcess);
-      from("timer:processMemPollingTimer?fixedRate=true&period=" + 5000).routeId(process.getPID())
-              .process(nmp);
-    }
-  }
-
   public void stop() throws Exception {
     if (stopping) {
       return;
@@ -1621,6 +1554,7 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
       }
     }
     logger.info("stop", null, "Agent managed processes have stopped");
+    processMetricsSampler.stop();
     // Stop publishing inventory. Once the route is down the agent forces last publication
     // sending an empty process map.
     configurationFactory.stopInventoryRoute();
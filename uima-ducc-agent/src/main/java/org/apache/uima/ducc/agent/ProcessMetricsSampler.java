@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.ducc.agent.processors.ProcessMetricsProcessor;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+
+/**
+ * Samples metrics of all processes managed by the agent in a single sweep.
+ * 
+ * Each registered process contributes a {@link ProcessMetricsProcessor}. One
+ * agent-wide thread runs the sweeps and hands each process' sample to a small
+ * fixed pool of sampler threads. A process whose previous sample is still queued
+ * or running, such as a JP stuck in a long GC or with a slow JMX port, is
+ * skipped, so it is never queued twice and the number of sampler threads does
+ * not grow with the number of processes. Sweeps are spaced
+ * by the sampling period plus a small random jitter so that agents started
+ * together do not sample in lock step. The time spent on each process is
+ * tracked and the most expensive ones are logged when samples are skipped.
+ */
+public class ProcessMetricsSampler {
+  public static final long DEFAULT_PERIOD = 5000;
+
+  private static final int JITTER_PERCENT = 10;
+
+  private static final int TOP_COSTS_LOGGED = 5;
+
+  public static final int DEFAULT_THREADS = 4;
+
+  private DuccLogger logger;
+
+  private long period;
+
+  private ConcurrentHashMap<String, SampledProcess> processes = new ConcurrentHashMap<String, SampledProcess>();
+
+  private ScheduledExecutorService executor;
+
+  // fixed size; holds each registered process at most once, since a busy process is skipped
+  private ThreadPoolExecutor samplers;
+
+  private Random random = new Random();
+
+  private volatile boolean stopped = false;
+
+  private long sweeps = 0;
+
+  public ProcessMetricsSampler(DuccLogger logger, long period) {
+    this(logger, period, DEFAULT_THREADS);
+  }
+
+  public ProcessMetricsSampler(DuccLogger logger, long period, int threadCount) {
+    this.logger = logger;
+    this.period = period > 0 ? period : DEFAULT_PERIOD;
+    int size = threadCount > 0 ? threadCount : DEFAULT_THREADS;
+    final AtomicInteger threads = new AtomicInteger(0);
+    samplers = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+              public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ProcessMetricsSampler-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+              }
+            });
+  }
+
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "ProcessMetricsSampler");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    // spread the first sweep over one period
+    schedule((long) (random.nextDouble() * period));
+    logger.info("start", null, "Process metrics sampler started - period:" + period + " ms");
+  }
+
+  public synchronized void stop() {
+    stopped = true;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    samplers.shutdownNow();
+    for (SampledProcess sp : processes.values()) {
+      sp.processor.stop();
+    }
+    processes.clear();
+  }
+
+  /**
+   * Adds a process to the sweep. Returns false if a process with the same PID
+   * is already registered.
+   */
+  public boolean register(String pid, ProcessMetricsProcessor processor) {
+    if (pid == null || processor == null) {
+      return false;
+    }
+    SampledProcess existing = processes.putIfAbsent(pid, new SampledProcess(pid, processor));
+    return existing == null;
+  }
+
+  /**
+   * Removes a process from the sweep. The process' metrics processor is stopped.
+   */
+  public boolean unregister(String pid) {
+    if (pid == null) {
+      return false;
+    }
+    SampledProcess sp = processes.remove(pid);
+    if (sp == null) {
+      return false;
+    }
+    sp.processor.stop();
+    return true;
+  }
+
+  public boolean isRegistered(String pid) {
+    return pid != null && processes.containsKey(pid);
+  }
+
+  public int size() {
+    return processes.size();
+  }
+
+  // the most sampler threads ever alive at once
+  int getLargestPoolSize() {
+    return samplers.getLargestPoolSize();
+  }
+
+  private void schedule(long delay) {
+    if (stopped) {
+      return;
+    }
+    try {
+      executor.schedule(new Runnable() {
+        public void run() {
+          long start = System.currentTimeMillis();
+          try {
+            sweep();
+          } catch (Throwable t) {
+            logger.error("sweep", null, t);
+          }
+          long elapsed = System.currentTimeMillis() - start;
+          schedule(Math.max(0, period - elapsed + jitter()));
+        }
+      }, delay, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      // executor shut down
+    }
+  }
+
+  private long jitter() {
+    long range = period * JITTER_PERCENT / 100;
+    if (range <= 0) {
+      return 0;
+    }
+    return (long) (random.nextDouble() * 2 * range) - range;
+  }
+
+  void sweep() {
+    String methodName = "sweep";
+    sweeps++;
+    List<SampledProcess> batch = new ArrayList<SampledProcess>(processes.values());
+    List<SampledProcess> skipped = new ArrayList<SampledProcess>();
+    for (SampledProcess sp : batch) {
+      if (stopped) {
+        return;
+      }
+      // may have been removed while earlier processes were dispatched
+      if (!processes.containsKey(sp.pid)) {
+        continue;
+      }
+      if (!sp.busy.compareAndSet(false, true)) {
+        skipped.add(sp);
+        continue;
+      }
+      try {
+        samplers.execute(new Sample(sp));
+      } catch (RejectedExecutionException e) {
+        // sampler stopped
+        sp.busy.set(false);
+      }
+    }
+    if (!skipped.isEmpty()) {
+      StringBuffer sb = new StringBuffer();
+      long now = System.nanoTime();
+      for (SampledProcess sp : skipped) {
+        sb.append(" PID:").append(sp.pid);
+        if (sp.startNanos > 0) {
+          sb.append(" running:").append((now - sp.startNanos) / 1000000).append("ms");
+        } else {
+          sb.append(" queued");
+        }
+      }
+      logger.warn(methodName, null, "Sweep " + sweeps + " skipped " + skipped.size() + " of "
+              + batch.size() + " processes whose previous sample is still pending:" + sb
+              + " Costliest:" + topCosts(batch));
+    } else if (logger.isDebug()) {
+      logger.debug(methodName, null, "Sweep " + sweeps + " of " + batch.size()
+              + " processes. Costliest:" + topCosts(batch));
+    }
+  }
+
+  private class Sample implements Runnable {
+    private SampledProcess sp;
+
+    Sample(SampledProcess sp) {
+      this.sp = sp;
+    }
+
+    public void run() {
+      String methodName = "sweep";
+      if (stopped || processes.get(sp.pid) != sp) {
+        // unregistered while queued
+        sp.busy.set(false);
+        return;
+      }
+      long t0 = System.nanoTime();
+      sp.startNanos = t0;
+      try {
+        sp.processor.process(null);
+      } catch (Exception e) {
+        logger.error(methodName, null, e, "Unable to collect metrics for PID:" + sp.pid);
+      } finally {
+        sp.account(System.nanoTime() - t0);
+        sp.startNanos = 0;
+        sp.busy.set(false);
+      }
+    }
+  }
+
+  private String topCosts(List<SampledProcess> batch) {
+    List<SampledProcess> sorted = new ArrayList<SampledProcess>(batch);
+    Collections.sort(sorted, new Comparator<SampledProcess>() {
+      public int compare(SampledProcess a, SampledProcess b) {
+        return a.lastNanos < b.lastNanos ? 1 : (a.lastNanos > b.lastNanos ? -1 : 0);
+      }
+    });
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0; i < sorted.size() && i < TOP_COSTS_LOGGED; i++) {
+      SampledProcess sp = sorted.get(i);
+      sb.append(" PID:").append(sp.pid)
+        .append(" last:").append(sp.lastNanos / 1000000).append("ms")
+        .append(" avg:").append(sp.samples == 0 ? 0 : sp.totalNanos / sp.samples / 1000000).append("ms")
+        .append(" max:").append(sp.maxNanos / 1000000).append("ms");
+    }
+    return sb.toString();
+  }
+
+  private static class SampledProcess {
+    final String pid;
+
+    final ProcessMetricsProcessor processor;
+
+    // set while a sample of this process runs
+    final AtomicBoolean busy = new AtomicBoolean(false);
+
+    // 0 while queued, set once a sampler thread picks the sample up
+    volatile long startNanos;
+
+    // written by one sample at a time, read for logging only
+    volatile long samples;
+
+    volatile long lastNanos;
+
+    volatile long maxNanos;
+
+    volatile long totalNanos;
+
+    SampledProcess(String pid, ProcessMetricsProcessor processor) {
+      this.pid = pid;
+      this.processor = processor;
+    }
+
+    void account(long nanos) {
+      samples++;
+      lastNanos = nanos;
+      totalNanos += nanos;
+      if (nanos > maxNanos) {
+        maxNanos = nanos;
+      }
+    }
+  }
+}
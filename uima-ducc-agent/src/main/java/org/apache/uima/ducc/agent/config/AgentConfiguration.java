@@ -453,8 +453,7 @@ public class AgentConfiguration {
   public ProcessMetricsProcessor processMetricsProcessor(NodeAgent agent, IDuccProcess process,
           ManagedProcess managedProcess) throws Exception {
     if (Utils.isLinux()) {
-      return new LinuxProcessMetricsProcessor(logger, process, agent, "/proc/" + process.getPID()
-              + "/statm", "/proc/stat", "/proc/" + process.getPID() + "/stat", managedProcess);
+      return new LinuxProcessMetricsProcessor(logger, process, agent, managedProcess);
     } else {
       return new DefaultProcessMetricsProcessor(process, agent);
     }
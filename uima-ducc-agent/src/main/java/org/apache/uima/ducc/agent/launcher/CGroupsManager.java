@@ -34,6 +34,7 @@ import java.util.regex.Pattern;
 
 import org.apache.uima.ducc.agent.NodeAgent;
 import org.apache.uima.ducc.agent.launcher.ManagedProcess;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcFsScanner;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.transport.event.common.IDuccProcessType.ProcessType;
@@ -682,6 +683,12 @@ public class CGroupsManager {
 	public Set<NodeProcessInfo> getProcessesOnNode() throws Exception {
 		String location = "getProcessesOnNode";
 		Set<NodeProcessInfo> processList = new HashSet<NodeProcessInfo>();
+		if ( Utils.isLinux() ) {
+			for ( ProcFsScanner.ProcessEntry pe : ProcFsScanner.getInstance().getSnapshot().getProcesses() ) {
+				processList.add(new NodeProcessInfo(pe.getPid(), pe.getPpid(), pe.getUser(), String.valueOf(pe.getState())));
+			}
+			return processList;
+		}
 		InputStream stream = null;
 		BufferedReader reader = null;
 		try {
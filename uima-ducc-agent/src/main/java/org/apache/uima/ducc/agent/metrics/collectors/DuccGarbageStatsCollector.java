@@ -19,6 +19,16 @@
 package org.apache.uima.ducc.agent.metrics.collectors;
 
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.MBeanServerConnection;
 import javax.management.ObjectInstance;
@@ -33,9 +43,27 @@ import org.apache.uima.ducc.transport.event.common.IDuccProcess;
 
 
 public class DuccGarbageStatsCollector {
+  public static final long DEFAULT_TIMEOUT = 2000;
+  
+  private static final int JMX_THREADS = 2;
+  
+  private static final long timeout = getTimeout();
+  
+  // shared by all processes; each process has at most one call outstanding
+  private static final ExecutorService jmxCalls = Executors.newFixedThreadPool(JMX_THREADS, new ThreadFactory() {
+    private final AtomicInteger threads = new AtomicInteger(0);
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "DuccGarbageStatsCollector-" + threads.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  });
+  
   MBeanServerConnection connection = null;
   DuccLogger logger=null;
   IDuccProcess process=null;
+  private Future<ProcessGarbageCollectionStats> pending = null;
+  private ProcessGarbageCollectionStats last = new ProcessGarbageCollectionStats();
 	public DuccGarbageStatsCollector(DuccLogger logger,IDuccProcess process)  {
 	  this.logger = logger;
 	  this.process = process;
@@ -55,33 +83,72 @@ public class DuccGarbageStatsCollector {
     JMXConnector jmxc = JMXConnectorFactory.connect(url, null);
     return jmxc.getMBeanServerConnection();
   }
+	/**
+	 * The JMX calls run on a small shared pool and are waited for at most
+	 * ducc.agent.process.metrics.jmx.timeout ms, so a JP that does not answer
+	 * cannot hold the caller.  Until a late answer arrives no new call is made
+	 * for this process and the previous values are reported.
+	 */
 	public ProcessGarbageCollectionStats collect() {
+		if ( connection == null) {
+			return new ProcessGarbageCollectionStats();
+		}
+		if ( pending == null ) {
+			try {
+				pending = jmxCalls.submit(new Callable<ProcessGarbageCollectionStats>() {
+					public ProcessGarbageCollectionStats call() throws Exception {
+						return fetch();
+					}
+				});
+			} catch( RejectedExecutionException e) {
+				return last;
+			}
+		}
+		try {
+			last = pending.get(timeout, TimeUnit.MILLISECONDS);
+			pending = null;
+		} catch( TimeoutException e) {
+			logger.warn("collect", null, "JMX GC Stats From PID:"+process.getPID()+" not returned within "+timeout+" ms - reporting the previous values");
+		} catch( ExecutionException e) {
+			pending = null;
+			last = new ProcessGarbageCollectionStats();
+			logger.error("collect", null, "Failed to Fetch JMX GC Stats From PID:"+process.getPID()+" Reason:\n"+e.getCause());
+		} catch( InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return last;
+	}
+
+	private ProcessGarbageCollectionStats fetch() throws Exception {
 		ProcessGarbageCollectionStats gcStats =
 	            new ProcessGarbageCollectionStats();
-    if ( connection != null) {
-		  
-		  try {
-		    Set<ObjectInstance> mbeans= 
-		            connection.queryMBeans(new ObjectName("java.lang:type=GarbageCollector,*"),null );
-		    Long totalCollectionCount= new Long(0);
-		    Long totalCollectionTime=new Long(0);
-		    
-		    for( ObjectInstance gcObject : mbeans) {
-		      String gcCollectorName = gcObject.getObjectName().getCanonicalKeyPropertyListString();
-		      ObjectName memoryManagerMXBean = 
-		              new ObjectName("java.lang:" + gcCollectorName);
-		      totalCollectionCount += (Long) connection.getAttribute(memoryManagerMXBean,"CollectionCount");
-		      totalCollectionTime += (Long) connection.getAttribute(memoryManagerMXBean,"CollectionTime");
-		    }
-	      // Returns the total number of collections that have occurred.
-	      gcStats.setCollectionCount(totalCollectionCount);
-	      // Returns the approximate accumulated collection elapsed time in milliseconds.
-	      gcStats.setCollectionTime(totalCollectionTime);
+		Set<ObjectInstance> mbeans= 
+		        connection.queryMBeans(new ObjectName("java.lang:type=GarbageCollector,*"),null );
+		Long totalCollectionCount= new Long(0);
+		Long totalCollectionTime=new Long(0);
+		
+		for( ObjectInstance gcObject : mbeans) {
+		  String gcCollectorName = gcObject.getObjectName().getCanonicalKeyPropertyListString();
+		  ObjectName memoryManagerMXBean = 
+		          new ObjectName("java.lang:" + gcCollectorName);
+		  totalCollectionCount += (Long) connection.getAttribute(memoryManagerMXBean,"CollectionCount");
+		  totalCollectionTime += (Long) connection.getAttribute(memoryManagerMXBean,"CollectionTime");
+		}
+		// Returns the total number of collections that have occurred.
+		gcStats.setCollectionCount(totalCollectionCount);
+		// Returns the approximate accumulated collection elapsed time in milliseconds.
+		gcStats.setCollectionTime(totalCollectionTime);
+		return gcStats;
+	}
 
-		  } catch( Exception e) {
-		    logger.error("", null, "Failed to Fetch JMX GC Stats From PID:"+process.getPID()+" Reason:\n"+e);
-		  }
-    }
-	  return gcStats;
+	private static long getTimeout() {
+		String value = System.getProperty("ducc.agent.process.metrics.jmx.timeout");
+		if ( value != null ) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch( NumberFormatException e) {
+			}
+		}
+		return DEFAULT_TIMEOUT;
 	}
 }
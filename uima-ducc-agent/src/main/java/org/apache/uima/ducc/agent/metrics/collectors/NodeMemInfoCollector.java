@@ -99,14 +99,23 @@ public class NodeMemInfoCollector implements CallableMemoryCollector {
 		// if running ducc in simulation mode skip memory adjustment. Report free memory = fakeMemorySize
 		if ( fakeMemorySize == -1 ) {
 			// sum up memory of all processes owned by UIDs < gidMax 
-			memUsed = collectRSSFromPSCommand();
+			memUsed = collectSystemRSS();
 			//System.out.println("Total:"+memInfoValues[0] + " Available:"+memInfoValues[1] +" Calculated:"+(memInfoValues[0] - memUsed)+" Priviledged Memory:"+memUsed);
 		}
 		
 		memInfoValues[1] = memInfoValues[0] - memUsed;
 		return new NodeMemoryInfo(memInfoValues, fakeMemorySize);
 	}
-	private long collectRSSFromPSCommand() throws Exception {
+	private long collectSystemRSS() throws Exception {
+		if ( Utils.isLinux() ) {
+			long memoryUsed = 0;
+			for ( ProcFsScanner.ProcessEntry pe : ProcFsScanner.getInstance().getSnapshot().getProcesses() ) {
+				if ( pe.getUid() >= 0 && pe.getUid() < gidMax ) {
+					memoryUsed += pe.getRssKb();
+				}
+			}
+			return memoryUsed;
+		}
 		InputStream stream = null;
 	    BufferedReader reader = null;
 	  
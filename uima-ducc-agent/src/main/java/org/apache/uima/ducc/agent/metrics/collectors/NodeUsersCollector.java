@@ -22,6 +22,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +37,8 @@ import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.common.utils.id.IDuccId;
 
 /**
- * Spawns "ps -ef --no-heading" cmd and scrapes the output to collect user processes. 
+ * Collects user processes from the shared /proc scan (ProcFsScanner), or by scraping ps output where
+ * there is no /proc.
  * 
  * Detects and filters out Ducc daemon processes and AMQ broker.
  * 
@@ -192,15 +194,13 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
    * @param list
    * @return
    */
-  private boolean processAncestorIsOwnedByDucc(String ppid, Set<RunningProcess> list) {
-	  for( RunningProcess pi : list ) {
-		  if ( pi.getPid().equals(ppid) ) {
-			  if (  pi.getOwner().equalsIgnoreCase("ducc") ) {
-				  return true;
-			  } else {
-				  return processAncestorIsOwnedByDucc(pi.getPpid(), list);
-			  }
-		  } 
+  private boolean processAncestorIsOwnedByDucc(String ppid, Map<String, RunningProcess> list) {
+	  RunningProcess pi = list.get(ppid);
+	  while ( pi != null ) {
+		  if (  pi.getOwner().equalsIgnoreCase("ducc") ) {
+			  return true;
+		  }
+		  pi = list.get(pi.getPpid());
 	  }
 	  return false;
   }
@@ -213,19 +213,6 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
     BufferedReader reader = null;
     try {
 
-      ProcessBuilder pb;
-      if ( Utils.isMac() ) {
-        pb = new ProcessBuilder("ps","-Ao","user=,pid=,ppid=,uid=,args=");
-      } else {
-        pb = new ProcessBuilder("ps","-Ao","user:12,pid,ppid,uid,args", "--no-heading");
-      }
-      pb.redirectErrorStream(true);
-      Process proc = pb.start();
-      //  spawn ps command and scrape the output
-      stream = proc.getInputStream();
-      reader = new BufferedReader(new InputStreamReader(stream));
-      String line;
-      String regex = "\\s+";
       if ( agent != null ) {
          // copy all known reservations reported by the OR
          agent.copyAllUserReservations(map);
@@ -251,8 +238,8 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
       Set<NodeUsersCollector.ProcessInfo> processList = 
               new HashSet<NodeUsersCollector.ProcessInfo>();
       
-      Set<RunningProcess> tempProcessList = 
-              new HashSet<RunningProcess>();
+      Map<String, RunningProcess> tempProcessList = 
+              new HashMap<String, RunningProcess>();
   
       // To detect rogues there are two scans through process list:
       // #1 - fills tempProcessList which will be used to check each
@@ -260,17 +247,33 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
       // #2 - the actual rogue process detection loop
       
       List<String> procList = new ArrayList<String>();
-      // read the next line from ps output
-      while ((line = reader.readLine()) != null) {
-    	  // save line for subsequent processing in the for..loop below
-    	  procList.add(line);
+      String regex = "\\s+";
+      if ( Utils.isLinux() ) {
+        // one in-JVM walk of /proc, shared with the other collectors in this tick
+        for ( ProcFsScanner.ProcessEntry pe : ProcFsScanner.getInstance().getSnapshot().getProcesses() ) {
+          procList.add(pe.getUser()+" "+pe.getPid()+" "+pe.getPpid()+" "+pe.getUid()+" "+pe.getArgs());
+          tempProcessList.put(pe.getPid(), new RunningProcess(pe.getPid(),pe.getPpid(),pe.getUser()));
+        }
+      } else {
+        ProcessBuilder pb = new ProcessBuilder("ps","-Ao","user=,pid=,ppid=,uid=,args=");
+        pb.redirectErrorStream(true);
+        Process proc = pb.start();
+        //  spawn ps command and scrape the output
+        stream = proc.getInputStream();
+        reader = new BufferedReader(new InputStreamReader(stream));
+        String line;
+        // read the next line from ps output
+        while ((line = reader.readLine()) != null) {
+          // save line for subsequent processing in the for..loop below
+          procList.add(line);
           String tokens[] = line.split(regex);
           if ( tokens.length > 0 ) {
-          	RunningProcess p = 
-                      new RunningProcess(tokens[1],tokens[2],tokens[0]);
+            RunningProcess p = 
+                    new RunningProcess(tokens[1],tokens[2],tokens[0]);
             // add process to a list which is used to look up each process parent
-          	tempProcessList.add(p);
+            tempProcessList.put(p.getPid(), p);
           }
+        }
       }
       // the above loop filled tempProcessList, so now detect rogue processes.
       for( String procInfo : procList) {
@@ -300,9 +303,9 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
             continue;
           }
           if ( logger == null ) {
-            //System.out.print(line);
+            //System.out.print(procInfo);
           } else {
-            logger.trace(location, null, line);
+            logger.trace(location, null, procInfo);
           }
           //  Check if current process is owned by a user that should be excluded
           //  from rogue process detection. A list of excluded users is in ducc.properties
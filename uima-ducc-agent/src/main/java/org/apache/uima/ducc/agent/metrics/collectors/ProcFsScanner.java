@@ -0,0 +1,449 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent.metrics.collectors;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the process table directly from /proc and shares it among all the agent's collectors.
+ * 
+ * One scan walks /proc/[pid]/stat, status and cmdline for every process into a single reusable
+ * buffer and links the results into a process tree.  A scan younger than the maximum age is
+ * handed out as-is, so the node metrics, rogue detection, cgroups and per-process metrics that
+ * run in the same tick share one pass instead of each forking ps, top or a helper script.
+ */
+public class ProcFsScanner {
+  // Per-process metrics poll every 5 seconds; anything scanned within half of that is current enough.
+  public static final long DEFAULT_MAX_AGE = 2500;
+
+  private static final ProcFsScanner instance = new ProcFsScanner("/proc", DEFAULT_MAX_AGE);
+
+  private final File procDir;
+  private final long maxAge;
+  private byte[] buffer = new byte[16384];
+  private int length;
+  private Map<Integer, String> userNames = new HashMap<Integer, String>();
+  private Snapshot snapshot;
+
+  public static ProcFsScanner getInstance() {
+    return instance;
+  }
+
+  public ProcFsScanner(String procDir, long maxAge) {
+    this.procDir = new File(procDir);
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Returns the current process table, rescanning /proc only if the last scan is too old.
+   */
+  public synchronized Snapshot getSnapshot() {
+    if ( snapshot == null || (System.currentTimeMillis() - snapshot.getTimestamp()) > maxAge ) {
+      snapshot = scan();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Unconditionally rescan /proc.
+   */
+  public synchronized Snapshot scan() {
+    Map<String, ProcessEntry> processes = new HashMap<String, ProcessEntry>();
+    String[] names = procDir.list();
+    if ( names != null ) {
+      for ( String name : names ) {
+        if ( !isPid(name) ) {
+          continue;
+        }
+        ProcessEntry pe = readProcess(name);
+        if ( pe != null ) {
+          processes.put(name, pe);
+        }
+      }
+    }
+    for ( ProcessEntry pe : processes.values() ) {
+      ProcessEntry parent = processes.get(pe.ppid);
+      if ( parent != null ) {
+        parent.children.add(pe);
+      }
+    }
+    snapshot = new Snapshot(System.currentTimeMillis(), processes);
+    return snapshot;
+  }
+
+  /**
+   * Swap used by a process in KB.  /proc/[pid]/smaps_rollup gives the same total the old swap script
+   * summed from smaps, but is only readable by the owner; otherwise fall back to VmSwap from status.
+   */
+  public synchronized long getSwapUsage(ProcessEntry pe) {
+    try {
+      if ( read(new File(procDir, pe.pid + "/smaps_rollup")) ) {
+        long swap = findField("Swap:", -1);
+        if ( swap >= 0 ) {
+          return swap;
+        }
+      }
+    } catch( IOException e) {
+      // process exited or file is not readable
+    }
+    return pe.swapKb;
+  }
+
+  private static boolean isPid(String name) {
+    for ( int i = 0; i < name.length(); i++ ) {
+      if ( !Character.isDigit(name.charAt(i)) ) {
+        return false;
+      }
+    }
+    return name.length() > 0;
+  }
+
+  private ProcessEntry readProcess(String pid) {
+    File dir = new File(procDir, pid);
+    try {
+      if ( !read(new File(dir, "stat")) ) {
+        return null;     // gone already
+      }
+      ProcessEntry pe = new ProcessEntry(pid);
+      parseStat(pe);
+      if ( read(new File(dir, "status")) ) {
+        pe.uid = (int) findField("Uid:", 1, -1);       // effective uid, as ps reports it
+        pe.rssKb = findField("VmRSS:", 0);
+        pe.swapKb = findField("VmSwap:", 0);
+      }
+      if ( read(new File(dir, "cmdline")) ) {
+        parseCmdline(pe);
+      }
+      pe.user = userName(pe.uid, dir);
+      return pe;
+    } catch( IOException e) {
+      return null;       // exited while we were reading it
+    }
+  }
+
+  /**
+   * Read a whole file into the shared buffer, growing it as needed.  Returns false if the file
+   * can't be opened, which in /proc usually means the process just exited.
+   */
+  private boolean read(File f) throws IOException {
+    FileInputStream in;
+    try {
+      in = new FileInputStream(f);
+    } catch( FileNotFoundException e) {
+      return false;
+    }
+    try {
+      length = 0;
+      int n;
+      while ( (n = in.read(buffer, length, buffer.length - length)) > 0 ) {
+        length += n;
+        if ( length == buffer.length ) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+      }
+    } finally {
+      in.close();
+    }
+    return true;
+  }
+
+  private long parseLong(int start, int end) {
+    long value = 0;
+    for ( int i = start; i < end; i++ ) {
+      byte b = buffer[i];
+      if ( b < '0' || b > '9' ) {
+        break;
+      }
+      value = value * 10 + (b - '0');
+    }
+    return value;
+  }
+
+  /**
+   * The fields of stat follow the command name, which is in parens and may itself contain blanks.
+   * Fields are numbered from 1 as in proc(5): 3 state, 4 ppid, 12 majflt, 14 utime, 15 stime.
+   */
+  private void parseStat(ProcessEntry pe) {
+    int open = 0;
+    while ( open < length && buffer[open] != '(' ) {
+      open++;
+    }
+    int close = length - 1;
+    while ( close > open && buffer[close] != ')' ) {
+      close--;
+    }
+    pe.comm = new String(buffer, open + 1, Math.max(0, close - open - 1));
+
+    int field = 3;
+    int i = close + 2;
+    while ( i < length && field <= 15 ) {
+      int start = i;
+      while ( i < length && buffer[i] != ' ' ) {
+        i++;
+      }
+      switch ( field ) {
+        case 3:
+          pe.state = (char) buffer[start];
+          break;
+        case 4:
+          pe.ppid = new String(buffer, start, i - start);
+          break;
+        case 12:
+          pe.majorFaults = parseLong(start, i);
+          break;
+        case 14:
+        case 15:
+          pe.cpuJiffies += parseLong(start, i);
+          break;
+      }
+      field++;
+      i++;
+    }
+  }
+
+  private long findField(String label, long dflt) {
+    return findField(label, 0, dflt);
+  }
+
+  /**
+   * Find the line starting with label and return the index'th number on it.
+   */
+  private long findField(String label, int index, long dflt) {
+    int i = 0;
+    while ( i < length ) {
+      int eol = i;
+      while ( eol < length && buffer[eol] != '\n' ) {
+        eol++;
+      }
+      if ( startsWith(i, eol, label) ) {
+        int p = i + label.length();
+        for ( int n = 0; p < eol; n++ ) {
+          while ( p < eol && (buffer[p] == ' ' || buffer[p] == '\t') ) {
+            p++;
+          }
+          int start = p;
+          while ( p < eol && buffer[p] != ' ' && buffer[p] != '\t' ) {
+            p++;
+          }
+          if ( n == index ) {
+            return (p > start) ? parseLong(start, p) : dflt;
+          }
+        }
+        return dflt;
+      }
+      i = eol + 1;
+    }
+    return dflt;
+  }
+
+  private boolean startsWith(int start, int end, String label) {
+    if ( end - start < label.length() ) {
+      return false;
+    }
+    for ( int i = 0; i < label.length(); i++ ) {
+      if ( buffer[start + i] != label.charAt(i) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * cmdline is NUL separated; kernel threads have none and ps shows them as [comm].
+   */
+  private void parseCmdline(ProcessEntry pe) {
+    int end = length;
+    while ( end > 0 && buffer[end - 1] == 0 ) {
+      end--;
+    }
+    if ( end == 0 ) {
+      pe.args = "[" + pe.comm + "]";
+      return;
+    }
+    for ( int i = 0; i < end; i++ ) {
+      if ( buffer[i] == 0 || buffer[i] == '\n' ) {
+        buffer[i] = ' ';
+      }
+    }
+    pe.args = new String(buffer, 0, end);
+  }
+
+  /**
+   * The owner of /proc/[pid] names the uid only if the two agree; a non-dumpable process (e.g.
+   * after the setuid switch in ducc_ling) has a root owned directory whatever its real uid.
+   * Otherwise ask the name service, which is only needed once per uid.
+   */
+  private String userName(int uid, File dir) {
+    String name = userNames.get(uid);
+    if ( name == null ) {
+      try {
+        Object owner = Files.getAttribute(dir.toPath(), "unix:uid");
+        if ( owner instanceof Integer && ((Integer) owner).intValue() == uid ) {
+          name = Files.getOwner(dir.toPath()).getName();
+        }
+      } catch( Exception e) {
+        return String.valueOf(uid);     // don't cache, the process may just have exited
+      }
+      if ( name == null ) {
+        name = lookupUserName(uid);
+        if ( name == null ) {
+          return String.valueOf(uid);
+        }
+      }
+      userNames.put(uid, name);
+    }
+    return name;
+  }
+
+  private String lookupUserName(int uid) {
+    BufferedReader reader = null;
+    try {
+      Process p = new ProcessBuilder("getent", "passwd", String.valueOf(uid)).redirectErrorStream(true).start();
+      reader = new BufferedReader(new InputStreamReader(p.getInputStream()));
+      String line = reader.readLine();
+      p.waitFor();
+      if ( line != null ) {
+        String[] fields = line.split(":");
+        if ( fields.length > 2 && fields[2].equals(String.valueOf(uid)) ) {
+          return fields[0];
+        }
+      }
+    } catch( Exception e) {
+    } finally {
+      if ( reader != null ) {
+        try {
+          reader.close();
+        } catch( IOException e) {
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The process table as of one scan.  Not modified after it is built.
+   */
+  public static class Snapshot {
+    private final long timestamp;
+    private final Map<String, ProcessEntry> processes;
+
+    Snapshot(long timestamp, Map<String, ProcessEntry> processes) {
+      this.timestamp = timestamp;
+      this.processes = Collections.unmodifiableMap(processes);
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public ProcessEntry get(String pid) {
+      return processes.get(pid);
+    }
+
+    public Collection<ProcessEntry> getProcesses() {
+      return processes.values();
+    }
+
+    public int size() {
+      return processes.size();
+    }
+  }
+
+  public static class ProcessEntry {
+    private final String pid;
+    private String ppid = "0";
+    private String comm = "";
+    private String args = "";
+    private String user;
+    private int uid = -1;
+    private char state = '?';
+    private long majorFaults;
+    private long cpuJiffies;
+    private long rssKb;
+    private long swapKb;
+    private List<ProcessEntry> children = new ArrayList<ProcessEntry>();
+
+    ProcessEntry(String pid) {
+      this.pid = pid;
+    }
+
+    public String getPid() {
+      return pid;
+    }
+
+    public String getPpid() {
+      return ppid;
+    }
+
+    public String getUser() {
+      return user;
+    }
+
+    public int getUid() {
+      return uid;
+    }
+
+    public char getState() {
+      return state;
+    }
+
+    /**
+     * Full command line, blank separated, as ps 'args' shows it.
+     */
+    public String getArgs() {
+      return args;
+    }
+
+    public long getMajorFaults() {
+      return majorFaults;
+    }
+
+    /**
+     * User plus system time, in clock ticks.
+     */
+    public long getCpuJiffies() {
+      return cpuJiffies;
+    }
+
+    public long getRssKb() {
+      return rssKb;
+    }
+
+    public long getSwapKb() {
+      return swapKb;
+    }
+
+    public List<ProcessEntry> getChildren() {
+      return children;
+    }
+  }
+}
@@ -18,26 +18,11 @@
  */
 package org.apache.uima.ducc.agent.processors;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.RandomAccessFile;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
 import org.apache.camel.Exchange;
 import org.apache.uima.ducc.agent.NodeAgent;
 import org.apache.uima.ducc.agent.launcher.ManagedProcess;
 import org.apache.uima.ducc.agent.metrics.collectors.DuccGarbageStatsCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessCpuUsageCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessMajorFaultCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessResidentMemoryCollector;
-import org.apache.uima.ducc.common.agent.metrics.cpu.ProcessCpuUsage;
-import org.apache.uima.ducc.common.agent.metrics.memory.ProcessResidentMemory;
-import org.apache.uima.ducc.common.agent.metrics.swap.DuccProcessSwapSpaceUsage;
-import org.apache.uima.ducc.common.agent.metrics.swap.ProcessMemoryPageLoadUsage;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcFsScanner;
 import org.apache.uima.ducc.common.node.metrics.ProcessGarbageCollectionStats;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.Utils;
@@ -48,23 +33,14 @@ import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
 
 public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 		ProcessMetricsProcessor {
-	private RandomAccessFile statmFile;
-
-	// private RandomAccessFile nodeStatFile;
-	private RandomAccessFile processStatFile;
-
 	private long totalCpuInitUsage = 0;
 
 	private boolean initializing = true;
 
-	private final ExecutorService pool;
-
 	private IDuccProcess process;
 
 	private DuccGarbageStatsCollector gcStatsCollector;
 
-	private int blockSize = 4096; // default, OS specific
-
 	private DuccLogger logger;
 
 	private ManagedProcess managedProcess;
@@ -79,27 +55,23 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 
 	private long percentCPU = 0;
 
+	private long lastJiffies = 0;
+
+	private long lastSampleTime = 0;
+
 	public LinuxProcessMetricsProcessor(DuccLogger logger,
-			IDuccProcess process, NodeAgent agent, String statmFilePath,
-			String nodeStatFilePath, String processStatFilePath,
-			ManagedProcess managedProcess) throws FileNotFoundException {
+			IDuccProcess process, NodeAgent agent,
+			ManagedProcess managedProcess) {
 		this.logger = logger;
-		statmFile = new RandomAccessFile(statmFilePath, "r");
-		// nodeStatFile = new RandomAccessFile(nodeStatFilePath, "r");
-		processStatFile = new RandomAccessFile(processStatFilePath, "r");
 		this.managedProcess = managedProcess;
 		this.agent = agent;
-		pool = Executors.newCachedThreadPool();
 		this.process = process;
 		gcStatsCollector = new DuccGarbageStatsCollector(logger, process);
 
 		// keep a refernce to this so that we can call close() when the process
-		// terminates. We need to
-		// close fds to stat and statm files
+		// terminates.
 		managedProcess.setMetricsProcessor(this);
 
-		blockSize = agent.getOSPageSize();
-
 		if (System.getProperty("ducc.agent.share.size.fudge.factor") != null) {
 			try {
 				fudgeFactor = Integer.parseInt(System
@@ -112,29 +84,11 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 	}
 
 	public void stop() {
-		try {
-			if (pool != null) {
-				pool.shutdown();
-			}
-		} catch (Exception e) {
-			logger.error("LinuxProcessMetricsProcessor.stop()", null, e);
-
-		}
 	}
 
 	public void close() {
 		closed = true;
-		try {
-			if (statmFile != null && statmFile.getFD().valid()) {
-				statmFile.close();
-			}
-			if (processStatFile != null && processStatFile.getFD().valid()) {
-				processStatFile.close();
-			}
-			this.stop();
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		this.stop();
 	}
 
 	private boolean collectStats(ProcessState state) {
@@ -161,168 +115,49 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 				|| process.getProcessState().equals(ProcessState.Running))
 			try {
 
-				// executes script
-				// DUCC_HOME/admin/ducc_get_process_swap_usage.sh which sums up
-				// swap used by
-				// a process
+				// All figures come from the agent's shared /proc scan; nothing
+				// is forked per process.
 				long totalSwapUsage = 0;
 				long totalFaults = 0;
 				long totalCpuUsage = 0;
 				long totalRss = 0;
 				int currentCpuUsage = 0;
-				Future<ProcessMemoryPageLoadUsage> processMajorFaultUsage = null;
-				Future<ProcessCpuUsage> processCpuUsage = null;
 				String[] cgroupPids = new String[0];
 				try {
-					String swapUsageScript = System
-							.getProperty("ducc.agent.swap.usage.script");
-
+					String[] pids;
 					if (agent.useCgroups) {
 						String containerId = agent.cgroupsManager
 								.getContainerId(managedProcess);
 						cgroupPids = agent.cgroupsManager
 								.getPidsInCgroup(containerId);
-						for (String pid : cgroupPids) {
-							// the swap usage script is defined in
-							// ducc.properties
-							if (swapUsageScript != null) {
-								DuccProcessSwapSpaceUsage processSwapSpaceUsage = new DuccProcessSwapSpaceUsage(
-										pid, managedProcess.getOwner(),
-										swapUsageScript, logger);
-								totalSwapUsage += processSwapSpaceUsage
-										.getSwapUsage();
-							}
-
-							ProcessMajorFaultCollector processMajorFaultUsageCollector = new ProcessMajorFaultCollector(
-									logger, pid);
-							// if process is stopping or already dead dont
-							// collect metrics. The Camel
-							// route has just been stopped.
-							if (!collectStats(process.getProcessState())) {
-								return;
-							}
-
-							processMajorFaultUsage = pool
-									.submit(processMajorFaultUsageCollector);
-							totalFaults += processMajorFaultUsage.get()
-									.getMajorFaults();
-							RandomAccessFile raf = null;
-							try {
-								raf = new RandomAccessFile("/proc/" + pid + "/stat", "r");
-								ProcessCpuUsageCollector processCpuUsageCollector = new ProcessCpuUsageCollector(
-										logger, pid, raf, 42, 0);
-
-								// if process is stopping or already dead dont
-								// collect metrics. The Camel
-								// route has just been stopped.
-								if (!collectStats(process.getProcessState())) {
-									return;
-								}
-
-								processCpuUsage = pool
-										.submit(processCpuUsageCollector);
-								totalCpuUsage += (processCpuUsage.get()
-										.getTotalJiffies() / agent.cpuClockRate);
-								
-							} catch( Exception ee) {
-								logger.warn(
-										"LinuxProcessMetricsProcessor.process",
-										null,ee);
-
-							} finally {
-								if ( raf != null ) {
-									raf.close();
-								}
-							}
-
-							currentCpuUsage += collectProcessCurrentCPU(pid);
-
-							RandomAccessFile rStatmFile = null;
-							try {
-								rStatmFile = new RandomAccessFile("/proc/"
-										+ pid + "/statm", "r");
-							} catch (FileNotFoundException fnfe) {
-								logger.info(
-										"LinuxProcessMetricsProcessor.process",
-										null,
-										"Statm File:"
-												+ "/proc/"
-												+ pid
-												+ "/statm *Not Found*. Process must have already exited");
-								return;
-							}
-							ProcessResidentMemoryCollector collector = new ProcessResidentMemoryCollector(
-									rStatmFile, 2, 0);
-							// if process is stopping or already dead dont
-							// collect metrics. The Camel
-							// route has just been stopped.
-							if (!collectStats(process.getProcessState())) {
-								return;
-							}
-
-							Future<ProcessResidentMemory> prm = pool
-									.submit(collector);
-
-							totalRss += prm.get().get();
-
-							rStatmFile.close();
-						}
+						pids = cgroupPids;
 					} else {
-						if (swapUsageScript != null) {
-							DuccProcessSwapSpaceUsage processSwapSpaceUsage = new DuccProcessSwapSpaceUsage(
-									process.getPID(),
-									managedProcess.getOwner(), swapUsageScript,
-									logger);
-							totalSwapUsage = processSwapSpaceUsage
-									.getSwapUsage();
-						}
-
-						ProcessMajorFaultCollector processMajorFaultUsageCollector = new ProcessMajorFaultCollector(
-								logger, process.getPID());
-
-						// if process is stopping or already dead dont collect
-						// metrics. The Camel
-						// route has just been stopped.
-						if (!collectStats(process.getProcessState())) {
-							return;
-						}
-						processMajorFaultUsage = pool
-								.submit(processMajorFaultUsageCollector);
-						totalFaults = processMajorFaultUsage.get()
-								.getMajorFaults();
-
-						ProcessCpuUsageCollector processCpuUsageCollector = new ProcessCpuUsageCollector(
-								logger, process.getPID(), processStatFile, 42,
-								0);
-
-						// if process is stopping or already dead dont collect
-						// metrics. The Camel
-						// route has just been stopped.
-						if (!collectStats(process.getProcessState())) {
-							return;
-						}
-						processCpuUsage = pool.submit(processCpuUsageCollector);
-						totalCpuUsage = processCpuUsage.get().getTotalJiffies()
-								/ agent.cpuClockRate;
-
-						currentCpuUsage = collectProcessCurrentCPU(process
-								.getPID());
-
-						ProcessResidentMemoryCollector collector = new ProcessResidentMemoryCollector(
-								statmFile, 2, 0);
-						// if process is stopping or already dead dont collect
-						// metrics. The Camel
-						// route has just been stopped.
-						if (!collectStats(process.getProcessState())) {
-							return;
+						pids = new String[] { process.getPID() };
+					}
+					ProcFsScanner scanner = ProcFsScanner.getInstance();
+					ProcFsScanner.Snapshot snapshot = scanner.getSnapshot();
+					long totalJiffies = 0;
+					for (String pid : pids) {
+						ProcFsScanner.ProcessEntry pe = snapshot.get(pid);
+						if (pe == null) {
+							// exited since the last scan
+							continue;
 						}
-
-						Future<ProcessResidentMemory> prm = pool
-								.submit(collector);
-
-						totalRss = prm.get().get();
+						totalSwapUsage += scanner.getSwapUsage(pe);
+						totalFaults += pe.getMajorFaults();
+						totalJiffies += pe.getCpuJiffies();
+						totalRss += pe.getRssKb();
+					}
+					// if process is stopping or already dead dont collect
+					// metrics. The Camel route has just been stopped.
+					if (!collectStats(process.getProcessState())) {
+						return;
+					}
+					if (agent.cpuClockRate > 0) {
+						totalCpuUsage = totalJiffies / agent.cpuClockRate;
+						currentCpuUsage = collectProcessCurrentCPU(totalJiffies,
+								snapshot.getTimestamp());
 					}
-
 				} catch (Exception exc) {
 					if (!collectStats(process.getProcessState())) {
 						return;
@@ -396,8 +231,8 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 				// Current Process Swap Usage in bytes
 				long st = System.currentTimeMillis();
 				long processSwapUsage = totalSwapUsage * 1024;
-				// collects swap usage from /proc/<PID>/smaps file via a script
-				// DUCC_HOME/admin/collect_process_swap_usage.sh
+				// swap usage from /proc/<PID>/smaps_rollup, or VmSwap if that
+				// is not readable
 				process.setSwapUsage(processSwapUsage);
 				logger.info(
 						"process",
@@ -447,12 +282,7 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 							&& fudgeFactor > -1
 							&& managedProcess.getProcessMemoryAssignment()
 									.getMaxMemoryWithFudge() > 0) {
-						// RSS is in terms of pages(blocks) which size is system
-						// dependent. Default 4096 bytes
-						long rss = (totalRss * (blockSize / 1024)) / 1024; // normalize
-																			// RSS
-																			// into
-																			// MB
+						long rss = totalRss / 1024; // normalize RSS into MB
 						logger.trace(
 								"process",
 								null,
@@ -508,7 +338,7 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 
 				}
 				// Publish resident memory
-				process.setResidentMemory((totalRss * blockSize));
+				process.setResidentMemory((totalRss * 1024));
 				// dont collect GC metrics for POPs. May not be java or may not
 				// be a jmx enabled java process
 				if (!process.getProcessType().equals(ProcessType.Pop)) {
@@ -530,55 +360,27 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 				if (!collectStats(process.getProcessState())) {
 					return;
 				}
-				logger.error("process", null, e);
-				ex.printStackTrace();
+				logger.error("process", null, ex);
 			}
 
 	}
 
-	private int collectProcessCurrentCPU(String pid) throws Exception {
-		InputStream stream = null;
-		BufferedReader reader = null;
-		String cpuTime = "0";
-		ProcessBuilder pb;
-		int cpuint = 0;
-
-		if (process != null
-				&& (process.getProcessState().equals(ProcessState.Running) || (process
-						.getProcessState().equals(ProcessState.Initializing)))) {
-			// run top in batch mode and filter just the CPU
-			pb = new ProcessBuilder("/bin/sh", "-c", "top -b -n 1 -p " + pid
-					+ " | tail -n 2 | head -n 1 | awk '{print $9}'");
-
-			pb.redirectErrorStream(true);
-			Process proc = pb.start();
-			// spawn ps command and scrape the output
-			stream = proc.getInputStream();
-			reader = new BufferedReader(new InputStreamReader(stream));
-			String line;
-			String regex = "\\s+";
-			// read the next line from ps output
-			while ((line = reader.readLine()) != null) {
-				String tokens[] = line.split(regex);
-				if (tokens.length > 0) {
-					logger.info("collectProcessCurrentCPU", null, " PID:"+pid+" " +line
-							+ " == CPUTIME:" + tokens[0]);
-					cpuTime = tokens[0];
-				}
-			}
-			if (cpuTime.indexOf(".") > -1) {
-				cpuTime = cpuTime.substring(0, cpuTime.indexOf("."));
-			}
-			stream.close();
-			proc.waitFor();
-			try {
-				cpuint = Integer.valueOf(cpuTime);
-			} catch (NumberFormatException e) {
-				// ignore, return 0
-			}
-
+	/**
+	 * Current CPU is the share of one processor used since the previous
+	 * sample, summed over the process and its children.
+	 */
+	private int collectProcessCurrentCPU(long totalJiffies, long sampleTime) {
+		int cpu = 0;
+		if (lastSampleTime > 0 && sampleTime > lastSampleTime
+				&& totalJiffies >= lastJiffies) {
+			cpu = (int) ((100 * 1000 * (totalJiffies - lastJiffies))
+					/ agent.cpuClockRate / (sampleTime - lastSampleTime));
+		}
+		if (sampleTime != lastSampleTime) {
+			lastJiffies = totalJiffies;
+			lastSampleTime = sampleTime;
 		}
-		return cpuint;
+		return cpu;
 	}
 
 	private void killChildProcess(final String pid, final String signal) {
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.Exchange;
+import org.apache.uima.ducc.agent.processors.ProcessMetricsProcessor;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.junit.Test;
+
+public class ProcessMetricsSamplerTest {
+	
+	private DuccLogger logger = DuccLogger.getLogger(ProcessMetricsSamplerTest.class, "TEST");
+	
+	// counts its samples; blocks in each sample until released when a gate is given
+	private static class Processor implements ProcessMetricsProcessor {
+		
+		private AtomicInteger processed = new AtomicInteger(0);
+		private Semaphore done = new Semaphore(0);
+		private CountDownLatch gate;
+		private volatile boolean stopped = false;
+		
+		Processor(CountDownLatch gate) {
+			this.gate = gate;
+		}
+		
+		public void process(Exchange exchange) throws Exception {
+			processed.incrementAndGet();
+			if(gate != null) {
+				gate.await();
+			}
+			done.release();
+		}
+		
+		public void stop() {
+			stopped = true;
+		}
+	}
+	
+	@Test
+	public void test_01() {
+		// register and unregister
+		ProcessMetricsSampler sampler = new ProcessMetricsSampler(logger, 60000);
+		Processor p1 = new Processor(null);
+		Processor p2 = new Processor(null);
+		assertTrue(sampler.register("1", p1));
+		assertFalse(sampler.register("1", p2));
+		assertFalse(sampler.register(null, p2));
+		assertTrue(sampler.register("2", p2));
+		assertEquals(2, sampler.size());
+		assertTrue(sampler.isRegistered("1"));
+		assertTrue(sampler.unregister("1"));
+		assertTrue(p1.stopped);
+		assertFalse(sampler.isRegistered("1"));
+		assertFalse(sampler.unregister("1"));
+		assertEquals(1, sampler.size());
+		sampler.stop();
+		assertTrue(p2.stopped);
+		assertEquals(0, sampler.size());
+	}
+	
+	@Test
+	public void test_02() throws Exception {
+		// a stuck process delays neither the sweep nor the others, and is skipped until it returns
+		ProcessMetricsSampler sampler = new ProcessMetricsSampler(logger, 60000);
+		CountDownLatch gate = new CountDownLatch(1);
+		Processor slow = new Processor(gate);
+		Processor fast = new Processor(null);
+		sampler.register("1", slow);
+		sampler.register("2", fast);
+		try {
+			for(int i=1; i<=3; i++) {
+				sampler.sweep();
+				assertTrue(fast.done.tryAcquire(10, TimeUnit.SECONDS));
+				assertEquals(i, fast.processed.get());
+			}
+			assertEquals(1, slow.processed.get());
+			gate.countDown();
+			assertTrue(slow.done.tryAcquire(10, TimeUnit.SECONDS));
+			// no longer busy, so sampled again
+			long limit = System.currentTimeMillis()+10000;
+			while(slow.processed.get() < 2 && System.currentTimeMillis() < limit) {
+				sampler.sweep();
+				Thread.sleep(10);
+			}
+			assertEquals(2, slow.processed.get());
+		}
+		finally {
+			gate.countDown();
+			sampler.stop();
+		}
+	}
+	
+	@Test
+	public void test_03() throws Exception {
+		// many stuck processes hold no more than the fixed pool, and none is queued twice
+		int threads = 3;
+		int count = 50;
+		ProcessMetricsSampler sampler = new ProcessMetricsSampler(logger, 60000, threads);
+		CountDownLatch gate = new CountDownLatch(1);
+		Processor[] processors = new Processor[count];
+		for(int i=0; i<count; i++) {
+			processors[i] = new Processor(gate);
+			sampler.register(""+i, processors[i]);
+		}
+		try {
+			for(int i=0; i<5; i++) {
+				sampler.sweep();
+			}
+			long limit = System.currentTimeMillis()+10000;
+			while(started(processors) < threads && System.currentTimeMillis() < limit) {
+				Thread.sleep(10);
+			}
+			assertEquals(threads, started(processors));
+			assertTrue(sampler.getLargestPoolSize() <= threads);
+			gate.countDown();
+			for(Processor p : processors) {
+				assertTrue(p.done.tryAcquire(10, TimeUnit.SECONDS));
+			}
+			for(Processor p : processors) {
+				assertEquals(1, p.processed.get());
+			}
+			assertTrue(sampler.getLargestPoolSize() <= threads);
+		}
+		finally {
+			gate.countDown();
+			sampler.stop();
+		}
+	}
+	
+	private int started(Processor[] processors) {
+		int count = 0;
+		for(Processor p : processors) {
+			count += p.processed.get();
+		}
+		return count;
+	}
+}
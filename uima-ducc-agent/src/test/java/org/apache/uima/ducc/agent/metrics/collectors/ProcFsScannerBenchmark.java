@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent.metrics.collectors;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+/**
+ * Compares the cost of one ProcFsScanner sweep of /proc with one fork of ps
+ * listing the same processes.
+ *
+ * Usage: ProcFsScannerBenchmark [iterations]
+ */
+public class ProcFsScannerBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 20;
+    ProcFsScanner scanner = new ProcFsScanner("/proc", 0);
+    scanner.scan();            // warm up
+    forkPs();
+
+    int processes = 0;
+    long start = System.nanoTime();
+    for ( int i = 0; i < iterations; i++ ) {
+      processes = scanner.scan().size();
+    }
+    long scanTime = System.nanoTime() - start;
+
+    int lines = 0;
+    start = System.nanoTime();
+    for ( int i = 0; i < iterations; i++ ) {
+      lines = forkPs();
+    }
+    long psTime = System.nanoTime() - start;
+
+    System.out.println("Processes: /proc " + processes + " ps " + lines);
+    System.out.println("/proc scan: " + (scanTime / iterations / 1000) + " usec per sweep");
+    System.out.println("ps fork:    " + (psTime / iterations / 1000) + " usec per sweep");
+  }
+
+  private static int forkPs() throws Exception {
+    ProcessBuilder pb = new ProcessBuilder("ps","-Ao","user:12,pid,ppid,uid,args", "--no-heading");
+    pb.redirectErrorStream(true);
+    Process proc = pb.start();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(proc.getInputStream()));
+    int count = 0;
+    try {
+      while ( reader.readLine() != null ) {
+        count++;
+      }
+    } finally {
+      reader.close();
+    }
+    proc.waitFor();
+    return count;
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent.metrics.collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.uima.ducc.agent.metrics.collectors.ProcFsScanner.ProcessEntry;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcFsScanner.Snapshot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcFsScannerTest {
+	
+	// a uid with no passwd entry, so the user name is the uid itself
+	private static final String uid = "4242421";
+	
+	private File proc;
+	
+	@Before
+	public void setUp() throws IOException {
+		proc = File.createTempFile("proc", "");
+		proc.delete();
+		proc.mkdirs();
+	}
+	
+	@After
+	public void tearDown() {
+		delete(proc);
+	}
+	
+	private void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+	
+	private void write(String pid, String name, String text) throws IOException {
+		File dir = new File(proc, pid);
+		dir.mkdirs();
+		FileOutputStream out = new FileOutputStream(new File(dir, name));
+		try {
+			out.write(text.getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	// stat: pid (comm) state ppid pgrp session tty tpgid flags minflt cminflt majflt cmajflt utime stime ...
+	private String stat(String pid, String comm, String state, String ppid, long majflt, long utime, long stime) {
+		return pid+" ("+comm+") "+state+" "+ppid+" "+pid+" "+pid+" 0 -1 4194560 1520 0 "+majflt+" 0 "+utime+" "+stime+" 0 0 20 0 1 0 8417 12345678 2514 18446744073709551615\n";
+	}
+	
+	private String status(String pid, long rss, long swap) {
+		return "Name:\tjava\n"
+			+ "State:\tS (sleeping)\n"
+			+ "Pid:\t"+pid+"\n"
+			+ "Uid:\t1000\t"+uid+"\t"+uid+"\t"+uid+"\n"
+			+ "Gid:\t100\t100\t100\t100\n"
+			+ "VmPeak:\t 2097152 kB\n"
+			+ "VmRSS:\t   "+rss+" kB\n"
+			+ "RssAnon:\t   "+(rss/2)+" kB\n"
+			+ "VmSwap:\t     "+swap+" kB\n"
+			+ "Threads:\t42\n";
+	}
+	
+	private void process(String pid, String comm, String ppid, String cmdline) throws IOException {
+		write(pid, "stat", stat(pid, comm, "S", ppid, 7, 100, 23));
+		write(pid, "status", status(pid, 524288, 1024));
+		write(pid, "cmdline", cmdline);
+	}
+	
+	// stat, status and cmdline fields, including a command name with blanks and parens
+	@Test
+	public void test_01() throws IOException {
+		write("100", "stat", stat("100", "my (odd) proc", "R", "1", 17, 1500, 250));
+		write("100", "status", status("100", 786432, 2048));
+		write("100", "cmdline", "java\0-Xmx1g\0-cp\0a.jar\0Main\0");
+		ProcFsScanner scanner = new ProcFsScanner(proc.getAbsolutePath(), 0);
+		Snapshot snapshot = scanner.scan();
+		assertEquals(1, snapshot.size());
+		ProcessEntry pe = snapshot.get("100");
+		assertNotNull(pe);
+		assertEquals("100", pe.getPid());
+		assertEquals("1", pe.getPpid());
+		assertEquals('R', pe.getState());
+		assertEquals(17, pe.getMajorFaults());
+		assertEquals(1750, pe.getCpuJiffies());
+		assertEquals(Integer.parseInt(uid), pe.getUid());
+		assertEquals(uid, pe.getUser());
+		assertEquals(786432, pe.getRssKb());
+		assertEquals(2048, pe.getSwapKb());
+		assertEquals("java -Xmx1g -cp a.jar Main", pe.getArgs());
+	}
+	
+	// processes are linked into a tree; non-pid entries and processes without stat are skipped
+	@Test
+	public void test_02() throws IOException {
+		process("10", "bash", "1", "bash\0");
+		process("11", "java", "10", "java\0Main\0");
+		process("12", "java", "10", "java\0Other\0");
+		process("13", "sleep", "11", "sleep\0" + "60\0");
+		new File(proc, "self").mkdirs();
+		new File(proc, "14").mkdirs();
+		write("meminfo", "x", "MemTotal: 1 kB\n");
+		ProcFsScanner scanner = new ProcFsScanner(proc.getAbsolutePath(), 0);
+		Snapshot snapshot = scanner.scan();
+		assertEquals(4, snapshot.size());
+		assertNull(snapshot.get("14"));
+		assertEquals(2, snapshot.get("10").getChildren().size());
+		assertEquals(1, snapshot.get("11").getChildren().size());
+		assertEquals("13", snapshot.get("11").getChildren().get(0).getPid());
+		assertTrue(snapshot.get("13").getChildren().isEmpty());
+	}
+	
+	// swap comes from smaps_rollup when readable, otherwise from VmSwap in status
+	@Test
+	public void test_03() throws IOException {
+		process("20", "java", "1", "java\0");
+		process("21", "java", "1", "java\0");
+		write("20", "smaps_rollup", "00400000-7fffd000 ---p 00000000 00:00 0                          [rollup]\n"
+			+ "Rss:              524288 kB\n"
+			+ "Pss:              500000 kB\n"
+			+ "SwapPss:            4000 kB\n"
+			+ "Swap:               4096 kB\n"
+			+ "Locked:                0 kB\n");
+		ProcFsScanner scanner = new ProcFsScanner(proc.getAbsolutePath(), 0);
+		Snapshot snapshot = scanner.scan();
+		assertEquals(4096, scanner.getSwapUsage(snapshot.get("20")));
+		assertEquals(1024, scanner.getSwapUsage(snapshot.get("21")));
+	}
+	
+	// a snapshot younger than the maximum age is shared, an older one is rescanned
+	@Test
+	public void test_04() throws IOException {
+		process("30", "java", "1", "java\0");
+		ProcFsScanner cached = new ProcFsScanner(proc.getAbsolutePath(), 60000);
+		Snapshot snapshot = cached.getSnapshot();
+		process("31", "java", "1", "java\0");
+		assertSame(snapshot, cached.getSnapshot());
+		assertEquals(1, cached.getSnapshot().size());
+		assertEquals(2, cached.scan().size());
+	}
+}
@@ -63,6 +63,7 @@ public class DuccJobSubmit
         UiOption.DriverDescriptorCROverrides,
         UiOption.DriverExceptionHandler,
         UiOption.DriverExceptionHandlerArguments,
+        UiOption.CasSerialization,
 
         UiOption.ProcessJvmArgs,
         UiOption.ProcessMemorySize,
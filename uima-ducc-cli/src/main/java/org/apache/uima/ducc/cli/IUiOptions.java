@@ -96,6 +96,13 @@ public interface IUiOptions
             public String description() { return "Cancel on interrupt (Ctrl-C). Implies "+WaitForCompletion.pname(); }
         },       
         
+        CasSerialization { 
+            public String pname()       { return JobSpecificationProperties.key_cas_serialization; }
+            public String argname()     { return "xmi|binary"; }
+            public String description() { return "Serialization used to send each CAS from the job driver to the job processes. binary requires the collection reader and the job process pipeline to share the same type system."; }
+            public String deflt()       { return "xmi"; }
+        },
+
         Classpath { 
             public String pname()       { return JobSpecificationProperties.key_classpath; }
             public String description() { return "Classpath for the Job. Default is current classpath."; }
@@ -33,6 +33,19 @@ public class RmAdminQLoadReply
     private long shareQuantum;
     private List<RmQueriedNodepool> nodepools = new ArrayList<RmQueriedNodepool>();
     private List<RmQueriedClass>    classes   = new ArrayList<RmQueriedClass>();
+    private long epochCount;          // scheduling epoch timer, in ms
+    private long epochLast;
+    private long epochMax;
+    private long epochAverage;
+    private int  schedulerThreads;
+    private boolean writeBehind = false;   // RM persistence write-behind queue, latency in ms
+    private long persistenceQueue;
+    private long persistenceWrites;
+    private long persistenceCoalesced;
+    private long persistenceFailures;
+    private long persistenceLatencyLast;
+    private long persistenceLatencyMax;
+    private long persistenceLatencyAverage;
 
     public RmAdminQLoadReply()
     {
@@ -46,6 +59,28 @@ public class RmAdminQLoadReply
     public void addNodepool    (RmQueriedNodepool np) { nodepools.add(np); }
     /** RM only, other use produces incorrect results. */
     public void addClass       (RmQueriedClass    cl) { classes.add(cl); }
+    /** RM only, other use produces incorrect results. */
+    public void setSchedulingEpoch(long count, long last, long max, long average, int threads)
+    {
+        this.epochCount = count;
+        this.epochLast = last;
+        this.epochMax = max;
+        this.epochAverage = average;
+        this.schedulerThreads = threads;
+    }
+
+    /** RM only, other use produces incorrect results. */
+    public void setPersistence(long queue, long writes, long coalesced, long failures, long last, long max, long average)
+    {
+        this.writeBehind = true;
+        this.persistenceQueue = queue;
+        this.persistenceWrites = writes;
+        this.persistenceCoalesced = coalesced;
+        this.persistenceFailures = failures;
+        this.persistenceLatencyLast = last;
+        this.persistenceLatencyMax = max;
+        this.persistenceLatencyAverage = average;
+    }
 
     /**
      * Return the share quantum currently being used by RM.
@@ -62,6 +97,72 @@ public class RmAdminQLoadReply
      */
     public List<RmQueriedClass>    getClasses()   { return classes; }
 
+    /**
+     * @return The number of scheduling epochs run since RM boot.
+     */
+    public long getEpochCount()                   { return epochCount; }
+
+    /**
+     * @return The duration of the most recent scheduling epoch, in milliseconds.
+     */
+    public long getEpochLast()                    { return epochLast; }
+
+    /**
+     * @return The longest scheduling epoch since RM boot, in milliseconds.
+     */
+    public long getEpochMax()                     { return epochMax; }
+
+    /**
+     * @return The average scheduling epoch since RM boot, in milliseconds.
+     */
+    public long getEpochAverage()                 { return epochAverage; }
+
+    /**
+     * @return The number of threads used to schedule the top-level nodepools.
+     */
+    public int getSchedulerThreads()              { return schedulerThreads; }
+
+    /**
+     * @return True if RM writes its database updates behind, in which case the persistence
+     * statistics are valid.
+     */
+    public boolean isWriteBehind()                { return writeBehind; }
+
+    /**
+     * @return The number of database updates waiting to be written.
+     */
+    public long getPersistenceQueue()             { return persistenceQueue; }
+
+    /**
+     * @return The number of database updates written since RM boot.
+     */
+    public long getPersistenceWrites()            { return persistenceWrites; }
+
+    /**
+     * @return The number of database updates replaced by later updates of the same row before being written.
+     */
+    public long getPersistenceCoalesced()         { return persistenceCoalesced; }
+
+    /**
+     * @return The number of database updates that could not be written.
+     */
+    public long getPersistenceFailures()          { return persistenceFailures; }
+
+    /**
+     * @return The time taken to write the most recent set of updates, in milliseconds.
+     */
+    public long getPersistenceLatencyLast()       { return persistenceLatencyLast; }
+
+    /**
+     * @return The longest time taken to write a set of updates, in milliseconds.
+     */
+    public long getPersistenceLatencyMax()        { return persistenceLatencyMax; }
+
+    /**
+     * @return The average time taken to write a set of updates, in milliseconds.
+     */
+    public long getPersistenceLatencyAverage()    { return persistenceLatencyAverage; }
+
     /** RM only, other use produces incorrect results. */
     public void    notReady()                     { this.ready = false; }
 
@@ -76,6 +177,31 @@ public class RmAdminQLoadReply
         A dictionary with these keys:
             quantum
                value is a single integer
+            epoch
+               value is a dictionary with these keys
+                   count
+                      value is the number of scheduling epochs run
+                   last
+                      value is the duration of the last epoch in ms
+                   max
+                      value is the longest epoch in ms
+                   average
+                      value is the average epoch in ms
+                   threads
+                      value is the number of nodepool scheduling threads
+            persistence
+               present only if database updates are written behind; value is a
+               dictionary with these keys
+                   queue
+                      value is the number of updates waiting to be written
+                   writes
+                      value is the number of updates written
+                   coalesced
+                      value is the number of updates replaced before being written
+                   failures
+                      value is the number of updates that could not be written
+                   last, max, average
+                      value is the time to write a set of updates in ms
             classes
                value is a list of dictionaries describing demand
                        with these keys
@@ -121,6 +247,34 @@ public class RmAdminQLoadReply
         StringBuffer sb = new StringBuffer();
         sb.append("{\n'quantum':");
         sb.append(Long.toString(shareQuantum));
+        sb.append(",\n'epoch': {'count':");
+        sb.append(Long.toString(epochCount));
+        sb.append(", 'last':");
+        sb.append(Long.toString(epochLast));
+        sb.append(", 'max':");
+        sb.append(Long.toString(epochMax));
+        sb.append(", 'average':");
+        sb.append(Long.toString(epochAverage));
+        sb.append(", 'threads':");
+        sb.append(Integer.toString(schedulerThreads));
+        sb.append("}");
+        if ( writeBehind ) {
+            sb.append(",\n'persistence': {'queue':");
+            sb.append(Long.toString(persistenceQueue));
+            sb.append(", 'writes':");
+            sb.append(Long.toString(persistenceWrites));
+            sb.append(", 'coalesced':");
+            sb.append(Long.toString(persistenceCoalesced));
+            sb.append(", 'failures':");
+            sb.append(Long.toString(persistenceFailures));
+            sb.append(", 'last':");
+            sb.append(Long.toString(persistenceLatencyLast));
+            sb.append(", 'max':");
+            sb.append(Long.toString(persistenceLatencyMax));
+            sb.append(", 'average':");
+            sb.append(Long.toString(persistenceLatencyAverage));
+            sb.append("}");
+        }
         sb.append(",\n'classes': [\n");
         for ( RmQueriedClass cl : classes ) {
             sb.append(cl.toString());
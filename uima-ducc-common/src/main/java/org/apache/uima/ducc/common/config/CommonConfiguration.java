@@ -204,6 +204,14 @@ public class CommonConfiguration {
 	@Value("#{ systemProperties['ducc.process.thread.sleep.time'] }")
 	public String processThreadSleepTime;
 	
+	// Fetch the number of work items each JP thread prefetches
+	@Value("#{ systemProperties['ducc.process.prefetch.depth'] }")
+	public String processPrefetchDepth;
+	
+	// Fetch whether JP threads initialize their analytics concurrently
+	@Value("#{ systemProperties['ducc.process.parallel.init'] }")
+	public String processParallelInit;
+	
 	
 	@Value("#{ systemProperties['ducc.orchestrator.http.port'] }")
     public String duccORHttpPort; 
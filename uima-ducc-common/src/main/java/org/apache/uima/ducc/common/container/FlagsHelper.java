@@ -33,7 +33,9 @@ public class FlagsHelper {
 	
 	public enum Name {
 		
+		CasSerialization,			// { xmi, binary }
 		CollectionReaderCfg,
+		CollectionReaderReadAhead,	// number of work items the JD reads from the CR ahead of demand
 		CollectionReaderXml,
 		DuccClasspath,
 		JdURL,						// http://<node>:<port>/jdApp
@@ -54,6 +56,8 @@ public class FlagsHelper {
 		JpThreadCount,
 		JpType,						// { uima, uima-as }
 		JpProcessorClass("processor.class"),
+		PrefetchDepth,				// number of work items each JP thread prefetches
+		TimeoutManager,				// { executor, wheel }
 		UserClasspath,				// path1.class:path2.jar:path3/*:...
 		UserErrorHandlerClassname,
 		UserErrorHandlerCfg,
@@ -112,6 +116,15 @@ public class FlagsHelper {
 		}
 	}
 	
+	public String getCasSerialization() {
+		Properties properties = System.getProperties();
+		return properties.getProperty(Name.CasSerialization.pname());
+	}
+	
+	public String getCasSerializationDashD(String value) {
+		return Name.CasSerialization.arg(value);
+	}
+	
 	public String getCollectionReaderCfg() {
 		Properties properties = System.getProperties();
 		return properties.getProperty(Name.CollectionReaderCfg.pname());
@@ -121,6 +134,15 @@ public class FlagsHelper {
 		return Name.CollectionReaderCfg.arg(value);
 	}
 	
+	public String getCollectionReaderReadAhead() {
+		Properties properties = System.getProperties();
+		return properties.getProperty(Name.CollectionReaderReadAhead.pname());
+	}
+	
+	public String getCollectionReaderReadAheadDashD(String value) {
+		return Name.CollectionReaderReadAhead.arg(value);
+	}
+	
 	public String getDuccClasspath() {
 		Properties properties = System.getProperties();
 		return properties.getProperty(Name.DuccClasspath.pname());
@@ -293,6 +315,24 @@ public class FlagsHelper {
 		return Name.JpType.arg(value);
 	}
 	
+	public String getPrefetchDepth() {
+		Properties properties = System.getProperties();
+		return properties.getProperty(Name.PrefetchDepth.pname());
+	}
+	
+	public String getPrefetchDepthDashD(String value) {
+		return Name.PrefetchDepth.arg(value);
+	}
+	
+	public String getTimeoutManager() {
+		Properties properties = System.getProperties();
+		return properties.getProperty(Name.TimeoutManager.pname());
+	}
+	
+	public String getTimeoutManagerDashD(String value) {
+		return Name.TimeoutManager.arg(value);
+	}
+	
 	public String getUserClasspath() {
 		Properties properties = System.getProperties();
 		return properties.getProperty(Name.UserClasspath.pname());
@@ -30,6 +30,7 @@ public abstract class WorkItemStateAbstract {
 	
 	public static String typeJson = ".json";
 	public static String typeJsonGz = ".json.gz";
+	public static String typeJournal = ".journal";
 
 	public final String encoding = "UTF-8";
 	
@@ -43,6 +44,7 @@ public abstract class WorkItemStateAbstract {
 	protected String fnJson = null;
 	protected String fnJsonGz = null;
 	protected String fnActiveJson = null;
+	protected String fnJournal = null;
 
 	protected ActiveMap activeMap = null;
 	
@@ -52,6 +54,7 @@ public abstract class WorkItemStateAbstract {
 		fnJson = IOHelper.marryDir2File(directory,work_item_state+typeJson);
 		fnJsonGz = IOHelper.marryDir2File(directory,work_item_state+typeJsonGz);
 		fnActiveJson = IOHelper.marryDir2File(directory,work_item_state+infoActive+typeJson);
+		fnJournal = IOHelper.marryDir2File(directory,work_item_state+typeJournal);
 	}
 	
 }
@@ -19,10 +19,10 @@
 package org.apache.uima.ducc.common.jd.files.workitem;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -49,6 +49,12 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 	
 	private enum RecordingType { Memory, Disk };
 	
+	// append-only journal of work item state changes, one json record per line
+	private FileOutputStream journalStream = null;
+	private BufferedWriter journalWriter = null;
+	private long journalSyncMillis = 0;
+	private long journalSyncIntervalMillis = 10*1000;
+	
 	public WorkItemStateKeeper(String component, String directory) {
 		logger = DuccLogger.getLogger(WorkItemStateKeeper.class, component);
 		activeMap = new ActiveMap(component);
@@ -105,15 +111,17 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 	public synchronized void zip() {
 		String location = "zip";
 		try {
+			persist();
+			closeJournal();
+			deleteZip();
+			transform();
 			for(Entry<Long, IWorkItemState> entry : activeMap.entrySet()) {
 				IWorkItemState wis = entry.getValue();
-				recordFinal(wis);
 				updateStatistics(wis);
 			}
 			deleteActive();
-			deleteZip();
-			transform();
 			deleteJson();
+			deleteJournal();
 		}
 		catch(Exception e) {
 			logger.error(location, jobid, e);
@@ -253,7 +261,7 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 					updateStatistics(wis);
 					break;
 				case Disk:
-					recordFinal(wis);
+					// journaled below
 					break;
 				}
 				break;
@@ -266,7 +274,7 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 				persist_map.put(key, wis);
 				break;
 			case Disk:
-				recordActive();
+				recordJournal(wis);
 				break;
 			}
 		}
@@ -275,6 +283,10 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 		}
 	}
 	
+	/*
+	 * The .gz comprises the final record of each completed work item,
+	 * in completion order, followed by those still active.
+	 */
 	private void transform() throws IOException {
 		String location = "transform";
 		InputStream fis = null;
@@ -287,11 +299,7 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 		OutputStreamWriter osw = null;
 		JsonWriter jw = null;
 		try {
-			String targetFileIn = fnJson;
 			String targetFileOut = fnJsonGz;
-			fis = new FileInputStream(targetFileIn);
-			isr = new InputStreamReader(fis);
-			br = new BufferedReader(isr);
 			fileOut = new File(targetFileOut);
 			fos = new FileOutputStream(fileOut);
 			gos = new GZIPOutputStream(fos);
@@ -299,14 +307,33 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 			jw = new JsonWriter(osw);
 			jw.setIndent("  ");
 	        jw.beginArray();
-	        Type type = new TypeToken<WorkItemState>() { }.getType();
-	        line = br.readLine();
-			while(line != null) {
-				logger.trace(location, jobid, line);
-				StringReader sr = new StringReader(line.trim());
-				WorkItemState wis = gson.fromJson(sr, type);
+	        File fileIn = new File(fnJournal);
+	        if(fileIn.exists()) {
+	        	fis = new FileInputStream(fileIn);
+				isr = new InputStreamReader(fis, encoding);
+				br = new BufferedReader(isr);
+		        Type type = new TypeToken<WorkItemState>() { }.getType();
+		        line = br.readLine();
+				while(line != null) {
+					logger.trace(location, jobid, line);
+					StringReader sr = new StringReader(line.trim());
+					WorkItemState wis = gson.fromJson(sr, type);
+					if(wis != null) {
+						switch(wis.getState()) {
+						case ended:
+						case error:
+							gson.toJson(wis, WorkItemState.class, jw);
+							break;
+						default:
+							break;
+						}
+					}
+					line = br.readLine();
+				}
+	        }
+	        for(Entry<Long, IWorkItemState> entry : activeMap.entrySet()) {
+				IWorkItemState wis = entry.getValue();
 				gson.toJson(wis, WorkItemState.class, jw);
-				line = br.readLine();
 			}
 	        jw.endArray();
 		}
@@ -341,37 +368,54 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 		file.delete();
 	}
 	
-	private void recordActive() throws IOException {
-		FileWriter fw = null;
-		String targetFile = fnActiveJson;
+	private void deleteJournal() {
+		String targetFile = fnJournal;
+		File file = new File(targetFile);
+		file.delete();
+	}
+	
+	private void recordJournal(IWorkItemState wis) throws IOException {
+		if(journalWriter == null) {
+			journalStream = new FileOutputStream(fnJournal, append);
+			journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, encoding));
+		}
+		String json = gson.toJson(wis)+linend;
+		journalWriter.write(json);
+	}
+	
+	// flush for readers; sync to disk at most once per interval
+	private synchronized void syncJournal() {
+		String location = "syncJournal";
 		try {
-			deleteActive();
-			fw = new FileWriter(targetFile, !append);
-			for(Entry<Long, IWorkItemState> entry : activeMap.entrySet()) {
-				IWorkItemState wis = entry.getValue();
-				String json = gson.toJson(wis)+linend;
-				fw.write(json);
+			if(journalWriter != null) {
+				journalWriter.flush();
+				long now = System.currentTimeMillis();
+				if(now - journalSyncMillis >= journalSyncIntervalMillis) {
+					journalStream.getFD().sync();
+					journalSyncMillis = now;
+				}
 			}
 		}
-		finally {
-			if(fw != null) {
-				fw.close();
-			}
+		catch(Exception e) {
+			logger.error(location, jobid, e);
 		}
 	}
 	
-	private void recordFinal(IWorkItemState wis) throws IOException {
-		FileWriter fw = null;
-		String targetFile = fnJson;
+	private synchronized void closeJournal() {
+		String location = "closeJournal";
 		try {
-			fw = new FileWriter(targetFile, append);
-			String json = gson.toJson(wis)+linend;
-			fw.write(json);
+			if(journalWriter != null) {
+				journalWriter.flush();
+				journalStream.getFD().sync();
+				journalWriter.close();
+			}
+		}
+		catch(Exception e) {
+			logger.error(location, jobid, e);
 		}
 		finally {
-			if(fw != null) {
-				fw.close();
-			}
+			journalWriter = null;
+			journalStream = null;
 		}
 	}
 	
@@ -434,6 +478,7 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 			IWorkItemState wis = entry.getValue();
 			record(wis, RecordingType.Disk);
 		}
+		syncJournal();
 	}
 
 }
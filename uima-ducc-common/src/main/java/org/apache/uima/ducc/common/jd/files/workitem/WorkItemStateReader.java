@@ -105,6 +105,14 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 			map = new ConcurrentSkipListMap<Long,IWorkItemState>();
 			try {
 				fetchZipped(map, lastRecordNo, maxRecords);
+				if(map.isEmpty()) {
+					try {
+						fetchJournal(map, lastRecordNo, maxRecords);
+					}
+					catch(Exception e) {
+						logger.debug(location, jobid, e);
+					}
+				}
 				if(map.isEmpty()) {
 					try {
 						fetchActive(map);
@@ -127,6 +135,43 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 		return map;
 	}
 	
+	// replay: the last record for each work item is its current state
+	private void fetchJournal(ConcurrentSkipListMap<Long,IWorkItemState> map, long lastRecordNo, long maxRecords) throws IOException {
+		String location = "fetchJournal";
+		InputStream fis = null;
+		InputStreamReader isr = null;
+		BufferedReader br = null;
+		String line = null;
+		try {
+			String targetFile = fnJournal;
+			fis = new FileInputStream(targetFile);
+			isr = new InputStreamReader(fis, encoding);
+			br = new BufferedReader(isr);
+	        Type type = new TypeToken<WorkItemState>() { }.getType();
+	        line = br.readLine();
+			while(line != null) {
+				logger.trace(location, jobid, line);
+				try {
+					StringReader sr = new StringReader(line.trim());
+					WorkItemState wis = gson.fromJson(sr, type);
+					if(wis != null) {
+						tryToAdd(wis, map, lastRecordNo, maxRecords);
+					}
+				}
+				catch(Exception e) {
+					// partially written last record
+					logger.debug(location, jobid, e);
+				}
+				line = br.readLine();
+			}
+		}
+		finally {
+			if(br != null) {
+				br.close();
+			}
+		}
+	}
+	
 	private void fetchActive(ConcurrentSkipListMap<Long,IWorkItemState> map) throws IOException {
 		String location = "fetchActive";
 		InputStream fis = null;
@@ -217,6 +217,23 @@ public interface IRmPersistence
      */
     public void updateDemand(IDbJob j) throws Exception;
 
+    /**
+     * Mark the end of a scheduling epoch.  A write-behind implementation writes everything
+     * queued so far as a unit and returns once it is written; direct implementations do nothing.
+     */
+    public void flush();
+
+    /**
+     * Collect subsequent updates into a single unlogged batch instead of executing them, if
+     * the implementation supports it.  Used by the write-behind writer only.
+     */
+    public void beginBatch();
+
+    /**
+     * Execute the batch started by {@link #beginBatch()}.
+     */
+    public void endBatch() throws Exception;
+
     /**
      * Shutdown the connection to the DB;
      * 
@@ -39,6 +39,9 @@ public class NullRmStatePersistence implements IRmPersistence
     public void init(DuccLogger logger) throws Exception { }
     public void clear() {}
     public void close() {}
+    public void flush() {}
+    public void beginBatch() {}
+    public void endBatch() {}
     public void setNodeProperty(String id, RmNodes key, Object value) { }
     public void setNodeProperties(String id, Object... props) {}
     public void createMachine(String id, Map<RmNodes, Object> props) { }
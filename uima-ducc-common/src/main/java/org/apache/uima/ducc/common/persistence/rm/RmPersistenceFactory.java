@@ -20,6 +20,7 @@ package org.apache.uima.ducc.common.persistence.rm;
 
 import org.apache.uima.ducc.common.main.DuccService;
 import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.SystemPropertyResolver;
 
 
 
@@ -63,6 +64,10 @@ public class RmPersistenceFactory
 				Class<IRmPersistence> iss = (Class<IRmPersistence>) Class.forName(clname);
             ret = (IRmPersistence) iss.newInstance();
             ret.init(logger);
+            if ( !(ret instanceof NullRmStatePersistence) && SystemPropertyResolver.getBooleanProperty("ducc.rm.persistence.write.behind", true) ) {
+                ret = new WriteBehindRmPersistence(ret);
+                ret.init(logger);
+            }
         } catch ( Throwable t ) {
             logger.error(methodName, null, "Cannot instantiate RM persistence class", clname, ":", t, "Using NullRmStatePersistance as default.");
             ret = new NullRmStatePersistence();
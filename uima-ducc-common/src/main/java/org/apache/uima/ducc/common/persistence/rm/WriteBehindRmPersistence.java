@@ -0,0 +1,579 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.persistence.rm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.SystemPropertyResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Write-behind decorator for RM persistence.  Updates are queued and written by a single
+ * background thread so database latency stays out of the scheduling epoch.
+ *
+ * Pending updates are keyed by row and by the columns they set.  A repeated update of the same
+ * columns replaces the earlier one and moves to the end of the queue; a delete discards
+ * everything pending against its row.  What remains is written in order, so the final state of
+ * the database is the same as if every update had been written directly.
+ *
+ * The queue is written when the scheduler marks the end of an epoch with {@link #flush()}, when
+ * updates have lingered for a second (node heartbeats arrive between epochs), or when it reaches
+ * its capacity, at which point callers block until the writer takes it.  {@link #flush()} and
+ * reads wait for everything queued before them to be written, so nobody sees part of an epoch.
+ * A batch the database rejects is queued again ahead of anything newer, up to MAX_ATTEMPTS times.
+ */
+public class WriteBehindRmPersistence
+    implements IRmPersistence, Runnable
+{
+    static final long LINGER_TIME = 1000;              // ms an update may wait for an epoch to end
+    static final int MAX_ATTEMPTS = 3;                 // times a failed batch is written before it is dropped
+
+    private DuccLogger logger = null;
+    private IRmPersistence delegate;
+    private int capacity = 10000;                      // ducc.rm.persistence.queue.size
+    private int batchSize = 50;                        // ducc.rm.persistence.batch.size
+
+    // all guarded by 'this'
+    private LinkedHashMap<String, Write> pending = new LinkedHashMap<String, Write>();
+    private long firstPending = 0;                     // when pending last went from empty to non-empty
+    private boolean flushRequested = false;
+    private boolean closed = false;
+    private long enqueued = 0;                         // sequence of the last update queued
+    private long written = 0;                          // sequence of the last update written
+    private Thread writer = null;
+
+    // statistics, guarded by 'this'
+    private long writes = 0;
+    private long coalesced = 0;
+    private long failures = 0;
+    private long drains = 0;
+    private long latencyLast = 0;
+    private long latencyMax = 0;
+    private long latencyTotal = 0;
+
+    public WriteBehindRmPersistence(IRmPersistence delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * The delegate must already be initialized.
+     */
+    public void init(DuccLogger logger)
+        throws Exception
+    {
+        this.logger = logger;
+        capacity  = Math.max(1, SystemPropertyResolver.getIntProperty("ducc.rm.persistence.queue.size", capacity));
+        batchSize = Math.max(1, SystemPropertyResolver.getIntProperty("ducc.rm.persistence.batch.size", batchSize));
+    }
+
+    public IRmPersistence getDelegate()
+    {
+        return delegate;
+    }
+
+    public synchronized int  getQueueDepth()     { return pending.size(); }
+    public synchronized long getWrites()         { return writes; }
+    public synchronized long getCoalesced()      { return coalesced; }
+    public synchronized long getFailures()       { return failures; }
+    public synchronized long getLatencyLast()    { return latencyLast; }
+    public synchronized long getLatencyMax()     { return latencyMax; }
+    public synchronized long getLatencyAverage() { return (drains == 0 ? 0 : latencyTotal / drains); }
+
+    private abstract static class Write
+    {
+        String row;
+        String key;
+        long sequence;
+        int attempts;
+
+        abstract void write(IRmPersistence p) throws Exception;
+    }
+
+    private static class NodeProperty
+        extends Write
+    {
+        String node;
+        RmNodes key;
+        Object value;
+
+        NodeProperty(String node, RmNodes key, Object value)
+        {
+            this.node = node;
+            this.key = key;
+            this.value = value;
+        }
+
+        void write(IRmPersistence p) throws Exception
+        {
+            p.setNodeProperties(node, key, value);
+        }
+    }
+
+    /**
+     * The values an IDbJob reports, taken when the update is queued, since the job keeps
+     * changing under the scheduler while the update waits.
+     */
+    private static class JobSnapshot
+        implements IDbJob
+    {
+        String className;
+        long friendlyId;
+        String userName;
+        int memory;
+        String shortType;
+        int demand;
+        int occupancy;
+        String state;
+        int shareOrder;
+
+        JobSnapshot(IDbJob j)
+        {
+            className  = j.getClassName();
+            friendlyId = j.getFriendlyId();
+            userName   = j.getUserName();
+            memory     = j.getMemory();
+            shortType  = j.getShortType();
+            demand     = j.queryDemand();
+            occupancy  = j.countOccupancy();
+            state      = j.getState();
+            shareOrder = j.getShareOrder();
+        }
+
+        public String getClassName()  { return className; }
+        public long getFriendlyId()   { return friendlyId; }
+        public String getUserName()   { return userName; }
+        public int getMemory()        { return memory; }
+        public String getShortType()  { return shortType; }
+        public int queryDemand()      { return demand; }
+        public int countOccupancy()   { return occupancy; }
+        public String getState()      { return state; }
+        public int getShareOrder()    { return shareOrder; }
+    }
+
+    private static String shareRow(String node, DuccId shareId, DuccId jobId)
+    {
+        return "share:" + node + ":" + shareId.getFriendly() + ":" + jobId.getFriendly();
+    }
+
+    private static String jobRow(IDbJob j)
+    {
+        return "job:" + j.getFriendlyId();
+    }
+
+    private void enqueue(String row, String columns, boolean delete, Write w)
+    {
+        String methodName = "enqueue";
+        synchronized(this) {
+            if ( !closed ) {
+                while ( (pending.size() >= capacity) && !closed ) {
+                    flushRequested = true;
+                    notifyAll();
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        logger.warn(methodName, null, "Interrupted waiting for the persistence queue to drain.");
+                        break;
+                    }
+                }
+
+                if ( delete ) {
+                    Iterator<Write> iter = pending.values().iterator();
+                    while ( iter.hasNext() ) {
+                        if ( iter.next().row.equals(row) ) {
+                            iter.remove();
+                            coalesced++;
+                        }
+                    }
+                }
+
+                String key = row + "/" + columns;
+                if ( pending.remove(key) != null ) {
+                    coalesced++;
+                }
+                if ( pending.isEmpty() ) {
+                    firstPending = System.currentTimeMillis();
+                    notifyAll();
+                }
+                w.row = row;
+                w.key = key;
+                w.sequence = ++enqueued;
+                pending.put(key, w);
+
+                if ( writer == null ) {
+                    writer = new Thread(this, "RmPersistenceWriter");
+                    writer.setDaemon(true);
+                    writer.start();
+                }
+                return;
+            }
+        }
+
+        // after close there is no writer, so write through
+        try {
+            w.write(delegate);
+        } catch (Exception e) {
+            logger.warn(methodName, null, "Cannot write", row, "to database:", e);
+        }
+    }
+
+    /**
+     * Wait until everything queued so far has been written.
+     */
+    private void sync()
+    {
+        String methodName = "sync";
+        synchronized(this) {
+            long target = enqueued;
+            while ( (written < target) && (writer != null) && writer.isAlive() ) {
+                flushRequested = true;
+                notifyAll();
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    logger.warn(methodName, null, "Interrupted waiting for the persistence queue to drain.");
+                    return;
+                }
+            }
+        }
+    }
+
+    public void run()
+    {
+        String methodName = "run";
+        while ( true ) {
+            List<Write> updates = null;
+            synchronized(this) {
+                while ( !closed && !flushRequested && (pending.size() < capacity) ) {
+                    long linger = LINGER_TIME;
+                    if ( !pending.isEmpty() ) {
+                        linger = firstPending + LINGER_TIME - System.currentTimeMillis();
+                        if ( linger <= 0 ) break;
+                    }
+                    try {
+                        if ( pending.isEmpty() ) {
+                            wait();
+                        } else {
+                            wait(linger);
+                        }
+                    } catch (InterruptedException e) {
+                        // just look again
+                    }
+                }
+                flushRequested = false;
+                if ( pending.isEmpty() ) {
+                    if ( closed ) return;
+                    continue;
+                }
+                updates = new ArrayList<Write>(pending.values());
+                pending = new LinkedHashMap<String, Write>();
+                notifyAll();                           // release callers blocked on a full queue
+            }
+
+            long now = System.currentTimeMillis();
+            List<Write> retry = new ArrayList<Write>();
+            int failed = write(updates, retry);
+            long latency = System.currentTimeMillis() - now;
+
+            synchronized(this) {
+                if ( !retry.isEmpty() ) {
+                    requeue(retry);
+                }
+                // all taken updates that are no longer pending are done
+                long done = 0;
+                for ( Write w : updates ) {
+                    done = Math.max(done, w.sequence);
+                }
+                for ( Write w : pending.values() ) {
+                    done = Math.min(done, w.sequence - 1);
+                }
+                written = Math.max(written, done);
+                writes += updates.size() - retry.size();
+                failures += failed;
+                drains++;
+                latencyLast = latency;
+                latencyMax = Math.max(latencyMax, latency);
+                latencyTotal += latency;
+                logger.debug(methodName, null, "Wrote", updates.size(), "updates in", latency, "ms; queue depth", pending.size(), "coalesced", coalesced, "failed", failures);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Put the updates of a failed batch back in front of the queue.  A newer update of the same
+     * columns queued meanwhile takes the place of the failed one; a newer delete of the row still
+     * follows it.  Caller holds the lock.
+     */
+    private void requeue(List<Write> retry)
+    {
+        LinkedHashMap<String, Write> requeued = new LinkedHashMap<String, Write>();
+        for ( Write w : retry ) {
+            requeued.put(w.key, w);
+        }
+        for ( Map.Entry<String, Write> entry : pending.entrySet() ) {
+            if ( requeued.put(entry.getKey(), entry.getValue()) != null ) {
+                coalesced++;
+            }
+        }
+        if ( pending.isEmpty() ) {
+            firstPending = System.currentTimeMillis();
+        }
+        pending = requeued;
+    }
+
+    /**
+     * Write the updates in batches of batchSize, merging consecutive property updates of one node.
+     * The updates of a batch the database rejects are added to retry until they have been tried
+     * MAX_ATTEMPTS times.
+     *
+     * @return The number of updates that could not be written.
+     */
+    private int write(List<Write> updates, List<Write> retry)
+    {
+        String methodName = "write";
+        int failed = 0;
+        int ndx = 0;
+        while ( ndx < updates.size() ) {
+            int start = ndx;
+            int end = Math.min(ndx + batchSize, updates.size());
+            delegate.beginBatch();
+            while ( ndx < end ) {
+                Write w = updates.get(ndx++);
+                try {
+                    if ( w instanceof NodeProperty ) {
+                        NodeProperty np = (NodeProperty) w;
+                        List<Object> props = new ArrayList<Object>();
+                        props.add(np.key);
+                        props.add(np.value);
+                        while ( (ndx < end) && (updates.get(ndx) instanceof NodeProperty) && ((NodeProperty) updates.get(ndx)).node.equals(np.node) ) {
+                            NodeProperty next = (NodeProperty) updates.get(ndx++);
+                            props.add(next.key);
+                            props.add(next.value);
+                        }
+                        delegate.setNodeProperties(np.node, props.toArray());
+                    } else {
+                        w.write(delegate);
+                    }
+                } catch (Exception e) {
+                    failed++;
+                    logger.warn(methodName, null, "Cannot write", w.row, "to database:", e);
+                }
+            }
+            try {
+                delegate.endBatch();
+            } catch (Exception e) {
+                failed += (end - start);
+                for ( Write w : updates.subList(start, end) ) {
+                    if ( ++w.attempts < MAX_ATTEMPTS ) {
+                        retry.add(w);
+                    }
+                }
+                logger.warn(methodName, null, "Cannot write batch to database, queued", retry.size(), "updates again:", e);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Returns once everything queued before the call has been written.
+     */
+    public void flush()
+    {
+        sync();
+    }
+
+    public void beginBatch()
+    {
+    }
+
+    public void endBatch()
+    {
+    }
+
+    public void clear()
+        throws Exception
+    {
+        sync();
+        delegate.clear();
+    }
+
+    public void setNodeProperties(String id, Object... properties)
+        throws Exception
+    {
+        if (( properties.length % 2) != 0 ) {
+            throw new IllegalStateException("Set properties: number of properties must be even, instead was " + properties.length);
+        }
+        for ( int i = 0; i < properties.length; i += 2 ) {
+            RmNodes key = (RmNodes) properties[i];
+            enqueue("node:" + id, key.pname(), false, new NodeProperty(id, key, properties[i+1]));
+        }
+    }
+
+    public void setNodeProperty(String id, RmNodes key, Object value)
+        throws Exception
+    {
+        enqueue("node:" + id, key.pname(), false, new NodeProperty(id, key, value));
+    }
+
+    public void createMachine(final String id, Map<RmNodes, Object> props)
+        throws Exception
+    {
+        final Map<RmNodes, Object> copy = new HashMap<RmNodes, Object>(props);
+        enqueue("node:" + id, "create", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.createMachine(id, copy); }
+            });
+    }
+
+    /**
+     * The share itself is read when the update is written; the fields persisted here only move
+     * forward (evicted, purged, fixed), and later changes are queued behind it anyway.
+     */
+    public void addAssignment(final String id, final DuccId jobid, final IDbShare share, final int quantum, final String jobtype)
+        throws Exception
+    {
+        enqueue(shareRow(id, share.getId(), jobid), "add", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.addAssignment(id, jobid, share, quantum, jobtype); }
+            });
+    }
+
+    public void removeAssignment(final String id, final DuccId jobid, final IDbShare share)
+        throws Exception
+    {
+        enqueue(shareRow(id, share.getId(), jobid), "delete", true, new Write() {
+                void write(IRmPersistence p) throws Exception { p.removeAssignment(id, jobid, share); }
+            });
+    }
+
+    public void setFixed(final String node, final DuccId shareId, final DuccId jobId, final boolean val)
+        throws Exception
+    {
+        enqueue(shareRow(node, shareId, jobId), "fixed", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.setFixed(node, shareId, jobId, val); }
+            });
+    }
+
+    public void setPurged(final String node, final DuccId shareId, final DuccId jobId, final boolean val)
+        throws Exception
+    {
+        enqueue(shareRow(node, shareId, jobId), "purged", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.setPurged(node, shareId, jobId, val); }
+            });
+    }
+
+    public void setEvicted(final String node, final DuccId shareId, final DuccId jobId, final boolean val)
+        throws Exception
+    {
+        enqueue(shareRow(node, shareId, jobId), "evicted", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.setEvicted(node, shareId, jobId, val); }
+            });
+    }
+
+    public void updateShare(final String node, final DuccId shareid, final DuccId jobid, final long investment, final String state, final long init_time, final long pid)
+        throws Exception
+    {
+        enqueue(shareRow(node, shareid, jobid), "update", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.updateShare(node, shareid, jobid, investment, state, init_time, pid); }
+            });
+    }
+
+    public void addJob(IDbJob j)
+        throws Exception
+    {
+        final IDbJob snapshot = new JobSnapshot(j);
+        enqueue(jobRow(j), "add", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.addJob(snapshot); }
+            });
+    }
+
+    public void deleteJob(IDbJob j)
+        throws Exception
+    {
+        final IDbJob snapshot = new JobSnapshot(j);
+        enqueue(jobRow(j), "delete", true, new Write() {
+                void write(IRmPersistence p) throws Exception { p.deleteJob(snapshot); }
+            });
+    }
+
+    public void updateDemand(IDbJob j)
+        throws Exception
+    {
+        final IDbJob snapshot = new JobSnapshot(j);
+        enqueue(jobRow(j), "demand", false, new Write() {
+                void write(IRmPersistence p) throws Exception { p.updateDemand(snapshot); }
+            });
+    }
+
+    public Properties getMachine(String id)
+        throws Exception
+    {
+        sync();
+        return delegate.getMachine(id);
+    }
+
+    public Map<String, Map<String, Object>> getAllMachines()
+        throws Exception
+    {
+        sync();
+        return delegate.getAllMachines();
+    }
+
+    public Map<String, Map<String, Object>> getAllShares()
+        throws Exception
+    {
+        sync();
+        return delegate.getAllShares();
+    }
+
+    public List<Map<String, Object>> getLoad()
+        throws Exception
+    {
+        sync();
+        return delegate.getLoad();
+    }
+
+    /**
+     * Write whatever is still queued, then close the delegate.
+     */
+    public void close()
+    {
+        String methodName = "close";
+        Thread w = null;
+        synchronized(this) {
+            closed = true;
+            notifyAll();
+            w = writer;
+        }
+        if ( w != null ) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                logger.warn(methodName, null, "Interrupted waiting for the persistence writer to finish.");
+            }
+        }
+        delegate.close();
+    }
+}
@@ -95,6 +95,7 @@ public class DuccPropertiesResolver {
     
     public static final String ducc_driver_jvm_args = "ducc.driver.jvm.args";
     public static final String ducc_process_jvm_args = "ducc.process.jvm.args";
+    public static final String ducc_process_prefetch_depth = "ducc.process.prefetch.depth";
     public static final String ducc_environment_propagated = "ducc.environment.propagated";
     
     public static final String ducc_runmode = "ducc.runmode";
@@ -114,11 +115,14 @@ public class DuccPropertiesResolver {
     public static final String ducc_database_jmx_port = "ducc.database.jmx.port";
     
     public static final String ducc_orchestrator_state_publish_rate = "ducc.orchestrator.state.publish.rate";
+    public static final String ducc_orchestrator_state_publish_snapshot_interval = "ducc.orchestrator.state.publish.snapshot.interval";
     public static final String ducc_orchestrator_state_update_endpoint_type = "ducc.orchestrator.state.update.endpoint.type";
     public static final String ducc_orchestrator_state_update_endpoint = "ducc.orchestrator.state.update.endpoint";
     public static final String ducc_orchestrator_http_port = "ducc.orchestrator.http.port";
     public static final String ducc_orchestrator_http_node = "ducc.orchestrator.http.node";
     public static final String ducc_orchestrator_maintenance_rate = "ducc.orchestrator.maintenance.rate";
+    public static final String ducc_orchestrator_checkpoint_compaction_interval = "ducc.orchestrator.checkpoint.compaction.interval";
+    public static final String ducc_orchestrator_history_archive = "ducc.orchestrator.history.archive";
     public static final String ducc_orchestrator_job_factory_classpath_order = "ducc.orchestrator.job.factory.classpath.order";    
     public static final String ducc_orchestrator_unmanaged_reservations_accepted = "ducc.orchestrator.unmanaged.reservations.accepted";  
     public static final String ducc_orchestrator_use_lock_file = "ducc.orchestrator.use.lock.file";  
@@ -139,6 +143,8 @@ public class DuccPropertiesResolver {
     
     public static final String ducc_jd_configuration_class = "ducc.jd.configuration.class";
     public static final String ducc_jd_startup_initialization_error_limit = "ducc.jd.startup.initialization.error.limit";
+    public static final String ducc_jd_cr_read_ahead = "ducc.jd.cr.read.ahead";
+    public static final String ducc_jd_timeout_manager = "ducc.jd.timeout.manager";
     
     public static final String ducc_rm_class_definitions = "ducc.rm.class.definitions";
     public static final String ducc_rm_user_registry = "ducc.rm.user.registry"; // UIMA-4275
@@ -157,6 +163,8 @@ public class DuccPropertiesResolver {
     public static final String ducc_ws_max_history_entries = "ducc.ws.max.history.entries";
     public static final String ducc_ws_login_enabled = "ducc.ws.login.enabled";
     public static final String ducc_ws_bytes_per_page = "ducc.ws.bytes.per.page";
+    public static final String ducc_ws_json_cache_entries = "ducc.ws.json.cache.entries";
+    public static final String ducc_ws_history_cache_entries = "ducc.ws.history.cache.entries";
     
     public static final String ducc_rm_node_stability = "ducc.rm.node.stability";
     public static final String ducc_agent_node_metrics_publish_rate = "ducc.agent.node.metrics.publish.rate";
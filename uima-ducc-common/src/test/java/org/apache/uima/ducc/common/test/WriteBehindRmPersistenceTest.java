@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.uima.ducc.common.persistence.rm.IDbJob;
+import org.apache.uima.ducc.common.persistence.rm.IDbShare;
+import org.apache.uima.ducc.common.persistence.rm.IRmPersistence;
+import org.apache.uima.ducc.common.persistence.rm.IRmPersistence.RmNodes;
+import org.apache.uima.ducc.common.persistence.rm.WriteBehindRmPersistence;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.junit.Test;
+
+public class WriteBehindRmPersistenceTest {
+
+	/**
+	 * Records what reaches the database, one string per update.
+	 */
+	private static class Recorder implements IRmPersistence {
+		List<String> log = new ArrayList<String>();
+		int batches = 0;
+		int failBatches = 0;                        // number of batches endBatch() rejects
+		long delay = 0;                             // ms each update takes
+
+		public void init(DuccLogger logger) {}
+		public void clear() { log.add("clear"); }
+		public void close() {}
+		public void flush() {}
+		public void beginBatch() { batches++; }
+		public void endBatch() throws Exception {
+			if ( failBatches > 0 ) {
+				failBatches--;
+				throw new Exception("batch rejected");
+			}
+		}
+		public void setNodeProperty(String id, RmNodes key, Object value) { log.add(id+" "+key.pname()+"="+value); }
+		public void setNodeProperties(String id, Object... props) {
+			StringBuffer sb = new StringBuffer(id);
+			for ( int i = 0; i < props.length; i += 2 ) {
+				sb.append(" "+((RmNodes) props[i]).pname()+"="+props[i+1]);
+			}
+			log.add(sb.toString());
+		}
+		public void createMachine(String id, Map<RmNodes, Object> props) { log.add(id+" create"); }
+		public void addAssignment(String id, DuccId jobid, IDbShare share, int quantum, String type) {}
+		public void removeAssignment(String id, DuccId jobid, IDbShare share) {}
+		public void setEvicted(String node, DuccId shareId, DuccId jobId, boolean val) { log.add(node+" "+shareId+" evicted="+val); }
+		public void setFixed(String node, DuccId shareId, DuccId jobId, boolean val) {}
+		public void setPurged(String node, DuccId shareId, DuccId jobId, boolean val) {}
+		public void updateShare(String node, DuccId shareid, DuccId jobid, long investment, String state, long init_time, long pid) {
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+			}
+			log.add(node+" "+shareid+" state="+state);
+		}
+		public Properties getMachine(String id) { return null; }
+		public Map<String, Map<String, Object>> getAllMachines() { return new HashMap<String, Map<String, Object>>(); }
+		public Map<String, Map<String, Object>> getAllShares() { return new HashMap<String, Map<String, Object>>(); }
+		public List<Map<String, Object>> getLoad() { return new ArrayList<Map<String, Object>>(); }
+		public void addJob(IDbJob j) { log.add(j.getFriendlyId()+" add"); }
+		public void deleteJob(IDbJob j) { log.add(j.getFriendlyId()+" delete"); }
+		public void updateDemand(IDbJob j) { log.add(j.getFriendlyId()+" demand="+j.queryDemand()); }
+	}
+
+	private static class Job implements IDbJob {
+		long id;
+		int demand;
+		Job(long id) { this.id = id; }
+		public String getClassName() { return "normal"; }
+		public long getFriendlyId() { return id; }
+		public String getUserName() { return "user"; }
+		public int getMemory() { return 15; }
+		public String getShortType() { return "J"; }
+		public int queryDemand() { return demand; }
+		public int countOccupancy() { return 0; }
+		public String getState() { return "Running"; }
+		public int getShareOrder() { return 1; }
+	}
+
+	private WriteBehindRmPersistence create(Recorder recorder) throws Exception {
+		WriteBehindRmPersistence wb = new WriteBehindRmPersistence(recorder);
+		wb.init(DuccLogger.getLogger(WriteBehindRmPersistenceTest.class, "TEST"));
+		return wb;
+	}
+
+	@Test
+	public void test_01() throws Exception {
+		Recorder recorder = new Recorder();
+		WriteBehindRmPersistence wb = create(recorder);
+		DuccId share = new DuccId(7);
+		DuccId job = new DuccId(1);
+
+		wb.createMachine("node1", new HashMap<RmNodes, Object>());
+		for ( int i = 1; i <= 5; i++ ) {
+			wb.setNodeProperty("node1", RmNodes.Heartbeats, i);
+			wb.updateShare("node1", share, job, i, "State"+i, 0, 0);
+		}
+		wb.setNodeProperty("node1", RmNodes.Responsive, true);
+		wb.setEvicted("node1", share, job, true);
+		wb.getAllMachines();                        // waits for the writer
+
+		List<String> expected = Arrays.asList(
+				"node1 create",
+				"node1 heartbeats=5",
+				"node1 7 state=State5",
+				"node1 responsive=true",
+				"node1 7 evicted=true");
+		assertEquals(expected, recorder.log);
+		assertEquals(8, wb.getCoalesced());
+		assertEquals(0, wb.getQueueDepth());
+		wb.close();
+	}
+
+	@Test
+	public void test_02() throws Exception {
+		Recorder recorder = new Recorder();
+		WriteBehindRmPersistence wb = create(recorder);
+		Job j1 = new Job(1);
+		Job j2 = new Job(2);
+
+		wb.addJob(j1);
+		wb.addJob(j2);
+		j1.demand = 3;
+		wb.updateDemand(j1);
+		j1.demand = 4;                              // value is taken when the update is queued
+		wb.deleteJob(j2);
+		wb.addJob(j2);
+		wb.close();                                 // writes what is left
+
+		List<String> expected = Arrays.asList(
+				"1 add",
+				"1 demand=3",
+				"2 delete",
+				"2 add");
+		assertEquals(expected, recorder.log);
+	}
+
+	@Test
+	public void test_03() throws Exception {
+		Recorder recorder = new Recorder();
+		recorder.delay = 100;
+		WriteBehindRmPersistence wb = create(recorder);
+		DuccId job = new DuccId(1);
+
+		for ( int i = 1; i <= 3; i++ ) {
+			wb.updateShare("node1", new DuccId(i), job, 0, "Running", 0, 0);
+		}
+		wb.flush();                                 // returns only once all three are written
+
+		assertEquals(3, recorder.log.size());
+		assertEquals(0, wb.getQueueDepth());
+		wb.close();
+	}
+
+	@Test
+	public void test_04() throws Exception {
+		Recorder recorder = new Recorder();
+		recorder.failBatches = 1;
+		WriteBehindRmPersistence wb = create(recorder);
+		Job j1 = new Job(1);
+
+		wb.addJob(j1);
+		j1.demand = 2;
+		wb.updateDemand(j1);
+		wb.flush();                                 // first batch is rejected and written again
+
+		List<String> expected = Arrays.asList(
+				"1 add",
+				"1 demand=2",
+				"1 add",
+				"1 demand=2");
+		assertEquals(expected, recorder.log);
+		assertEquals(2, recorder.batches);
+		assertEquals(0, wb.getQueueDepth());
+		wb.close();
+	}
+}
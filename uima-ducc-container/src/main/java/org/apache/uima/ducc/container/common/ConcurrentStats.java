@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free alternative to SynchronizedStats for non-negative
+ * long values (e.g. milliseconds).  Count, sum and sum of squares
+ * are striped across cells selected by thread id, min and max are
+ * maintained by compare-and-set, and a log-linear histogram
+ * (relative error under 2%) supports percentiles.  Readers see a
+ * best-effort snapshot while updates are in flight.
+ */
+public class ConcurrentStats {
+	
+	// values below subCount are counted exactly, each higher power
+	// of two is split into subCount equal width buckets
+	private static final int subBits = 5;
+	private static final int subCount = 1 << subBits;
+	private static final int bucketCount = (64 - subBits + 1) * subCount;
+	
+	private static final int cellCount = cellCount();
+	private static final int cellMask = cellCount - 1;
+	
+	private static int cellCount() {
+		int retVal = 1;
+		int target = Runtime.getRuntime().availableProcessors();
+		while(retVal < target && retVal < 64) {
+			retVal = retVal << 1;
+		}
+		return retVal;
+	}
+	
+	private static class Cell {
+		final AtomicLong num = new AtomicLong(0);
+		final AtomicLong sum = new AtomicLong(0);
+		final AtomicLong sumsqrs = new AtomicLong(Double.doubleToRawLongBits(0));
+	}
+	
+	private final Cell[] cells = new Cell[cellCount];
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+	private final AtomicLongArray histogram = new AtomicLongArray(bucketCount);
+	
+	public ConcurrentStats() {
+		for(int i=0; i<cells.length; i++) {
+			cells[i] = new Cell();
+		}
+	}
+	
+	private Cell getCell() {
+		int index = (int) (Thread.currentThread().getId() & cellMask);
+		return cells[index];
+	}
+	
+	private static void addDouble(AtomicLong bits, double d) {
+		while(true) {
+			long expect = bits.get();
+			long update = Double.doubleToRawLongBits(Double.longBitsToDouble(expect)+d);
+			if(bits.compareAndSet(expect, update)) {
+				break;
+			}
+		}
+	}
+	
+	private static void updateMin(AtomicLong target, long value) {
+		long current = target.get();
+		while(value < current) {
+			if(target.compareAndSet(current, value)) {
+				break;
+			}
+			current = target.get();
+		}
+	}
+	
+	private static void updateMax(AtomicLong target, long value) {
+		long current = target.get();
+		while(value > current) {
+			if(target.compareAndSet(current, value)) {
+				break;
+			}
+			current = target.get();
+		}
+	}
+	
+	private static int getBucket(long value) {
+		int retVal;
+		if(value < subCount) {
+			retVal = (int) value;
+		}
+		else {
+			int shift = (63 - Long.numberOfLeadingZeros(value)) - subBits;
+			int sub = (int) ((value >>> shift) - subCount);
+			retVal = (shift + 1) * subCount + sub;
+		}
+		return retVal;
+	}
+	
+	private static long getBucketValue(int bucket) {
+		long retVal;
+		if(bucket < subCount) {
+			retVal = bucket;
+		}
+		else {
+			int shift = (bucket / subCount) - 1;
+			long sub = bucket % subCount;
+			long lower = (subCount + sub) << shift;
+			retVal = lower + ((1L << shift) >>> 1);
+		}
+		return retVal;
+	}
+	
+	public void addValue(long value) {
+		if(value < 0) {
+			value = 0;
+		}
+		Cell cell = getCell();
+		cell.num.incrementAndGet();
+		cell.sum.addAndGet(value);
+		addDouble(cell.sumsqrs, ((double) value) * value);
+		updateMin(min, value);
+		updateMax(max, value);
+		histogram.incrementAndGet(getBucket(value));
+	}
+	
+	/**
+	 * Fold the values accumulated by other into this instance.
+	 */
+	public void merge(ConcurrentStats other) {
+		if(other != null) {
+			Cell cell = getCell();
+			long num = 0;
+			long sum = 0;
+			double sumsqrs = 0;
+			for(Cell c : other.cells) {
+				num += c.num.get();
+				sum += c.sum.get();
+				sumsqrs += Double.longBitsToDouble(c.sumsqrs.get());
+			}
+			cell.num.addAndGet(num);
+			cell.sum.addAndGet(sum);
+			addDouble(cell.sumsqrs, sumsqrs);
+			updateMin(min, other.min.get());
+			updateMax(max, other.max.get());
+			for(int i=0; i<bucketCount; i++) {
+				long count = other.histogram.get(i);
+				if(count > 0) {
+					histogram.addAndGet(i, count);
+				}
+			}
+		}
+	}
+	
+	public long getNum() {
+		long retVal = 0;
+		for(Cell cell : cells) {
+			retVal += cell.num.get();
+		}
+		return retVal;
+	}
+	
+	public long getSum() {
+		long retVal = 0;
+		for(Cell cell : cells) {
+			retVal += cell.sum.get();
+		}
+		return retVal;
+	}
+	
+	private double getSumSqrs() {
+		double retVal = 0;
+		for(Cell cell : cells) {
+			retVal += Double.longBitsToDouble(cell.sumsqrs.get());
+		}
+		return retVal;
+	}
+	
+	public long getMin() {
+		long retVal = min.get();
+		if(retVal == Long.MAX_VALUE) {
+			retVal = 0;
+		}
+		return retVal;
+	}
+	
+	public long getMax() {
+		long retVal = max.get();
+		if(retVal == Long.MIN_VALUE) {
+			retVal = 0;
+		}
+		return retVal;
+	}
+	
+	public double getMean() {
+		double retVal = Double.NaN;
+		long num = getNum();
+		if(num > 0) {
+			retVal = ((double) getSum()) / num;
+		}
+		return retVal;
+	}
+	
+	//s = square root of[(sum of Xsquared -((sum of X)*(sum of X)/N))/(N-1)]
+	public double getStandardDeviation() {
+		double retVal = Double.NaN;
+		long num = getNum();
+		if(num > 1) {
+			double sum = getSum();
+			double variance = (getSumSqrs()-(sum*sum)/num)/(num-1);
+			if(variance < 0) {
+				variance = 0;
+			}
+			retVal = Math.sqrt(variance);
+		}
+		else if(num == 1) {
+			retVal = 0;
+		}
+		return retVal;
+	}
+	
+	/**
+	 * @param percentile in the range 0 to 100, e.g. 99.9
+	 * @return the approximate value at the given percentile, 
+	 * or 0 if no values have been added
+	 */
+	public long getPercentile(double percentile) {
+		long retVal = 0;
+		long total = 0;
+		long[] counts = new long[bucketCount];
+		for(int i=0; i<bucketCount; i++) {
+			counts[i] = histogram.get(i);
+			total += counts[i];
+		}
+		if(total > 0) {
+			if(percentile < 0) {
+				percentile = 0;
+			}
+			if(percentile > 100) {
+				percentile = 100;
+			}
+			long rank = (long) Math.ceil((percentile / 100.0) * total);
+			if(rank < 1) {
+				rank = 1;
+			}
+			long seen = 0;
+			for(int i=0; i<bucketCount; i++) {
+				seen += counts[i];
+				if(seen >= rank) {
+					retVal = getBucketValue(i);
+					break;
+				}
+			}
+			long lo = getMin();
+			long hi = getMax();
+			if(retVal < lo) {
+				retVal = lo;
+			}
+			if(retVal > hi) {
+				retVal = hi;
+			}
+		}
+		return retVal;
+	}
+}
@@ -66,6 +66,10 @@ public class Standardize {
 		min,
 		max,
 		stddev,
+		p50,
+		p95,
+		p99,
+		p999,
 		removed,
 		isKillJob,
 		isKillProcess,
@@ -84,6 +88,10 @@ public class Standardize {
 		tid,
 		crFetches,
 		crTotal,
+		crReadMillisAvg,
+		crReadMillisMax,
+		readAheadQueued,
+		readAheadCapacity,
 		retrys,
 		preemptions,
 		endSuccess,
@@ -91,6 +99,11 @@ public class Standardize {
 		finishedMillisMax,
 		finishedMillisMin,
 		finishedMillisAvg,
+		finishedMillisStdDev,
+		finishedMillisP50,
+		finishedMillisP95,
+		finishedMillisP99,
+		finishedMillisP999,
 		runningMillisMax,
 		runningMillisMin,
 		todMostRecentStart,
@@ -18,17 +18,32 @@
 */
 package org.apache.uima.ducc.container.common.fsm;
 
+import java.util.HashMap;
+
 import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
 
 public class Event implements IEvent {
 
+	private static HashMap<String, Integer> ordinals = new HashMap<String, Integer>();
+	
+	private static synchronized int ordinalOf(String name) {
+		Integer retVal = ordinals.get(name);
+		if(retVal == null) {
+			retVal = ordinals.size();
+			ordinals.put(name, retVal);
+		}
+		return retVal;
+	}
+	
 	private String name = null;
+	private int ordinal = 0;
 	
 	public Event(String name) throws FsmException {
 		if(name == null) {
 			throw new FsmException("event name is null");
 		}
 		setName(name);
+		ordinal = ordinalOf(name);
 	}
 	
 	@Override
@@ -74,6 +89,11 @@ public class Event implements IEvent {
 		return name;
 	}
 	
+	@Override
+	public int getOrdinal() {
+		return ordinal;
+	}
+	
 	private void setName(String value) {
 		name = value;
 	}
@@ -18,15 +18,12 @@
 */
 package org.apache.uima.ducc.container.common.fsm;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
 import org.apache.uima.ducc.container.common.fsm.iface.IAction;
 import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
 import org.apache.uima.ducc.container.common.fsm.iface.IFsmBuilder;
 import org.apache.uima.ducc.container.common.fsm.iface.IState;
-import org.apache.uima.ducc.container.common.fsm.iface.IStateEventKey;
 import org.apache.uima.ducc.container.common.fsm.iface.IStateEventValue;
 import org.apache.uima.ducc.container.common.logger.IComponent;
 import org.apache.uima.ducc.container.common.logger.ILogger;
@@ -36,29 +33,27 @@ public class Fsm implements IFsmBuilder {
 
 	private static Logger logger = Logger.getLogger(Fsm.class, IComponent.Id.JD.name());
 	
-	private ConcurrentHashMap<IStateEventKey, IStateEventValue> map = new ConcurrentHashMap<IStateEventKey, IStateEventValue>();
+	private FsmTable table = null;
 	
 	private IState stateInitial = null;
 	private IState stateCurrent = null;
 	private IState statePrevious = null;
 	
+	public Fsm() {
+		table = new FsmTable();
+	}
+	
+	// share a prebuilt (typically sealed) transition table
+	public Fsm(FsmTable table) throws FsmException {
+		if(table == null) {
+			throw new FsmException("table object is null");
+		}
+		this.table = table;
+	}
+	
 	@Override
 	public void add(IState current, IEvent event, IAction action, IState next) throws FsmException {
-		String location = "add";
-		IStateEventKey key = new StateEventKey(current, event);
-		IStateEventValue value = new StateEventValue(action, next);
-		IStateEventValue result = putIfAbsent(key, value);
-		if(result != null) {
-			MessageBuffer mb = new MessageBuffer();
-			mb.append("duplicate");
-			mb.append(Standardize.Label.state.get()+current.getName());
-			mb.append(Standardize.Label.event.get()+event.getName());
-			throw new FsmException(mb.toString());
-		}
-		MessageBuffer mb = new MessageBuffer();
-		mb.append(Standardize.Label.state.get()+current.getName());
-		mb.append(Standardize.Label.event.get()+event.getName());
-		logger.trace(location, ILogger.null_id, mb.toString());
+		table.add(current, event, action, next);
 	}
 
 	@Override
@@ -118,44 +113,39 @@ public class Fsm implements IFsmBuilder {
 		return statePrevious;
 	}
 	
-	private IStateEventValue putIfAbsent(IStateEventKey key, IStateEventValue value) {
-		String location = "putIfAbsent";
-		MessageBuffer mb = new MessageBuffer();
-		mb.append(Standardize.Label.state.get()+key.getState().getName());
-		mb.append(Standardize.Label.event.get()+key.getEvent().getName());
-		mb.append(Standardize.Label.hash.get()+key.hashCode());
-		logger.trace(location, ILogger.null_id, mb.toString());
-		return map.putIfAbsent(key, value);
-	}
-	
-	private IStateEventValue get(IStateEventKey key) {
+	private IStateEventValue get(IState state, IEvent event) throws FsmException {
 		String location = "get";
-		MessageBuffer mb = new MessageBuffer();
-		mb.append(Standardize.Label.state.get()+key.getState().getName());
-		mb.append(Standardize.Label.event.get()+key.getEvent().getName());
-		mb.append(Standardize.Label.hash.get()+key.hashCode());
-		logger.trace(location, ILogger.null_id, mb.toString());
-		IStateEventValue value = map.get(key);
+		if(logger.isTrace()) {
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.state.get()+state.getName());
+			mb.append(Standardize.Label.event.get()+event.getName());
+			logger.trace(location, ILogger.null_id, mb.toString());
+		}
+		IStateEventValue value = table.get(state, event);
 		return value;
 	}
 	
 	@Override
 	public void transitionLog(IEvent event, Object actionData) {
 		String location = "transition";
-		MessageBuffer mb = new MessageBuffer();
-		mb.append(Standardize.Label.curr.get()+getStateCurrent().getName());
-		mb.append(Standardize.Label.prev.get()+getStatePrevious().getName());
-		mb.append(Standardize.Label.event.get()+event.getName());
-		logger.trace(location, ILogger.null_id, mb.toString());
+		if(logger.isTrace()) {
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.curr.get()+getStateCurrent().getName());
+			mb.append(Standardize.Label.prev.get()+getStatePrevious().getName());
+			mb.append(Standardize.Label.event.get()+event.getName());
+			logger.trace(location, ILogger.null_id, mb.toString());
+		}
 	}
 	
 	@Override
 	public void transition(IEvent event, Object actionData) throws FsmException {
 		try {
-			synchronized(map) {
+			synchronized(this) {
 				IState _stateCurrent = getStateCurrent();
-				IStateEventKey key = new StateEventKey(_stateCurrent, event);
-				IStateEventValue value = get(key);
+				if(event == null) {
+					throw new FsmException("event object is null");
+				}
+				IStateEventValue value = get(_stateCurrent, event);
 				if(value == null) {
 					MessageBuffer mb = new MessageBuffer();
 					mb.append("undefined");
@@ -181,7 +171,7 @@ public class Fsm implements IFsmBuilder {
 	public void reset() throws FsmException {
 		String location = "reset";
 		try {
-			synchronized(map) {
+			synchronized(this) {
 				IState _stateCurrent = getStateInitial();
 				IState _statePrevious = getStateCurrent();
 				if(!_stateCurrent.equals(_statePrevious)) {
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.common.fsm;
+
+import java.util.Arrays;
+
+import org.apache.uima.ducc.container.common.MessageBuffer;
+import org.apache.uima.ducc.container.common.Standardize;
+import org.apache.uima.ducc.container.common.fsm.iface.IAction;
+import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
+import org.apache.uima.ducc.container.common.fsm.iface.IState;
+import org.apache.uima.ducc.container.common.fsm.iface.IStateEventValue;
+import org.apache.uima.ducc.container.common.logger.IComponent;
+import org.apache.uima.ducc.container.common.logger.ILogger;
+import org.apache.uima.ducc.container.common.logger.Logger;
+
+// state x event -> action, next state
+// indexed by state and event ordinal; rows grow as transitions are added
+// once sealed the table is immutable and may be shared by many Fsm instances
+public class FsmTable {
+
+	private static Logger logger = Logger.getLogger(FsmTable.class, IComponent.Id.JD.name());
+	
+	private IStateEventValue[][] rows = new IStateEventValue[0][];
+	private int count = 0;
+	
+	private volatile IStateEventValue[][] table = null;
+	
+	public synchronized void add(IState current, IEvent event, IAction action, IState next) throws FsmException {
+		String location = "add";
+		if(isSealed()) {
+			MessageBuffer mb = new MessageBuffer();
+			mb.append("sealed");
+			mb.append(Standardize.Label.state.get()+current.getName());
+			mb.append(Standardize.Label.event.get()+event.getName());
+			throw new FsmException(mb.toString());
+		}
+		int s = current.getOrdinal();
+		int e = event.getOrdinal();
+		if(lookup(rows, s, e) != null) {
+			MessageBuffer mb = new MessageBuffer();
+			mb.append("duplicate");
+			mb.append(Standardize.Label.state.get()+current.getName());
+			mb.append(Standardize.Label.event.get()+event.getName());
+			throw new FsmException(mb.toString());
+		}
+		if(s >= rows.length) {
+			rows = Arrays.copyOf(rows, s+1);
+		}
+		IStateEventValue[] row = rows[s];
+		if(row == null) {
+			row = new IStateEventValue[e+1];
+		}
+		else if(e >= row.length) {
+			row = Arrays.copyOf(row, e+1);
+		}
+		row[e] = new StateEventValue(action, next);
+		rows[s] = row;
+		count++;
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.state.get()+current.getName());
+		mb.append(Standardize.Label.event.get()+event.getName());
+		logger.trace(location, ILogger.null_id, mb.toString());
+	}
+	
+	private static IStateEventValue lookup(IStateEventValue[][] array, int s, int e) {
+		IStateEventValue retVal = null;
+		if(s < array.length) {
+			IStateEventValue[] row = array[s];
+			if(row != null) {
+				if(e < row.length) {
+					retVal = row[e];
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	public synchronized void seal() {
+		String location = "seal";
+		if(!isSealed()) {
+			table = rows;
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.count.get()+count);
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+	}
+	
+	public boolean isSealed() {
+		return table != null;
+	}
+	
+	public IStateEventValue get(IState state, IEvent event) throws FsmException {
+		IStateEventValue retVal = null;
+		IStateEventValue[][] array = table;
+		if(array != null) {
+			retVal = lookup(array, state.getOrdinal(), event.getOrdinal());
+		}
+		else {
+			synchronized(this) {
+				retVal = lookup(rows, state.getOrdinal(), event.getOrdinal());
+			}
+		}
+		return retVal;
+	}
+}
@@ -21,4 +21,7 @@ package org.apache.uima.ducc.container.common.fsm.iface;
 public interface IEvent extends Comparable<Object> {
 
 	public String getName();
+	
+	// dense, per name; equal events have equal ordinals
+	public int getOrdinal();
 }
@@ -21,4 +21,7 @@ package org.apache.uima.ducc.container.common.fsm.iface;
 public interface IState extends Comparable<Object> {
 
 	public String getName();
+	
+	// dense, per name; equal states have equal ordinals
+	public int getOrdinal();
 }
@@ -55,5 +55,6 @@ public interface ILogger {
     public void warn(String location, Id jobId, Id processId, Throwable t, Object ... args);
     
 	boolean isDebug();
+	boolean isTrace();
 
 }
@@ -173,4 +173,9 @@ public class Logger implements ILogger {
 	public boolean isDebug() {
 		return duccLogger.isDebug();
 	}
+	
+	@Override
+	public boolean isTrace() {
+		return duccLogger.isTrace();
+	}
 }
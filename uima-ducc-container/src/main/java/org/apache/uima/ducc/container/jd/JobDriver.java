@@ -73,6 +73,7 @@ public class JobDriver {
 	private String jobId = null;
 	private String logDir = null;
 	private long workItemTimeoutMillis = 24*60*60*1000;
+	private int prefetchDepth = 0;
 	private ConcurrentHashMap<IRemoteWorkerThread, IWorkItem> remoteWorkerThreadMap = null;
 	private ConcurrentHashMap<IRemotePid, IProcessStatistics> remoteProcessMap = null;
 	private Map<IRemoteLocation, DeallocateReason> killProcessMap = null;
@@ -102,6 +103,7 @@ public class JobDriver {
 			jobId = feh.getJobId();
 			logDir = feh.getLogDirectory();
 			setWorkItemTimeout();
+			setPrefetchDepth();
 			remoteWorkerThreadMap = new ConcurrentHashMap<IRemoteWorkerThread, IWorkItem>();
 			remoteProcessMap = new ConcurrentHashMap<IRemotePid, IProcessStatistics>();
 			killProcessMap = new ConcurrentHashMap<IRemoteLocation, DeallocateReason>();
@@ -141,6 +143,23 @@ public class JobDriver {
 		}
 	}
 	
+	private void setPrefetchDepth() {
+		String location = "setPrefetchDepth";
+		try {
+			FlagsExtendedHelper feh = FlagsExtendedHelper.getInstance();
+			String value = feh.getPrefetchDepth();
+			if(value != null) {
+				prefetchDepth = Integer.parseInt(value.trim());
+			}
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.value.get()+prefetchDepth);
+			logger.trace(location, ILogger.null_id, mb.toString());
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+	
 	public String getJobId() {
 		return jobId;
 	}
@@ -177,6 +196,10 @@ public class JobDriver {
 		return workItemTimeoutMillis;
 	}
 	
+	public int getPrefetchDepth() {
+		return prefetchDepth;
+	}
+	
 	public IWorkItemStateKeeper getWorkItemStateKeeper() {
 		return wisk;
 	}
@@ -183,6 +183,10 @@ public class JobDriverHelper {
 		mb.append(Standardize.Label.min.get()+fmtSec(wis.getMillisMin()));
 		mb.append(Standardize.Label.max.get()+fmtSec(wis.getMillisMax()));
 		mb.append(Standardize.Label.stddev.get()+fmtSec(wis.getMillisStdDev()));
+		mb.append(Standardize.Label.p50.get()+fmtSec(wis.getMillisPercentile(50)));
+		mb.append(Standardize.Label.p95.get()+fmtSec(wis.getMillisPercentile(95)));
+		mb.append(Standardize.Label.p99.get()+fmtSec(wis.getMillisPercentile(99)));
+		mb.append(Standardize.Label.p999.get()+fmtSec(wis.getMillisPercentile(99.9)));
 		logger.info(location, ILogger.null_id, mb);
 		//
 		CasManager cm = jd.getCasManager();
@@ -19,7 +19,9 @@
 package org.apache.uima.ducc.container.jd.cas;
 
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.uima.ducc.container.common.FlagsExtendedHelper;
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
 import org.apache.uima.ducc.container.common.classloader.ProxyException;
@@ -40,6 +42,24 @@ public class CasManager {
 	private LinkedBlockingQueue<IMetaCas> cacheQueue = new LinkedBlockingQueue<IMetaCas>();
 	
 	private CasManagerStats casManagerStats = new CasManagerStats();
+	
+	/*
+	 * Optional read-ahead: a dedicated thread reads from the CR into a
+	 * bounded queue ahead of demand.  The final entry is a marker holding
+	 * no CAS (end of collection) or the CR exception; it is never removed.
+	 * Should the thread die without leaving a marker, requesters notice via
+	 * the periodic liveness check and fail rather than wait forever.
+	 */
+	private LinkedBlockingQueue<ReadAhead> readAheadQueue = null;
+	
+	private Thread readAheadThread = null;
+	
+	private static final long readAheadPollMillis = 1000;
+	
+	private static class ReadAhead {
+		private IMetaCas metaCas = null;
+		private ProxyException exception = null;
+	}
 
 	public CasManager() throws JobDriverException {
 		initialize();
@@ -50,6 +70,12 @@ public class CasManager {
 		try {
 			pjdcr = new ProxyJobDriverCollectionReader();
 			casManagerStats.setCrTotal(pjdcr.getTotal());
+			int readAhead = getReadAhead();
+			if(readAhead > 0) {
+				readAheadQueue = new LinkedBlockingQueue<ReadAhead>(readAhead);
+				casManagerStats.setReadAheadCapacity(readAhead);
+				startReadAhead();
+			}
 		}
 		catch(ProxyException e) {
 			logger.error(location, ILogger.null_id, e);
@@ -62,7 +88,12 @@ public class CasManager {
 		try {
 			IMetaCas retVal = dequeueMetaCas();
 			if(retVal == null) {
-				retVal = pjdcr.getMetaCas();
+				if(readAheadQueue != null) {
+					retVal = takeReadAhead();
+				}
+				else {
+					retVal = readCr();
+				}
 				if(retVal != null) {
 					casManagerStats.incCrGets();
 				}
@@ -75,6 +106,124 @@ public class CasManager {
 		}
 	}
 
+	private int getReadAhead() {
+		String location = "getReadAhead";
+		int retVal = 0;
+		String value = FlagsExtendedHelper.getInstance().getCollectionReaderReadAhead();
+		if(value != null) {
+			try {
+				retVal = Integer.parseInt(value.trim());
+			}
+			catch(Exception e) {
+				logger.warn(location, ILogger.null_id, e);
+			}
+		}
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.value.get()+retVal);
+		logger.info(location, ILogger.null_id, mb);
+		return retVal;
+	}
+	
+	private IMetaCas readCr() throws ProxyException {
+		long start = System.nanoTime();
+		IMetaCas retVal = pjdcr.getMetaCas();
+		if(retVal != null) {
+			casManagerStats.addCrReadTime(System.nanoTime()-start);
+		}
+		return retVal;
+	}
+	
+	private void startReadAhead() {
+		Runnable runnable = new Runnable() {
+			@Override
+			public void run() {
+				readAhead();
+			}
+		};
+		Thread thread = new Thread(runnable);
+		thread.setName("CR Read-Ahead");
+		thread.setDaemon(true);
+		readAheadThread = thread;
+		thread.start();
+	}
+	
+	private ProxyException toProxyException(Throwable t) {
+		if(t instanceof ProxyException) {
+			return (ProxyException) t;
+		}
+		ProxyException retVal = new ProxyException();
+		retVal.initCause(t);
+		return retVal;
+	}
+	
+	private void readAhead() {
+		String location = "readAhead";
+		try {
+			while(true) {
+				ReadAhead item = new ReadAhead();
+				try {
+					item.metaCas = readCr();
+				}
+				catch(Throwable t) {
+					logger.error(location, ILogger.null_id, t);
+					item.metaCas = null;
+					item.exception = toProxyException(t);
+				}
+				readAheadQueue.put(item);
+				casManagerStats.setReadAheadQueued(readAheadQueue.size());
+				if(item.metaCas == null) {
+					break;
+				}
+			}
+		}
+		catch(Throwable t) {
+			logger.error(location, ILogger.null_id, t);
+		}
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.count.get()+casManagerStats.getCrReads());
+		logger.info(location, ILogger.null_id, mb);
+	}
+	
+	private IMetaCas takeReadAhead() throws ProxyException, JobDriverException {
+		String location = "takeReadAhead";
+		IMetaCas retVal = null;
+		try {
+			ReadAhead item = readAheadQueue.poll(readAheadPollMillis, TimeUnit.MILLISECONDS);
+			while(item == null) {
+				if(!readAheadThread.isAlive()) {
+					// a final put may have raced with the liveness check
+					item = readAheadQueue.poll();
+					if(item == null) {
+						ProxyException e = new ProxyException();
+						e.initCause(new IllegalStateException(readAheadThread.getName()+" terminated"));
+						logger.error(location, ILogger.null_id, e);
+						throw e;
+					}
+					break;
+				}
+				item = readAheadQueue.poll(readAheadPollMillis, TimeUnit.MILLISECONDS);
+			}
+			if(item.metaCas == null) {
+				// leave the marker for the next requester
+				readAheadQueue.offer(item);
+				if(item.exception != null) {
+					throw item.exception;
+				}
+			}
+			retVal = item.metaCas;
+			casManagerStats.setReadAheadQueued(readAheadQueue.size());
+		}
+		catch(InterruptedException e) {
+			// keep the interrupt for the caller and do not report end of collection
+			Thread.currentThread().interrupt();
+			logger.warn(location, ILogger.null_id, e);
+			JobDriverException jde = new JobDriverException();
+			jde.initCause(e);
+			throw jde;
+		}
+		return retVal;
+	}
+	
 	private IMetaCas dequeueMetaCas() throws JobDriverException {
 		String location = "dequeueMetaCas";
 		IMetaCas metaCas = cacheQueue.poll();
@@ -106,6 +255,18 @@ public class CasManager {
 		logger.debug(location, ILogger.null_id, mb);
 	}
 	
+	public String getXmi(IMetaCas metaCas) throws JobDriverException {
+		String location = "getXmi";
+		try {
+			String retVal = pjdcr.getXmi(metaCas.getUserSpaceCas());
+			return retVal;
+		}
+		catch(ProxyException e) {
+			logger.error(location, ILogger.null_id, e);
+			throw new JobDriverException();
+		}
+	}
+	
 	public CasManagerStats getCasManagerStats() {
 		return casManagerStats;
 	}
@@ -21,6 +21,7 @@ package org.apache.uima.ducc.container.jd.cas;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CasManagerStats {
 	
@@ -29,6 +30,13 @@ public class CasManagerStats {
 	private AtomicInteger crTotal = new AtomicInteger(0);
 	private AtomicInteger crGets = new AtomicInteger(0);
 	
+	private AtomicLong crReads = new AtomicLong(0);
+	private AtomicLong crReadNanos = new AtomicLong(0);
+	private AtomicLong crReadNanosMax = new AtomicLong(0);
+	
+	private AtomicInteger readAheadCapacity = new AtomicInteger(0);
+	private AtomicInteger readAheadQueued = new AtomicInteger(0);
+	
 	private AtomicInteger retryQueuePuts = new AtomicInteger(0);
 	private AtomicInteger retryQueueGets = new AtomicInteger(0);
 	
@@ -80,6 +88,51 @@ public class CasManagerStats {
 		return crGets.get();
 	}
 	
+	public void addCrReadTime(long nanos) {
+		crReads.incrementAndGet();
+		crReadNanos.addAndGet(nanos);
+		long max = crReadNanosMax.get();
+		while(nanos > max) {
+			if(crReadNanosMax.compareAndSet(max, nanos)) {
+				break;
+			}
+			max = crReadNanosMax.get();
+		}
+	}
+	
+	public long getCrReads() {
+		return crReads.get();
+	}
+	
+	public double getCrReadMillisAvg() {
+		double retVal = 0;
+		long count = crReads.get();
+		if(count > 0) {
+			retVal = (crReadNanos.get() / count) / 1000000.0;
+		}
+		return retVal;
+	}
+	
+	public double getCrReadMillisMax() {
+		return crReadNanosMax.get() / 1000000.0;
+	}
+	
+	public void setReadAheadCapacity(int value) {
+		readAheadCapacity.set(value);
+	}
+	
+	public int getReadAheadCapacity() {
+		return readAheadCapacity.get();
+	}
+	
+	public void setReadAheadQueued(int value) {
+		readAheadQueued.set(value);
+	}
+	
+	public int getReadAheadQueued() {
+		return readAheadQueued.get();
+	}
+	
 	public void incRetryQueuePuts() {
 		retryQueuePuts.incrementAndGet();
 	}
@@ -43,6 +43,7 @@ public class ProxyJobDriverCollectionReader {
 	
 	private String crXml = null;
 	private String crCfg = null;
+	private String casSerialization = null;
 	
 	private Class<?>[] nullClassArray = null;
 	private Object[] nullObjectArray = null;
@@ -60,7 +61,10 @@ public class ProxyJobDriverCollectionReader {
 	
 	private String name_getSeqNo = "getSeqNo";
 	private String name_getDocumentText = "getDocumentText";
-	private String name_getSerializedCas = "getSerializedCas";
+	private String name_getUserSpaceCas = "getUserSpaceCas";
+	
+	private String name_getXmi = "getXmi";
+	private Method method_getXmi = null;
 
 	private String[] requiredClasses = { 
 			"org.apache.uima.ducc.user.jd.JdUserCollectionReader", 
@@ -83,6 +87,7 @@ public class ProxyJobDriverCollectionReader {
 		URLClassLoader classLoader = createClassLoader(userClasspath);
 		String crXml = feh.getCollectionReaderXml();
 		String crCfg = feh.getCollectionReaderCfg();
+		casSerialization = feh.getCasSerialization();
 		construct(classLoader, crXml, crCfg);
 	}
 	
@@ -115,8 +120,8 @@ public class ProxyJobDriverCollectionReader {
 				Method method_getSeqNo = class_JdUserMetaCas.getMethod(name_getSeqNo, nullClassArray);
 				Integer integer = (Integer)method_getSeqNo.invoke(instance_metaCas, nullObjectArray);
 				int seqNo = integer.intValue();
-				Method method_getSerializedCas = class_JdUserMetaCas.getMethod(name_getSerializedCas, nullClassArray);
-				Object serializedCas = method_getSerializedCas.invoke(instance_metaCas, nullObjectArray);
+				Method method_getUserSpaceCas = class_JdUserMetaCas.getMethod(name_getUserSpaceCas, nullClassArray);
+				Object serializedCas = method_getUserSpaceCas.invoke(instance_metaCas, nullObjectArray);
 				Method method_getDocumentText = class_JdUserMetaCas.getMethod(name_getDocumentText, nullClassArray);
 				String docId = (String)method_getDocumentText.invoke(instance_metaCas, nullObjectArray);
 				retVal = new MetaCas(seqNo, docId, serializedCas);
@@ -129,6 +134,21 @@ public class ProxyJobDriverCollectionReader {
 		return retVal;
 	}
 	
+	/**
+	 * @return the XMI form of a serialized CAS (which may be binary)
+	 */
+	public String getXmi(Object serializedCas) throws ProxyException {
+		String retVal = null;
+		try {
+			retVal = (String)method_getXmi.invoke(instance_JdUserCollectionReader, serializedCas);
+		} 
+		catch(Exception e) {
+			ProxyLogger.loggifyUserException(e);
+			throw new ProxyException();
+		}
+		return retVal;
+	}
+	
 	private void construct(URLClassLoader classLoader, String crXml, String cfCfg) throws Exception {
 		setup(classLoader, crXml, cfCfg);
 		validate();
@@ -160,9 +180,10 @@ public class ProxyJobDriverCollectionReader {
 	
 	private void prepare() throws Exception {
 		class_JdUserCollectionReader = urlClassLoader.loadClass("org.apache.uima.ducc.user.jd.JdUserCollectionReader");
-		Constructor<?> constructor_JdUserCollectionReader = class_JdUserCollectionReader.getConstructor(String.class,String.class);
-		instance_JdUserCollectionReader = constructor_JdUserCollectionReader.newInstance(new Object[] { crXml, crCfg });
+		Constructor<?> constructor_JdUserCollectionReader = class_JdUserCollectionReader.getConstructor(String.class,String.class,String.class);
+		instance_JdUserCollectionReader = constructor_JdUserCollectionReader.newInstance(new Object[] { crXml, crCfg, casSerialization });
 		method_getTotal = class_JdUserCollectionReader.getMethod(name_getTotal, nullClassArray);
+		method_getXmi = class_JdUserCollectionReader.getMethod(name_getXmi, Object.class);
 		class_JdUserMetaCas = urlClassLoader.loadClass("org.apache.uima.ducc.user.jd.JdUserMetaCas");
 		method_getJdUserMetaCas = class_JdUserCollectionReader.getMethod(name_getJdUserMetaCas, nullClassArray);
 	}
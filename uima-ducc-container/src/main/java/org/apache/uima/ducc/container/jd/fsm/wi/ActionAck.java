@@ -27,6 +27,7 @@ import org.apache.uima.ducc.container.common.logger.ILogger;
 import org.apache.uima.ducc.container.common.logger.Logger;
 import org.apache.uima.ducc.container.jd.JobDriver;
 import org.apache.uima.ducc.container.jd.log.LoggerHelper;
+import org.apache.uima.ducc.container.jd.timeout.ITimeoutManager;
 import org.apache.uima.ducc.container.jd.timeout.TimeoutManager;
 import org.apache.uima.ducc.container.jd.wi.IWorkItem;
 import org.apache.uima.ducc.container.net.iface.IMetaCas;
@@ -54,7 +55,7 @@ public class ActionAck implements IAction {
 				MetaCasHelper metaCasHelper = new MetaCasHelper(metaCas);
 				if(metaCas != null) {
 					//
-					TimeoutManager toMgr = TimeoutManager.getInstance();
+					ITimeoutManager toMgr = TimeoutManager.getInstance();
 					toMgr.receivedAck(actionData);
 					toMgr.pendingEnd(actionData);
 					//
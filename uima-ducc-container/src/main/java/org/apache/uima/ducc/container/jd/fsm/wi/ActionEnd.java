@@ -36,6 +36,7 @@ import org.apache.uima.ducc.container.jd.cas.CasManager;
 import org.apache.uima.ducc.container.jd.log.LoggerHelper;
 import org.apache.uima.ducc.container.jd.mh.RemoteWorkerProcess;
 import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerProcess;
+import org.apache.uima.ducc.container.jd.timeout.ITimeoutManager;
 import org.apache.uima.ducc.container.jd.timeout.TimeoutManager;
 import org.apache.uima.ducc.container.jd.user.error.classload.ProxyUserErrorException;
 import org.apache.uima.ducc.container.jd.user.error.classload.ProxyUserErrorStringify;
@@ -123,55 +124,86 @@ public class ActionEnd extends ActionEndAbstract implements IAction {
 			IMetaCas metaCas = wi.getMetaCas();
 			if(metaCas != null) {
 				IPerformanceMetrics performanceMetrics = metaCas.getPerformanceMetrics();
-				if(performanceMetrics != null) {
+				if(performanceMetrics != null && performanceMetrics.getValues() != null) {
+					updateCompactPerformanceMetrics(actionData, wi, performanceMetrics);
+				}
+				else if(performanceMetrics != null) {
 					List<Properties> list = performanceMetrics.get();
 					if(list != null) {
-						int size = 0;
-						if(list !=  null) {
-							size = list.size();
-							JobDriver jd = JobDriver.getInstance();
-							String logdir = jd.getLogDir();
-							String wiNo = ""+wi.getSeqNo();
-							IWorkItemPerformanceIndividualKeeper wipik = new WorkItemPerformanceIndividualKeeper(logdir, wiNo);
-							IWorkItemPerformanceSummaryKeeper wipsk = jd.getWorkItemPerformanceSummaryKeeper();
-							wipsk.count();
-							long total_time = 0;
-							for(Properties properties : list) {
-								String name = properties.getProperty(keyName);
-								String uniqueName = normalizeUniqueName(properties.getProperty(keyUniqueName));
-								String analysisTime = properties.getProperty(keyAnalysisTime);
-								long time = 0;
-								try {
-									time = Long.parseLong(analysisTime);
-								}
-								catch(Exception e) {
-									logger.error(location, ILogger.null_id, e);
-								}
-								wipik.dataAdd(name, uniqueName, time);
-								wipsk.dataAdd(name, uniqueName, time);
-								for(Entry<Object, Object> entry : properties.entrySet()) {
-									String key = (String) entry.getKey();
-									String value = (String) entry.getValue();
-									MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-									mb.append(Standardize.Label.key.get()+key);
-									mb.append(Standardize.Label.value.get()+value);
-									logger.debug(location, ILogger.null_id, mb.toString());
-								}
-								total_time += time;
+						int size = list.size();
+						String[] names = new String[size];
+						String[] uniqueNames = new String[size];
+						long[] times = new long[size];
+						for(int i=0; i<size; i++) {
+							Properties properties = list.get(i);
+							names[i] = properties.getProperty(keyName);
+							uniqueNames[i] = properties.getProperty(keyUniqueName);
+							String analysisTime = properties.getProperty(keyAnalysisTime);
+							try {
+								times[i] = Long.parseLong(analysisTime);
+							}
+							catch(Exception e) {
+								logger.error(location, ILogger.null_id, e);
+							}
+							for(Entry<Object, Object> entry : properties.entrySet()) {
+								String key = (String) entry.getKey();
+								String value = (String) entry.getValue();
+								MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+								mb.append(Standardize.Label.key.get()+key);
+								mb.append(Standardize.Label.value.get()+value);
+								logger.debug(location, ILogger.null_id, mb.toString());
 							}
-							wipik.publish();
-							// Add the aggregate values as if a no-name delegate
-							wipsk.dataAdd("TOTALS", "", total_time);
 						}
-						MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-						mb.append(Standardize.Label.size.get()+size);
-						logger.debug(location, ILogger.null_id, mb.toString());
+						keepPerformanceMetrics(actionData, wi, names, uniqueNames, times);
 					}
 				}
 			}
 		}
 	}
 	
+	private void updateCompactPerformanceMetrics(IActionData actionData, IWorkItem wi, IPerformanceMetrics performanceMetrics) {
+		String location = "updateCompactPerformanceMetrics";
+		String[] names = performanceMetrics.getNames();
+		long[] values = performanceMetrics.getValues();
+		if(logger.isDebug()) {
+			for(int i=0; i<names.length; i++) {
+				MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+				mb.append(Standardize.Label.name.get()+names[i]);
+				mb.append(Standardize.Label.value.get()+values[i]);
+				logger.debug(location, ILogger.null_id, mb.toString());
+			}
+		}
+		keepPerformanceMetrics(actionData, wi, names, performanceMetrics.getUniqueNames(), values);
+	}
+	
+	/**
+	 * Record per component analysis times in the work item's individual
+	 * performance file and in the job's performance summary.
+	 */
+	private void keepPerformanceMetrics(IActionData actionData, IWorkItem wi, String[] names, String[] uniqueNames, long[] times) {
+		String location = "keepPerformanceMetrics";
+		int size = names.length;
+		JobDriver jd = JobDriver.getInstance();
+		String logdir = jd.getLogDir();
+		String wiNo = ""+wi.getSeqNo();
+		IWorkItemPerformanceIndividualKeeper wipik = new WorkItemPerformanceIndividualKeeper(logdir, wiNo);
+		IWorkItemPerformanceSummaryKeeper wipsk = jd.getWorkItemPerformanceSummaryKeeper();
+		wipsk.count();
+		long total_time = 0;
+		for(int i=0; i<size; i++) {
+			String uniqueName = normalizeUniqueName(uniqueNames[i]);
+			wipik.dataAdd(names[i], uniqueName, times[i]);
+			wipsk.dataAdd(names[i], uniqueName, times[i]);
+			total_time += times[i];
+		}
+		wipik.publish();
+		// Add the aggregate values as if a no-name delegate
+		wipsk.dataAdd("TOTALS", "", total_time);
+		MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+		mb.append(Standardize.Label.size.get()+size);
+		logger.debug(location, ILogger.null_id, mb.toString());
+	}
+	
 	@Override
 	public void engage(Object objectData) {
 		String location = "engage";
@@ -194,7 +226,7 @@ public class ActionEnd extends ActionEndAbstract implements IAction {
 				if(metaCas != null) {
 					WiTracker.getInstance().unassign(wi);
 					//
-					TimeoutManager toMgr = TimeoutManager.getInstance();
+					ITimeoutManager toMgr = TimeoutManager.getInstance();
 					toMgr.receivedAck(actionData);
 					toMgr.receivedEnd(actionData);
 					//
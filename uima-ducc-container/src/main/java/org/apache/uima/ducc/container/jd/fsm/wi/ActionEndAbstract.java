@@ -171,7 +171,7 @@ public abstract class ActionEndAbstract extends Action implements IAction {
 		//
 		ProxyJobDriverDirective pjdd = null;
 		try {
-			String serializedCas = (String) metaCas.getUserSpaceCas();
+			String serializedCas = cm.getXmi(metaCas);
 			ProxyJobDriverErrorHandler pjdeh = jd.getProxyJobDriverErrorHandler();
 			pjdd = pjdeh.handle(serializedCas, userException);
 		}
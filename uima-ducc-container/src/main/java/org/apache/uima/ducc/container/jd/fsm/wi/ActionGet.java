@@ -118,6 +118,7 @@ public class ActionGet implements IAction {
 					metaCas = cm.getMetaCas();
 				}
 				wi.setMetaCas(metaCas);
+				tracker.index(rwt, wi);
 				trans.setMetaCas(metaCas);
 				IWorkItemStateKeeper wisk = jd.getWorkItemStateKeeper();
 				MetaCasHelper metaCasHelper = new MetaCasHelper(metaCas);
@@ -25,6 +25,7 @@ import org.apache.uima.ducc.container.common.logger.ILogger;
 import org.apache.uima.ducc.container.common.logger.Logger;
 import org.apache.uima.ducc.container.jd.log.LoggerHelper;
 import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerThread;
+import org.apache.uima.ducc.container.jd.timeout.ITimeoutManager;
 import org.apache.uima.ducc.container.jd.timeout.TimeoutManager;
 import org.apache.uima.ducc.container.jd.wi.IWorkItem;
 import org.apache.uima.ducc.container.jd.wi.WiTracker;
@@ -54,7 +55,7 @@ public class ActionSend implements IAction {
 				IMetaCas metaCas = trans.getMetaCas();
 				wi.setMetaCas(metaCas);
 				//
-				TimeoutManager toMgr = TimeoutManager.getInstance();
+				ITimeoutManager toMgr = TimeoutManager.getInstance();
 				toMgr.pendingAck(actionData);
 				MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
 				logger.debug(location, ILogger.null_id, mb.toString());
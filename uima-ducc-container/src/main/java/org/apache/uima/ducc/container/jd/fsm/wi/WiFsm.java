@@ -23,6 +23,7 @@ import org.apache.uima.ducc.container.common.Standardize;
 import org.apache.uima.ducc.container.common.fsm.Event;
 import org.apache.uima.ducc.container.common.fsm.Fsm;
 import org.apache.uima.ducc.container.common.fsm.FsmException;
+import org.apache.uima.ducc.container.common.fsm.FsmTable;
 import org.apache.uima.ducc.container.common.fsm.State;
 import org.apache.uima.ducc.container.common.fsm.iface.IAction;
 import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
@@ -43,11 +44,14 @@ public class WiFsm extends Fsm {
 	public static IState Get_Pending 				= new State("Get_Pending");
 	public static IState CAS_Send 					= new State("CAS_Send");
 	public static IState CAS_Active 				= new State("CAS_Active");
+	public static IState CAS_Queued 				= new State("CAS_Queued");	// assigned, not yet started
 	
 	public static IEvent Get_Request 				= new Event("Get_Request");
 	public static IEvent CAS_Available				= new Event("CAS_Available");
 	public static IEvent CAS_Unavailable			= new Event("CAS_Unavailable");
 	public static IEvent Ack_Request 				= new Event("Ack_Request");
+	public static IEvent Ack_Queued_Request 		= new Event("Ack_Queued_Request");
+	public static IEvent Start_Request 				= new Event("Start_Request");
 	public static IEvent Send_Failure 				= new Event("Send_Failure");
 	public static IEvent Ack_Timer_Pop				= new Event("Ack_Timer_Pop");
 	public static IEvent End_Request 				= new Event("End_Request");
@@ -57,12 +61,15 @@ public class WiFsm extends Fsm {
 	public static IEvent Process_Preempt			= new Event("Process_Premept");
 	public static IEvent Process_Volunteered		= new Event("Process_Volunteered");
 	public static IEvent Investment_Reset			= new Event("Investment_Reset");
+	public static IEvent Return_Request				= new Event("Return_Request");
 	
 	public static IAction ActionGet					= new ActionGet();
 	public static IAction ActionGetRedux			= new ActionGetRedux();
 	public static IAction ActionSend				= new ActionSend();
 	public static IAction ActionAck					= new ActionAck();
 	public static IAction ActionAckRedux			= new ActionAckRedux();
+	public static IAction ActionAckQueued			= new ActionAckQueued();
+	public static IAction ActionStart				= new ActionStart();
 	public static IAction ActionEnd					= new ActionEnd();
 	
 	public static IAction ActionProcessBlacklist	= new ActionProcessBlacklist();
@@ -78,78 +85,107 @@ public class WiFsm extends Fsm {
 	public static IAction ActionIgnore 				= new ActionIgnore();
 	public static IAction ActionError				= new ActionError();
 	
+	// the transition table is immutable and shared by all work items
+	private static FsmTable table = buildTable();
+	
 	public WiFsm() throws FsmException {
-		super();
-		// build only 1 Fsm at a time
-		// (not really necessary, but to avoid confusion in logs)
-		synchronized(WiFsm.class) {
-			initialize();
-		}
-		
+		super(table);
+		initial(Start);
 	}
 	
-	private void initialize() throws FsmException {
-		String location = "initialize";
+	private static FsmTable buildTable() throws FsmException {
+		String location = "buildTable";
 		
 		MessageBuffer mb1 = new MessageBuffer();
 		mb1.append(Standardize.Label.enter.name());
 		logger.trace(location, ILogger.null_id, mb1.toString());
 		
+		FsmTable fsmTable = new FsmTable();
+		
 		// current state // event // action // next state //
 		
-		initial(Start);
+		fsmTable.add(Start, Get_Request, ActionGet, Get_Pending);
+		fsmTable.add(Start, CAS_Available, ActionIgnore, Start);
+		fsmTable.add(Start, CAS_Unavailable, ActionIgnore, Start);
+		fsmTable.add(Start, Ack_Request, ActionError, Start);
+		fsmTable.add(Start, Ack_Queued_Request, ActionError, Start);
+		fsmTable.add(Start, Start_Request, ActionError, Start);
+		fsmTable.add(Start, End_Request, ActionError, Start);
+		fsmTable.add(Start, Process_Preempt, ActionIgnore, Start);
+		fsmTable.add(Start, Process_Volunteered, ActionProcessBlacklist, Start);
+		fsmTable.add(Start, Process_Failure, ActionProcessBlacklist, Start);
+		fsmTable.add(Start, Ack_Timer_Pop, ActionIgnore, Start);
+		fsmTable.add(Start, End_Timer_Pop, ActionIgnore, Start);
+		fsmTable.add(Start, Investment_Reset, ActionIgnore, Start);
+		fsmTable.add(Start, Return_Request, ActionIgnore, Start);
 		
-		add(Start, Get_Request, ActionGet, Get_Pending);
-		add(Start, CAS_Available, ActionIgnore, Start);
-		add(Start, CAS_Unavailable, ActionIgnore, Start);
-		add(Start, Ack_Request, ActionError, Start);
-		add(Start, End_Request, ActionError, Start);
-		add(Start, Process_Preempt, ActionIgnore, Start);
-		add(Start, Process_Volunteered, ActionProcessBlacklist, Start);
-		add(Start, Process_Failure, ActionProcessBlacklist, Start);
-		add(Start, Ack_Timer_Pop, ActionIgnore, Start);
-		add(Start, End_Timer_Pop, ActionIgnore, Start);
-		add(Start, Investment_Reset, ActionIgnore, Start);
+		fsmTable.add(Get_Pending, Get_Request, ActionGetRedux, Get_Pending);
+		fsmTable.add(Get_Pending, CAS_Available, ActionSend, CAS_Send);
+		fsmTable.add(Get_Pending, CAS_Unavailable, ActionIgnore, Start);
+		fsmTable.add(Get_Pending, Ack_Request, ActionError, Get_Pending);
+		fsmTable.add(Get_Pending, Ack_Queued_Request, ActionError, Get_Pending);
+		fsmTable.add(Get_Pending, Start_Request, ActionError, Get_Pending);
+		fsmTable.add(Get_Pending, End_Request, ActionError, Get_Pending);
+		fsmTable.add(Get_Pending, Process_Preempt, ActionProcessPreempt, Start);
+		fsmTable.add(Get_Pending, Process_Volunteered, ActionProcessVolunteered, Start);
+		fsmTable.add(Get_Pending, Process_Failure, ActionProcessFailure, Start);
+		fsmTable.add(Get_Pending, Ack_Timer_Pop, ActionIgnore, Get_Pending);
+		fsmTable.add(Get_Pending, End_Timer_Pop, ActionIgnore, Get_Pending);
+		fsmTable.add(Get_Pending, Investment_Reset, ActionIgnore, Get_Pending);
+		fsmTable.add(Get_Pending, Return_Request, ActionIgnore, Get_Pending);
 		
-		add(Get_Pending, Get_Request, ActionGetRedux, Get_Pending);
-		add(Get_Pending, CAS_Available, ActionSend, CAS_Send);
-		add(Get_Pending, CAS_Unavailable, ActionIgnore, Start);
-		add(Get_Pending, Ack_Request, ActionError, Get_Pending);
-		add(Get_Pending, End_Request, ActionError, Get_Pending);
-		add(Get_Pending, Process_Preempt, ActionProcessPreempt, Start);
-		add(Get_Pending, Process_Volunteered, ActionProcessVolunteered, Start);
-		add(Get_Pending, Process_Failure, ActionProcessFailure, Start);
-		add(Get_Pending, Ack_Timer_Pop, ActionIgnore, Get_Pending);
-		add(Get_Pending, End_Timer_Pop, ActionIgnore, Get_Pending);
-		add(Get_Pending, Investment_Reset, ActionIgnore, Get_Pending);
+		fsmTable.add(CAS_Send, Get_Request, ActionGetRedux, Get_Pending);
+		fsmTable.add(CAS_Send, CAS_Available, ActionIgnore, CAS_Send);
+		fsmTable.add(CAS_Send, CAS_Unavailable, ActionIgnore, CAS_Send);
+		fsmTable.add(CAS_Send, Ack_Request, ActionAck, CAS_Active);
+		fsmTable.add(CAS_Send, Ack_Queued_Request, ActionAckQueued, CAS_Queued);
+		fsmTable.add(CAS_Send, Start_Request, ActionError, CAS_Send);
+		fsmTable.add(CAS_Send, End_Request, ActionError, CAS_Send);
+		fsmTable.add(CAS_Send, Process_Preempt, ActionProcessPreempt, Start);
+		fsmTable.add(CAS_Send, Process_Volunteered, ActionProcessVolunteered, Start);
+		fsmTable.add(CAS_Send, Process_Failure, ActionProcessFailure, Start);
+		fsmTable.add(CAS_Send, Ack_Timer_Pop, ActionAckTimeout, Start);
+		fsmTable.add(CAS_Send, End_Timer_Pop, ActionIgnore, CAS_Send);
+		fsmTable.add(CAS_Send, Investment_Reset, ActionIgnore, CAS_Send);
+		fsmTable.add(CAS_Send, Return_Request, ActionIgnore, CAS_Send);
 		
-		add(CAS_Send, Get_Request, ActionGetRedux, Get_Pending);
-		add(CAS_Send, CAS_Available, ActionIgnore, CAS_Send);
-		add(CAS_Send, CAS_Unavailable, ActionIgnore, CAS_Send);
-		add(CAS_Send, Ack_Request, ActionAck, CAS_Active);
-		add(CAS_Send, End_Request, ActionError, CAS_Send);
-		add(CAS_Send, Process_Preempt, ActionProcessPreempt, Start);
-		add(CAS_Send, Process_Volunteered, ActionProcessVolunteered, Start);
-		add(CAS_Send, Process_Failure, ActionProcessFailure, Start);
-		add(CAS_Send, Ack_Timer_Pop, ActionAckTimeout, Start);
-		add(CAS_Send, End_Timer_Pop, ActionIgnore, CAS_Send);
-		add(CAS_Send, Investment_Reset, ActionIgnore, CAS_Send);
+		fsmTable.add(CAS_Active, Get_Request, ActionGetRedux, Get_Pending);
+		fsmTable.add(CAS_Active, CAS_Available, ActionIgnore, CAS_Active);
+		fsmTable.add(CAS_Active, CAS_Unavailable, ActionIgnore, CAS_Active);
+		fsmTable.add(CAS_Active, Ack_Request, ActionAckRedux, CAS_Active);
+		fsmTable.add(CAS_Active, Ack_Queued_Request, ActionIgnore, CAS_Active);
+		fsmTable.add(CAS_Active, Start_Request, ActionIgnore, CAS_Active);
+		fsmTable.add(CAS_Active, End_Request, ActionEnd, Start);
+		fsmTable.add(CAS_Active, Process_Preempt, ActionProcessPreempt, Start);
+		fsmTable.add(CAS_Active, Process_Volunteered, ActionProcessVolunteered, Start);
+		fsmTable.add(CAS_Active, Process_Failure, ActionProcessFailure, Start);
+		fsmTable.add(CAS_Active, Ack_Timer_Pop, ActionIgnore, CAS_Active);
+		fsmTable.add(CAS_Active, End_Timer_Pop, ActionEndTimeout, Start);
+		fsmTable.add(CAS_Active, Investment_Reset, ActionInvestmentReset, CAS_Active);
+		fsmTable.add(CAS_Active, Return_Request, ActionIgnore, CAS_Active);
 		
-		add(CAS_Active, Get_Request, ActionGetRedux, Get_Pending);
-		add(CAS_Active, CAS_Available, ActionIgnore, CAS_Active);
-		add(CAS_Active, CAS_Unavailable, ActionIgnore, CAS_Active);
-		add(CAS_Active, Ack_Request, ActionAckRedux, CAS_Active);
-		add(CAS_Active, End_Request, ActionEnd, Start);
-		add(CAS_Active, Process_Preempt, ActionProcessPreempt, Start);
-		add(CAS_Active, Process_Volunteered, ActionProcessVolunteered, Start);
-		add(CAS_Active, Process_Failure, ActionProcessFailure, Start);
-		add(CAS_Active, Ack_Timer_Pop, ActionIgnore, CAS_Active);
-		add(CAS_Active, End_Timer_Pop, ActionEndTimeout, Start);
-		add(CAS_Active, Investment_Reset, ActionInvestmentReset, CAS_Active);
+		fsmTable.add(CAS_Queued, Get_Request, ActionGetRedux, Get_Pending);
+		fsmTable.add(CAS_Queued, CAS_Available, ActionIgnore, CAS_Queued);
+		fsmTable.add(CAS_Queued, CAS_Unavailable, ActionIgnore, CAS_Queued);
+		fsmTable.add(CAS_Queued, Ack_Request, ActionIgnore, CAS_Queued);
+		fsmTable.add(CAS_Queued, Ack_Queued_Request, ActionIgnore, CAS_Queued);
+		fsmTable.add(CAS_Queued, Start_Request, ActionStart, CAS_Active);
+		fsmTable.add(CAS_Queued, End_Request, ActionEnd, Start);
+		fsmTable.add(CAS_Queued, Process_Preempt, ActionProcessPreempt, Start);
+		fsmTable.add(CAS_Queued, Process_Volunteered, ActionProcessVolunteered, Start);
+		fsmTable.add(CAS_Queued, Process_Failure, ActionProcessFailure, Start);
+		fsmTable.add(CAS_Queued, Ack_Timer_Pop, ActionAckTimeout, Start);
+		fsmTable.add(CAS_Queued, End_Timer_Pop, ActionIgnore, CAS_Queued);
+		fsmTable.add(CAS_Queued, Investment_Reset, ActionIgnore, CAS_Queued);
+		// given back unstarted, requeued as for a volunteered process
+		fsmTable.add(CAS_Queued, Return_Request, ActionProcessVolunteered, Start);
+		
+		fsmTable.seal();
 		
 		MessageBuffer mb2 = new MessageBuffer();
 		mb2.append(Standardize.Label.exit.name());
 		logger.trace(location, ILogger.null_id, mb2.toString());
+		return fsmTable;
 	}
 	
 	@Override
@@ -176,10 +212,12 @@ public class WiFsm extends Fsm {
 	public void transitionLog(IEvent event, Object objectData) {
 		String location = "transition";
 		IActionData actionData = (IActionData) objectData;
-		MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-		mb.append(Standardize.Label.curr.get()+getStateCurrent().getName());
-		mb.append(Standardize.Label.prev.get()+getStatePrevious().getName());
-		mb.append(Standardize.Label.event.get()+event.getName());
-		logger.debug(location, ILogger.null_id, mb.toString());
+		if(logger.isDebug()) {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			mb.append(Standardize.Label.curr.get()+getStateCurrent().getName());
+			mb.append(Standardize.Label.prev.get()+getStatePrevious().getName());
+			mb.append(Standardize.Label.event.get()+event.getName());
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
 	}
 }
@@ -21,10 +21,12 @@ package org.apache.uima.ducc.container.jd.mh;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
@@ -76,7 +78,15 @@ public class MessageHandler implements IMessageHandler {
 	
 	private ConcurrentHashMap<String,String> failedInitializationMap = new ConcurrentHashMap<String,String>();
 	
-	private ConcurrentHashMap<IRemoteWorkerThread,IRemoteWorkerThread> wipMap = new ConcurrentHashMap<IRemoteWorkerThread,IRemoteWorkerThread>();
+	private ConcurrentHashMap<IRemoteWorkerThread,WipLock> wipMap = new ConcurrentHashMap<IRemoteWorkerThread,WipLock>();
+	
+	// serializes in-flight requests per remote worker thread;
+	// removed from wipMap once the last holder or waiter is gone
+	private static class WipLock {
+		private ReentrantLock lock = new ReentrantLock(true);
+		private int users = 0;
+		private boolean retired = false;
+	}
 	
 	private JobProcessBlacklist jobProcessBlacklist = JobProcessBlacklist.getInstance();
 	
@@ -165,6 +175,11 @@ public class MessageHandler implements IMessageHandler {
 			oi.setWorkItemFinishedMillisMin(wis.getMillisMin());
 			oi.setWorkItemFinishedMillisMax(wis.getMillisMax());
 			oi.setWorkItemFinishedMillisAvg(wis.getMillisAvg());
+			oi.setWorkItemFinishedMillisStdDev(wis.getMillisStdDev());
+			oi.setWorkItemFinishedMillisP50(wis.getMillisPercentile(50));
+			oi.setWorkItemFinishedMillisP95(wis.getMillisPercentile(95));
+			oi.setWorkItemFinishedMillisP99(wis.getMillisPercentile(99));
+			oi.setWorkItemFinishedMillisP999(wis.getMillisPercentile(99.9));
 			oi.setWorkItemRunningMillisMin(rwis.getMillisMin());
 			oi.setWorkItemRunningMillisMax(rwis.getMillisMax());
 			oi.setWorkItemTodMostRecentStart(rwis.getTodMostRecentStart());
@@ -176,6 +191,10 @@ public class MessageHandler implements IMessageHandler {
 			mb.append(Standardize.Label.jdState.get()+oi.getJdState());
 			mb.append(Standardize.Label.crTotal.get()+oi.getWorkItemCrTotal());
 			mb.append(Standardize.Label.crFetches.get()+oi.getWorkItemCrFetches());
+			mb.append(Standardize.Label.crReadMillisAvg.get()+cms.getCrReadMillisAvg());
+			mb.append(Standardize.Label.crReadMillisMax.get()+cms.getCrReadMillisMax());
+			mb.append(Standardize.Label.readAheadQueued.get()+cms.getReadAheadQueued());
+			mb.append(Standardize.Label.readAheadCapacity.get()+cms.getReadAheadCapacity());
 			mb.append(Standardize.Label.endSuccess.get()+oi.getWorkItemEndSuccesses());
 			mb.append(Standardize.Label.endFailure.get()+oi.getWorkItemEndFailures());
 			mb.append(Standardize.Label.killJob.get()+oi.isKillJob());
@@ -185,6 +204,11 @@ public class MessageHandler implements IMessageHandler {
 			mb.append(Standardize.Label.finishedMillisMin.get()+oi.getWorkItemFinishedMillisMin());
 			mb.append(Standardize.Label.finishedMillisMax.get()+oi.getWorkItemFinishedMillisMax());
 			mb.append(Standardize.Label.finishedMillisAvg.get()+oi.getWorkItemFinishedMillisAvg());
+			mb.append(Standardize.Label.finishedMillisStdDev.get()+oi.getWorkItemFinishedMillisStdDev());
+			mb.append(Standardize.Label.finishedMillisP50.get()+oi.getWorkItemFinishedMillisP50());
+			mb.append(Standardize.Label.finishedMillisP95.get()+oi.getWorkItemFinishedMillisP95());
+			mb.append(Standardize.Label.finishedMillisP99.get()+oi.getWorkItemFinishedMillisP99());
+			mb.append(Standardize.Label.finishedMillisP999.get()+oi.getWorkItemFinishedMillisP999());
 			mb.append(Standardize.Label.runningMillisMin.get()+oi.getWorkItemRunningMillisMin());
 			mb.append(Standardize.Label.runningMillisMax.get()+oi.getWorkItemRunningMillisMax());
 			mb.append(Standardize.Label.todMostRecentStart.get()+oi.getWorkItemTodMostRecentStart());
@@ -341,21 +365,30 @@ public class MessageHandler implements IMessageHandler {
 	private void block(IRemoteWorkerThread rwt) {
 		String location = "block";
 		if(rwt != null) {
-			IRemoteWorkerThread result = wipMap.putIfAbsent(rwt, rwt);
-			if(result != null) {
+			WipLock wipLock = null;
+			while(wipLock == null) {
+				WipLock candidate = wipMap.get(rwt);
+				if(candidate == null) {
+					candidate = new WipLock();
+					WipLock result = wipMap.putIfAbsent(rwt, candidate);
+					if(result != null) {
+						candidate = result;
+					}
+				}
+				synchronized(candidate) {
+					if(!candidate.retired) {
+						candidate.users++;
+						wipLock = candidate;
+					}
+				}
+			}
+			if(!wipLock.lock.tryLock()) {
 				MessageBuffer mb;
 				mb = new MessageBuffer();
 				mb.append(Standardize.Label.remote.get()+rwt.toString());
 				mb.append(Standardize.Label.status.get()+"delayed");
 				logger.warn(location, ILogger.null_id, mb.toString());
-				while(result != null) {
-					try {
-						Thread.sleep(200);
-					}
-					catch(Exception e) {
-					}
-					result = wipMap.putIfAbsent(rwt, rwt);
-				}
+				wipLock.lock.lock();
 				mb = new MessageBuffer();
 				mb.append(Standardize.Label.remote.get()+rwt.toString());
 				mb.append(Standardize.Label.status.get()+"in-force");
@@ -366,7 +399,19 @@ public class MessageHandler implements IMessageHandler {
 	
 	private void unblock(IRemoteWorkerThread rwt) {
 		if(rwt != null) {
-			wipMap.remove(rwt);
+			WipLock wipLock = wipMap.get(rwt);
+			if(wipLock != null) {
+				if(wipLock.lock.isHeldByCurrentThread()) {
+					wipLock.lock.unlock();
+					synchronized(wipLock) {
+						wipLock.users--;
+						if(wipLock.users == 0) {
+							wipLock.retired = true;
+							wipMap.remove(rwt, wipLock);
+						}
+					}
+				}
+			}
 		}
 	}
 	
@@ -448,6 +493,10 @@ public class MessageHandler implements IMessageHandler {
 	public void handleMetaCasTransation(IMetaCasTransaction trans) {
 		String location = "handleMetaCasTransation";
 		RemoteWorkerThread rwt = null;
+		if(trans.getType() == Type.Batch) {
+			handleMetaCasTransationBatch(trans);
+			return;
+		}
 		try {
 			trans.setResponseHints(new ArrayList<Hint>());
 			rwt = new RemoteWorkerThread(trans);
@@ -465,12 +514,21 @@ public class MessageHandler implements IMessageHandler {
 			case Ack:
 				handleMetaCasTransationAck(trans, rwt);
 				break;
+			case AckQueued:
+				handleMetaCasTransationAckQueued(trans, rwt);
+				break;
+			case Start:
+				handleMetaCasTransationStart(trans, rwt);
+				break;
 			case End:
 				handleMetaCasTransationEnd(trans, rwt);
 				break;
 			case InvestmentReset:
 				handleMetaCasTransationInvestmentReset(trans, rwt);
 				break;
+			case Return:
+				handleMetaCasTransationReturn(trans, rwt);
+				break;
 			default:
 				break;
 			}
@@ -491,6 +549,34 @@ public class MessageHandler implements IMessageHandler {
 		}
 	}
 	
+	/*
+	 * Each transaction in the batch is run through its own work item FSM,
+	 * exactly as if it had arrived by itself; replies are returned in place.
+	 */
+	private void handleMetaCasTransationBatch(IMetaCasTransaction trans) {
+		String location = "handleMetaCasTransationBatch";
+		try {
+			trans.setResponseHints(new ArrayList<Hint>());
+			List<IMetaCasTransaction> batch = trans.getBatch();
+			if(batch != null) {
+				long stime = System.nanoTime();  // Used when log level == debug
+				for(IMetaCasTransaction item : batch) {
+					handleMetaCasTransation(item);
+				}
+				accumulateTimes(Type.Batch.name(), stime);
+				MessageBuffer mb = new MessageBuffer();
+				mb.append(Standardize.Label.type.get()+trans.getType());
+				mb.append(Standardize.Label.count.get()+batch.size());
+				logger.debug(location, ILogger.null_id, mb.toString());
+			}
+			JdState jdState = JobDriver.getInstance().getJdState();
+			trans.setJdState(jdState);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+	
 	private void update(IWorkItem wi, IMetaCas metaCas) {
 		IMetaCas local = wi.getMetaCas();
 		IMetaCas remote = metaCas;
@@ -532,6 +618,50 @@ public class MessageHandler implements IMessageHandler {
 		}
 	}
 	
+	private void handleMetaCasTransationAckQueued(IMetaCasTransaction trans, IRemoteWorkerThread rwt) {
+		String location = "handleMetaCasTransationAckQueued";
+		WiTracker tracker = WiTracker.getInstance();
+		MetaCas metaCas = (MetaCas) trans.getMetaCas();
+		if(tracker.isRecognized(rwt, metaCas)) {
+			IWorkItem wi = tracker.find(rwt);
+			update(wi, metaCas);
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.Ack_Queued_Request;
+			Object actionData = new ActionData(wi, rwt, trans);
+			fsm.transition(event, actionData);
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.remote.get()+rwt.toString());
+			mb.append("queued");
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		else {
+			trans.setMetaCas(null);
+			TransactionHelper.addResponseHint(trans, Hint.Rejected);
+		}
+	}
+	
+	private void handleMetaCasTransationStart(IMetaCasTransaction trans, IRemoteWorkerThread rwt) {
+		String location = "handleMetaCasTransationStart";
+		WiTracker tracker = WiTracker.getInstance();
+		MetaCas metaCas = (MetaCas) trans.getMetaCas();
+		if(tracker.isRecognized(rwt, metaCas)) {
+			IWorkItem wi = tracker.find(rwt);
+			update(wi, metaCas);
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.Start_Request;
+			Object actionData = new ActionData(wi, rwt, trans);
+			fsm.transition(event, actionData);
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.remote.get()+rwt.toString());
+			mb.append("started");
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		else {
+			trans.setMetaCas(null);
+			TransactionHelper.addResponseHint(trans, Hint.Rejected);
+		}
+	}
+	
 	private void handleMetaCasTransationEnd(IMetaCasTransaction trans, IRemoteWorkerThread rwt) {
 		String location = "handleMetaCasTransationEnd";
 		WiTracker tracker = WiTracker.getInstance();
@@ -574,6 +704,27 @@ public class MessageHandler implements IMessageHandler {
 			TransactionHelper.addResponseHint(trans, Hint.Rejected);
 		}
 	}
+	
+	private void handleMetaCasTransationReturn(IMetaCasTransaction trans, IRemoteWorkerThread rwt) {
+		String location = "handleMetaCasTransationReturn";
+		WiTracker tracker = WiTracker.getInstance();
+		MetaCas metaCas = (MetaCas) trans.getMetaCas();
+		if(tracker.isRecognized(rwt, metaCas)) {
+			IWorkItem wi = tracker.find(rwt);
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.Return_Request;
+			Object actionData = new ActionData(wi, rwt, trans);
+			fsm.transition(event, actionData);
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.remote.get()+rwt.toString());
+			mb.append("returned");
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		else {
+			trans.setMetaCas(null);
+			TransactionHelper.addResponseHint(trans, Hint.Rejected);
+		}
+	}
 
 	/*
 	 * When debugging report elapsed times for JD's handling of requests
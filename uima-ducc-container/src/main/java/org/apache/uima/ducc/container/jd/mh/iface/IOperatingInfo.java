@@ -99,6 +99,18 @@ public interface IOperatingInfo extends Serializable {
 	public void setWorkItemFinishedMillisStdDev(long value);
 	public long getWorkItemFinishedMillisStdDev();
 	
+	public void setWorkItemFinishedMillisP50(long value);
+	public long getWorkItemFinishedMillisP50();
+	
+	public void setWorkItemFinishedMillisP95(long value);
+	public long getWorkItemFinishedMillisP95();
+	
+	public void setWorkItemFinishedMillisP99(long value);
+	public long getWorkItemFinishedMillisP99();
+	
+	public void setWorkItemFinishedMillisP999(long value);
+	public long getWorkItemFinishedMillisP999();
+	
 	//
 	
 	public void setWorkItemRunningMillisMin(long value);
@@ -56,6 +56,10 @@ public class OperatingInfo implements IOperatingInfo {
 	private long finishedMillisMax = 0;
 	private long finishedMillisAvg = 0;
 	private long finishedMillisStdDev = 0;
+	private long finishedMillisP50 = 0;
+	private long finishedMillisP95 = 0;
+	private long finishedMillisP99 = 0;
+	private long finishedMillisP999 = 0;
 	
 	private long runningMillisMin = 0;
 	private long runningMillisMax = 0;
@@ -278,6 +282,46 @@ public class OperatingInfo implements IOperatingInfo {
 		return finishedMillisStdDev;
 	}
 
+	@Override
+	public void setWorkItemFinishedMillisP50(long value) {
+		finishedMillisP50 = value;
+	}
+
+	@Override
+	public long getWorkItemFinishedMillisP50() {
+		return finishedMillisP50;
+	}
+
+	@Override
+	public void setWorkItemFinishedMillisP95(long value) {
+		finishedMillisP95 = value;
+	}
+
+	@Override
+	public long getWorkItemFinishedMillisP95() {
+		return finishedMillisP95;
+	}
+
+	@Override
+	public void setWorkItemFinishedMillisP99(long value) {
+		finishedMillisP99 = value;
+	}
+
+	@Override
+	public long getWorkItemFinishedMillisP99() {
+		return finishedMillisP99;
+	}
+
+	@Override
+	public void setWorkItemFinishedMillisP999(long value) {
+		finishedMillisP999 = value;
+	}
+
+	@Override
+	public long getWorkItemFinishedMillisP999() {
+		return finishedMillisP999;
+	}
+
 	@Override
 	public void setWorkItemRunningMillisMin(long value) {
 		runningMillisMin = value;
@@ -25,9 +25,14 @@ public interface ITimeoutManager {
 	public void pendingAck(IActionData actionData);
 	public void receivedAck(IActionData actionData);
 	
+	public void pendingStart(IActionData actionData);
+	public void receivedStart(IActionData actionData);
+	
 	public void pendingEnd(IActionData actionData);
 	public void receivedEnd(IActionData actionData);
 	
 	public void timeout(IActionData actionData);
 	public void cancelTimer(IActionData actionData);
+	
+	public void shutdown();
 }
@@ -26,124 +26,78 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.uima.ducc.common.container.FlagsHelper;
+import org.apache.uima.ducc.container.common.FlagsExtendedHelper;
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
-import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
-import org.apache.uima.ducc.container.common.fsm.iface.IFsm;
 import org.apache.uima.ducc.container.common.logger.IComponent;
 import org.apache.uima.ducc.container.common.logger.ILogger;
 import org.apache.uima.ducc.container.common.logger.Logger;
-import org.apache.uima.ducc.container.jd.JobDriver;
 import org.apache.uima.ducc.container.jd.fsm.wi.IActionData;
-import org.apache.uima.ducc.container.jd.fsm.wi.WiFsm;
 import org.apache.uima.ducc.container.jd.log.LoggerHelper;
 import org.apache.uima.ducc.container.jd.wi.IWorkItem;
 
-public class TimeoutManager implements ITimeoutManager {
+public class TimeoutManager extends TimeoutManagerAbstract {
 
 	private static Logger logger = Logger.getLogger(TimeoutManager.class, IComponent.Id.JD.name());
 	
-	private static TimeoutManager instance = new TimeoutManager();
+	public enum Type { executor, wheel };
 	
-	public static TimeoutManager getInstance() {
+	private static ITimeoutManager instance = getNewInstance(getType());
+	
+	public static ITimeoutManager getInstance() {
 		return instance;
 	}
 	
-	private ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(5);
+	public static ITimeoutManager getNewInstance(Type type) {
+		ITimeoutManager retVal = null;
+		switch(type) {
+		case wheel:
+			retVal = new TimeoutManagerWheel();
+			break;
+		case executor:
+		default:
+			retVal = new TimeoutManager();
+			break;
+		}
+		return retVal;
+	}
+	
+	private static Type getType() {
+		String location = "getType";
+		Type retVal = Type.executor;
+		String value = FlagsExtendedHelper.getInstance().getTimeoutManager();
+		if(value != null) {
+			try {
+				retVal = Type.valueOf(value.trim().toLowerCase());
+			}
+			catch(Exception e) {
+				MessageBuffer mb = new MessageBuffer();
+				mb.append(Standardize.Label.name.get()+FlagsHelper.Name.TimeoutManager.pname());
+				mb.append(Standardize.Label.value.get()+value);
+				mb.append(Standardize.Label.type.get()+retVal.name());
+				logger.warn(location, ILogger.null_id, mb.toString());
+			}
+		}
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.type.get()+retVal.name());
+		logger.info(location, ILogger.null_id, mb.toString());
+		return retVal;
+	}
 	
-	private long ackTimeout= 60*1000;
+	private ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(5);
 	
 	private ConcurrentHashMap<IWorkItem,ITimeoutTask> mapTask = new ConcurrentHashMap<IWorkItem,ITimeoutTask>();
 	private ConcurrentHashMap<IWorkItem,ScheduledFuture<?>> mapFuture = new ConcurrentHashMap<IWorkItem,ScheduledFuture<?>>();
 
 	private TimeoutManager() {
+		super(logger);
 		ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = (ScheduledThreadPoolExecutor) scheduledExecutorService;
 		scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
 	}
 	
 	@Override
-	public void pendingAck(IActionData actionData) {
-		String location = "pendingAck";
-		try {
-			IWorkItem wi = actionData.getWorkItem();
-			IFsm fsm = wi.getFsm();
-			IEvent event = WiFsm.Ack_Timer_Pop;
-			long deadline = System.currentTimeMillis()+ackTimeout;
-			ITimeoutTask timeoutTask = new TimeoutTask(fsm, event, actionData, deadline);
-			register(wi, timeoutTask);
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			mb.append(Standardize.Label.deadline+"+"+ackTimeout/1000);
-			logger.debug(location, ILogger.null_id, mb.toString());
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
-	}
-
-	@Override
-	public void receivedAck(IActionData actionData) {
-		String location = "receivedAck";
-		try {
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			logger.debug(location, ILogger.null_id, mb.toString());
-			IWorkItem wi = actionData.getWorkItem();
-			unregister(wi);
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
-	}
-
-	@Override
-	public void pendingEnd(IActionData actionData) {
-		String location = "pendingEnd";
-		try {
-			IWorkItem wi = actionData.getWorkItem();
-			IFsm fsm = wi.getFsm();
-			IEvent event = WiFsm.End_Timer_Pop;
-			JobDriver jd = JobDriver.getInstance();
-			long endTimeout = jd.getWorkItemTimeoutMillis();
-			long deadline = System.currentTimeMillis()+endTimeout;
-			ITimeoutTask timeoutTask = new TimeoutTask(fsm, event, actionData, deadline);
-			register(wi, timeoutTask);
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			mb.append(Standardize.Label.deadline+"+"+endTimeout/1000);
-			logger.debug(location, ILogger.null_id, mb.toString());
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
-	}
-
-	@Override
-	public void receivedEnd(IActionData actionData) {
-		String location = "receivedEnd";
-		try {
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			logger.debug(location, ILogger.null_id, mb.toString());
-			IWorkItem wi = actionData.getWorkItem();
-			unregister(wi);
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
-	}
-
-	@Override
-	public void cancelTimer(IActionData actionData) {
-		String location = "cancelTimer";
-		try {
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			logger.debug(location, ILogger.null_id, mb.toString());
-			IWorkItem wi = actionData.getWorkItem();
-			unregister(wi);
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
-	}
-	
-	private void register(IWorkItem wi, ITimeoutTask timeoutTask) {
+	protected void register(IWorkItem wi, ITimeoutTask timeoutTask) {
 		String location = "register";
 		try {
 			mapTask.put(wi, timeoutTask);
@@ -164,7 +118,8 @@ public class TimeoutManager implements ITimeoutManager {
 		}
 	}
 	
-	private void unregister(IWorkItem wi) {
+	@Override
+	protected void unregister(IWorkItem wi) {
 		String location = "unregister";
 		try {
 			ScheduledFuture<?> scheduledFuture = mapFuture.remove(wi);
@@ -190,19 +145,16 @@ public class TimeoutManager implements ITimeoutManager {
 			logger.error(location, ILogger.null_id, e);
 		}
 	}
-
+	
 	@Override
-	public void timeout(IActionData actionData) {
-		String location = "timeout";
-		try {
-			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			logger.debug(location, ILogger.null_id, mb.toString());
-			IWorkItem wi = actionData.getWorkItem();
-			unregister(wi);
-		}
-		catch(Exception e) {
-			logger.error(location, ILogger.null_id, e);
-		}
+	public void shutdown() {
+		String location = "shutdown";
+		scheduledExecutorService.shutdownNow();
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.futures.get()+mapFuture.size());
+		mb.append(Standardize.Label.tasks.get()+mapTask.size());
+		mapFuture.clear();
+		mapTask.clear();
+		logger.debug(location, ILogger.null_id, mb.toString());
 	}
-	
 }
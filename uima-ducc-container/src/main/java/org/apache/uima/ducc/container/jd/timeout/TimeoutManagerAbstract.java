@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.timeout;
+
+import org.apache.uima.ducc.container.common.MessageBuffer;
+import org.apache.uima.ducc.container.common.Standardize;
+import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
+import org.apache.uima.ducc.container.common.fsm.iface.IFsm;
+import org.apache.uima.ducc.container.common.logger.IComponent;
+import org.apache.uima.ducc.container.common.logger.ILogger;
+import org.apache.uima.ducc.container.common.logger.Logger;
+import org.apache.uima.ducc.container.jd.JobDriver;
+import org.apache.uima.ducc.container.jd.fsm.wi.IActionData;
+import org.apache.uima.ducc.container.jd.fsm.wi.WiFsm;
+import org.apache.uima.ducc.container.jd.log.LoggerHelper;
+import org.apache.uima.ducc.container.jd.wi.IWorkItem;
+
+public abstract class TimeoutManagerAbstract implements ITimeoutManager {
+
+	private Logger logger = Logger.getLogger(TimeoutManagerAbstract.class, IComponent.Id.JD.name());
+	
+	private long ackTimeout= 60*1000;
+	
+	protected TimeoutManagerAbstract(Logger logger) {
+		this.logger = logger;
+	}
+	
+	public void setAckTimeout(long value) {
+		ackTimeout = value;
+	}
+	
+	protected abstract void register(IWorkItem wi, ITimeoutTask timeoutTask);
+	protected abstract void unregister(IWorkItem wi);
+	
+	@Override
+	public void pendingAck(IActionData actionData) {
+		String location = "pendingAck";
+		try {
+			IWorkItem wi = actionData.getWorkItem();
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.Ack_Timer_Pop;
+			long deadline = System.currentTimeMillis()+ackTimeout;
+			ITimeoutTask timeoutTask = new TimeoutTask(fsm, event, actionData, deadline);
+			register(wi, timeoutTask);
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			mb.append(Standardize.Label.deadline+"+"+ackTimeout/1000);
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	@Override
+	public void receivedAck(IActionData actionData) {
+		String location = "receivedAck";
+		try {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			logger.debug(location, ILogger.null_id, mb.toString());
+			IWorkItem wi = actionData.getWorkItem();
+			unregister(wi);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	/*
+	 * A prefetched work item waits in the JP queue before it is started,
+	 * behind up to prefetch depth work items on the same worker thread.
+	 */
+	@Override
+	public void pendingStart(IActionData actionData) {
+		String location = "pendingStart";
+		try {
+			IWorkItem wi = actionData.getWorkItem();
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.Ack_Timer_Pop;
+			JobDriver jd = JobDriver.getInstance();
+			long startTimeout = Math.max(1, jd.getPrefetchDepth())*jd.getWorkItemTimeoutMillis()+ackTimeout;
+			long deadline = System.currentTimeMillis()+startTimeout;
+			ITimeoutTask timeoutTask = new TimeoutTask(fsm, event, actionData, deadline);
+			register(wi, timeoutTask);
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			mb.append(Standardize.Label.deadline+"+"+startTimeout/1000);
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	@Override
+	public void receivedStart(IActionData actionData) {
+		String location = "receivedStart";
+		try {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			logger.debug(location, ILogger.null_id, mb.toString());
+			IWorkItem wi = actionData.getWorkItem();
+			unregister(wi);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	@Override
+	public void pendingEnd(IActionData actionData) {
+		String location = "pendingEnd";
+		try {
+			IWorkItem wi = actionData.getWorkItem();
+			IFsm fsm = wi.getFsm();
+			IEvent event = WiFsm.End_Timer_Pop;
+			JobDriver jd = JobDriver.getInstance();
+			long endTimeout = jd.getWorkItemTimeoutMillis();
+			long deadline = System.currentTimeMillis()+endTimeout;
+			ITimeoutTask timeoutTask = new TimeoutTask(fsm, event, actionData, deadline);
+			register(wi, timeoutTask);
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			mb.append(Standardize.Label.deadline+"+"+endTimeout/1000);
+			logger.debug(location, ILogger.null_id, mb.toString());
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	@Override
+	public void receivedEnd(IActionData actionData) {
+		String location = "receivedEnd";
+		try {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			logger.debug(location, ILogger.null_id, mb.toString());
+			IWorkItem wi = actionData.getWorkItem();
+			unregister(wi);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+
+	@Override
+	public void cancelTimer(IActionData actionData) {
+		String location = "cancelTimer";
+		try {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			logger.debug(location, ILogger.null_id, mb.toString());
+			IWorkItem wi = actionData.getWorkItem();
+			unregister(wi);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+	
+	@Override
+	public void timeout(IActionData actionData) {
+		String location = "timeout";
+		try {
+			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+			logger.debug(location, ILogger.null_id, mb.toString());
+			IWorkItem wi = actionData.getWorkItem();
+			unregister(wi);
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.timeout;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.uima.ducc.container.common.MessageBuffer;
+import org.apache.uima.ducc.container.common.Standardize;
+import org.apache.uima.ducc.container.common.logger.IComponent;
+import org.apache.uima.ducc.container.common.logger.ILogger;
+import org.apache.uima.ducc.container.common.logger.Logger;
+import org.apache.uima.ducc.container.jd.fsm.wi.IActionData;
+import org.apache.uima.ducc.container.jd.log.LoggerHelper;
+import org.apache.uima.ducc.container.jd.wi.IWorkItem;
+
+/*
+ * Hashed timing wheel: each timeout is linked into the bucket for its
+ * expiry tick, so register and unregister are constant time.  A single
+ * ticker thread visits one bucket per tick and hands all of the expired
+ * timeouts found there to the dispatcher at once.  Timeouts more than one
+ * revolution away simply stay in their bucket until their tick comes up.
+ */
+public class TimeoutManagerWheel extends TimeoutManagerAbstract {
+
+	private static Logger logger = Logger.getLogger(TimeoutManagerWheel.class, IComponent.Id.JD.name());
+	
+	private static final long tickMillis = 100;
+	private static final int wheelSize = 512;	// power of 2
+	private static final int wheelMask = wheelSize-1;
+	
+	private static class Entry {
+		private IWorkItem wi = null;
+		private ITimeoutTask timeoutTask = null;
+		private long tick = 0;
+		private Entry prev = null;
+		private Entry next = null;
+		private boolean linked = false;
+		
+		private Entry(IWorkItem wi, ITimeoutTask timeoutTask) {
+			this.wi = wi;
+			this.timeoutTask = timeoutTask;
+		}
+	}
+	
+	private ConcurrentHashMap<IWorkItem,Entry> mapEntry = new ConcurrentHashMap<IWorkItem,Entry>();
+	
+	private Entry[] wheel = new Entry[wheelSize];
+	private Object wheelLock = new Object();
+	
+	private long startMillis = System.currentTimeMillis();
+	private long currentTick = 0;
+	
+	private ExecutorService dispatcher = Executors.newFixedThreadPool(5);
+	
+	private Thread ticker = null;
+	private volatile boolean stopped = false;
+	
+	TimeoutManagerWheel() {
+		super(logger);
+		ticker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		});
+		ticker.setName("JD Timeout Wheel");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+	
+	private void link(Entry entry) {
+		int slot = (int) (entry.tick & wheelMask);
+		Entry head = wheel[slot];
+		entry.prev = null;
+		entry.next = head;
+		if(head != null) {
+			head.prev = entry;
+		}
+		wheel[slot] = entry;
+		entry.linked = true;
+	}
+	
+	private void unlink(Entry entry) {
+		if(entry.linked) {
+			int slot = (int) (entry.tick & wheelMask);
+			if(entry.prev != null) {
+				entry.prev.next = entry.next;
+			}
+			else {
+				wheel[slot] = entry.next;
+			}
+			if(entry.next != null) {
+				entry.next.prev = entry.prev;
+			}
+			entry.prev = null;
+			entry.next = null;
+			entry.linked = false;
+		}
+	}
+	
+	@Override
+	protected void register(IWorkItem wi, ITimeoutTask timeoutTask) {
+		String location = "register";
+		try {
+			Entry entry = new Entry(wi, timeoutTask);
+			long elapsed = timeoutTask.getDeadline() - startMillis;
+			long tick = (elapsed + tickMillis - 1) / tickMillis;
+			synchronized(wheelLock) {
+				entry.tick = Math.max(tick, currentTick+1);
+				Entry prior = mapEntry.put(wi, entry);
+				if(prior != null) {
+					unlink(prior);
+				}
+				link(entry);
+			}
+			//
+			if(logger.isDebug()) {
+				IActionData actionData = timeoutTask.getActionData();
+				MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+				mb.append(Standardize.Label.tasks.get()+mapEntry.size());
+				logger.debug(location, ILogger.null_id, mb.toString());
+			}
+		}
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+	
+	@Override
+	protected void unregister(IWorkItem wi) {
+		String location = "unregister";
+		try {
+			Entry entry = mapEntry.remove(wi);
+			if(entry != null) {
+				synchronized(wheelLock) {
+					unlink(entry);
+				}
+				if(logger.isDebug()) {
+					IActionData actionData = entry.timeoutTask.getActionData();
+					MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
+					mb.append(Standardize.Label.tasks.get()+mapEntry.size());
+					logger.debug(location, ILogger.null_id, mb.toString());
+				}
+			}
+			else {
+				MessageBuffer mb = new MessageBuffer();
+				mb.append(Standardize.Label.tasks.get()+mapEntry.size());
+				logger.trace(location, ILogger.null_id, mb.toString());
+			}
+		}	
+		catch(Exception e) {
+			logger.error(location, ILogger.null_id, e);
+		}
+	}
+	
+	private void tick() {
+		String location = "tick";
+		while(!stopped) {
+			try {
+				long next = startMillis + (currentTick+1)*tickMillis;
+				long delay = next - System.currentTimeMillis();
+				if(delay > 0) {
+					Thread.sleep(delay);
+				}
+				ArrayList<Entry> expired = new ArrayList<Entry>();
+				synchronized(wheelLock) {
+					currentTick++;
+					int slot = (int) (currentTick & wheelMask);
+					Entry entry = wheel[slot];
+					while(entry != null) {
+						Entry following = entry.next;
+						if(entry.tick <= currentTick) {
+							unlink(entry);
+							expired.add(entry);
+						}
+						entry = following;
+					}
+				}
+				if(!expired.isEmpty()) {
+					dispatch(expired);
+				}
+			}
+			catch(InterruptedException e) {
+				// shutdown
+				break;
+			}
+			catch(Exception e) {
+				logger.error(location, ILogger.null_id, e);
+			}
+		}
+	}
+	
+	private void dispatch(ArrayList<Entry> expired) {
+		String location = "dispatch";
+		for(Entry entry : expired) {
+			// skip if unregistered or replaced meanwhile
+			if(mapEntry.remove(entry.wi, entry)) {
+				dispatcher.submit(entry.timeoutTask);
+			}
+		}
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.count.get()+expired.size());
+		mb.append(Standardize.Label.tasks.get()+mapEntry.size());
+		logger.debug(location, ILogger.null_id, mb.toString());
+	}
+	
+	@Override
+	public void shutdown() {
+		String location = "shutdown";
+		stopped = true;
+		ticker.interrupt();
+		dispatcher.shutdownNow();
+		MessageBuffer mb = new MessageBuffer();
+		mb.append(Standardize.Label.tasks.get()+mapEntry.size());
+		synchronized(wheelLock) {
+			for(Entry entry : mapEntry.values()) {
+				unlink(entry);
+			}
+			mapEntry.clear();
+		}
+		logger.debug(location, ILogger.null_id, mb.toString());
+	}
+}
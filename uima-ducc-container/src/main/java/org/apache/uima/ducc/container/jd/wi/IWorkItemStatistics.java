@@ -25,4 +25,5 @@ public interface IWorkItemStatistics {
 	public long getMillisMin();
 	public long getMillisAvg();
 	public long getMillisStdDev();
+	public long getMillisPercentile(double percentile);
 }
@@ -44,6 +44,9 @@ public class WiTracker {
 	
 	private static WiTracker instance = new WiTracker();
 	
+	// reverse index: seqNo -> remote worker thread
+	private ConcurrentHashMap<Integer, IRemoteWorkerThread> seqNoMap = new ConcurrentHashMap<Integer, IRemoteWorkerThread>();
+	
 	private WiTracker() {
 	}
 	
@@ -78,6 +81,7 @@ public class WiTracker {
 			IMetaCas metaCas = wi.getMetaCas();
 			MetaCasHelper metaCasHelper = new MetaCasHelper(metaCas);
 			int seqNo = metaCasHelper.getSystemKey();
+			index(rwt, wi);
 			MessageBuffer mb = new MessageBuffer();
 			mb.append(Standardize.Label.seqNo.get()+seqNo);
 			mb.append(Standardize.Label.remote.get()+rwt.toString());
@@ -101,6 +105,7 @@ public class WiTracker {
 			mb.append(Standardize.Label.remote.get()+rwt.toString());
 			logger.debug(location, ILogger.null_id, mb.toString());
 			map.remove(rwt);
+			seqNoMap.remove(seqNo, rwt);
 		}
 		report();
 	}
@@ -128,18 +133,59 @@ public class WiTracker {
 	}
 	
 	public IRemoteWorkerThread find(IWorkItem wi) {
+		String location = "find";
 		ConcurrentHashMap<IRemoteWorkerThread, IWorkItem> map = getMap();
 		IRemoteWorkerThread rwt = null;
 		if(wi != null) {
-			for(Entry<IRemoteWorkerThread, IWorkItem> entry : map.entrySet()) {
-				if(wi.getSeqNo() == entry.getValue().getSeqNo()) {
-					rwt = entry.getKey();
-					break;
+			int seqNo = wi.getSeqNo();
+			IRemoteWorkerThread candidate = seqNoMap.get(seqNo);
+			if(candidate != null) {
+				IWorkItem current = map.get(candidate);
+				if((current != null) && (current.getSeqNo() == seqNo)) {
+					rwt = candidate;
+				}
+				else {
+					MessageBuffer mb = new MessageBuffer();
+					mb.append(Standardize.Label.seqNo.get()+seqNo);
+					mb.append(Standardize.Label.remote.get()+candidate.toString());
+					mb.append("stale index entry");
+					logger.warn(location, ILogger.null_id, mb.toString());
+					reindex();
+					rwt = seqNoMap.get(seqNo);
 				}
 			}
 		}
 		return rwt;
 	}
+	
+	/**
+	 * Index the work item held by rwt under its seqNo.  Each work item
+	 * must be indexed when it is given its CAS, since find() does not
+	 * search for items missing from the index.
+	 */
+	public void index(IRemoteWorkerThread rwt, IWorkItem wi) {
+		if(rwt != null) {
+			if(wi != null) {
+				if(wi.getMetaCas() != null) {
+					seqNoMap.put(wi.getSeqNo(), rwt);
+				}
+			}
+		}
+	}
+	
+	// rebuild in place, so that lookups of valid entries never miss meanwhile
+	private synchronized void reindex() {
+		ConcurrentHashMap<IRemoteWorkerThread, IWorkItem> map = getMap();
+		for(Entry<IRemoteWorkerThread, IWorkItem> entry : map.entrySet()) {
+			index(entry.getKey(), entry.getValue());
+		}
+		for(Entry<Integer, IRemoteWorkerThread> entry : seqNoMap.entrySet()) {
+			IWorkItem current = map.get(entry.getValue());
+			if((current == null) || (current.getSeqNo() != entry.getKey().intValue())) {
+				seqNoMap.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
 
 	public IRemoteWorkerProcess getRemoteWorkerProcess(IWorkItem wi) {
 		String location = "getRemoteWorkerProcess";
@@ -19,11 +19,11 @@
 package org.apache.uima.ducc.container.jd.wi;
 
 import org.apache.uima.ducc.container.common.Assertion;
-import org.apache.uima.ducc.container.common.SynchronizedStats;
+import org.apache.uima.ducc.container.common.ConcurrentStats;
 
 public class WorkItemStatistics implements IWorkItemStatistics {
 
-	private SynchronizedStats stats = new SynchronizedStats();
+	private ConcurrentStats stats = new ConcurrentStats();
 	
 	private long mintime = 0;
 	
@@ -42,18 +42,13 @@ public class WorkItemStatistics implements IWorkItemStatistics {
 	
 	@Override
 	public long getMillisMin() {
-		double stat = stats.getMin();
-		if(stat == Double.MAX_VALUE) {
-			stat = 0;
-		};
-		long value = (long) stat;
+		long value = stats.getMin();
 		return value;
 	}
 	
 	@Override
 	public long getMillisMax() {
-		double stat = stats.getMax();
-		long value = (long) stat;
+		long value = stats.getMax();
 		return value;
 	}
 	
@@ -70,4 +65,10 @@ public class WorkItemStatistics implements IWorkItemStatistics {
 		long value = (long) stat;
 		return value;
 	}
+	
+	@Override
+	public long getMillisPercentile(double percentile) {
+		long value = stats.getPercentile(percentile);
+		return value;
+	}
 }
@@ -25,7 +25,13 @@ import org.apache.uima.ducc.container.net.impl.TransactionId;
 
 public interface IMetaCasTransaction extends IMetaCasProvider, IMetaCasRequester, Serializable {
 
-	public enum Type { Get, Ack, End , InvestmentReset };
+	/*
+	 * AckQueued - receipt of a prefetched work item, not yet started
+	 * Start - processing of a previously queued work item has begun
+	 * Batch - several transactions, each handled individually in order
+	 * Return - a queued work item given back unstarted, for another process
+	 */
+	public enum Type { Get, Ack, End , InvestmentReset, AckQueued, Start, Batch, Return };
 	
 	public Type getType();
 	public void setType(Type value);
@@ -51,6 +57,10 @@ public interface IMetaCasTransaction extends IMetaCasProvider, IMetaCasRequester
 	public IMetaCas getMetaCas();
 	public void setMetaCas(IMetaCas value);
 	
+	// Batch only
+	public List<IMetaCasTransaction> getBatch();
+	public void setBatch(List<IMetaCasTransaction> value);
+	
 	/*
 	 * Initializing - driver is not yet ready to deliver work items
 	 * Active - driver is ready or delivering work items
@@ -25,4 +25,12 @@ import java.util.Properties;
 public interface IPerformanceMetrics extends Serializable {
 	public void set(List<Properties> metrics);
 	public List<Properties> get();
+	/**
+	 * Compact form: per component analysis times followed by per component
+	 * CAS counts, index aligned with names and uniqueNames.
+	 */
+	public void set(String[] names, String[] uniqueNames, long[] values);
+	public String[] getNames();
+	public String[] getUniqueNames();
+	public long[] getValues();
 }
@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.net.iface;
+
+/*
+ * Converts an IMetaCasTransaction to and from the bytes exchanged
+ * between JP and JD.  The content type identifies the codec on the
+ * wire so that each side can select the matching decoder.
+ */
+public interface ITransactionCodec {
+	
+	public String getContentType();
+	
+	public byte[] encode(IMetaCasTransaction trans) throws Exception;
+	
+	public IMetaCasTransaction decode(byte[] bytes) throws Exception;
+}
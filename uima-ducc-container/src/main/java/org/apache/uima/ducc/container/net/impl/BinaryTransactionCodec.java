@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.net.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Direction;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Hint;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.JdState;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Type;
+import org.apache.uima.ducc.container.net.iface.IPerformanceMetrics;
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
+
+/*
+ * Compact binary wire format for JP <-> JD transactions.
+ * 
+ * Layout: magic, version, then each field of the transaction in a fixed
+ * order.  Strings are length prefixed UTF-8 (length -1 means null),
+ * enums are sent by name so that peers tolerate reordering, and the
+ * user space CAS and exception are sent as raw String or byte[] payloads
+ * (Java serialization is used only for any other object type).
+ * 
+ * Each thread reuses its own output buffer; buffers that grew beyond
+ * retainLimit are discarded after use rather than pinned to the thread.
+ */
+public class BinaryTransactionCodec implements ITransactionCodec {
+
+	public static final String contentType = "application/x-ducc-transaction";
+	
+	private static final int magic = 0x44554343;	// "DUCC"
+	private static final byte version = 1;
+	
+	private static final byte tagNull = 0;
+	private static final byte tagString = 1;
+	private static final byte tagBytes = 2;
+	private static final byte tagObject = 3;
+	
+	// performance metrics count marking the compact (numeric) form
+	private static final int compactMetrics = -2;
+	
+	private static final int initialSize = 4*1024;
+	private static final int retainLimit = 1024*1024;
+	
+	private static final Charset charset = Charset.forName("UTF-8");
+	
+	private static class Encoder {
+		private ByteArrayOutputStream baos = new ByteArrayOutputStream(initialSize);
+		private DataOutputStream dos = new DataOutputStream(baos);
+	}
+	
+	private static ThreadLocal<Encoder> encoder = new ThreadLocal<Encoder>() {
+		@Override
+		protected Encoder initialValue() {
+			return new Encoder();
+		}
+	};
+	
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+	
+	@Override
+	public byte[] encode(IMetaCasTransaction trans) throws Exception {
+		Encoder e = encoder.get();
+		e.baos.reset();
+		try {
+			DataOutputStream dos = e.dos;
+			dos.writeInt(magic);
+			dos.writeByte(version);
+			writeTransaction(dos, trans);
+			dos.flush();
+			return e.baos.toByteArray();
+		}
+		finally {
+			if(e.baos.size() > retainLimit) {
+				encoder.remove();
+			}
+		}
+	}
+	
+	@Override
+	public IMetaCasTransaction decode(byte[] bytes) throws Exception {
+		DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+		int m = dis.readInt();
+		if(m != magic) {
+			throw new StreamCorruptedException("magic="+Integer.toHexString(m));
+		}
+		byte v = dis.readByte();
+		if(v != version) {
+			throw new StreamCorruptedException("version="+v);
+		}
+		return readTransaction(dis);
+	}
+	
+	private void writeTransaction(DataOutputStream dos, IMetaCasTransaction trans) throws IOException {
+		TransactionId tid = trans.getTransactionId();
+		if(tid == null) {
+			dos.writeBoolean(false);
+		}
+		else {
+			dos.writeBoolean(true);
+			dos.writeInt(tid.getMajor());
+			dos.writeInt(tid.getMinor());
+		}
+		writeEnum(dos, trans.getType());
+		writeEnum(dos, trans.getDirection());
+		writeEnum(dos, trans.getJdState());
+		List<Hint> hints = trans.getResponseHints();
+		if(hints == null) {
+			dos.writeInt(-1);
+		}
+		else {
+			dos.writeInt(hints.size());
+			for(Hint hint : hints) {
+				writeEnum(dos, hint);
+			}
+		}
+		writeString(dos, trans.getProviderKey());
+		writeString(dos, trans.getProviderName());
+		dos.writeInt(trans.getProviderPort());
+		writeString(dos, trans.getRequesterNodeName());
+		writeString(dos, trans.getRequesterAddress());
+		writeString(dos, trans.getRequesterProcessName());
+		dos.writeInt(trans.getRequesterProcessId());
+		dos.writeInt(trans.getRequesterThreadId());
+		writeMetaCas(dos, trans.getMetaCas());
+		List<IMetaCasTransaction> batch = trans.getBatch();
+		if(batch == null) {
+			dos.writeInt(-1);
+		}
+		else {
+			dos.writeInt(batch.size());
+			for(IMetaCasTransaction item : batch) {
+				writeTransaction(dos, item);
+			}
+		}
+	}
+	
+	private IMetaCasTransaction readTransaction(DataInputStream dis) throws IOException {
+		IMetaCasTransaction trans = new MetaCasTransaction();
+		if(dis.readBoolean()) {
+			int major = dis.readInt();
+			int minor = dis.readInt();
+			trans.setTransactionId(new TransactionId(major, minor));
+		}
+		else {
+			trans.setTransactionId(null);
+		}
+		String type = readString(dis);
+		if(type != null) {
+			trans.setType(Type.valueOf(type));
+		}
+		String direction = readString(dis);
+		if(direction != null) {
+			trans.setDirection(Direction.valueOf(direction));
+		}
+		String jdState = readString(dis);
+		if(jdState != null) {
+			trans.setJdState(JdState.valueOf(jdState));
+		}
+		int count = dis.readInt();
+		if(count >= 0) {
+			List<Hint> hints = new ArrayList<Hint>(count);
+			for(int i=0; i<count; i++) {
+				hints.add(Hint.valueOf(readString(dis)));
+			}
+			trans.setResponseHints(hints);
+		}
+		trans.setProviderKey(readString(dis));
+		trans.setProviderName(readString(dis));
+		trans.setProviderPort(dis.readInt());
+		trans.setRequesterNodeName(readString(dis));
+		trans.setRequesterAddress(readString(dis));
+		trans.setRequesterProcessName(readString(dis));
+		trans.setRequesterProcessId(dis.readInt());
+		trans.setRequesterThreadId(dis.readInt());
+		trans.setMetaCas(readMetaCas(dis));
+		count = dis.readInt();
+		if(count >= 0) {
+			List<IMetaCasTransaction> batch = new ArrayList<IMetaCasTransaction>(count);
+			for(int i=0; i<count; i++) {
+				batch.add(readTransaction(dis));
+			}
+			trans.setBatch(batch);
+		}
+		return trans;
+	}
+	
+	private void writeMetaCas(DataOutputStream dos, IMetaCas metaCas) throws IOException {
+		if(metaCas == null) {
+			dos.writeBoolean(false);
+			return;
+		}
+		dos.writeBoolean(true);
+		writeString(dos, metaCas.getSystemKey());
+		writeString(dos, metaCas.getUserKey());
+		writePerformanceMetrics(dos, metaCas.getPerformanceMetrics());
+		writeObject(dos, metaCas.getUserSpaceCas());
+		writeObject(dos, metaCas.getUserSpaceException());
+	}
+	
+	private IMetaCas readMetaCas(DataInputStream dis) throws IOException {
+		IMetaCas metaCas = null;
+		if(dis.readBoolean()) {
+			metaCas = new MetaCas(-1, null, null);
+			metaCas.setSystemKey(readString(dis));
+			metaCas.setUserKey(readString(dis));
+			metaCas.setPerformanceMetrics(readPerformanceMetrics(dis));
+			metaCas.setUserSpaceCas(readObject(dis));
+			metaCas.setUserSpaceException(readObject(dis));
+		}
+		return metaCas;
+	}
+	
+	private void writePerformanceMetrics(DataOutputStream dos, IPerformanceMetrics pm) throws IOException {
+		if(pm == null) {
+			dos.writeBoolean(false);
+			return;
+		}
+		dos.writeBoolean(true);
+		long[] values = pm.getValues();
+		if(values != null) {
+			String[] names = pm.getNames();
+			String[] uniqueNames = pm.getUniqueNames();
+			dos.writeInt(compactMetrics);
+			dos.writeInt(names.length);
+			for(int i=0; i<names.length; i++) {
+				writeString(dos, names[i]);
+				writeString(dos, uniqueNames[i]);
+			}
+			for(int i=0; i<2*names.length; i++) {
+				dos.writeLong(values[i]);
+			}
+			return;
+		}
+		List<Properties> list = pm.get();
+		if(list == null) {
+			dos.writeInt(-1);
+			return;
+		}
+		dos.writeInt(list.size());
+		for(Properties properties : list) {
+			if(properties == null) {
+				dos.writeInt(-1);
+				continue;
+			}
+			dos.writeInt(properties.size());
+			for(Entry<Object, Object> entry : properties.entrySet()) {
+				writeString(dos, String.valueOf(entry.getKey()));
+				writeString(dos, String.valueOf(entry.getValue()));
+			}
+		}
+	}
+	
+	private IPerformanceMetrics readPerformanceMetrics(DataInputStream dis) throws IOException {
+		IPerformanceMetrics pm = null;
+		if(dis.readBoolean()) {
+			pm = new PerformanceMetrics();
+			int count = dis.readInt();
+			if(count == compactMetrics) {
+				int size = dis.readInt();
+				String[] names = new String[size];
+				String[] uniqueNames = new String[size];
+				for(int i=0; i<size; i++) {
+					names[i] = readString(dis);
+					uniqueNames[i] = readString(dis);
+				}
+				long[] values = new long[2*size];
+				for(int i=0; i<values.length; i++) {
+					values[i] = dis.readLong();
+				}
+				pm.set(names, uniqueNames, values);
+			}
+			else if(count >= 0) {
+				List<Properties> list = new ArrayList<Properties>(count);
+				for(int i=0; i<count; i++) {
+					int size = dis.readInt();
+					if(size < 0) {
+						list.add(null);
+						continue;
+					}
+					Properties properties = new Properties();
+					for(int j=0; j<size; j++) {
+						String key = readString(dis);
+						String value = readString(dis);
+						properties.setProperty(key, value);
+					}
+					list.add(properties);
+				}
+				pm.set(list);
+			}
+		}
+		return pm;
+	}
+	
+	private void writeObject(DataOutputStream dos, Object object) throws IOException {
+		if(object == null) {
+			dos.writeByte(tagNull);
+		}
+		else if(object instanceof String) {
+			dos.writeByte(tagString);
+			writeString(dos, (String) object);
+		}
+		else if(object instanceof byte[]) {
+			dos.writeByte(tagBytes);
+			writeBytes(dos, (byte[]) object);
+		}
+		else {
+			dos.writeByte(tagObject);
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			ObjectOutputStream oos = new ObjectOutputStream(baos);
+			oos.writeObject(object);
+			oos.close();
+			writeBytes(dos, baos.toByteArray());
+		}
+	}
+	
+	private Object readObject(DataInputStream dis) throws IOException {
+		Object object = null;
+		byte tag = dis.readByte();
+		switch(tag) {
+		case tagNull:
+			break;
+		case tagString:
+			object = readString(dis);
+			break;
+		case tagBytes:
+			object = readBytes(dis);
+			break;
+		case tagObject:
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(dis)));
+			try {
+				object = ois.readObject();
+			}
+			catch(ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+			finally {
+				ois.close();
+			}
+			break;
+		default:
+			throw new StreamCorruptedException("tag="+tag);
+		}
+		return object;
+	}
+	
+	private void writeEnum(DataOutputStream dos, Enum<?> value) throws IOException {
+		if(value == null) {
+			writeString(dos, null);
+		}
+		else {
+			writeString(dos, value.name());
+		}
+	}
+	
+	private void writeString(DataOutputStream dos, String value) throws IOException {
+		if(value == null) {
+			dos.writeInt(-1);
+		}
+		else {
+			writeBytes(dos, value.getBytes(charset));
+		}
+	}
+	
+	private String readString(DataInputStream dis) throws IOException {
+		String value = null;
+		byte[] bytes = readBytes(dis);
+		if(bytes != null) {
+			value = new String(bytes, charset);
+		}
+		return value;
+	}
+	
+	private void writeBytes(DataOutputStream dos, byte[] value) throws IOException {
+		if(value == null) {
+			dos.writeInt(-1);
+		}
+		else {
+			dos.writeInt(value.length);
+			dos.write(value);
+		}
+	}
+	
+	private byte[] readBytes(DataInputStream dis) throws IOException {
+		byte[] value = null;
+		int length = dis.readInt();
+		if(length >= 0) {
+			value = new byte[length];
+			dis.readFully(value);
+		}
+		return value;
+	}
+}
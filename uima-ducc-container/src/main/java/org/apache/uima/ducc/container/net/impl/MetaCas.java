@@ -55,14 +55,32 @@ public class MetaCas implements IMetaCas {
 		setUserKey(value);
 	}
 	
+	// XMI String, or null when the CAS is shipped in compressed binary form
 	public String getSerializedCas() {
-		return (String)getUserSpaceCas();
+		Object cas = getUserSpaceCas();
+		if(cas instanceof String) {
+			return (String) cas;
+		}
+		return null;
 	}
 	
 	public void setSerializedCas(String value) {
 		setUserSpaceCas(value);
 	}
 	
+	// compressed binary byte[], or null when the CAS is shipped as XMI
+	public byte[] getSerializedCasBinary() {
+		Object cas = getUserSpaceCas();
+		if(cas instanceof byte[]) {
+			return (byte[]) cas;
+		}
+		return null;
+	}
+	
+	public void setSerializedCasBinary(byte[] value) {
+		setUserSpaceCas(value);
+	}
+	
 	/////
 	
 	@Override
@@ -46,6 +46,8 @@ public class MetaCasTransaction implements IMetaCasTransaction {
 	
 	private IMetaCas metaCas = null;
 	
+	private List<IMetaCasTransaction> batch = null;
+	
 	private JdState jdState = null;
 	
 	public MetaCasTransaction() {
@@ -182,6 +184,16 @@ public class MetaCasTransaction implements IMetaCasTransaction {
 		metaCas = value;
 	}
 
+	@Override
+	public List<IMetaCasTransaction> getBatch() {
+		return batch;
+	}
+
+	@Override
+	public void setBatch(List<IMetaCasTransaction> value) {
+		batch = value;
+	}
+
 	@Override
 	public JdState getJdState() {
 		return jdState;
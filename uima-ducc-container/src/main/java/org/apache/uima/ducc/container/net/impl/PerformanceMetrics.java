@@ -19,6 +19,7 @@
 
 package org.apache.uima.ducc.container.net.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -27,11 +28,49 @@ import org.apache.uima.ducc.container.net.iface.IPerformanceMetrics;
 public class PerformanceMetrics implements IPerformanceMetrics {
 	private static final long serialVersionUID = 1L;
 	private List<Properties> perfMetrics;
+	private String[] names;
+	private String[] uniqueNames;
+	private long[] values;
+	
 	public List<Properties> get() {
+		if(perfMetrics == null && values != null) {
+			perfMetrics = toProperties();
+		}
 		return perfMetrics;
 	}
 	public void set(List<Properties> metrics) {
 		perfMetrics = metrics;
+		names = null;
+		uniqueNames = null;
+		values = null;
+	}
+	public void set(String[] names, String[] uniqueNames, long[] values) {
+		perfMetrics = null;
+		this.names = names;
+		this.uniqueNames = uniqueNames;
+		this.values = values;
+	}
+	public String[] getNames() {
+		return names;
+	}
+	public String[] getUniqueNames() {
+		return uniqueNames;
+	}
+	public long[] getValues() {
+		return values;
+	}
+	
+	private List<Properties> toProperties() {
+		int count = names.length;
+		List<Properties> list = new ArrayList<Properties>(count);
+		for(int i=0; i<count; i++) {
+			Properties p = new Properties();
+			p.setProperty("name", names[i]);
+			p.setProperty("uniqueName", uniqueNames[i]);
+			p.setProperty("analysisTime", String.valueOf(values[i]));
+			p.setProperty("numProcessed", String.valueOf(values[count+i]));
+			list.add(p);
+		}
+		return list;
 	}
-
 }
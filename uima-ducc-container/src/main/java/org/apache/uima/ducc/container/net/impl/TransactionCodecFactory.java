@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.net.impl;
+
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
+
+/*
+ * Selects the transaction codec by HTTP content type.
+ * 
+ * A requester that understands the binary format lists it in its 
+ * Accept header; a provider that understands it replies in binary,
+ * after which the requester sends binary too.  Peers that know
+ * nothing of this keep exchanging XML.
+ */
+public class TransactionCodecFactory {
+
+	public static final String acceptHeader = "Accept";
+	public static final String contentTypeHeader = "Content-Type";
+	
+	private static ITransactionCodec xml = new XmlTransactionCodec();
+	private static ITransactionCodec binary = new BinaryTransactionCodec();
+	
+	public static ITransactionCodec getXml() {
+		return xml;
+	}
+	
+	public static ITransactionCodec getBinary() {
+		return binary;
+	}
+	
+	// codec for a message of the given content type, default XML
+	public static ITransactionCodec getCodec(String contentType) {
+		ITransactionCodec retVal = xml;
+		if(isBinary(contentType)) {
+			retVal = binary;
+		}
+		return retVal;
+	}
+	
+	// codec for a reply, given the requester's Accept header
+	public static ITransactionCodec getReplyCodec(String accept) {
+		ITransactionCodec retVal = xml;
+		if(accept != null) {
+			if(accept.contains(BinaryTransactionCodec.contentType)) {
+				retVal = binary;
+			}
+		}
+		return retVal;
+	}
+	
+	// Accept header value sent by requesters
+	public static String getAccept() {
+		return BinaryTransactionCodec.contentType+", "+XmlTransactionCodec.contentType;
+	}
+	
+	public static boolean isBinary(String contentType) {
+		boolean retVal = false;
+		if(contentType != null) {
+			if(contentType.trim().startsWith(BinaryTransactionCodec.contentType)) {
+				retVal = true;
+			}
+		}
+		return retVal;
+	}
+}
@@ -32,7 +32,7 @@ public class TransactionId implements Serializable {
 		setMinor(minor);
 	}
 	
-	private int getMajor() {
+	public int getMajor() {
 		return major;
 	}
 	
@@ -40,7 +40,7 @@ public class TransactionId implements Serializable {
 		major = value;
 	}
 	
-	private int getMinor() {
+	public int getMinor() {
 		return minor;
 	}
 	
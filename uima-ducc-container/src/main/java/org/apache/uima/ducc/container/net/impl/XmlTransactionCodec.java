@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.net.impl;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
+import org.apache.uima.ducc.container.net.iface.IPerformanceMetrics;
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+/*
+ * XML (XStream) wire format, as understood by all JP and JD versions.
+ * 
+ * Each thread keeps its own XStream instance, so that encoding and
+ * decoding neither construct a new XStream per call nor serialize
+ * all threads on a shared monitor.
+ */
+public class XmlTransactionCodec implements ITransactionCodec {
+
+	public static final String contentType = "text/xml";
+	
+	private static final Charset charset = Charset.forName("UTF-8");
+	
+	private static ThreadLocal<XStream> xStream = new ThreadLocal<XStream>() {
+		@Override
+		protected XStream initialValue() {
+			XStream retVal = new XStream(new DomDriver());
+			// XML is the fallback for peers that predate the compact
+			// metrics form, so only the List<Properties> form is sent
+			retVal.omitField(PerformanceMetrics.class, "names");
+			retVal.omitField(PerformanceMetrics.class, "uniqueNames");
+			retVal.omitField(PerformanceMetrics.class, "values");
+			return retVal;
+		}
+	};
+	
+	private void populateLegacyMetrics(IMetaCasTransaction trans) {
+		IMetaCas metaCas = trans.getMetaCas();
+		if(metaCas != null) {
+			IPerformanceMetrics pm = metaCas.getPerformanceMetrics();
+			if(pm != null) {
+				// materializes the List<Properties> form from the compact form
+				pm.get();
+			}
+		}
+		List<IMetaCasTransaction> batch = trans.getBatch();
+		if(batch != null) {
+			for(IMetaCasTransaction item : batch) {
+				populateLegacyMetrics(item);
+			}
+		}
+	}
+	
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+	
+	@Override
+	public byte[] encode(IMetaCasTransaction trans) throws Exception {
+		populateLegacyMetrics(trans);
+		String xml = xStream.get().toXML(trans);
+		return xml.getBytes(charset);
+	}
+	
+	@Override
+	public IMetaCasTransaction decode(byte[] bytes) throws Exception {
+		String xml = new String(bytes, charset).trim();
+		Object object = xStream.get().fromXML(xml);
+		return (IMetaCasTransaction) object;
+	}
+}
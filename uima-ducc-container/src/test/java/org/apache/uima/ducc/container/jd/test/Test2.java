@@ -23,6 +23,7 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 
+import org.apache.uima.ducc.common.container.FlagsHelper;
 import org.apache.uima.ducc.container.jd.JobDriver;
 import org.apache.uima.ducc.container.jd.JobDriverException;
 import org.apache.uima.ducc.container.jd.cas.CasManager;
@@ -157,4 +158,42 @@ public class Test2 extends TestSuite {
 		assertTrue(list.size() == 2);
 	}
 
+	@Test
+	public void test_23() {
+		try {
+			config();
+			System.setProperty(FlagsHelper.Name.CollectionReaderReadAhead.pname(), "8");
+			CasManager cm = new CasManager();
+			assertTrue(cm.getCasManagerStats().getReadAheadCapacity() == 8);
+			int total = cm.getCasManagerStats().getCrTotal();
+			assertTrue(total == 100);
+			IMetaCas metaCas = cm.getMetaCas();
+			int retrys = 3;
+			while(metaCas != null) {
+				if(cm.getCasManagerStats().getRetryQueuePuts() < retrys) {
+					cm.putMetaCas(metaCas, RetryReason.ProcessPreempt);
+				}
+				metaCas = cm.getMetaCas();
+			}
+			// end of collection is sticky
+			assertTrue(cm.getMetaCas() == null);
+			int crGets = cm.getCasManagerStats().getCrGets();
+			debug("crGets:"+crGets);
+			assertTrue(crGets == total);
+			assertTrue(cm.getCasManagerStats().getCrReads() == total);
+			debug("crReadMillisAvg:"+cm.getCasManagerStats().getCrReadMillisAvg());
+			int rqPuts = cm.getCasManagerStats().getRetryQueuePuts();
+			int rqGets = cm.getCasManagerStats().getRetryQueueGets();
+			assertTrue(rqPuts == retrys);
+			assertTrue(rqGets == rqPuts);
+			asExpected("crGets == "+crGets);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+		finally {
+			System.clearProperty(FlagsHelper.Name.CollectionReaderReadAhead.pname());
+		}
+	}
 }
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.messagehandler;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.uima.ducc.common.container.FlagsHelper;
+import org.apache.uima.ducc.container.jd.JobDriver;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.blacklist.JobProcessBlacklist;
+import org.apache.uima.ducc.container.jd.mh.MessageHandler;
+import org.apache.uima.ducc.container.jd.mh.iface.IOperatingInfo;
+import org.apache.uima.ducc.container.jd.test.helper.ThreadInfo;
+import org.apache.uima.ducc.container.jd.test.helper.ThreadInfoFactory;
+import org.apache.uima.ducc.container.jd.test.helper.Utilities;
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.junit.Test;
+
+public class TestMessageHandler07 extends TestMessageHandler {
+	
+	protected JobDriver jd;
+	
+    public void setUp() throws JobDriverException {
+        initialize();
+        jd = JobDriver.getNewInstance();
+        JobProcessBlacklist.getInstance().disable();
+    }
+    
+	// load: 10,000 node:pid:tid, concurrently, with per-request latency
+	
+	private int nodes = 10;
+	private int pids = 10;
+	private int tids = 100;
+	private int workers = 100;
+	
+	private AtomicInteger requests = new AtomicInteger(0);
+	private AtomicLongArray latency = new AtomicLongArray(nodes*pids*tids*4);
+	
+	private void record(long t0) {
+		long elapsed = System.nanoTime()-t0;
+		int index = requests.getAndIncrement();
+		if(index < latency.length()) {
+			latency.set(index, elapsed);
+		}
+	}
+	
+	private void simulate(MessageHandler messageHandler, ThreadInfo ti, AtomicInteger casNo) {
+		while(true) {
+			int reqNo = casNo.decrementAndGet();
+			long t0 = System.nanoTime();
+			MetaCasTransaction trans = transGet(messageHandler,ti.getNodeName(),ti.getPid(),ti.getTid(),reqNo);
+			record(t0);
+			IMetaCas metaCas = trans.getMetaCas();
+			if(metaCas == null) {
+				break;
+			}
+			t0 = System.nanoTime();
+			transAck(messageHandler,trans,reqNo);
+			record(t0);
+			t0 = System.nanoTime();
+			transEnd(messageHandler,trans,reqNo);
+			record(t0);
+		}
+	}
+	
+	private long percentile(long[] sorted, int pct) {
+		long retVal = 0;
+		if(sorted.length > 0) {
+			int index = (int) Math.min(sorted.length-1, (((long)sorted.length)*pct)/100);
+			retVal = sorted[index];
+		}
+		return retVal;
+	}
+	
+	@Test
+	public void test_07() {
+		try {
+			if(skipAll) {
+				return;
+			}
+			//
+			setUp();
+			//
+			File working = mkWorkingDir();
+			String directory = working.getAbsolutePath();
+			System.setProperty(FlagsHelper.Name.JobDirectory.pname(), directory);
+			//
+			String key = "ducc.process.log.dir";
+			String value = directory;
+			System.setProperty(key, value);
+			//
+			URL urlXml = null;
+			File file = null;
+			String path = null;
+			//
+			urlXml = this.getClass().getResource("/CR100.xml");
+			file = new File(urlXml.getFile());
+			path = file.getAbsolutePath();
+			System.setProperty(FlagsHelper.Name.CollectionReaderXml.pname(), path);
+			//
+			urlXml = this.getClass().getResource("/DDSleepDescriptor.xml");
+			file = new File(urlXml.getFile());
+			path = file.getAbsolutePath();
+			System.setProperty(FlagsHelper.Name.JpDd.pname(), path);
+			//
+			String userClasspath = Utilities.getInstance().getUserCP();
+			System.setProperty(FlagsHelper.Name.UserClasspath.pname(), userClasspath);
+			//
+			final MessageHandler messageHandler = new MessageHandler();
+			final AtomicInteger casNo = new AtomicInteger(0);
+			ThreadInfoFactory tif = new ThreadInfoFactory(nodes,pids,tids);
+			ExecutorService executor = Executors.newFixedThreadPool(workers);
+			long t0 = System.nanoTime();
+			ThreadInfo ti = tif.getUnique();
+			int remotes = 0;
+			while(ti != null) {
+				final ThreadInfo remote = ti;
+				executor.execute(new Runnable() {
+					public void run() {
+						simulate(messageHandler, remote, casNo);
+					}
+				});
+				remotes++;
+				ti = tif.getUnique();
+			}
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+			long elapsed = System.nanoTime()-t0;
+			//
+			int count = Math.min(requests.get(), latency.length());
+			long[] sorted = new long[count];
+			long total = 0;
+			for(int i=0; i<count; i++) {
+				sorted[i] = latency.get(i);
+				total += sorted[i];
+			}
+			Arrays.sort(sorted);
+			long micros = 1000;
+			out_println("remotes:"+remotes+" "+"requests:"+count+" "+"elapsed(ms):"+(elapsed/(micros*1000)));
+			if(count > 0) {
+				out_println("latency(us)"
+						+" "+"avg:"+(total/count/micros)
+						+" "+"p50:"+(percentile(sorted,50)/micros)
+						+" "+"p90:"+(percentile(sorted,90)/micros)
+						+" "+"p99:"+(percentile(sorted,99)/micros)
+						+" "+"max:"+(sorted[count-1]/micros)
+						);
+			}
+			//
+			assertTrue(remotes == nodes*pids*tids);
+			asExpected("remotes count == "+remotes);
+			IOperatingInfo oi = messageHandler.handleGetOperatingInfo();
+			assertTrue(oi.getWorkItemCrFetches() == 100);
+			asExpected("CASes fetched count == 100");
+			assertTrue(oi.getWorkItemEndSuccesses() == 100);
+			asExpected("CASes success count == 100");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+}
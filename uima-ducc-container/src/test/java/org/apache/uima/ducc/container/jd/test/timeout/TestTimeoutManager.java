@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.timeout;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
+import org.apache.uima.ducc.container.common.fsm.iface.IFsm;
+import org.apache.uima.ducc.container.common.fsm.iface.IState;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.fsm.wi.ActionData;
+import org.apache.uima.ducc.container.jd.fsm.wi.IActionData;
+import org.apache.uima.ducc.container.jd.mh.RemoteWorkerThread;
+import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerThread;
+import org.apache.uima.ducc.container.jd.test.TestBase;
+import org.apache.uima.ducc.container.jd.timeout.ITimeoutManager;
+import org.apache.uima.ducc.container.jd.timeout.TimeoutManager;
+import org.apache.uima.ducc.container.jd.timeout.TimeoutManagerAbstract;
+import org.apache.uima.ducc.container.jd.wi.IWorkItem;
+import org.apache.uima.ducc.container.jd.wi.WorkItem;
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.impl.MetaCas;
+import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTimeoutManager extends TestBase {
+	
+	@Before
+    public void setUp() throws JobDriverException {
+        initialize();
+    }
+	
+	// records when the timer pops instead of driving a real work item
+	private class PopFsm implements IFsm {
+		
+		private CountDownLatch popped = new CountDownLatch(1);
+		private volatile long popMillis = 0;
+		
+		@Override
+		public void transition(IEvent event, Object actionData) {
+			popMillis = System.currentTimeMillis();
+			popped.countDown();
+		}
+		
+		@Override
+		public void transitionLog(IEvent event, Object actionData) {
+		}
+		
+		@Override
+		public IState getStateCurrent() {
+			return null;
+		}
+		
+		@Override
+		public IState getStatePrevious() {
+			return null;
+		}
+		
+		@Override
+		public void reset() {
+		}
+		
+		@Override
+		public boolean isStateInitial() {
+			return true;
+		}
+	}
+	
+	private IActionData getActionData(int i, IFsm fsm) {
+		int seqNo = i+1;
+		IMetaCas metaCas = new MetaCas(seqNo, ""+seqNo, null);
+		IWorkItem wi = new WorkItem(metaCas, fsm);
+		int pid = 10000+(i/100);
+		int tid = i%100;
+		IRemoteWorkerThread rwt = new RemoteWorkerThread("node", "address", "pid:"+pid, pid, tid);
+		MetaCasTransaction trans = new MetaCasTransaction();
+		trans.setRequesterNodeName("node");
+		trans.setRequesterProcessName(""+pid);
+		trans.setRequesterProcessId(pid);
+		trans.setRequesterThreadId(tid);
+		return new ActionData(wi, rwt, trans);
+	}
+	
+	private IActionData[] getActionData(int count) {
+		IActionData[] retVal = new IActionData[count];
+		for(int i=0; i<count; i++) {
+			IFsm fsm = null;
+			retVal[i] = getActionData(i, fsm);
+		}
+		return retVal;
+	}
+	
+	// register then cancel the given number of outstanding timeouts
+	private long benchmark(TimeoutManager.Type type, IActionData[] list) {
+		ITimeoutManager toMgr = TimeoutManager.getNewInstance(type);
+		long t0 = System.nanoTime();
+		for(IActionData actionData : list) {
+			toMgr.pendingAck(actionData);
+		}
+		long t1 = System.nanoTime();
+		for(IActionData actionData : list) {
+			toMgr.receivedAck(actionData);
+		}
+		long t2 = System.nanoTime();
+		toMgr.shutdown();
+		long ops = list.length*2;
+		long opsPerSec = (ops*1000000000L)/Math.max(1, t2-t0);
+		debug(type.name()
+				+" "+"outstanding:"+list.length
+				+" "+"register(ms):"+((t1-t0)/1000000)
+				+" "+"cancel(ms):"+((t2-t1)/1000000)
+				+" "+"ops/sec:"+opsPerSec
+				);
+		return opsPerSec;
+	}
+	
+	@Test
+	public void test_01() {
+		try {
+			int outstanding = 100000;
+			IActionData[] list = getActionData(outstanding);
+			// warm-up
+			benchmark(TimeoutManager.Type.executor, list);
+			benchmark(TimeoutManager.Type.wheel, list);
+			//
+			long executor = benchmark(TimeoutManager.Type.executor, list);
+			long wheel = benchmark(TimeoutManager.Type.wheel, list);
+			assertTrue(executor > 0);
+			assertTrue(wheel > 0);
+			asExpected("executor ops/sec == "+executor);
+			asExpected("wheel ops/sec == "+wheel);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// one timer left to pop, one cancelled by its ack
+	private void expiry(TimeoutManager.Type type) throws InterruptedException {
+		long ackTimeout = 300;
+		// allow for clock granularity between the two time sources
+		long slop = 20;
+		ITimeoutManager toMgr = TimeoutManager.getNewInstance(type);
+		try {
+			((TimeoutManagerAbstract) toMgr).setAckTimeout(ackTimeout);
+			PopFsm fsmPop = new PopFsm();
+			PopFsm fsmAck = new PopFsm();
+			IActionData adPop = getActionData(0, fsmPop);
+			IActionData adAck = getActionData(1, fsmAck);
+			long t0 = System.currentTimeMillis();
+			toMgr.pendingAck(adPop);
+			toMgr.pendingAck(adAck);
+			toMgr.receivedAck(adAck);
+			assertTrue(fsmPop.popped.await(10, TimeUnit.SECONDS));
+			long elapsed = fsmPop.popMillis-t0;
+			debug(type.name()+" "+"popped(ms):"+elapsed);
+			assertTrue(elapsed >= ackTimeout-slop);
+			// well past the cancelled deadline
+			assertFalse(fsmAck.popped.await(2*ackTimeout, TimeUnit.MILLISECONDS));
+			asExpected(type.name()+" popped after "+elapsed+" ms");
+			asExpected(type.name()+" cancelled did not pop");
+		}
+		finally {
+			toMgr.shutdown();
+		}
+	}
+	
+	@Test
+	public void test_02() {
+		try {
+			expiry(TimeoutManager.Type.executor);
+			expiry(TimeoutManager.Type.wheel);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	@Test
+	public void test_03() {
+		try {
+			TimeoutManager.Type[] types = { TimeoutManager.Type.executor, TimeoutManager.Type.wheel };
+			for(TimeoutManager.Type type : types) {
+				ITimeoutManager toMgr = TimeoutManager.getNewInstance(type);
+				((TimeoutManagerAbstract) toMgr).setAckTimeout(100);
+				PopFsm fsm = new PopFsm();
+				toMgr.pendingAck(getActionData(0, fsm));
+				toMgr.shutdown();
+				// pending timers are dropped with the threads
+				assertFalse(fsm.popped.await(500, TimeUnit.MILLISECONDS));
+				asExpected(type.name()+" shutdown");
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+}
@@ -28,7 +28,6 @@ import org.apache.uima.ducc.container.common.fsm.Action;
 import org.apache.uima.ducc.container.common.fsm.Event;
 import org.apache.uima.ducc.container.common.fsm.Fsm;
 import org.apache.uima.ducc.container.common.fsm.State;
-import org.apache.uima.ducc.container.common.fsm.StateEventKey;
 import org.apache.uima.ducc.container.common.fsm.iface.IAction;
 import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
 import org.apache.uima.ducc.container.common.fsm.iface.IFsm;
@@ -64,6 +63,9 @@ public class TestWiFsm extends TestBase {
 			asExpected("State "+s0.getName()+" != "+s2.getName());
 			assertTrue(!s1.equals(s2));
 			asExpected("State "+s1.getName()+" != "+s2.getName());
+			assertTrue(s0.getOrdinal() == s1.getOrdinal());
+			assertTrue(s0.getOrdinal() != s2.getOrdinal());
+			asExpected("State ordinal "+s0.getOrdinal()+" "+s2.getOrdinal());
 			try {
 				new State(null);
 				fail("expected Exception");
@@ -90,6 +92,9 @@ public class TestWiFsm extends TestBase {
 			asExpected("Event "+e0.getName()+" != "+e2.getName());
 			assertTrue(!e1.equals(e2));
 			asExpected("Event "+e1.getName()+" != "+e2.getName());
+			assertTrue(e0.getOrdinal() == e1.getOrdinal());
+			assertTrue(e0.getOrdinal() != e2.getOrdinal());
+			asExpected("Event ordinal "+e0.getOrdinal()+" "+e2.getOrdinal());
 			try {
 				new Event(null);
 				fail("expected Exception");
@@ -104,47 +109,6 @@ public class TestWiFsm extends TestBase {
 		}
 	}
 	
-	@Test
-	public void test_03() {
-		try {
-			IState s0 = new State("a");
-			IState s1 = new State("b");
-			IEvent e0 = new Event("c");
-			IEvent e1 = new Event("d");
-			StateEventKey se00A = new StateEventKey(s0, e0);
-			StateEventKey se00B = new StateEventKey(s0, e0);
-			assertTrue(se00A.equals(se00B));
-			StateEventKey se00 = new StateEventKey(s0, e0);
-			StateEventKey se01 = new StateEventKey(s0, e1);
-			StateEventKey se10 = new StateEventKey(s1, e0);
-			StateEventKey se11 = new StateEventKey(s1, e1);
-			assertTrue(!se00.equals(se01));
-			assertTrue(!se00.equals(se10));
-			assertTrue(!se00.equals(se11));
-			assertTrue(!se01.equals(se10));
-			assertTrue(!se01.equals(se11));
-			assertTrue(!se10.equals(se11));
-			try {
-				new StateEventKey(null, e0);;
-				fail("expected Exception");
-			}
-			catch(Exception e) {
-				asExpected(e);
-			}
-			try {
-				new StateEventKey(s0, null);;
-				fail("expected Exception");
-			}
-			catch(Exception e) {
-				asExpected(e);
-			}
-		}
-		catch(Exception e) {
-			e.printStackTrace();
-			fail("Exception");
-		}
-	}
-	
 	@Test
 	public void test_04() {
 		try {
@@ -163,6 +127,17 @@ public class TestWiFsm extends TestBase {
 			fsmBuilder.add(s1, e2, a0, s2);
 			assertTrue(fsm.getStateCurrent().getName().equals(s1.getName()));
 			asExpected("state == "+s1.getName());
+			// lookup by ordinal: an equal event built separately finds the transition
+			fsm.transition(new Event("e2"), null);
+			assertTrue(fsm.getStateCurrent().getName().equals(s2.getName()));
+			asExpected("state == "+s2.getName());
+			try {
+				fsm.transition(new Event("e3"), null);
+				fail("expected Exception");
+			}
+			catch(Exception e) {
+				asExpected(e);
+			}
 		}
 		catch(Exception e) {
 			e.printStackTrace();
@@ -270,4 +245,110 @@ public class TestWiFsm extends TestBase {
 			fail("Exception");
 		}
 	}
+	
+	@Test
+	public void test_07() {
+		try {
+			initUserClasspath();
+			WiFsm wiFsm = new WiFsm();
+			Object actionData = null;
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Start.getName()));
+			asExpected("state == "+WiFsm.Start.getName());
+			wiFsm.transition(WiFsm.Get_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Get_Pending.getName()));
+			asExpected("state == "+WiFsm.Get_Pending.getName());
+			wiFsm.transition(WiFsm.CAS_Available, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Send.getName()));
+			asExpected("state == "+WiFsm.CAS_Send.getName());
+			wiFsm.transition(WiFsm.Ack_Queued_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Queued.getName()));
+			asExpected("state == "+WiFsm.CAS_Queued.getName());
+			wiFsm.transition(WiFsm.Start_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Active.getName()));
+			asExpected("state == "+WiFsm.CAS_Active.getName());
+			wiFsm.transition(WiFsm.End_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Start.getName()));
+			asExpected("state == "+WiFsm.Start.getName());
+			//
+			wiFsm.transition(WiFsm.Get_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Get_Pending.getName()));
+			wiFsm.transition(WiFsm.CAS_Available, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Send.getName()));
+			wiFsm.transition(WiFsm.Ack_Queued_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Queued.getName()));
+			wiFsm.transition(WiFsm.Process_Preempt, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Start.getName()));
+			asExpected("state == "+WiFsm.Start.getName());
+			// a queued work item given back unstarted
+			wiFsm.transition(WiFsm.Get_Request, actionData);
+			wiFsm.transition(WiFsm.CAS_Available, actionData);
+			wiFsm.transition(WiFsm.Ack_Queued_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Queued.getName()));
+			wiFsm.transition(WiFsm.Return_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.Start.getName()));
+			asExpected("state == "+WiFsm.Start.getName());
+			// nothing to give back once started
+			wiFsm.transition(WiFsm.Get_Request, actionData);
+			wiFsm.transition(WiFsm.CAS_Available, actionData);
+			wiFsm.transition(WiFsm.Ack_Queued_Request, actionData);
+			wiFsm.transition(WiFsm.Start_Request, actionData);
+			wiFsm.transition(WiFsm.Return_Request, actionData);
+			assertTrue(wiFsm.getStateCurrent().getName().equals(WiFsm.CAS_Active.getName()));
+			asExpected("state == "+WiFsm.CAS_Active.getName());
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	@Test
+	public void test_08() {
+		try {
+			initUserClasspath();
+			// transition table is shared, state is not
+			WiFsm wiFsm1 = new WiFsm();
+			WiFsm wiFsm2 = new WiFsm();
+			Object actionData = null;
+			wiFsm1.transition(WiFsm.Get_Request, actionData);
+			assertTrue(wiFsm1.getStateCurrent().getName().equals(WiFsm.Get_Pending.getName()));
+			assertTrue(wiFsm2.getStateCurrent().getName().equals(WiFsm.Start.getName()));
+			asExpected("state == "+WiFsm.Start.getName());
+			try {
+				wiFsm2.add(WiFsm.Start, WiFsm.Send_Failure, WiFsm.ActionIgnore, WiFsm.Start);
+				fail("expected Exception");
+			}
+			catch(Exception e) {
+				asExpected(e);
+			}
+			// microbenchmark: work items created and transitions per second
+			IEvent[] events = { 
+					WiFsm.CAS_Unavailable, 
+					WiFsm.Ack_Timer_Pop, 
+					WiFsm.End_Timer_Pop, 
+					WiFsm.Investment_Reset,
+					};
+			int items = 10000;
+			int transitions = 0;
+			long t0 = System.nanoTime();
+			for(int i=0; i<items; i++) {
+				WiFsm wiFsm = new WiFsm();
+				for(IEvent event : events) {
+					wiFsm.transition(event, actionData);
+					transitions++;
+				}
+				assertTrue(wiFsm.isStateInitial());
+			}
+			long t1 = System.nanoTime();
+			long nanos = Math.max(1, t1-t0);
+			long itemsPerSec = (items*1000000000L)/nanos;
+			long transitionsPerSec = (transitions*1000000000L)/nanos;
+			debug("work items/sec:"+itemsPerSec+" "+"transitions/sec:"+transitionsPerSec);
+			assertTrue(transitions == items*events.length);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
 }
@@ -22,7 +22,10 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.util.concurrent.ConcurrentSkipListMap;
 
+import org.apache.uima.ducc.common.jd.files.IWorkItemState;
+import org.apache.uima.ducc.common.jd.files.IWorkItemState.State;
 import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateKeeper;
 import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateReader;
 import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateKeeper;
@@ -101,4 +104,53 @@ public class TestWiStateFile extends TestBase {
 		}
 	}
 	
+	@Test
+	public void test_02() {
+		try {
+			File working = mkWorkingDir();
+			String component = "JD.test";
+			String directory = working.getAbsolutePath();
+			debug(directory);
+			IWorkItemStateKeeper wisk = new WorkItemStateKeeper(component, directory);
+			//
+			wisk.start(1, "u.1", "n.1", "p.1", "t.1");
+			wisk.queued(1);
+			wisk.persist();
+			wisk.operating(1);
+			wisk.persist();
+			//
+			wisk.start(2, "u.2", "n.2", "p.2", "t.2");
+			wisk.queued(2);
+			wisk.operating(2);
+			wisk.ended(2);
+			wisk.persist();
+			//
+			File journal = new File(directory, "work-item-state.journal");
+			assertTrue(journal.exists());
+			asExpected("journal exists");
+			//
+			String user = "self";
+			long version = 1;
+			IWorkItemStateReader wisr = new WorkItemStateReader(component, directory, user, version);
+			ConcurrentSkipListMap<Long,IWorkItemState> map = wisr.getMap();
+			assertTrue(map.size() == 2);
+			assertTrue(map.get(new Long(1)).getState() == State.operating);
+			assertTrue(map.get(new Long(2)).getState() == State.ended);
+			asExpected("journal replay == current state");
+			//
+			wisk.zip();
+			assertTrue(!journal.exists());
+			asExpected("journal removed");
+			wisr = new WorkItemStateReader(component, directory, user, version);
+			map = wisr.getMap();
+			assertTrue(map.size() == 2);
+			asExpected("zipped size == "+map.size());
+			//
+			delete(working);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
 }
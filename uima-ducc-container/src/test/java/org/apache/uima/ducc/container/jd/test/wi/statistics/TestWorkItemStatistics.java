@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.wi.statistics;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.uima.ducc.container.common.ConcurrentStats;
+import org.apache.uima.ducc.container.common.SynchronizedStats;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.test.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWorkItemStatistics extends TestBase {
+	
+	@Before
+    public void setUp() throws JobDriverException {
+        initialize();
+    }
+	
+	private boolean within(double expected, double actual, double tolerance) {
+		double delta = Math.abs(expected - actual);
+		return delta <= Math.abs(expected * tolerance);
+	}
+	
+	@Test
+	public void test_01() {
+		try {
+			ConcurrentStats cs = new ConcurrentStats();
+			assertTrue(cs.getNum() == 0);
+			assertTrue(cs.getMin() == 0);
+			assertTrue(cs.getMax() == 0);
+			assertTrue(cs.getPercentile(50) == 0);
+			SynchronizedStats ss = new SynchronizedStats();
+			for(int i=1; i<=10000; i++) {
+				cs.addValue(i);
+				ss.addValue(i);
+			}
+			assertTrue(cs.getNum() == 10000);
+			assertTrue(cs.getSum() == (long) ss.getSum());
+			assertTrue(cs.getMin() == 1);
+			assertTrue(cs.getMax() == 10000);
+			assertTrue(within(ss.getMean(), cs.getMean(), 0.0001));
+			assertTrue(within(ss.getStandardDeviation(), cs.getStandardDeviation(), 0.0001));
+			double[] percentiles = { 50, 95, 99, 99.9 };
+			for(double percentile : percentiles) {
+				long value = cs.getPercentile(percentile);
+				debug("p"+percentile+"="+value);
+				assertTrue(within(percentile*100, value, 0.02));
+			}
+			assertTrue(cs.getPercentile(100) == 10000);
+			assertTrue(cs.getPercentile(0) == 1);
+			// long tail: 1% of items take 100x as long
+			ConcurrentStats tail = new ConcurrentStats();
+			for(int i=0; i<990; i++) {
+				tail.addValue(1000);
+			}
+			for(int i=0; i<10; i++) {
+				tail.addValue(100000);
+			}
+			assertTrue(within(1000, tail.getPercentile(50), 0.02));
+			assertTrue(within(1000, tail.getPercentile(99), 0.02));
+			assertTrue(within(100000, tail.getPercentile(99.9), 0.02));
+			cs.merge(tail);
+			assertTrue(cs.getNum() == 11000);
+			assertTrue(cs.getMax() == 100000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	@Test
+	public void test_02() {
+		try {
+			final int threads = 16;
+			final int count = 100000;
+			final ConcurrentStats cs = new ConcurrentStats();
+			final SynchronizedStats ss = new SynchronizedStats();
+			final CountDownLatch start = new CountDownLatch(1);
+			final CountDownLatch done = new CountDownLatch(threads*2);
+			for(int t=0; t<threads; t++) {
+				new Thread() {
+					public void run() {
+						try {
+							start.await();
+							for(int i=0; i<count; i++) {
+								cs.addValue(i%1000);
+							}
+						}
+						catch(InterruptedException e) {
+						}
+						done.countDown();
+					}
+				}.start();
+				new Thread() {
+					public void run() {
+						try {
+							start.await();
+							for(int i=0; i<count; i++) {
+								ss.addValue(i%1000);
+							}
+						}
+						catch(InterruptedException e) {
+						}
+						done.countDown();
+					}
+				}.start();
+			}
+			start.countDown();
+			done.await();
+			assertTrue(cs.getNum() == threads*count);
+			assertTrue(cs.getNum() == ss.getNum());
+			assertTrue(cs.getSum() == (long) ss.getSum());
+			assertTrue(cs.getMin() == 0);
+			assertTrue(cs.getMax() == 999);
+			assertTrue(within(500, cs.getPercentile(50), 0.02));
+			debug("p99.9="+cs.getPercentile(99.9));
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+}
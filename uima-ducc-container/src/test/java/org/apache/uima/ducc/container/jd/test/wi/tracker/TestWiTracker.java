@@ -114,5 +114,54 @@ public class TestWiTracker extends TestBase  {
 		//
 		assertTrue(tracker.getSize() == 2);
 	}
-
+	
+	@Test
+	public void test_02() {
+		WiTracker tracker = WiTracker.getInstance();
+		int count = 10000;
+		IRemoteWorkerThread[] rwts = new IRemoteWorkerThread[count];
+		IWorkItem[] wis = new IWorkItem[count];
+		for(int i=0; i<count; i++) {
+			int pid = 10000+(i/100);
+			rwts[i] = new RemoteWorkerThread("node", "address", "pid:"+pid, pid, i%100);
+			wis[i] = tracker.link(rwts[i]);
+			wis[i].setMetaCas(getMetaCas(i+1));
+			tracker.assign(rwts[i]);
+		}
+		assertTrue(tracker.getSize() == count);
+		// seqNo -> remote worker thread
+		long t0 = System.nanoTime();
+		for(int i=0; i<count; i++) {
+			IRemoteWorkerThread rwt = tracker.find(wis[i]);
+			assertTrue(rwts[i].equals(rwt));
+		}
+		long t1 = System.nanoTime();
+		debug("find avg(ns):"+((t1-t0)/count));
+		for(int i=0; i<count; i++) {
+			tracker.unassign(wis[i]);
+		}
+		assertTrue(tracker.find(wis[0]) == null);
+		assertTrue(tracker.getSize() == 0);
+	}
+	
+	@Test
+	public void test_03() {
+		WiTracker tracker = WiTracker.getInstance();
+		IRemoteWorkerThread rwt = getRemoteWorkerThread();
+		IWorkItem wi = tracker.link(rwt);
+		wi.setMetaCas(getMetaCas(1));
+		// not yet indexed
+		assertTrue(tracker.find(wi) == null);
+		tracker.index(rwt, wi);
+		assertTrue(rwt.equals(tracker.find(wi)));
+		// thread moves on to another CAS without being indexed
+		wi.setMetaCas(getMetaCas(2));
+		assertTrue(tracker.find(wi) == null);
+		// stale entry for the first CAS rebuilds the index
+		assertTrue(tracker.find(getWi(1)) == null);
+		assertTrue(rwt.equals(tracker.find(wi)));
+		tracker.unassign(wi);
+		assertTrue(tracker.find(wi) == null);
+		assertTrue(tracker.getSize() == 0);
+	}
 }
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.net.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Direction;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Hint;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.JdState;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Type;
+import org.apache.uima.ducc.container.net.iface.IPerformanceMetrics;
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
+import org.apache.uima.ducc.container.net.impl.BinaryTransactionCodec;
+import org.apache.uima.ducc.container.net.impl.MetaCas;
+import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.apache.uima.ducc.container.net.impl.PerformanceMetrics;
+import org.apache.uima.ducc.container.net.impl.TransactionCodecFactory;
+import org.apache.uima.ducc.container.net.impl.TransactionId;
+import org.apache.uima.ducc.container.net.impl.XmlTransactionCodec;
+import org.junit.Test;
+
+public class TestTransactionCodec {
+
+	private boolean debug = false;
+	
+	private int transactions = 16*1024;
+	private int[] threadCounts = { 1, 8, 64 };
+	
+	private void debug(String message) {
+		if(debug) {
+			System.out.println(message);
+		}
+	}
+	
+	private IMetaCasTransaction create(int seqNo) {
+		IMetaCasTransaction trans = new MetaCasTransaction();
+		trans.setTransactionId(new TransactionId(seqNo, 2));
+		trans.setType(Type.End);
+		trans.setDirection(Direction.Request);
+		trans.setJdState(JdState.Active);
+		List<Hint> hints = new ArrayList<Hint>();
+		hints.add(Hint.Exhausted);
+		trans.setResponseHints(hints);
+		trans.setProviderKey("key");
+		trans.setProviderName("jd.node");
+		trans.setProviderPort(41234);
+		trans.setRequesterNodeName("jp.node");
+		trans.setRequesterAddress("192.168.1.2");
+		trans.setRequesterProcessName("1234.5");
+		trans.setRequesterProcessId(5678);
+		trans.setRequesterThreadId(42);
+		IMetaCas metaCas = new MetaCas(seqNo, "document-"+seqNo+"-\u00e9", null);
+		List<Properties> list = new ArrayList<Properties>();
+		for(int i=0; i<3; i++) {
+			Properties p = new Properties();
+			p.setProperty("name", "ae"+i);
+			p.setProperty("uniqueName", "aggregate/ae"+i);
+			p.setProperty("analysisTime", ""+(i*1000));
+			p.setProperty("numProcessed", "1");
+			list.add(p);
+		}
+		IPerformanceMetrics pm = new PerformanceMetrics();
+		pm.set(list);
+		metaCas.setPerformanceMetrics(pm);
+		metaCas.setUserSpaceException(new byte[] { 1, 2, 3 });
+		trans.setMetaCas(metaCas);
+		return trans;
+	}
+	
+	private void compare(IMetaCasTransaction t1, IMetaCasTransaction t2) {
+		assertTrue(t1.getTransactionId().toString().equals(t2.getTransactionId().toString()));
+		assertTrue(t1.getType() == t2.getType());
+		assertTrue(t1.getDirection() == t2.getDirection());
+		assertTrue(t1.getJdState() == t2.getJdState());
+		assertTrue(t1.getResponseHints().equals(t2.getResponseHints()));
+		assertTrue(t1.getProviderKey().equals(t2.getProviderKey()));
+		assertTrue(t1.getProviderName().equals(t2.getProviderName()));
+		assertTrue(t1.getProviderPort() == t2.getProviderPort());
+		assertTrue(t1.getRequesterNodeName().equals(t2.getRequesterNodeName()));
+		assertTrue(t1.getRequesterAddress().equals(t2.getRequesterAddress()));
+		assertTrue(t1.getRequesterProcessName().equals(t2.getRequesterProcessName()));
+		assertTrue(t1.getRequesterProcessId() == t2.getRequesterProcessId());
+		assertTrue(t1.getRequesterThreadId() == t2.getRequesterThreadId());
+		IMetaCas m1 = t1.getMetaCas();
+		IMetaCas m2 = t2.getMetaCas();
+		assertTrue(m1.getSystemKey().equals(m2.getSystemKey()));
+		assertTrue(m1.getUserKey().equals(m2.getUserKey()));
+		assertTrue(m1.getUserSpaceCas() == null);
+		assertTrue(m2.getUserSpaceCas() == null);
+		byte[] e1 = (byte[]) m1.getUserSpaceException();
+		byte[] e2 = (byte[]) m2.getUserSpaceException();
+		assertTrue(java.util.Arrays.equals(e1, e2));
+		assertTrue(m1.getPerformanceMetrics().get().equals(m2.getPerformanceMetrics().get()));
+	}
+	
+	private void roundTrip(ITransactionCodec codec) throws Exception {
+		IMetaCasTransaction t1 = create(17);
+		byte[] bytes = codec.encode(t1);
+		IMetaCasTransaction t2 = codec.decode(bytes);
+		compare(t1, t2);
+		debug(codec.getContentType()+" bytes="+bytes.length);
+	}
+	
+	@Test
+	public void test_01() throws Exception {
+		roundTrip(new XmlTransactionCodec());
+		roundTrip(new BinaryTransactionCodec());
+	}
+	
+	@Test
+	public void test_02() throws Exception {
+		IMetaCasTransaction t1 = new MetaCasTransaction();
+		t1.setType(Type.Get);
+		ITransactionCodec codec = new BinaryTransactionCodec();
+		IMetaCasTransaction t2 = codec.decode(codec.encode(t1));
+		assertTrue(t2.getType() == Type.Get);
+		assertTrue(t2.getMetaCas() == null);
+		assertTrue(t2.getResponseHints() == null);
+		assertTrue(t2.getRequesterNodeName() == null);
+		IMetaCas metaCas = new MetaCas(3, "text", "<xmi/>");
+		t1.setMetaCas(metaCas);
+		t2 = codec.decode(codec.encode(t1));
+		assertTrue("<xmi/>".equals(t2.getMetaCas().getUserSpaceCas()));
+		assertTrue(t2.getMetaCas().getPerformanceMetrics() == null);
+	}
+	
+	@Test
+	public void test_03() {
+		assertTrue(TransactionCodecFactory.getCodec(null) == TransactionCodecFactory.getXml());
+		assertTrue(TransactionCodecFactory.getCodec("text/xml") == TransactionCodecFactory.getXml());
+		assertTrue(TransactionCodecFactory.getCodec("application/xml; charset=UTF-8") == TransactionCodecFactory.getXml());
+		assertTrue(TransactionCodecFactory.getCodec(BinaryTransactionCodec.contentType) == TransactionCodecFactory.getBinary());
+		assertTrue(TransactionCodecFactory.getReplyCodec(null) == TransactionCodecFactory.getXml());
+		assertTrue(TransactionCodecFactory.getReplyCodec("*/*") == TransactionCodecFactory.getXml());
+		assertTrue(TransactionCodecFactory.getReplyCodec(TransactionCodecFactory.getAccept()) == TransactionCodecFactory.getBinary());
+	}
+	
+	// Round trip cost per transaction at 1, 8 and 64 threads
+	private long measure(final ITransactionCodec codec, int threads) throws Exception {
+		final int perThread = transactions / threads;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		for(int i=0; i<threads; i++) {
+			Thread thread = new Thread() {
+				public void run() {
+					try {
+						start.await();
+						IMetaCasTransaction trans = create(1);
+						for(int j=0; j<perThread; j++) {
+							trans = codec.decode(codec.encode(trans));
+						}
+					}
+					catch(Throwable t) {
+						error.set(t);
+					}
+					finally {
+						done.countDown();
+					}
+				}
+			};
+			thread.start();
+		}
+		long t0 = System.nanoTime();
+		start.countDown();
+		done.await();
+		long elapsed = System.nanoTime() - t0;
+		assertTrue(error.get() == null);
+		return elapsed / (perThread * threads);
+	}
+	
+	@Test
+	public void test_04() throws Exception {
+		ITransactionCodec[] codecs = { new XmlTransactionCodec(), new BinaryTransactionCodec() };
+		// warm up
+		for(ITransactionCodec codec : codecs) {
+			measure(codec, 1);
+		}
+		for(int threads : threadCounts) {
+			for(ITransactionCodec codec : codecs) {
+				long nanos = measure(codec, threads);
+				debug(codec.getContentType()+" threads="+threads+" ns/transaction="+nanos);
+			}
+		}
+	}
+	
+	private void batchRoundTrip(ITransactionCodec codec) throws Exception {
+		IMetaCasTransaction t1 = new MetaCasTransaction();
+		t1.setType(Type.Batch);
+		List<IMetaCasTransaction> batch = new ArrayList<IMetaCasTransaction>();
+		for(int i=0; i<8; i++) {
+			batch.add(create(100+i));
+		}
+		t1.setBatch(batch);
+		IMetaCasTransaction t2 = codec.decode(codec.encode(t1));
+		assertTrue(t2.getType() == Type.Batch);
+		assertTrue(t2.getMetaCas() == null);
+		assertTrue(t2.getBatch().size() == batch.size());
+		for(int i=0; i<batch.size(); i++) {
+			compare(batch.get(i), t2.getBatch().get(i));
+			assertTrue(t2.getBatch().get(i).getBatch() == null);
+		}
+	}
+	
+	@Test
+	public void test_05() throws Exception {
+		batchRoundTrip(new XmlTransactionCodec());
+		batchRoundTrip(new BinaryTransactionCodec());
+	}
+	
+	// compact metrics are sent as such by the binary codec only; the XML
+	// codec sends the List<Properties> form, understood by older peers
+	private void compactRoundTrip(ITransactionCodec codec, boolean compact) throws Exception {
+		IMetaCasTransaction t1 = create(5);
+		String[] names = { "ae0", "ae1" };
+		String[] uniqueNames = { "aggregate/ae0", "aggregate/ae1" };
+		long[] values = { 10, 2000, 5, 5 };
+		t1.getMetaCas().getPerformanceMetrics().set(names, uniqueNames, values);
+		byte[] bytes = codec.encode(t1);
+		IMetaCasTransaction t2 = codec.decode(bytes);
+		IPerformanceMetrics pm = t2.getMetaCas().getPerformanceMetrics();
+		if(compact) {
+			assertTrue(java.util.Arrays.equals(names, pm.getNames()));
+			assertTrue(java.util.Arrays.equals(uniqueNames, pm.getUniqueNames()));
+			assertTrue(java.util.Arrays.equals(values, pm.getValues()));
+		}
+		else {
+			String xml = new String(bytes, "UTF-8");
+			assertTrue(!xml.contains("<values>"));
+			assertTrue(!xml.contains("<uniqueNames>"));
+			assertTrue(xml.contains("<perfMetrics>"));
+			assertTrue(pm.getValues() == null);
+		}
+		List<Properties> list = pm.get();
+		assertTrue(list.size() == 2);
+		assertTrue(list.get(1).getProperty("uniqueName").equals("aggregate/ae1"));
+		assertTrue(list.get(1).getProperty("analysisTime").equals("2000"));
+		assertTrue(list.get(1).getProperty("numProcessed").equals("5"));
+	}
+	
+	@Test
+	public void test_06() throws Exception {
+		compactRoundTrip(new XmlTransactionCodec(), false);
+		compactRoundTrip(new BinaryTransactionCodec(), true);
+	}
+	
+	@Test
+	public void test_07() throws Exception {
+		byte[] cas = { 4, 3, 2, 1, 0 };
+		MetaCas xmi = new MetaCas(1, "1", "<xmi/>");
+		assertTrue(xmi.getSerializedCas().equals("<xmi/>"));
+		assertTrue(xmi.getSerializedCasBinary() == null);
+		MetaCas binary = new MetaCas(2, "2", cas);
+		assertTrue(binary.getSerializedCas() == null);
+		assertTrue(java.util.Arrays.equals(cas, binary.getSerializedCasBinary()));
+		// the binary codec carries a byte[] CAS as is
+		ITransactionCodec codec = new BinaryTransactionCodec();
+		IMetaCasTransaction t1 = create(2);
+		t1.setMetaCas(binary);
+		MetaCas m2 = (MetaCas) codec.decode(codec.encode(t1)).getMetaCas();
+		assertTrue(m2.getSerializedCas() == null);
+		assertTrue(java.util.Arrays.equals(cas, m2.getSerializedCasBinary()));
+	}
+}
@@ -20,6 +20,7 @@ package org.apache.uima.ducc.database;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
@@ -65,6 +66,17 @@ public class DbHandle
         return manager.execute(s);
     }
 
+    public ResultSet execute(BatchStatement s)
+    {
+        String methodName = "execute";
+        long now = System.currentTimeMillis();
+        try {
+            return manager.execute(s);
+        } finally {
+            if ( manager.noisy ) logger.info(methodName, null, "Time to execute batch of", s.size(), "statements:", System.currentTimeMillis() - now);
+        }
+    }
+
     ResultSet execute(PreparedStatement ps, Object ... fields)
         throws Exception
     {
@@ -18,6 +18,7 @@
 */
 package org.apache.uima.ducc.database;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -39,6 +40,7 @@ import org.apache.uima.ducc.common.persistence.services.IStateServices.SvcRegPro
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
@@ -101,11 +103,13 @@ public class DbLoader
     boolean doservices     = true;
     boolean doregistry     = true;
     boolean docheckpoint   = true;
+    boolean domigrate      = true;
 
     long jobBytes = 0;
     long resBytes = 0;
     long svcBytes = 0;
     long svcRegBytes= 0;
+    AtomicInteger migrated = new AtomicInteger(0);
 
     AtomicInteger skippedServices = new AtomicInteger(0);
 
@@ -138,6 +142,15 @@ public class DbLoader
         System.setProperty(DbManager.URL_PROPERTY, state_url);
     }
 
+    /**
+     * Migration only: the history is already in the database, in the serialized form.
+     */
+    public DbLoader(String state_url)
+    {
+        this.state_url = state_url;
+        System.setProperty(DbManager.URL_PROPERTY, state_url);
+    }
+
     void closeStream(InputStream in)
     {
         try { in.close(); } catch(Exception e) {}
@@ -447,6 +460,76 @@ public class DbLoader
         }
     }
 
+    /**
+     * Write the columnar history for every job, reservation, and service instance in the serialized
+     * history tables.  Rows are rewritten if already present, so this may be rerun.
+     */
+    void migrate()
+    	throws Exception
+    {
+        String methodName = "migrate";
+
+        logger.info(methodName, null, " -------------------- Migrate serialized history to columns ----------------");
+        LinkedBlockingQueue<Pair<Long, ByteBuffer>> queue = new LinkedBlockingQueue<Pair<Long, ByteBuffer>>(nthreads * 10);
+        WorkMigrator[] migrator = new WorkMigrator[nthreads];
+        Thread[] threads = new Thread[nthreads];
+        for ( int i = 0; i < nthreads; i++ ) {
+            migrator[i] = new WorkMigrator(queue);
+            threads[i] = new Thread(migrator[i]);
+            threads[i].start();
+        }
+
+        DbHandle h = dbManager.open();
+        for ( String table : new String[] {HistoryManagerDb.JOB_TABLE, HistoryManagerDb.RES_TABLE, HistoryManagerDb.SVC_TABLE} ) {
+            SimpleStatement s = new SimpleStatement("SELECT ducc_dbid, work from " + table);
+            s.setFetchSize(100);
+            int c = 0;
+            ResultSet rs = h.execute(s);
+            for ( Row r : rs ) {
+                counter.getAndIncrement();
+                queue.put(new Pair<Long, ByteBuffer>(r.getLong("ducc_dbid"), r.getBytes("work")));
+                c++;
+            }
+            logger.info(methodName, null, "Queued", c, "rows of", table);
+        }
+
+        int c = 0;
+        while ( (c = counter.get()) != 0 ) {
+            try { 
+                logger.info(methodName, null, "Waiting for migration to finish, counter is", c);
+                Thread.sleep(1000); 
+            } 
+            catch ( Exception e ) {}
+        }
+
+        for ( int i = 0; i < nthreads; i++ ) {
+            threads[i].interrupt();
+        }
+        for ( int i = 0; i < nthreads; i++ ) {
+            try { threads[i].join(); } catch ( InterruptedException e ) {}
+        }
+        logger.info(methodName, null, "Migrated", migrated.get(), "history entries.");
+    }
+
+    void runMigration()
+    	throws Exception
+    {
+    	String methodName = "runMigration";
+        long now = System.currentTimeMillis();
+        dbManager = new DbManager(state_url, logger);
+        dbManager.init();
+        try {
+            hmd = new HistoryManagerDb();
+            hmd.init(logger, dbManager);
+            migrate();
+        } catch ( Exception e ) {
+            logger.error(methodName, null, e);
+        } finally {
+            dbManager.shutdown();
+        }
+        logger.info(methodName, null, "**** Time to migrate history ****", System.currentTimeMillis() - now);
+    }
+
     @SuppressWarnings("unchecked")
 	void loadCheckpoint()
     	throws Exception
@@ -602,6 +685,11 @@ public class DbLoader
                     // don't shutdown the ssm.  we'll close the db in the 'finally' below
                 }
 
+                // ---------- Write the columnar history for everything now in the serialized history
+                nowt = System.currentTimeMillis();
+                if ( domigrate ) migrate();
+                logger.info(methodName, null, "**** Time to migrate history ****", System.currentTimeMillis() - nowt, "Entries:", migrated.get());
+
                 nowt = System.currentTimeMillis();
                 logger.info(methodName, null, "**** Total load time ****", System.currentTimeMillis() - now, "Total bytes loaded:", (jobBytes + resBytes + svcBytes + totalSvcBytes));
 
@@ -624,18 +712,26 @@ public class DbLoader
     {
         if ( args.length != 2 ) {
             System.out.println("USage: DbLoader from to");
+            System.out.println("       DbLoader -migrate to");
             System.out.println("");
             System.out.println("Where:");
             System.out.println("   from");        
             System.out.println("      is the DUCC_HOME you wish to convert.");
             System.out.println("   to");
             System.out.println("      is the datbase URL.");
+            System.out.println("   -migrate");
+            System.out.println("      writes the history columns for the serialized history already in the database.");
             System.exit(1);
         }
 
             
     	DbLoader dbl = null;
         try {
+            if ( args[0].equals("-migrate") ) {
+                dbl = new DbLoader(args[1]);
+                dbl.runMigration();
+                return;
+            }
             dbl = new DbLoader(args[0], args[1]);
             dbl.run();
         } catch ( Exception e  ) {
@@ -889,6 +985,42 @@ public class DbLoader
     }
 
 
+    class WorkMigrator
+        implements Runnable
+    {
+        BlockingQueue<Pair<Long, ByteBuffer>> queue;
+        WorkMigrator(BlockingQueue<Pair<Long, ByteBuffer>> queue)
+        {
+            this.queue = queue;
+        }
+
+        public void run()
+        {
+            String methodName = "WorkMigrator.run";
+            while ( true ) {
+                Pair<Long, ByteBuffer> p = null;
+                try {
+                    p = queue.take();
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+                DuccId did = new DuccId(p.first());
+                ObjectInputStream in = null;
+                try {
+                    in = new ObjectInputStream(new ByteArrayInputStream(p.second().array()));
+                    IDuccWork w = (IDuccWork) in.readObject();
+                    hmd.saveColumns(w, true);
+                    migrated.getAndIncrement();
+                } catch(Exception e) {
+                    logger.warn(methodName, did, "Cannot migrate:", e);
+                } finally {
+                    closeStream(in);
+                    counter.getAndDecrement();
+                }
+            }
+        }
+    }
+
     class ServiceRegistrationLoader
         implements Runnable
     {
@@ -25,6 +25,7 @@ import java.util.Properties;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Host;
@@ -164,6 +165,13 @@ public class DbManager
         return session.execute(s);
     }
 
+    ResultSet execute(BatchStatement s)
+    {
+    	String methodName = "execute";
+        if ( noisy ) logger.info(methodName, null, "EXECUTE BATCH of", s.size(), "statements");
+        return session.execute(s);
+    }
+
     ResultSet execute(SimpleStatement s)
     {
     	String methodName = "execute";
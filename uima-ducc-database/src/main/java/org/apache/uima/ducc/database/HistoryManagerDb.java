@@ -24,13 +24,20 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.uima.ducc.common.Pair;
+import org.apache.uima.ducc.common.persistence.IDbProperty;
 import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.SystemPropertyResolver;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
@@ -39,8 +46,17 @@ import org.apache.uima.ducc.transport.event.common.IDuccWork;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
+import org.apache.uima.ducc.transport.event.common.history.CheckpointDelta;
+import org.apache.uima.ducc.transport.event.common.history.HistoryQuery;
+import org.apache.uima.ducc.transport.event.common.history.HistoryQuery.Criterion;
+import org.apache.uima.ducc.transport.event.common.history.HistoryQuery.Table;
+import org.apache.uima.ducc.transport.event.common.history.HistoryRows;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryVisitor;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
@@ -62,6 +78,8 @@ public class HistoryManagerDb
     PreparedStatement reservationPrepare = null;
     PreparedStatement servicePrepare = null;
     PreparedStatement ckptPrepare = null;
+    Map<Table, PreparedStatement> columnPrepare = new ConcurrentHashMap<Table, PreparedStatement>();
+    boolean archive = true;
     static final String JOB_TABLE  = OrWorkProps.JOB_TABLE.pname();
     static final String RES_TABLE  = OrWorkProps.RESERVATION_TABLE.pname();
     static final String SVC_TABLE  = OrWorkProps.SERVICE_TABLE.pname();
@@ -89,6 +107,18 @@ public class HistoryManagerDb
                 
                 // prepare some statements
                 DbHandle h = dbManager.open();
+                for ( SimpleStatement s : mkColumnSchema() ) {
+                    h.execute(s);
+                }
+                for ( Table t : Table.values() ) {
+                    columnPrepare.put(t, h.prepare(mkColumnInsert(t)));
+                }
+                archive = SystemPropertyResolver.getBooleanProperty(DuccPropertiesResolver.ducc_orchestrator_history_archive, true);
+                if ( archive ) {
+                    logger.info(methodName, null, "Serialized history archive:", archive);
+                } else {
+                    logger.warn(methodName, null, "Serialized history archive:", archive, "- the Webserver cannot show the details of work completed from now on.");
+                }
                 jobPrepare         = h.prepare("INSERT INTO " + JOB_TABLE + " (ducc_dbid, type, history, work) VALUES (?, ?, ?, ?) IF NOT EXISTS;");            
                 reservationPrepare = h.prepare("INSERT INTO " + RES_TABLE + " (ducc_dbid, type, history, work) VALUES (?, ?, ?, ?) IF NOT EXISTS;");            
                 servicePrepare     = h.prepare("INSERT INTO " + SVC_TABLE + " (ducc_dbid, type, history, work) VALUES (?, ?, ?, ?) IF NOT EXISTS;");            
@@ -164,9 +194,86 @@ public class HistoryManagerDb
         buf.append(")");
         ret.add(new SimpleStatement(buf.toString()));
 
+        ret.addAll(mkColumnSchema());
+        return ret;
+    }
+
+    /**
+     * The columnar history: work, the processes of each work, and the work item totals of each job.
+     * Work is clustered newest first under its DuccType, processes under their work.
+     */
+    static ArrayList<SimpleStatement> mkColumnSchema()
+    	throws Exception
+    {
+        ArrayList<SimpleStatement> ret = new ArrayList<SimpleStatement>();
+        for ( Table t : Table.values() ) {
+            StringBuffer buf = new StringBuffer("CREATE TABLE IF NOT EXISTS " + t.pname() + " (");
+            buf.append(DbUtil.mkSchema(t.columns()));
+            buf.append(")");
+            if ( t == Table.Work ) {
+                buf.append("WITH CLUSTERING ORDER BY (ducc_dbid desc)");
+            }
+            ret.add(new SimpleStatement(buf.toString()));
+            for ( String s : DbUtil.mkIndices(t.columns(), t.pname()) ) {
+                ret.add(new SimpleStatement(s));
+            }
+        }
         return ret;
     }
 
+    static String mkColumnInsert(Table t)
+    {
+        List<String> columns = new ArrayList<String>();
+        StringBuffer values = new StringBuffer();
+        for ( IDbProperty p : t.columns() ) {
+            if ( p.isMeta() ) continue;
+            columns.add(p.columnName());
+            values.append(values.length() == 0 ? "?" : ", ?");
+        }
+        StringBuffer buf = new StringBuffer("INSERT INTO " + t.pname() + " ");
+        DbUtil.mkFields(buf, columns.toArray(new String[columns.size()]));
+        buf.append(" VALUES (");
+        buf.append(values);
+        buf.append(");");
+        return buf.toString();
+    }
+
+    /**
+     * Bind one row, keyed by property name, to the insert for its table.  Absent columns are bound null.
+     */
+    BoundStatement bindColumns(Table t, Map<String, Object> row)
+    {
+        List<Object> values = new ArrayList<Object>();
+        for ( IDbProperty p : t.columns() ) {
+            if ( p.isMeta() ) continue;
+            values.add(row.get(p.pname()));
+        }
+        return new BoundStatement(columnPrepare.get(t)).bind(values.toArray());
+    }
+
+    /**
+     * Record the work in the columnar history, all rows of one work in a single unlogged batch.
+     *
+     * @param archived 'true' if the serialized work is also in the archive table.
+     */
+    void saveColumns(IDuccWork w, boolean archived)
+        throws Exception
+    {
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        Map<String, Object> row = HistoryRows.work(w);
+        row.put(OrWorkHistoryProps.archived.pname(), archived);
+        batch.add(bindColumns(Table.Work, row));
+        for ( Map<String, Object> p : HistoryRows.processes(w) ) {
+            batch.add(bindColumns(Table.Process, p));
+        }
+        row = HistoryRows.workItems(w);
+        if ( row != null ) {
+            batch.add(bindColumns(Table.WorkItem, row));
+        }
+        DbHandle h = dbManager.open();
+        h.execute(batch);
+    }
+
     // ----------------------------------------------------------------------------------------------------
     // Jobs section
 
@@ -204,6 +311,17 @@ public class HistoryManagerDb
         }
         logger.info(methodName, w.getDuccId(), "-------- saving " + type);
 
+        try {
+            saveColumns(w, archive);
+        } catch ( Exception e ) {
+            if ( !archive ) throw e;
+            logger.error(methodName, w.getDuccId(), "Cannot save history columns; saving the archive only.", e);
+        }
+        if ( !archive ) {
+            logger.info(methodName, w.getDuccId(), "----------> Time to save", type, ":", System.currentTimeMillis() - nowP, "Columns only.");
+            return;
+        }
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ObjectOutputStream out = new ObjectOutputStream(baos);
         out.writeObject(w);
@@ -287,6 +405,130 @@ public class HistoryManagerDb
     }
 
 
+    /**
+     * Part of history management, list the most recent history of one kind by summary only.  The
+     * columnar history is read first.  If it holds fewer than max entries, rows found only in the
+     * archive, saved before the columns were kept, are restored once and their columns written.
+     */
+    public List<HistorySummary> restoreSummaries(DuccType type, long max)
+        throws Exception
+    {
+    	String methodName = "restoreSummaries";
+        List<HistorySummary> ret = new ArrayList<HistorySummary>();
+        String tablename = null;
+        switch ( type ) {
+            case Job:
+                tablename = JOB_TABLE;
+                break;
+            case Reservation:
+                tablename = RES_TABLE;
+                break;
+            case Service:
+                tablename = SVC_TABLE;
+                break;
+            default:
+                return ret;
+        }
+
+        DbHandle h = dbManager.open();
+        long limit = Math.min(max, Integer.MAX_VALUE);
+        long now = System.currentTimeMillis();
+        Set<Long> seen = new HashSet<Long>();
+        int count = 0;
+        int backfilled = 0;
+        try {
+            SimpleStatement s = new SimpleStatement("SELECT * from " + Table.Work.pname() + " WHERE type = ? limit " + limit, type.name());
+            s.setFetchSize(1000);
+            ResultSet rs = h.execute(s);
+            for ( Row r : rs ) {
+                HistorySummary summary = HistorySummary.create(DbUtil.getProperties(Table.Work.columns(), r));
+                seen.add(summary.getId());
+                ret.add(summary);
+            }
+        } catch (Exception e) {
+            logger.error(methodName, null, "Error fetching history columns:", e);
+        }
+
+        if ( ret.size() < max ) {
+            SimpleStatement s = new SimpleStatement("SELECT ducc_dbid from " + tablename + " limit " + limit);
+            s.setFetchSize(1000);
+            try {
+                ResultSet rs = h.execute(s);
+                for ( Row r : rs ) {
+                    long id = r.getLong("ducc_dbid");
+                    if ( seen.contains(id) ) continue;
+                    count++;
+                    try {
+                        IDuccWork w = restoreWork(IDuccWork.class, tablename, id);
+                        if ( w != null ) {
+                            saveColumns(w, true);
+                            ret.add(HistorySummary.create(w));
+                            backfilled++;
+                        }
+                    } catch ( Exception e ) {
+                        logger.warn(methodName, null, "Cannot summarize", tablename, id, e);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error(methodName, null, "Error fetching history summaries:", e);
+            }
+            Collections.sort(ret, new Comparator<HistorySummary>() {
+                    public int compare(HistorySummary a, HistorySummary b)
+                    {
+                        return Long.valueOf(b.getId()).compareTo(a.getId());
+                    }
+                });
+            while ( ret.size() > max ) {
+                ret.remove(ret.size() - 1);
+            }
+        }
+        logger.info(methodName, null, "Found", seen.size(), "results in", Table.Work.pname(), "and", count, "more in", tablename, "Backfilled", backfilled, "Time:",  System.currentTimeMillis() - now);
+        return ret;
+    }
+
+    /**
+     * Stream the rows of a columnar history table.  The criteria are evaluated by the database and the
+     * rows fetched a page at a time as the visitor consumes them.
+     */
+    public long query(HistoryQuery query, IHistoryVisitor visitor)
+        throws Exception
+    {
+    	String methodName = "query";
+        Table t = query.getTable();
+        StringBuffer buf = new StringBuffer("SELECT * FROM " + t.pname());
+        List<Object> values = new ArrayList<Object>();
+        String conjunction = " WHERE ";
+        for ( Criterion c : query.getCriteria() ) {
+            buf.append(conjunction);
+            buf.append(c.getColumn().columnName());
+            buf.append(" ");
+            buf.append(c.getOperator().cql());
+            buf.append(" ?");
+            values.add(c.getValue());
+            conjunction = " AND ";
+        }
+        if ( query.getLimit() < Integer.MAX_VALUE ) {
+            buf.append(" LIMIT " + query.getLimit());
+        }
+        if ( values.size() > 0 ) {
+            buf.append(" ALLOW FILTERING");
+        }
+        logger.debug(methodName, null, buf.toString(), values);
+
+        SimpleStatement s = new SimpleStatement(buf.toString(), values.toArray());
+        s.setFetchSize(100);
+        long now = System.currentTimeMillis();
+        long count = 0;
+        DbHandle h = dbManager.open();
+        ResultSet rs = h.execute(s);
+        for ( Row r : rs ) {
+            count++;
+            if ( !visitor.visit(DbUtil.getProperties(t.columns(), r)) ) break;
+        }
+        logger.info(methodName, null, "Visited", count, "rows of", t.pname(), "Time:", System.currentTimeMillis() - now);
+        return count;
+    }
+
     /**
      * For use by normal operation: forces an existence check.  This saves history only.
      */
@@ -444,6 +686,33 @@ public class HistoryManagerDb
         return ret;
     }
 
+    /**
+     * Orchestrator checkpoint journal.  Records share the checkpoint table, keyed by their
+     * sequence, so the truncate done by the next full checkpoint discards them as well.
+     */
+    public boolean checkpoint(int sequence, CheckpointDelta delta)
+        throws Exception
+    {
+        String methodName = "checkpoint";
+        boolean ret = true;
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(baos);
+            out.writeObject(delta);
+            out.close();
+            ByteBuffer workbuf = ByteBuffer.wrap(baos.toByteArray());
+            ByteBuffer mapbuf = ByteBuffer.wrap(new byte[0]);
+
+            DbHandle h = dbManager.open();
+            h.saveObject(ckptPrepare, sequence, workbuf, mapbuf);
+            logger.debug(methodName, null, "Saved checkpoint journal record", sequence, "changes", delta.size());
+        } catch ( Exception e ) {
+            logger.error(methodName, null, "Cannot save checkpoint journal record", sequence, e);
+            ret = false;
+        }
+        return ret;
+    }
+
     /**
      * Orchestrator checkpoint.  Restore the checkpoint from the DB.  Caller must initialize
      * empty maps, which we fill in.
@@ -456,9 +725,19 @@ public class HistoryManagerDb
         Pair<DuccWorkMap, Map<DuccId, DuccId>> ret = new Pair<DuccWorkMap, Map<DuccId, DuccId>>();
         try {
             h = dbManager.open();
-            String cql = "SELECT * FROM ducc.orckpt WHERE id=0";
+            String cql = "SELECT * FROM ducc.orckpt";
             ResultSet rs = h.execute(cql);
-            for ( Row r : rs ) {
+            TreeMap<Integer, byte[]> journal = new TreeMap<Integer, byte[]>();
+            Row r = null;
+            for ( Row row : rs ) {
+                int id = row.getInt("id");
+                if ( id == 0 ) {
+                    r = row;
+                } else {
+                    journal.put(id, row.getBytes("work").array());
+                }
+            }
+            if ( r != null ) {
                 logger.info(methodName, null, "Found checkpoint.");
                 ByteBuffer bbWork = r.getBytes("work");
                 ByteBuffer bbmap = r.getBytes("p2jmap");
@@ -476,6 +755,15 @@ public class HistoryManagerDb
 				Map<DuccId, DuccId> processToJob = (Map<DuccId, DuccId>) ois.readObject();
                 ois.close();
 
+                // replay the journal records written since the checkpoint, in order
+                int replayed = CheckpointDelta.replay(journal.values(), work, processToJob);
+                if ( replayed < journal.size() ) {
+                    // an unreadable record, most likely the last one written; the next save writes a full checkpoint
+                    Integer id = new ArrayList<Integer>(journal.keySet()).get(replayed);
+                    logger.warn(methodName, null, "Stopped replay at unreadable checkpoint journal record", id, "of", journal.size());
+                }
+                logger.info(methodName, null, "Replayed", replayed, "checkpoint journal records.");
+
                 // hack because java serializion is stupid and won't call the no-args constructor - need
                 // to restore sometransient fields
                 Set<DuccId> ids = work.getReservationKeySet();
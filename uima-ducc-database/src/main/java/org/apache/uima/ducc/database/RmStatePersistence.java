@@ -31,10 +31,13 @@ import org.apache.uima.ducc.common.persistence.rm.IRmPersistence;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
 
 /**
@@ -66,6 +69,13 @@ public class RmStatePersistence
     PreparedStatement deleteJobPrepare = null;
     PreparedStatement updateDemandPrepare = null;
 
+    // Non-null between beginBatch() and endBatch(); updates are collected here instead of executed.
+    // All statements of a batch share one timestamp and on a tie a delete wins, so a write that
+    // follows a delete starts the next batch.  The batches are executed in order.
+    List<BatchStatement> batches = null;
+    BatchStatement batch = null;
+    boolean batchDeletes = false;
+
     public RmStatePersistence()
     {
     }
@@ -123,6 +133,68 @@ public class RmStatePersistence
         dbManager = null;
     }
 
+    public void flush()
+    {
+    }
+
+    public void beginBatch()
+    {
+        batches = new ArrayList<BatchStatement>();
+        batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batches.add(batch);
+        batchDeletes = false;
+    }
+
+    public void endBatch()
+        throws Exception
+    {
+        List<BatchStatement> bs = batches;
+        batches = null;
+        batch = null;
+        if ( bs != null ) {
+            for ( BatchStatement b : bs ) {
+                if ( b.size() > 0 ) {
+                    DbHandle h = dbManager.open();
+                    h.execute(b);
+                }
+            }
+        }
+    }
+
+    private void add(Statement s, boolean delete)
+    {
+        if ( batchDeletes && !delete ) {
+            batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            batches.add(batch);
+            batchDeletes = false;
+        }
+        batch.add(s);
+        batchDeletes |= delete;
+    }
+
+    /**
+     * Execute the statement, or add it to the current batch if there is one.
+     */
+    private void execute(DbHandle h, PreparedStatement ps, Object... fields)
+        throws Exception
+    {
+        if ( batch == null ) {
+            h.execute(ps, fields);
+        } else {
+            add(new BoundStatement(ps).bind(fields), (ps == shareDelPrepare) || (ps == deleteJobPrepare));
+        }
+    }
+
+    private void execute(DbHandle h, String cql)
+        throws Exception
+    {
+        if ( batch == null ) {
+            h.execute(cql);
+        } else {
+            add(new SimpleStatement(cql), false);
+        }
+    }
+
     public void clear()
         throws Exception
     {
@@ -180,7 +252,7 @@ public class RmStatePersistence
         DbHandle h = dbManager.open();
         try {           
             String cql = DbUtil.mkInsert(RM_NODE_TABLE, props);
-            h.execute(cql);
+            execute(h, cql);
         } catch ( Exception e ) {
             logger.error(methodName, null, "Error creating new record:", e);
         } 
@@ -199,7 +271,11 @@ public class RmStatePersistence
         DbHandle h = dbManager.open();
 
         try {           
-            h.updateProperties(RM_NODE_TABLE, "name='" + node + "'", props);
+            if ( batch == null ) {
+                h.updateProperties(RM_NODE_TABLE, "name='" + node + "'", props);
+            } else {
+                execute(h, DbUtil.mkUpdate(RM_NODE_TABLE, "name='" + node + "'", props));
+            }
         } catch ( Exception e ) {
             logger.error(methodName, null, "Problem setting properties", e);
         } finally {           
@@ -217,7 +293,11 @@ public class RmStatePersistence
         DbHandle h = dbManager.open();
 
         try {           
-            h.updateProperty(RM_NODE_TABLE, "name='" + node + "'", k.columnName(), v);
+            if ( batch == null ) {
+                h.updateProperty(RM_NODE_TABLE, "name='" + node + "'", k.columnName(), v);
+            } else {
+                execute(h, DbUtil.mkUpdate(RM_NODE_TABLE, "name='" + node + "'", k, v));
+            }
         } catch ( Exception e ) {
             logger.error(methodName, null, "Problem setting properties:", e);
         } 
@@ -228,42 +308,46 @@ public class RmStatePersistence
     	throws Exception
     {
         DbHandle h = dbManager.open();
-        h.saveObject(shareAddPrepare, s.getId().getUUID(), s.getShareOrder(), s.isBlacklisted(), s.isEvicted(), s.isFixed(), s.isPurged(), quantum, type, node, s.getId().getFriendly(), jobid.getFriendly() ); 
+        if ( batch == null ) {
+            h.saveObject(shareAddPrepare, s.getId().getUUID(), s.getShareOrder(), s.isBlacklisted(), s.isEvicted(), s.isFixed(), s.isPurged(), quantum, type, node, s.getId().getFriendly(), jobid.getFriendly() ); 
+        } else {
+            execute(h, shareAddPrepare, s.getId().getUUID(), s.getShareOrder(), s.isBlacklisted(), s.isEvicted(), s.isFixed(), s.isPurged(), quantum, type, node, s.getId().getFriendly(), jobid.getFriendly() ); 
+        }
     }
 
     public void removeAssignment(String node, DuccId jobid, IDbShare s)
     	throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(shareDelPrepare, node, s.getId().getFriendly(), jobid.getFriendly());
+        execute(h, shareDelPrepare, node, s.getId().getFriendly(), jobid.getFriendly());
     }
 
     public void setFixed(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(updateFixedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        execute(h, updateFixedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
     }
 
     public void setPurged(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(updatePurgedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        execute(h, updatePurgedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
     }
 
     public void setEvicted(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(updateEvictedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        execute(h, updateEvictedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
     }
 
     public void updateShare(String node, DuccId shareid, DuccId jobid, long investment, String state, long init_time, long pid) 
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(updateSharePrepare, investment, state, init_time, pid, node, shareid.getFriendly(), jobid.getFriendly());
+        execute(h, updateSharePrepare, investment, state, init_time, pid, node, shareid.getFriendly(), jobid.getFriendly());
     }
 
     public Properties getMachine(String m)
@@ -323,14 +407,14 @@ public class RmStatePersistence
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(addJobPrepare, j.getClassName(), j.getUserName(), j.getMemory(), j.getShortType(), j.getFriendlyId());
+        execute(h, addJobPrepare, j.getClassName(), j.getUserName(), j.getMemory(), j.getShortType(), j.getFriendlyId());
     }
 
     public void deleteJob(IDbJob j) 
         throws Exception
     {
     	DbHandle h = dbManager.open();
-        h.execute(deleteJobPrepare, j.getFriendlyId());        
+        execute(h, deleteJobPrepare, j.getFriendlyId());        
     }
 
     public void updateDemand(IDbJob j)
@@ -339,7 +423,7 @@ public class RmStatePersistence
     	DbHandle h = dbManager.open();
         // queryDemand returns the number of processes wanted by the job, of the job's memory size
         // The occupancy is converted from qshares to nshares (processes) for the db.
-        h.execute(updateDemandPrepare, j.queryDemand(), (j.countOccupancy() / j.getShareOrder()), j.getState(), j.getFriendlyId());
+        execute(h, updateDemandPrepare, j.queryDemand(), (j.countOccupancy() / j.getShareOrder()), j.getState(), j.getFriendlyId());
     }
 
     public static void main(String[] args)
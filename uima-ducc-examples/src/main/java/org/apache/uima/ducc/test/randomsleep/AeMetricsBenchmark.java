@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.test.randomsleep;
+
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.ducc.user.common.DuccUimaSerializer;
+import org.apache.uima.ducc.user.common.UimaUtils;
+import org.apache.uima.ducc.user.jp.UimaProcessContainer;
+import org.apache.uima.util.CasCreationUtils;
+
+/**
+ * Measures per CAS cost of the JP process container, including collection of
+ * AE performance metrics, with FixedSleepAE at scaleout 1, 16 and 64. Each
+ * scaleout is run through both the Properties based process() path and the
+ * numeric processCompact() path.
+ *
+ * FixedSleepAE reads its init parameters from the environment, so run with e.g.
+ * AE_INIT_TIME=0 AE_INIT_RANGE=1.
+ *
+ * Usage: AeMetricsBenchmark [cases-per-thread [sleep-ms [descriptor]]]
+ */
+public class AeMetricsBenchmark
+{
+    static final int[] SCALEOUTS = { 1, 16, 64 };
+
+    public static void main(String[] args)
+        throws Exception
+    {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int sleep = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        String descriptor = args.length > 2 ? args[2] : "org.apache.uima.ducc.test.randomsleep.FixedSleepAE";
+
+        if ( System.getenv("AE_INIT_TIME") == null || System.getenv("AE_INIT_RANGE") == null ) {
+            System.out.println("Set AE_INIT_TIME and AE_INIT_RANGE, e.g. AE_INIT_TIME=0 AE_INIT_RANGE=1");
+            System.exit(1);
+        }
+
+        String xmi = createXmi(descriptor, sleep + " 1 " + cases);
+        System.out.println("scaleout,path,cases,elapsed_ms,cases_per_sec,us_per_case_per_thread");
+        for ( int scaleout : SCALEOUTS ) {
+            run(descriptor, xmi, scaleout, cases, false);
+            run(descriptor, xmi, scaleout, cases, true);
+        }
+    }
+
+    static String createXmi(String descriptor, String text)
+        throws Exception
+    {
+        AnalysisEngineDescription desc = (AnalysisEngineDescription) UimaUtils.getResourceSpecifier(descriptor);
+        CAS cas = CasCreationUtils.createCas(desc);
+        cas.setDocumentText(text);
+        return new DuccUimaSerializer().serializeCasToXmi(cas, new XmiSerializationSharedData());
+    }
+
+    static void run(String descriptor, final String xmi, int scaleout, final int cases, final boolean compact)
+        throws Exception
+    {
+        final UimaProcessContainer container = new UimaProcessContainer();
+        container.initialize(new Properties(), new String[] { "-aed", descriptor, "-t", "" + scaleout });
+
+        final CountDownLatch deployed = new CountDownLatch(scaleout);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(scaleout);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        for ( int i = 0; i < scaleout; i++ ) {
+            Thread t = new Thread() {
+                public void run()
+                {
+                    try {
+                        container.deploy();
+                        deployed.countDown();
+                        start.await();
+                        // warm up
+                        for ( int j = 0; j < cases / 10; j++ ) {
+                            analyze(container, xmi, compact);
+                        }
+                        for ( int j = 0; j < cases; j++ ) {
+                            analyze(container, xmi, compact);
+                        }
+                        container.stop();
+                    } catch ( Throwable t ) {
+                        error.set(t);
+                        deployed.countDown();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            t.start();
+        }
+        deployed.await();
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+        if ( error.get() != null ) {
+            throw new RuntimeException(error.get());
+        }
+
+        long total = (long) cases * scaleout + (cases / 10) * scaleout;
+        System.out.println(scaleout + "," + (compact ? "compact" : "properties") + "," + total + ","
+                           + (elapsed / 1000000) + ","
+                           + (total * 1000000000L / Math.max(1, elapsed)) + ","
+                           + (elapsed / 1000 * scaleout / total));
+    }
+
+    static void analyze(UimaProcessContainer container, String xmi, boolean compact)
+        throws Exception
+    {
+        if ( compact ) {
+            container.processCompact(xmi);
+        } else {
+            container.process(xmi);
+        }
+    }
+}
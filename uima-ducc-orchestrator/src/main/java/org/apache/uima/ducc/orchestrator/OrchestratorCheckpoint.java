@@ -18,12 +18,15 @@
 */
 package org.apache.uima.ducc.orchestrator;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +35,7 @@ import org.apache.uima.ducc.common.Pair;
 import org.apache.uima.ducc.common.internationalization.Messages;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.common.utils.IOHelper;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.orchestrator.utilities.Checkpointable;
@@ -39,6 +43,8 @@ import org.apache.uima.ducc.orchestrator.utilities.TrackSync;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.history.CheckpointDelta;
 import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
 import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
 
@@ -78,6 +84,13 @@ public class OrchestratorCheckpoint {
 	
 	private volatile String status = "on";
 	
+	// what the checkpoint holds as of the last write, guarded by the work map lock
+	private HashMap<DuccId,IDuccWork> journalWork = null;
+	private HashMap<DuccId,DuccId> journalProcessToJob = null;
+	private int journalSequence = 0;
+	
+	private int compactionInterval = -1;
+	
 	public boolean switchOnOff(String position) {
 		String methodName = "switchOnOff";
 		logger.trace(methodName, null, messages.fetch("enter"));
@@ -160,6 +173,66 @@ public class OrchestratorCheckpoint {
 		return;
 	}
 
+	private int getCompactionInterval() {
+		String methodName = "getCompactionInterval";
+		if(compactionInterval < 0) {
+			compactionInterval = 100;
+			try {
+				String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_orchestrator_checkpoint_compaction_interval);
+				if(value != null) {
+					compactionInterval = Integer.parseInt(value.trim());
+				}
+			}
+			catch(Exception e) {
+				logger.warn(methodName, null, e);
+			}
+			logger.info(methodName, null, compactionInterval);
+		}
+		return compactionInterval;
+	}
+	
+	private boolean isCompactionDue() {
+		return (journalWork == null) || (journalSequence >= getCompactionInterval());
+	}
+	
+	/**
+	 * Checkpoint contents; when a full checkpoint is due the snapshot
+	 * checks every entry, so that changes not marked dirty reach at
+	 * least the compacted checkpoint.
+	 */
+	private Checkpointable getCheckpointable() {
+		return orchestratorCommonArea.getCheckpointable(isCompactionDue());
+	}
+	
+	/**
+	 * Changes since the last checkpoint write, or null when a full
+	 * checkpoint is due instead.
+	 */
+	private CheckpointDelta getJournalRecord(Checkpointable checkpointable) {
+		CheckpointDelta retVal = null;
+		if(!isCompactionDue()) {
+			DuccWorkMap workMap = checkpointable.getWorkMap();
+			CheckpointDelta delta = CheckpointDelta.diff(journalWork, journalProcessToJob, workMap, checkpointable.getProcessToJobMap());
+			// when most of the map changed, a full checkpoint is as cheap to write and faster to restore
+			if(delta.getChanged().size() <= workMap.size()/2) {
+				retVal = delta;
+			}
+		}
+		return retVal;
+	}
+	
+	private void journaled(Checkpointable checkpointable, int sequence) {
+		journalWork = new HashMap<DuccId,IDuccWork>(checkpointable.getWorkMap().getMap());
+		journalProcessToJob = new HashMap<DuccId,DuccId>(checkpointable.getProcessToJobMap());
+		journalSequence = sequence;
+	}
+	
+	private void resetJournal() {
+		journalWork = null;
+		journalProcessToJob = null;
+		journalSequence = 0;
+	}
+	
     private boolean saveStateDb()
     {
 		String methodName = "saveStateDb";
@@ -173,13 +246,32 @@ public class OrchestratorCheckpoint {
 				ts.using();
 				try
 				{
-					logger.info(methodName, null, messages.fetchLabel("saving to")+fileName);
-					Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
-                    retVal = saver.checkpoint(checkpointable.getWorkMap(), checkpointable.getProcessToJobMap());
-					logger.info(methodName, null, messages.fetchLabel("saved")+fileName);
+					Checkpointable checkpointable = getCheckpointable();
+					CheckpointDelta delta = getJournalRecord(checkpointable);
+					if(delta != null) {
+						if(delta.isEmpty()) {
+							retVal = true;
+						}
+						else if(saver.checkpoint(journalSequence+1, delta)) {
+							journaled(checkpointable, journalSequence+1);
+							retVal = true;
+						}
+					}
+					if(!retVal) {
+						logger.info(methodName, null, messages.fetchLabel("saving to")+fileName);
+						retVal = saver.checkpoint(checkpointable.getWorkMap(), checkpointable.getProcessToJobMap());
+						logger.info(methodName, null, messages.fetchLabel("saved")+fileName);
+						if(retVal) {
+							journaled(checkpointable, 0);
+						}
+						else {
+							resetJournal();
+						}
+					}
 				}
 				catch(Exception e)
 				{
+					resetJournal();
 					logger.error(methodName, null, e);
 				}
 			}
@@ -204,19 +296,33 @@ public class OrchestratorCheckpoint {
 				ts.using();
 				try
 				{
-					logger.info(methodName, null, messages.fetchLabel("saving to")+fileName);
-					FileOutputStream fos = null;
-					ObjectOutputStream out = null;
-					fos = new FileOutputStream(fileName);
-					out = new ObjectOutputStream(fos);
-					Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
-					out.writeObject(checkpointable);
-					out.close();
-					retVal = true;
-					logger.info(methodName, null, messages.fetchLabel("saved")+fileName);
+					Checkpointable checkpointable = getCheckpointable();
+					CheckpointDelta delta = getJournalRecord(checkpointable);
+					if(delta != null) {
+						if(delta.isEmpty()) {
+							retVal = true;
+						}
+						else if(appendStateFile(delta)) {
+							journaled(checkpointable, journalSequence+1);
+							retVal = true;
+						}
+					}
+					if(!retVal) {
+						logger.info(methodName, null, messages.fetchLabel("saving to")+fileName);
+						FileOutputStream fos = null;
+						ObjectOutputStream out = null;
+						fos = new FileOutputStream(fileName);
+						out = new ObjectOutputStream(fos);
+						out.writeObject(checkpointable);
+						out.close();
+						retVal = true;
+						journaled(checkpointable, 0);
+						logger.info(methodName, null, messages.fetchLabel("saved")+fileName);
+					}
 				}
 				catch(IOException e)
 				{
+					resetJournal();
 					logger.error(methodName, null, e);
 				}
 			}
@@ -229,6 +335,36 @@ public class OrchestratorCheckpoint {
 		return retVal;
     }
 
+	// continues the object stream already in the checkpoint file, so that
+	// restore reads the checkpoint and its journal records with one stream
+	private static class AppendingObjectOutputStream extends ObjectOutputStream {
+		
+		public AppendingObjectOutputStream(OutputStream out) throws IOException {
+			super(out);
+		}
+		
+		@Override
+		protected void writeStreamHeader() throws IOException {
+			reset();
+		}
+	}
+	
+	private boolean appendStateFile(CheckpointDelta delta) {
+		String methodName = "appendStateFile";
+		boolean retVal = false;
+		try {
+			ObjectOutputStream out = new AppendingObjectOutputStream(new FileOutputStream(fileName, true));
+			out.writeObject(delta);
+			out.close();
+			retVal = true;
+			logger.debug(methodName, null, "sequence:"+(journalSequence+1)+" "+"changes:"+delta.size());
+		}
+		catch(IOException e) {
+			logger.error(methodName, null, e);
+		}
+		return retVal;
+	}
+	
 	public boolean saveState() 
     {
         // we can resolve these into just one call by allowing the checkpointable to be saved in its parts for
@@ -298,6 +434,7 @@ public class OrchestratorCheckpoint {
 					fis = new FileInputStream(fileName);
 					in = new ObjectInputStream(fis);
 					Checkpointable checkpointable = (Checkpointable)in.readObject();
+					replayStateFile(in, checkpointable);
                     DuccWorkMap map = checkpointable.getWorkMap();
     
                     Set<DuccId> ids = map.getReservationKeySet();
@@ -330,6 +467,27 @@ public class OrchestratorCheckpoint {
 		return retVal;
 	}
 	
+	private int replayStateFile(ObjectInputStream in, Checkpointable checkpointable) {
+		String methodName = "replayStateFile";
+		int retVal = 0;
+		try {
+			while(true) {
+				CheckpointDelta delta = (CheckpointDelta)in.readObject();
+				delta.apply(checkpointable.getWorkMap(), checkpointable.getProcessToJobMap());
+				retVal++;
+			}
+		}
+		catch(EOFException e) {
+			// end of journal
+		}
+		catch(Exception e) {
+			// an incomplete last record; the next save writes a full checkpoint
+			logger.warn(methodName, null, "record:"+(retVal+1), e);
+		}
+		logger.info(methodName, null, "replayed:"+retVal);
+		return retVal;
+	}
+	
     public boolean restoreState()
     {
     	String methodName = "restoreState";
@@ -183,15 +183,18 @@ public class OrchestratorCommonArea {
 	
 	// **********
 	
+	/**
+	 * The work map part is a snapshot, see DuccWorkMap.snapshot(verify).
+	 */
 	@SuppressWarnings("unchecked")
-	public Checkpointable getCheckpointable() {
+	public Checkpointable getCheckpointable(boolean verify) {
 		String methodName = "getCheckpointable";
 		DuccWorkMap ckptWorkMap;
 		ConcurrentHashMap<DuccId,DuccId> ckptProcessToJobMap;
 		TrackSync ts = TrackSync.await(workMap, this.getClass(), methodName);
 		synchronized(workMap) {
 			ts.using();
-			ckptWorkMap = (DuccWorkMap)SerializationUtils.clone(workMap);
+			ckptWorkMap = workMap.snapshot(verify);
 			ckptProcessToJobMap = (ConcurrentHashMap<DuccId,DuccId>)SerializationUtils.clone(processAccounting.getProcessToJobMap());
 		}
 		ts.ended();
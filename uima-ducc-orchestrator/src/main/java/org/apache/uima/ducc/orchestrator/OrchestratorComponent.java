@@ -58,6 +58,7 @@ import org.apache.uima.ducc.transport.event.IDuccContext.DuccContext;
 import org.apache.uima.ducc.transport.event.JdRequestEvent;
 import org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncRequestEvent;
 import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
@@ -283,6 +284,7 @@ implements Orchestrator {
 				Iterator<IDuccWork> iterator = workMap.values().iterator();
 				while(iterator.hasNext()) {
 					IDuccWork duccWork = iterator.next();
+					workMap.setDirty(duccWork.getDuccId());
 					switch(duccWork.getDuccType()) {
 					case Job:
 					case Service:
@@ -365,6 +367,19 @@ implements Orchestrator {
 		logger.trace(methodName, null, messages.fetch("exit"));
 	}
 	
+	/**
+	 * Orchestrator State Resync
+	 */
+	
+	public void resyncState(OrchestratorStateResyncRequestEvent duccEvent) {
+		String methodName = "resyncState";
+		logger.trace(methodName, null, messages.fetch("enter"));
+		if(duccEvent != null) {
+			OrchestratorStatePublisher.getInstance().resync(duccEvent);
+		}
+		logger.trace(methodName, null, messages.fetch("exit"));
+	}
+	
 	/**
 	 * Job Driver State Reconciliation
 	 */
@@ -437,10 +452,12 @@ implements Orchestrator {
 		logger.trace(methodName, null, messages.fetch("enter"));
 		OrchestratorStateDuccEvent orchestratorStateDuccEvent = new OrchestratorStateDuccEvent(logger);
 		try {
-			DuccWorkMap workMapCopy = WorkMapHelper.deepCopy(workMap, this, methodName);
-			int activeJobs = workMapCopy.getJobCount();
-			int activeReservations = workMapCopy.getReservationCount();
-			int activeServices = workMapCopy.getServiceCount();
+			int jobDriverNodeCount = jdScheduler.getReservationCount();
+			// counts from the snapshot published, not the live map
+			DuccWorkMap published = OrchestratorStatePublisher.getInstance().publish(orchestratorStateDuccEvent, workMap, jobDriverNodeCount, this, methodName);
+			int activeJobs = published.getJobCount();
+			int activeReservations = published.getReservationCount();
+			int activeServices = published.getServiceCount();
 			logger.debug(methodName, null, messages.fetch("publishing state")+" "+
 											messages.fetchLabel("active job count")+activeJobs
 											+" "+
@@ -448,9 +465,6 @@ implements Orchestrator {
 											+" "+
 											messages.fetchLabel("active service count")+activeServices
 											);
-			int jobDriverNodeCount = jdScheduler.getReservationCount();
-			workMapCopy.setJobDriverNodeCount(jobDriverNodeCount);
-			orchestratorStateDuccEvent.setWorkMap(workMapCopy);
 			//stateManager.prune(workMapCopy);
 			//healthMonitor.cancelNonViableJobs();
 			//mqReaper.removeUnusedJdQueues(workMapCopy);
@@ -636,6 +650,7 @@ implements Orchestrator {
 						jobCompletionType = JobCompletionType.CanceledByAdministrator;
 					}
 					stateManager.jobTerminate(duccWorkJob, jobCompletionType, rationale, ProcessDeallocationType.JobCanceled);
+					WorkMapHelper.setDirty(workMap, duccWorkJob, this, methodName);
 					OrchestratorCheckpoint.getInstance().saveState();
 					// prepare for reply to canceler
 					properties.put(JobReplyProperties.key_message, JobReplyProperties.msg_canceled);
@@ -715,6 +730,7 @@ implements Orchestrator {
 									twr.setEndLong(now);
 								}
 							}
+							WorkMapHelper.setDirty(workMap, duccWorkJob, this, methodName);
 							// prepare process not active 
 							properties.put(JobReplyProperties.key_message, JobReplyProperties.msg_process_canceled);
 							duccEvent.setProperties(properties);
@@ -871,6 +887,7 @@ implements Orchestrator {
 								}
 							}
 						}
+						WorkMapHelper.setDirty(workMap, duccWorkReservation, this, methodName);
 						OrchestratorCheckpoint.getInstance().saveState();
 						// prepare for reply to canceler
 						properties.put(ReservationReplyProperties.key_message, ReservationReplyProperties.msg_canceled);
@@ -1005,6 +1022,7 @@ implements Orchestrator {
 						jobCompletionType = JobCompletionType.CanceledByAdministrator;
 					}
 					stateManager.jobTerminate(duccWorkJob, jobCompletionType, rationale, ProcessDeallocationType.JobCanceled);
+					WorkMapHelper.setDirty(workMap, duccWorkJob, this, methodName);
 					OrchestratorCheckpoint.getInstance().saveState();
 					// prepare for reply to canceler
 					properties.put(JobReplyProperties.key_message, JobReplyProperties.msg_canceled);
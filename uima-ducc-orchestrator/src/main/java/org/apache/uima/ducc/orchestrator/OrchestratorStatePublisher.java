@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.orchestrator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncRequestEvent;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+
+/**
+ * Fills each Orchestrator state publication with either a complete snapshot
+ * of the work map or only the entries that changed since the previous
+ * publication.  Entries are taken from a work map snapshot, in which an
+ * unchanged entry remains the same object from one snapshot to the next.
+ * A snapshot is published first, every snapshot interval publications
+ * thereafter, and next after any subscriber asks for a resync.  The work map
+ * snapshot behind a full publication is verified, so that entries changed
+ * without being marked dirty are published no later than that.
+ * Published entries are trimmed copies, made once per changed entry and
+ * reused by later publications, full or not.
+ */
+public class OrchestratorStatePublisher {
+	
+	private static final DuccLogger logger = DuccLoggerComponents.getOrLogger(OrchestratorStatePublisher.class.getName());
+	
+	private static OrchestratorStatePublisher instance = new OrchestratorStatePublisher();
+	
+	public static OrchestratorStatePublisher getInstance() {
+		return instance;
+	}
+	
+	private static DuccId jobid = null;
+	
+	private long epoch = System.currentTimeMillis();
+	private long version = 0;
+	
+	private long snapshotInterval = 6;
+	private boolean snapshotIntervalMessage = false;
+	
+	private long publications = 0;
+	private volatile boolean snapshotRequested = true;
+	
+	private HashMap<DuccId,IDuccWork> publishedMap = new HashMap<DuccId,IDuccWork>();
+	private HashMap<DuccId,IDuccWork> trimmedMap = new HashMap<DuccId,IDuccWork>();
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	public void resync(OrchestratorStateResyncRequestEvent request) {
+		String location = "resync";
+		snapshotRequested = true;
+		logger.info(location, jobid, "requester:"+request.getRequester()+" "+"epoch:"+request.getEpoch()+" "+"version:"+request.getVersion());
+	}
+	
+	private long getSnapshotInterval() {
+		String location = "getSnapshotInterval";
+		long retVal = snapshotInterval;
+		try {
+			String property_snapshot_interval = DuccPropertiesResolver.getInstance().getFileProperty(DuccPropertiesResolver.ducc_orchestrator_state_publish_snapshot_interval);
+			if(property_snapshot_interval == null) {
+				property_snapshot_interval = ""+snapshotInterval;
+			}
+			long property_value = Long.parseLong(property_snapshot_interval.trim());
+			if(property_value != snapshotInterval) {
+				snapshotInterval = property_value;
+				logger.info(location, jobid, "interval:"+snapshotInterval);
+			}
+			retVal = property_value;
+		}
+		catch(Throwable t) {
+			if(!snapshotIntervalMessage) {
+				snapshotIntervalMessage = true;
+				logger.warn(location, jobid, t);
+			}
+		}
+		return retVal;
+	}
+	
+	private boolean isSnapshot() {
+		boolean retVal = false;
+		publications++;
+		if(snapshotRequested) {
+			retVal = true;
+		}
+		else if(publications >= getSnapshotInterval()) {
+			retVal = true;
+		}
+		if(retVal) {
+			snapshotRequested = false;
+			publications = 0;
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Returns the work map snapshot published, from which the counts of
+	 * active work are consistent with the publication.
+	 */
+	public synchronized DuccWorkMap publish(OrchestratorStateDuccEvent event, DuccWorkMap workMap, int jobDriverNodeCount, Object object, String methodName) {
+		String location = "publish";
+		boolean snapshot = isSnapshot();
+		DuccWorkMap workMapSnapshot = WorkMapHelper.snapshot(workMap, snapshot, object, methodName);
+		HashMap<DuccId,IDuccWork> nextPublishedMap = new HashMap<DuccId,IDuccWork>();
+		HashMap<DuccId,IDuccWork> nextTrimmedMap = new HashMap<DuccId,IDuccWork>();
+		DuccWorkMap publishMap = new DuccWorkMap();
+		int bytesTrimmed = 0;
+		for(Entry<DuccId,IDuccWork> entry : workMapSnapshot.getMap().entrySet()) {
+			DuccId duccId = entry.getKey();
+			IDuccWork dw = entry.getValue();
+			boolean changed = (publishedMap.get(duccId) != dw);
+			IDuccWork trimmed = trimmedMap.get(duccId);
+			if(changed || (trimmed == null)) {
+				// snapshot entries are shared, so trim a copy
+				trimmed = (IDuccWork) SerializationUtils.clone(dw);
+				bytesTrimmed += OrchestratorStateDuccEvent.trim(trimmed);
+			}
+			nextPublishedMap.put(duccId, dw);
+			nextTrimmedMap.put(duccId, trimmed);
+			if(snapshot || changed) {
+				publishMap.addDuccWork(trimmed);
+			}
+		}
+		publishMap.setJobDriverNodeCount(jobDriverNodeCount);
+		ArrayList<DuccId> removed = new ArrayList<DuccId>();
+		for(DuccId duccId : publishedMap.keySet()) {
+			if(!nextPublishedMap.containsKey(duccId)) {
+				removed.add(duccId);
+			}
+		}
+		publishedMap = nextPublishedMap;
+		trimmedMap = nextTrimmedMap;
+		version++;
+		event.setEpoch(epoch);
+		event.setVersion(version);
+		if(snapshot) {
+			event.setWorkMap(publishMap);
+		}
+		else {
+			event.setDelta(publishMap, removed);
+		}
+		logger.debug(location, jobid, "epoch:"+epoch+" "+"version:"+version+" "+"snapshot:"+snapshot+" "+"changed:"+publishMap.size()+" "+"removed:"+removed.size()+" "+"total:"+workMapSnapshot.size()+" "+"misses:"+workMap.getSnapshotMisses()+" "+"trimmed:"+bytesTrimmed);
+		return workMapSnapshot;
+	}
+}
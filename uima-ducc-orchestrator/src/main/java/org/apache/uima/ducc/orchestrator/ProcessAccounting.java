@@ -513,6 +513,10 @@ public class ProcessAccounting {
 		else {
 			logger.trace(methodName, job.getDuccId(), "size: null");
 		}
+		List<IUimaPipelineAEComponent> threadInitTimes = inventoryProcess.getThreadInitTimes();
+		if(threadInitTimes != null) {
+			process.setThreadInitTimes(threadInitTimes);
+		}
 		logger.trace(methodName, job.getDuccId(), messages.fetch("exit"));
 	}
 	
@@ -241,13 +241,14 @@ public class StateManager {
 		Iterator<DuccId> workMapIterator = workMap.keySet().iterator();
 		while(workMapIterator.hasNext()) {
 			DuccId duccId = workMapIterator.next();
-			IDuccWork duccWork = WorkMapHelper.findDuccWork(workMap, duccId, this, methodName);
+			IDuccWork duccWork = WorkMapHelper.peekDuccWork(workMap, duccId, this, methodName);
 			switch(duccWork.getDuccType()) {
 			case Job:
 			case Service:
 				DuccWorkJob duccWorkJob = (DuccWorkJob)duccWork;
 				if(duccWorkJob != null) {
 					if(duccWorkJob.isCompleting() && allProcessesTerminated(duccWorkJob)) {
+						workMap.setDirty(duccId);
 						stateJobAccounting.stateChange(duccWorkJob, JobState.Completed);
 					}
 					if(duccWorkJob.isCompleted() && allProcessesTerminated(duccWorkJob) && isSaved(duccWorkJob) && isAgedOut(duccWorkJob)) {
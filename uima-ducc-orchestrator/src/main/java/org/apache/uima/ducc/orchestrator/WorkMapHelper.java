@@ -28,6 +28,13 @@ import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 /**
  * Wrapper calls to DuccWorkMap to perform synchronization accounting and logging into or.log.
  * Introduced by Jira UIMA-3657.
+ * 
+ * Entries returned by findDuccWork are presumed about to be changed and are
+ * marked dirty, see DuccWorkMap.snapshot().  That mark only covers changes
+ * made while the caller still holds the work map lock; callers that change
+ * the entry after releasing it must mark it again with setDirty once done.
+ * Scans that seldom change an entry use peekDuccWork instead and mark what
+ * they change themselves.
  */
 public class WorkMapHelper {
 
@@ -70,12 +77,29 @@ public class WorkMapHelper {
 		synchronized(workMap) {
 			ts.using();
 			dw = workMap.findDuccWork(duccId);
+			if(dw != null) {
+				workMap.setDirty(dw.getDuccId());
+			}
 		}
 		ts.ended();
 		return dw;
 	}
 	
 	public static IDuccWork findDuccWork(DuccWorkMap workMap, DuccId duccId, Object object, String methodName) {
+		IDuccWork dw = null;
+		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
+		synchronized(workMap) {
+			ts.using();
+			dw = workMap.findDuccWork(duccId);
+			if(dw != null) {
+				workMap.setDirty(dw.getDuccId());
+			}
+		}
+		ts.ended();
+		return dw;
+	}
+	
+	public static IDuccWork peekDuccWork(DuccWorkMap workMap, DuccId duccId, Object object, String methodName) {
 		IDuccWork dw = null;
 		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
 		synchronized(workMap) {
@@ -92,11 +116,34 @@ public class WorkMapHelper {
 		synchronized(workMap) {
 			ts.using();
 			dw = workMap.findDuccWork(duccType, id);
+			if(dw != null) {
+				workMap.setDirty(dw.getDuccId());
+			}
 		}
 		ts.ended();
 		return dw;
 	}
 	
+	public static void setDirty(DuccWorkMap workMap, IDuccWork dw, Object object, String methodName) {
+		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
+		synchronized(workMap) {
+			ts.using();
+			workMap.setDirty(dw.getDuccId());
+		}
+		ts.ended();
+	}
+	
+	public static DuccWorkMap snapshot(DuccWorkMap workMap, boolean verify, Object object, String methodName) {
+		DuccWorkMap workMapSnapshot = null;
+		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
+		synchronized(workMap) {
+			ts.using();
+			workMapSnapshot = workMap.snapshot(verify);
+		}
+		ts.ended();
+		return workMapSnapshot;
+	}
+	
 	public static DuccWorkMap deepCopy(DuccWorkMap workMap, Object object, String methodName) {
 		DuccWorkMap workMapCopy = null;
 		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
@@ -36,6 +36,7 @@ import org.apache.uima.ducc.orchestrator.Orchestrator;
 import org.apache.uima.ducc.orchestrator.OrchestratorCommonArea;
 import org.apache.uima.ducc.orchestrator.OrchestratorComponent;
 import org.apache.uima.ducc.orchestrator.OrchestratorState;
+import org.apache.uima.ducc.orchestrator.OrchestratorStatePublisher;
 import org.apache.uima.ducc.orchestrator.event.OrchestratorEventListener;
 import org.apache.uima.ducc.transport.DuccTransportConfiguration;
 import org.apache.uima.ducc.transport.event.CancelJobDuccEvent;
@@ -49,6 +50,8 @@ import org.apache.uima.ducc.transport.event.DuccWorkRequestEvent;
 import org.apache.uima.ducc.transport.event.JdReplyEvent;
 import org.apache.uima.ducc.transport.event.JdRequestEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncReplyEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncRequestEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobReplyDuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitReservationDuccEvent;
@@ -175,6 +178,11 @@ public class OrchestratorConfiguration {
 				duccWorkReplyEvent.setDw(duccWorkRequestEvent.getDw());
 				exchange.getIn().setBody(duccWorkReplyEvent);
 			}
+			if(obj instanceof OrchestratorStateResyncRequestEvent) {
+				OrchestratorStateResyncReplyEvent resyncReplyEvent = new OrchestratorStateResyncReplyEvent();
+				resyncReplyEvent.setEpoch(OrchestratorStatePublisher.getInstance().getEpoch());
+				exchange.getIn().setBody(resyncReplyEvent);
+			}
 			if(obj instanceof SubmitJobDuccEvent) {
 				SubmitJobDuccEvent submitJobEvent = exchange.getIn().getBody(SubmitJobDuccEvent.class);
 				SubmitJobReplyDuccEvent replyJobEvent = new SubmitJobReplyDuccEvent();
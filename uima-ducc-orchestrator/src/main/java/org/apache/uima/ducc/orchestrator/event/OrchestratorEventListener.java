@@ -33,6 +33,7 @@ import org.apache.uima.ducc.transport.event.CancelServiceDuccEvent;
 import org.apache.uima.ducc.transport.event.DuccWorkRequestEvent;
 import org.apache.uima.ducc.transport.event.JdRequestEvent;
 import org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncRequestEvent;
 import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
@@ -164,6 +165,17 @@ public class OrchestratorEventListener implements DuccEventDelegateListener {
 		}
 		logger.trace(methodName, null, messages.fetch("exit"));
 	}
+	public void onOrchestratorStateResyncEvent(@Body OrchestratorStateResyncRequestEvent duccEvent) throws Exception {
+		String methodName = "onOrchestratorStateResyncEvent";
+		logger.trace(methodName, null, messages.fetch("enter"));
+		try {
+			orchestrator.resyncState(duccEvent);
+		}
+		catch(Throwable t) {
+			logger.error(methodName, null, t);
+		}
+		logger.trace(methodName, null, messages.fetch("exit"));
+	}
 	public void onJdStateExchangeEvent(@Body JdRequestEvent duccEvent) throws Exception {
 		String methodName = "onJdStateUpdateEvent";
 		logger.trace(methodName, null, messages.fetch("enter"));
@@ -306,6 +306,12 @@ public class JobFactory implements IJobFactory {
 			wiTimeout = duccPropertiesResolver.getFileProperty(DuccPropertiesResolver.default_process_per_item_time_max);
 		}
 		addDashD(jcl, FlagsHelper.Name.WorkItemTimeout, jobRequestProperties.getProperty(JobSpecificationProperties.key_process_per_item_time_max));		
+		// add CR read-ahead
+		addDashD(jcl, FlagsHelper.Name.CollectionReaderReadAhead, DuccPropertiesResolver.getInstance().getFileProperty(DuccPropertiesResolver.ducc_jd_cr_read_ahead));
+		// add timeout manager
+		addDashD(jcl, FlagsHelper.Name.TimeoutManager, DuccPropertiesResolver.getInstance().getFileProperty(DuccPropertiesResolver.ducc_jd_timeout_manager));
+		// add JP prefetch depth, which bounds how long a queued work item may wait to start
+		addDashD(jcl, FlagsHelper.Name.PrefetchDepth, DuccPropertiesResolver.getInstance().getFileProperty(DuccPropertiesResolver.ducc_process_prefetch_depth));
 		// add JpDdDirectory	
 		addDashD(jcl, FlagsHelper.Name.JobDirectory, jobRequestProperties.getProperty(JobSpecificationProperties.key_log_directory));
 		// add Jp aggregate construction  from pieces-parts (Jp DD should be null)
@@ -341,6 +347,10 @@ public class JobFactory implements IJobFactory {
 		flagName = FlagsHelper.Name.UserErrorHandlerCfg;
 		flagValue = jobRequestProperties.getProperty(JobSpecificationProperties.key_driver_exception_handler_arguments);
 		addDashD(jcl, flagName, flagValue);
+		//
+		flagName = FlagsHelper.Name.CasSerialization;
+		flagValue = jobRequestProperties.getProperty(JobSpecificationProperties.key_cas_serialization);
+		addDashD(jcl, flagName, flagValue);
 		// No longer replace user's value by explicitly setting -Dlog4j.configuration ... DuccLogger knows how to find it
 		// Log directory
 		jcl.setLogDirectory(jobRequestProperties.getProperty(JobSpecificationProperties.key_log_directory));
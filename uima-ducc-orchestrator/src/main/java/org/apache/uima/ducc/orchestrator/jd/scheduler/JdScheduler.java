@@ -103,6 +103,7 @@ public class JdScheduler {
 						IDuccWorkReservation dwr = (IDuccWorkReservation) dw;
 						List<JdReservationBean> jdReservationBeanList = getJdReservationBeanList(jdReservationDuccId);
 						dwr.setJdReservationBeanList(jdReservationBeanList);
+						dwm.setDirty(duccId);
 						if(jdReservationBeanList != null) {
 							logger.debug(location, duccId, "size: "+jdReservationBeanList.size());
 						}
@@ -372,6 +373,7 @@ public class JdScheduler {
 			IDuccWork dw = dwm.findDuccWork(duccId);
 			if(dw != null) {
 				IDuccWorkReservation dwr = (IDuccWorkReservation) dw;
+				dwm.setDirty(duccId);
 				// state: Completed
 				dwr.stateChange(ReservationState.Completed);
 				dwr.setCompletionType(ReservationCompletionType.CanceledBySystem);
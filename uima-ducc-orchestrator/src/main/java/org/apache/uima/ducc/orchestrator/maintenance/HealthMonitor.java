@@ -209,18 +209,24 @@ public class HealthMonitor {
 			boolean ckpt = false;
 			for(DuccId jobId : jobKeySet) {
 				try {
-					IDuccWorkJob job = (IDuccWorkJob) WorkMapHelper.findDuccWork(workMap, jobId, this, methodName);
+					IDuccWorkJob job = (IDuccWorkJob) WorkMapHelper.peekDuccWork(workMap, jobId, this, methodName);
+					// unfinished jobs may be changed below without a checkpoint
+					boolean dirty = !job.isFinished();
 					if(isDriverCompleted(job)) {
 						ckpt = true;
+						dirty = true;
 					}
 					if(isCancelJobExcessiveProcessFailures(job)) {
 						ckpt = true;
+						dirty = true;
 					}
 					else if(isCancelJobCappedWithNoJobProcesses(job)) {
 						ckpt = true;
+						dirty = true;
 					}
 					else if(isCancelJobDriverProcessFailed(job)) {
 						ckpt = true;
+						dirty = true;
 					}
 					long cap = job.getProcessInitFailureCap();
 					// if an initialization cap was specified
@@ -230,8 +236,12 @@ public class HealthMonitor {
 						if(initFails > cap) {
 							// set job's max processes to -1, indicating stop process expansion to RM
 							job.getSchedulingInfo().setLongProcessesMax(-1);
+							dirty = true;
 						}
 					}
+					if(dirty) {
+						workMap.setDirty(jobId);
+					}
 				}
 				catch(Exception e) {
 					logger.error(methodName, null, e);
@@ -262,12 +272,15 @@ public class HealthMonitor {
 			boolean ckpt = false;
 			for(DuccId serviceId : serviceKeySet) {
 				try {
-					IDuccWorkJob service = (IDuccWorkJob) WorkMapHelper.findDuccWork(workMap, serviceId, this, methodName);
+					IDuccWorkJob service = (IDuccWorkJob) WorkMapHelper.peekDuccWork(workMap, serviceId, this, methodName);
+					boolean dirty = false;
 					if(isCancelJobExcessiveProcessFailures(service)) {
 						ckpt = true;
+						dirty = true;
 					}
 					else if(isCancelJobExcessiveInitializationFailures(service)) {
 						ckpt = true;
+						dirty = true;
 					}
 					long cap = service.getProcessInitFailureCap();
 					// if an initialization cap was specified
@@ -277,8 +290,12 @@ public class HealthMonitor {
 						if(initFails > cap) {
 							// set job's max processes to -1, indicating stop process expansion to RM
 							service.getSchedulingInfo().setLongProcessesMax(-1);
+							dirty = true;
 						}
 					}
+					if(dirty) {
+						workMap.setDirty(serviceId);
+					}
 				}
 				catch(Exception e) {
 					logger.error(methodName, null, e);
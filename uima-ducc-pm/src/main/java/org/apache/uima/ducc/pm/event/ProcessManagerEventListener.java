@@ -23,6 +23,7 @@ import org.apache.uima.ducc.pm.ProcessManager;
 import org.apache.uima.ducc.pm.ProcessManagerComponent;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReplica;
 import org.apache.uima.ducc.transport.event.delegate.DuccEventDelegateListener;
 
 
@@ -36,6 +37,7 @@ implements DuccEventDelegateListener {
 //	private DuccEventDispatcher eventDispatcher;
 //	private String targetEndpoint;
 	private ProcessManager processManager;
+	private OrchestratorStateReplica orchestratorStateReplica = new OrchestratorStateReplica(ProcessManager.DuccComponent);
 	
 	public ProcessManagerEventListener(ProcessManager processManager) {
 		this.processManager = processManager;
@@ -52,6 +54,11 @@ implements DuccEventDelegateListener {
 	 * @param jobMap - state Map sent by the Job Manager
 	 */
 	public void onJobManagerStateUpdate(@Body OrchestratorStateDuccEvent duccEvent) {
+		// process OR state only once the replica is in step with the OR
+		if ( !orchestratorStateReplica.apply(duccEvent) ) {
+			((ProcessManagerComponent)processManager).getLogger().info("onJobManagerStateUpdate", null, "Orchestrator state snapshot pending. Ignoring Orchestrator state update");
+			return;
+		}
 		// process OR state only if the JD has been assigned
 		if ( !duccEvent.getWorkMap().isJobDriverNodeAssigned() ) {
 			((ProcessManagerComponent)processManager).getLogger().info("onJobManagerStateUpdate", null, "Orchestrator JD node not assigned. Ignoring Orchestrator state update");
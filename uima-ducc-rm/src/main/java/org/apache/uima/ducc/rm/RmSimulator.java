@@ -0,0 +1,667 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.rm;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.uima.ducc.common.DuccNode;
+import org.apache.uima.ducc.common.Node;
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.node.metrics.NodeMemoryInfo;
+import org.apache.uima.ducc.common.node.metrics.NodeMetrics;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.rm.scheduler.IJobManager;
+import org.apache.uima.ducc.rm.scheduler.IRmJob;
+import org.apache.uima.ducc.rm.scheduler.JobManagerUpdate;
+import org.apache.uima.ducc.rm.scheduler.ResourceClass;
+import org.apache.uima.ducc.rm.scheduler.RmJob;
+import org.apache.uima.ducc.rm.scheduler.Scheduler;
+import org.apache.uima.ducc.rm.scheduler.Share;
+import org.apache.uima.ducc.rm.scheduler.User;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.rm.IRmStateEvent;
+
+/**
+ * Offline driver for the scheduler.  Nodes, jobs, and completions come from a trace file
+ * instead of the agents and the OR; the database is disabled and the job manager is a stub.
+ * Each epoch the simulator heartbeats every live node, advances the work of every running
+ * process, calls schedule(), and acts on the update the way the OR would.
+ *
+ * Usage:
+ *     RmSimulator ducc_home trace [--epochs n] [--epoch-seconds s] [--init-epochs n]
+ *                                 [--threads n] [--report file] [--max-epoch-ms ms]
+ *                                 [--allocations file]
+ *
+ * Class and nodepool definitions come from ducc_home/resources as usual.  Nodes that are in no
+ * nodefile land in the default nodepool.  The trace is one event per line, '#' starts a comment:
+ *
+ *     # epoch  event   arguments
+ *     0        nodes   count=5000 memory=64 prefix=sim
+ *     0        node    name=big01 memory=256
+ *     0        submit  id=1 user=bob class=normal memory=15 processes=100 threads=4 work=100000 seconds=30
+ *     3        submit  id=2 user=sue class=fixed memory=30 type=service
+ *     10       down    name=sim17
+ *     50       cancel  id=2
+ *
+ * Memory is in GB.  A job submission of type 'job' completes on its own once its work items
+ * (each taking 'seconds' of one thread) are done; services and reservations run until cancelled.
+ *
+ * One line per epoch is written to the report: scheduling time, node count, active jobs,
+ * running processes, processes started and evicted, churn (started + evicted), and Jain's
+ * fairness index of the per-user allocation against the max-min fair share of the cluster.
+ * The fairness figure ignores class weights and nodepools so it is a trend indicator only.
+ *
+ * If --allocations is given, every job the scheduler expands or shrinks in an epoch gets a line
+ * 'epoch,job,expanded,shrunken' there, in job order.  Share ids are left out so the records of
+ * runs with different --threads can be compared directly.
+ *
+ * If --max-epoch-ms is given the simulator exits with status 1 when any epoch is slower than
+ * the limit, so it can be scripted into a regression run.  The limit may be fractional.
+ */
+public class RmSimulator
+{
+    static final long KB_PER_GB = 1024 * 1024;
+
+    Scheduler scheduler;
+
+    int epochs       = 0;               // 0 means run until the trace is done and the work drains
+    int epochSeconds = 60;
+    int initEpochs   = 1;
+    long maxEpochNanos = 0;             // 0 means no limit
+    String reportFile = null;
+    String allocationsFile = null;
+
+    TreeMap<Integer, List<String[]>> events = new TreeMap<Integer, List<String[]>>();
+    Map<String, Node> nodes = new TreeMap<String, Node>();
+    Map<Long, SimJob> jobs = new TreeMap<Long, SimJob>();
+
+    Map<Share, Integer> running = new LinkedHashMap<Share, Integer>();     // share -> epoch it started
+    Set<Share> evicting = new HashSet<Share>();
+    List<Share> vacating = new ArrayList<Share>();
+
+    int nodeSequence = 0;
+    long capacity = 0;                  // GB, for fairness
+
+    List<Long> epochTimes = new ArrayList<Long>();
+    long totalStarted = 0;
+    long totalEvicted = 0;
+    double totalFairness = 0;
+    int fairnessSamples = 0;
+
+    RmSimulator()
+    {
+    }
+
+    static class SimJob
+    {
+        IRmJob job;
+        DuccType type;
+        int threads;
+        int total;
+        double remaining;
+        double itemSeconds;
+        boolean initialized = false;
+    }
+
+    static class StubJobManager
+        implements IJobManager
+    {
+        public IRmStateEvent createState(JobManagerUpdate jmu)
+        {
+            return null;
+        }
+    }
+
+    static String arg(Map<String, String> args, String key, String dflt)
+    {
+        String v = args.get(key);
+        if ( v == null ) {
+            if ( dflt == null ) throw new IllegalArgumentException("Missing required argument '" + key + "'");
+            return dflt;
+        }
+        return v;
+    }
+
+    static int intArg(Map<String, String> args, String key, int dflt)
+    {
+        return Integer.parseInt(arg(args, key, Integer.toString(dflt)));
+    }
+
+    static Map<String, String> parseArgs(String[] ev)
+    {
+        Map<String, String> ret = new HashMap<String, String>();
+        for ( int i = 2; i < ev.length; i++ ) {
+            int ndx = ev[i].indexOf("=");
+            if ( ndx <= 0 ) throw new IllegalArgumentException("Malformed argument '" + ev[i] + "'");
+            ret.put(ev[i].substring(0, ndx), ev[i].substring(ndx + 1));
+        }
+        return ret;
+    }
+
+    void readTrace(String file)
+        throws Exception
+    {
+        BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            int lineno = 0;
+            while ( (line = br.readLine()) != null ) {
+                lineno++;
+                int ndx = line.indexOf("#");
+                if ( ndx >= 0 ) line = line.substring(0, ndx);
+                line = line.trim();
+                if ( line.length() == 0 ) continue;
+
+                String[] ev = line.split("\\s+");
+                if ( ev.length < 2 ) {
+                    throw new IllegalArgumentException(file + ":" + lineno + ": expected 'epoch event [key=value ...]'");
+                }
+                Integer epoch = Integer.parseInt(ev[0]);
+                List<String[]> l = events.get(epoch);
+                if ( l == null ) {
+                    l = new ArrayList<String[]>();
+                    events.put(epoch, l);
+                }
+                l.add(ev);
+            }
+        } finally {
+            br.close();
+        }
+    }
+
+    void addNode(String name, int memory)
+        throws Exception
+    {
+        long kb = memory * KB_PER_GB;
+        String ip = "10." + ((nodeSequence >> 16) & 0xff) + "." + ((nodeSequence >> 8) & 0xff) + "." + (nodeSequence & 0xff);
+        nodeSequence++;
+
+        NodeIdentity ni = new NodeIdentity(ip, name);
+        NodeMetrics nm = new NodeMetrics(ni, new NodeMemoryInfo(new long[] {kb, kb, 0, 0}, kb), null, null, null);
+        Node n = new DuccNode(ni, nm, false);
+        Node old = nodes.put(name, n);
+        if ( old != null ) {
+            capacity -= old.getNodeMetrics().getNodeMemory().getMemTotal() / KB_PER_GB;
+        }
+        capacity += memory;
+    }
+
+    void removeNode(String name)
+    {
+        Node n = nodes.remove(name);
+        if ( n == null ) {
+            throw new IllegalArgumentException("Node " + name + " is not up.");
+        }
+        capacity -= n.getNodeMetrics().getNodeMemory().getMemTotal() / KB_PER_GB;
+
+        Map<Node, Node> dead = new HashMap<Node, Node>();
+        dead.put(n, n);
+        scheduler.nodeDeath(dead);
+    }
+
+    void submit(Map<String, String> args, int epoch)
+    {
+        long id         = Long.parseLong(arg(args, "id", null));
+        DuccType type   = DuccType.Job;
+        String t        = arg(args, "type", "job");
+        if ( t.equals("service") ) {
+            type = DuccType.Service;
+        } else if ( t.equals("reservation") ) {
+            type = DuccType.Reservation;
+        } else if ( !t.equals("job") ) {
+            throw new IllegalArgumentException("Unknown submission type '" + t + "'");
+        }
+
+        String dfltClass = (type == DuccType.Job) ? scheduler.getDefaultFairShareName() : scheduler.getDefaultReserveName();
+        String className = arg(args, "class", dfltClass);
+        ResourceClass rescl = scheduler.getResourceClass(className);
+        if ( rescl == null ) {
+            throw new IllegalArgumentException("Job " + id + ": unknown class " + className);
+        }
+
+        SimJob sj = new SimJob();
+        sj.type        = type;
+        sj.total       = intArg(args, "work", scheduler.getDefaultNTasks());
+        sj.remaining   = sj.total;
+        sj.threads     = intArg(args, "threads", scheduler.getDefaultNThreads());
+        sj.itemSeconds = Double.parseDouble(arg(args, "seconds", "60"));
+
+        IRmJob j = new RmJob(new DuccId(id));
+        j.setUserName(arg(args, "user", "user"));
+        j.setJobName("sim-" + id);
+        j.setThreads(sj.threads);
+        j.setUserPriority(100);
+        j.setNQuestions(sj.total, sj.total, sj.itemSeconds * 1000);
+        j.setClassName(className);
+        j.setMemory(intArg(args, "memory", scheduler.getDefaultMemory()));
+        j.init();
+        j.setTimestamp(epoch * epochSeconds * 1000L);
+        j.setDuccType(type);
+        j.setResourceClass(rescl);
+
+        switch ( type ) {
+            case Job:
+                j.setInitWait(false);
+                j.setMaxShares(intArg(args, "processes", Integer.MAX_VALUE));
+                break;
+            case Reservation:
+                j.setReservation();
+                j.setInitWait(true);
+                j.setMaxShares(1);
+                break;
+            default:
+                j.setInitWait(true);
+                j.setMaxShares(1);
+                break;
+        }
+
+        sj.job = j;
+        jobs.put(id, sj);
+        scheduler.signalNewWork(j);
+    }
+
+    void complete(SimJob sj)
+    {
+        for ( Share s : sj.job.getAssignedShares().values() ) {
+            running.remove(s);
+            evicting.remove(s);
+            vacating.remove(s);
+        }
+        jobs.remove(sj.job.getId().getFriendly());
+        scheduler.signalCompletion(sj.job.getId());
+    }
+
+    void applyEvents(int epoch)
+        throws Exception
+    {
+        List<String[]> l = events.get(epoch);
+        if ( l == null ) return;
+
+        for ( String[] ev : l ) {
+            Map<String, String> args = parseArgs(ev);
+            String kind = ev[1];
+            if ( kind.equals("nodes") ) {
+                int count = intArg(args, "count", 1);
+                int memory = intArg(args, "memory", 0);
+                String prefix = arg(args, "prefix", "sim");
+                for ( int i = 0; i < count; i++ ) {
+                    addNode(prefix + i, memory);
+                }
+            } else if ( kind.equals("node") ) {
+                addNode(arg(args, "name", null), intArg(args, "memory", 0));
+            } else if ( kind.equals("down") ) {
+                removeNode(arg(args, "name", null));
+            } else if ( kind.equals("submit") ) {
+                submit(args, epoch);
+            } else if ( kind.equals("cancel") ) {
+                SimJob sj = jobs.get(Long.parseLong(arg(args, "id", null)));
+                if ( sj != null ) {
+                    complete(sj);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown trace event '" + kind + "' at epoch " + epoch);
+            }
+        }
+    }
+
+    /**
+     * Emulate the processes: a share initializes after initEpochs and then works its threads
+     * through the job's items until the job runs dry.
+     */
+    void advanceWork(int epoch)
+    {
+        for ( SimJob sj : new ArrayList<SimJob>(jobs.values()) ) {
+            if ( sj.type != DuccType.Job ) continue;
+
+            IRmJob j = sj.job;
+            double done = 0;
+            boolean initialized = false;
+            for ( Share s : j.getAssignedShares().values() ) {
+                Integer start = running.get(s);
+                if ( (start == null) || evicting.contains(s) ) continue;
+
+                int age = epoch - start;
+                if ( age == initEpochs ) {
+                    s.setInitializationTime(initEpochs * epochSeconds * 1000L);
+                }
+                if ( age >= initEpochs ) {
+                    initialized = true;
+                }
+                if ( age > initEpochs ) {
+                    done += sj.threads * epochSeconds / sj.itemSeconds;
+                }
+            }
+
+            if ( initialized && !sj.initialized ) {
+                sj.initialized = true;
+                if ( j.setInitWait(true) ) {
+                    scheduler.signalInitialized(j);
+                }
+            }
+
+            sj.remaining -= done;
+            if ( sj.remaining <= 0 ) {
+                complete(sj);
+            } else {
+                j.setNQuestions(sj.total, (int) Math.ceil(sj.remaining), sj.itemSeconds * 1000);
+            }
+        }
+    }
+
+    /**
+     * Jain's index over the users' allocations, each normalized by its max-min fair share of the
+     * cluster given its demand.  1.0 is perfectly fair.
+     */
+    double fairness()
+    {
+        Map<User, long[]> byUser = new LinkedHashMap<User, long[]>();         // [ allocation, demand ] in GB
+        for ( SimJob sj : jobs.values() ) {
+            IRmJob j = sj.job;
+            long gb = (long) j.getShareOrder() * j.getShareQuantum();
+            int given = 0;
+            for ( Share s : j.getAssignedShares().values() ) {
+                if ( !evicting.contains(s) ) given++;
+            }
+            long[] v = byUser.get(j.getUser());
+            if ( v == null ) {
+                v = new long[2];
+                byUser.put(j.getUser(), v);
+            }
+            v[0] += given * gb;
+            v[1] += Math.max(given, j.queryDemand()) * gb;
+        }
+        if ( byUser.size() == 0 ) return 1.0;
+
+        long[][] users = byUser.values().toArray(new long[byUser.size()][]);
+        Arrays.sort(users, new Comparator<long[]>() {
+                public int compare(long[] a, long[] b) { return Long.compare(a[1], b[1]); }
+            });
+
+        double left = capacity;
+        double sum = 0;
+        double sumsq = 0;
+        int n = 0;
+        for ( int i = 0; i < users.length; i++ ) {
+            double fair = Math.min(users[i][1], left / (users.length - i));       // water-filling
+            left -= fair;
+            if ( fair <= 0 ) continue;
+            double x = users[i][0] / fair;
+            sum += x;
+            sumsq += x * x;
+            n++;
+        }
+        if ( sumsq == 0 ) return 1.0;
+        return (sum * sum) / (n * sumsq);
+    }
+
+    /**
+     * One line per job the update touches, in job order.
+     */
+    void recordAllocations(PrintWriter allocations, int epoch, JobManagerUpdate jmu)
+    {
+        Map<Long, int[]> changes = new TreeMap<Long, int[]>();                 // [ expanded, shrunken ]
+        for ( Map.Entry<DuccId, HashMap<Share, Share>> e : jmu.getExpandedShares().entrySet() ) {
+            changes.put(e.getKey().getFriendly(), new int[] { e.getValue().size(), 0 });
+        }
+        for ( Map.Entry<DuccId, HashMap<Share, Share>> e : jmu.getShrunkenShares().entrySet() ) {
+            int[] v = changes.get(e.getKey().getFriendly());
+            if ( v == null ) {
+                v = new int[2];
+                changes.put(e.getKey().getFriendly(), v);
+            }
+            v[1] = e.getValue().size();
+        }
+        for ( Map.Entry<Long, int[]> e : changes.entrySet() ) {
+            int[] v = e.getValue();
+            if ( (v[0] + v[1]) == 0 ) continue;
+            allocations.println(epoch + "," + e.getKey() + "," + v[0] + "," + v[1]);
+        }
+    }
+
+    int run(PrintWriter report, PrintWriter allocations)
+        throws Exception
+    {
+        report.println("epoch,ms,nodes,jobs,processes,started,evicted,churn,fairness");
+        if ( allocations != null ) {
+            allocations.println("epoch,job,expanded,shrunken");
+        }
+
+        int last = events.isEmpty() ? 0 : events.lastKey();
+        boolean slow = false;
+        for ( int epoch = 0; (epochs > 0) ? (epoch < epochs) : (epoch <= last || !jobs.isEmpty()); epoch++ ) {
+            for ( Share s : vacating ) {                     // the evicted processes have exited
+                scheduler.signalCompletion(s.getJob(), s);
+                running.remove(s);
+                evicting.remove(s);
+            }
+            vacating.clear();
+
+            applyEvents(epoch);
+            for ( Node n : nodes.values() ) {
+                scheduler.nodeArrives(n);
+            }
+            advanceWork(epoch);
+
+            long start = System.nanoTime();
+            JobManagerUpdate jmu = scheduler.schedule();
+            long nanos = System.nanoTime() - start;
+            long ms = nanos / 1000000;
+            epochTimes.add(ms);
+            if ( (maxEpochNanos > 0) && (nanos > maxEpochNanos) ) {
+                slow = true;
+            }
+
+            int started = 0;
+            int evicted = 0;
+            if ( jmu != null ) {
+                for ( HashMap<Share, Share> shares : jmu.getExpandedShares().values() ) {
+                    for ( Share s : shares.values() ) {
+                        if ( !running.containsKey(s) ) {
+                            running.put(s, epoch);
+                            started++;
+                        }
+                    }
+                }
+                for ( HashMap<Share, Share> shares : jmu.getShrunkenShares().values() ) {
+                    for ( Share s : shares.values() ) {
+                        if ( evicting.add(s) ) {
+                            vacating.add(s);
+                            evicted++;
+                        }
+                    }
+                }
+            }
+            if ( (jmu != null) && (allocations != null) ) {
+                recordAllocations(allocations, epoch, jmu);
+            }
+            totalStarted += started;
+            totalEvicted += evicted;
+
+            double f = fairness();
+            totalFairness += f;
+            fairnessSamples++;
+
+            report.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%d,%.4f",
+                                         epoch, ms, nodes.size(), jobs.size(), running.size() - evicting.size(),
+                                         started, evicted, started + evicted, f));
+        }
+        report.flush();
+        if ( allocations != null ) {
+            allocations.flush();
+        }
+
+        summarize();
+        return slow ? 1 : 0;
+    }
+
+    void summarize()
+    {
+        if ( epochTimes.isEmpty() ) {
+            System.out.println("No epochs were run.");
+            return;
+        }
+
+        List<Long> sorted = new ArrayList<Long>(epochTimes);
+        Collections.sort(sorted);
+        long total = 0;
+        for ( long t : sorted ) total += t;
+
+        System.out.println("epochs          : " + sorted.size());
+        System.out.println("epoch ms avg    : " + (total / sorted.size()));
+        System.out.println("epoch ms p50    : " + sorted.get(sorted.size() / 2));
+        System.out.println("epoch ms p99    : " + sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.99))));
+        System.out.println("epoch ms max    : " + sorted.get(sorted.size() - 1));
+        System.out.println("started         : " + totalStarted);
+        System.out.println("evicted         : " + totalEvicted);
+        System.out.println("churn           : " + (totalStarted + totalEvicted));
+        System.out.println("fairness (mean) : " + String.format(Locale.ROOT, "%.4f", totalFairness / fairnessSamples));
+    }
+
+    /**
+     * Bring up a scheduler against ducc_home's configuration, without the database and without
+     * overriding anything given on the command line with -D.
+     */
+    void configure(String duccHome, int threads)
+        throws Exception
+    {
+        System.setProperty("DUCC_HOME", duccHome);
+        if ( System.getProperty("ducc.rm.prediction") == null ) {
+            System.setProperty("ducc.rm.prediction", "false");     // prediction reads the wall clock
+        }
+
+        File f = new File(duccHome + "/resources/ducc.properties");
+        if ( !f.exists() ) {
+            f = new File(duccHome + "/resources/default.ducc.properties");
+        }
+        Properties props = new Properties();
+        InputStream in = new FileInputStream(f);
+        try {
+            props.load(in);
+        } finally {
+            in.close();
+        }
+        for ( String k : props.stringPropertyNames() ) {
+            if ( System.getProperty(k) == null ) {
+                System.setProperty(k, props.getProperty(k).trim());
+            }
+        }
+
+        if ( System.getProperty("ducc.broker.url") == null ) {
+            System.setProperty("ducc.broker.url", "--disabled--");   // only logged, normally composed at startup
+        }
+        System.setProperty("ducc.database.host", "--disabled--");
+        System.clearProperty("ducc.rm.persistence.impl");
+        System.setProperty("ducc.rm.scheduler.threads", Integer.toString(threads));
+
+        scheduler = new Scheduler(null);
+        scheduler.setJobManager(new StubJobManager());
+        scheduler.init();
+        scheduler.start();
+    }
+
+    static int usage(String msg)
+    {
+        if ( msg != null ) System.out.println(msg);
+        System.out.println("Usage: RmSimulator ducc_home trace [--epochs n] [--epoch-seconds s] [--init-epochs n]");
+        System.out.println("                                   [--threads n] [--report file] [--max-epoch-ms ms]");
+        System.out.println("                                   [--allocations file]");
+        return 2;
+    }
+
+    /**
+     * Run a simulation as the command line would.
+     *
+     * @return 0 on success, 1 if an epoch exceeded --max-epoch-ms, 2 on a usage or trace error.
+     */
+    static int execute(String[] args)
+    {
+        if ( args.length < 2 ) return usage(null);
+
+        RmSimulator sim = new RmSimulator();
+        int threads = 1;
+        try {
+            for ( int i = 2; i < args.length; i += 2 ) {
+                if ( i + 1 >= args.length ) return usage("Missing value for " + args[i]);
+                String v = args[i + 1];
+                if ( args[i].equals("--epochs") ) {
+                    sim.epochs = Integer.parseInt(v);
+                } else if ( args[i].equals("--epoch-seconds") ) {
+                    sim.epochSeconds = Integer.parseInt(v);
+                } else if ( args[i].equals("--init-epochs") ) {
+                    sim.initEpochs = Integer.parseInt(v);
+                } else if ( args[i].equals("--threads") ) {
+                    threads = Integer.parseInt(v);
+                } else if ( args[i].equals("--report") ) {
+                    sim.reportFile = v;
+                } else if ( args[i].equals("--allocations") ) {
+                    sim.allocationsFile = v;
+                } else if ( args[i].equals("--max-epoch-ms") ) {
+                    sim.maxEpochNanos = (long) Math.ceil(Double.parseDouble(v) * 1000000);
+                } else {
+                    return usage("Unknown option " + args[i]);
+                }
+            }
+        } catch ( NumberFormatException e ) {
+            return usage("Bad number: " + e.getMessage());
+        }
+
+        int rc = 0;
+        try {
+            sim.readTrace(args[1]);
+            sim.configure(args[0], threads);
+
+            PrintWriter report = (sim.reportFile == null) ? new PrintWriter(System.out) : new PrintWriter(new FileWriter(sim.reportFile));
+            PrintWriter allocations = (sim.allocationsFile == null) ? null : new PrintWriter(new FileWriter(sim.allocationsFile));
+            try {
+                rc = sim.run(report, allocations);
+            } finally {
+                if ( sim.reportFile != null ) report.close();
+                if ( allocations != null ) allocations.close();
+            }
+        } catch ( Exception e ) {
+            e.printStackTrace();
+            rc = 2;
+        }
+        return rc;
+    }
+
+    public static void main(String[] args)
+    {
+        System.exit(execute(args));
+    }
+}
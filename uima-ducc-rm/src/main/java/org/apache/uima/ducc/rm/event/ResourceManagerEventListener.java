@@ -27,6 +27,7 @@ import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReplica;
 import org.apache.uima.ducc.transport.event.delegate.DuccEventDelegateListener;
 
 
@@ -40,6 +41,7 @@ public class ResourceManagerEventListener
     private ResourceManager rm;
     private DuccEventDispatcher eventDispatcher;
     private ANodeStability nodeStability;
+    private OrchestratorStateReplica orchestratorStateReplica = new OrchestratorStateReplica(COMPONENT_NAME);
 
     public DuccEventDispatcher getEventDispatcher() {
 		return eventDispatcher;
@@ -102,6 +104,10 @@ public class ResourceManagerEventListener
     {
     	String methodName = "onOrchestratorStateUpdateEvent";
         logger.info(methodName, null, "Event arrives");
+        if ( !orchestratorStateReplica.apply(duccEvent) ) {
+            logger.info(methodName, null, "Awaiting Orchestrator state snapshot, event ignored");
+            return;
+        }
         rm.onOrchestratorStateUpdate(duccEvent.getWorkMap());
     }
 
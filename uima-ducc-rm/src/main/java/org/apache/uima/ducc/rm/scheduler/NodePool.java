@@ -64,6 +64,13 @@ class NodePool
                                                                                                                // sometimes stupid domain gets in the way
     HashMap<String, Machine>                 machinesByIp    = new HashMap<String, Machine>();                 // by IP, for nodepool support
 
+    // The same machines indexed over this pool plus all its subpools, maintained as machines come and go
+    // so the recursive lookups don't have to merge copies of every child on each call.
+    Map<Node, Machine>                subtreeMachines = new HashMap<Node, Machine>();
+    Map<String, Machine>              subtreeByName   = new HashMap<String, Machine>();
+    Map<String, Machine>              subtreeByIp     = new HashMap<String, Machine>();
+    Map<Integer, Map<Node, Machine>>  subtreeByOrder  = new HashMap<Integer, Map<Node, Machine>>();
+
     HashMap<Share, Share>                    allShares       = new HashMap<Share, Share>();
 
     HashMap<Node, Machine>                   preemptables    = new HashMap<Node, Machine>();                   // candidates for preemption for reservations
@@ -539,7 +546,7 @@ class NodePool
 
     public Machine getMachine(Node n)
     {
-        Machine m = allMachines.get(n);
+        Machine m = subtreeMachines.get(n);                 // active here or in any subpool
 
         if ( m == null ) {
             m = unresponsiveMachines.get(n);
@@ -561,108 +568,97 @@ class NodePool
 
     public Machine getMachine(NodeIdentity ni)
     {    	
-        Machine m = machinesByIp.get(ni.getIp());
-        if ( m == null ) {
-            for ( NodePool np : children.values() ) {
-                m = np.getMachine(ni);
-                if ( m != null ) break;
-            }                
-        }
-        return m;
+        return subtreeByIp.get(ni.getIp());
     }
 
     boolean containsMachine(Machine m)
     {
-        Map<Node, Machine> allm = getAllMachines();
-        return allm.containsKey(m.getNode());
+        return subtreeMachines.containsKey(m.getNode());
     }
 
-    @SuppressWarnings("unchecked")
-	HashMap<Node, Machine> getAllMachinesForPool()
+    /**
+     * Enter the machine in the subtree indexes of this pool and of every pool above it.
+     */
+    private void indexMachine(Machine m)
     {
-        return (HashMap<Node, Machine>) allMachines.clone();
-    }
+        int order = m.getShareOrder();
+        for ( NodePool np = this; np != null; np = np.parent ) {
+            np.subtreeMachines.put(m.key(), m);
+            np.subtreeByName.put(m.getId(), m);
+            np.subtreeByIp.put(m.getIp(), m);
 
-    HashMap<Node, Machine> getAllMachines()
-    {
-        @SuppressWarnings("unchecked")
-		HashMap<Node, Machine> machs = (HashMap<Node, Machine>) allMachines.clone();
-        for ( NodePool np : children.values() ) {
-            HashMap<Node, Machine> m = np.getAllMachines();
-            if ( m != null ) {
-                machs.putAll(m);
+            Map<Node, Machine> mlist = np.subtreeByOrder.get(order);
+            if ( mlist == null ) {
+                mlist = new HashMap<Node, Machine>();
+                np.subtreeByOrder.put(order, mlist);
             }
-        }                
-    
-        return machs;
+            mlist.put(m.key(), m);
+        }
     }
 
-    HashMap<String, Machine> getMachinesByName()
+    private void unindexMachine(Machine m, int order)
     {
-        @SuppressWarnings("unchecked")
-		HashMap<String, Machine> machs = (HashMap<String, Machine>) machinesByName.clone();
-        for ( NodePool np : children.values() ) {
-            HashMap<String, Machine> m = np.getMachinesByName();
-            if ( m != null ) {
-                machs.putAll(m);
-            }
-        }                
+        for ( NodePool np = this; np != null; np = np.parent ) {
+            np.subtreeMachines.remove(m.key());
+            np.subtreeByName.remove(m.getId());
+            np.subtreeByIp.remove(m.getIp());
 
-        return machs;
+            Map<Node, Machine> mlist = np.subtreeByOrder.get(order);
+            if ( mlist != null ) {
+                mlist.remove(m.key());
+                if ( mlist.size() == 0 ) {
+                    np.subtreeByOrder.remove(order);
+                }
+            }
+        }
     }
 
-    HashMap<String, Machine> getMachinesByIp()
+    /**
+     * The machines directly in this pool.  Read-only, and live: don't hold it across changes to the pool.
+     */
+	Map<Node, Machine> getAllMachinesForPool()
     {
-        @SuppressWarnings("unchecked")
-		HashMap<String, Machine> machs = (HashMap<String, Machine>) machinesByIp.clone();
-        for ( NodePool np : children.values() ) {
-            HashMap<String, Machine> m = np.getMachinesByIp();
-            if ( m != null ) {
-                machs.putAll(m);
-            }
-        }                
+        return Collections.unmodifiableMap(allMachines);
+    }
 
-        return machs;
+    /**
+     * The machines in this pool and all its subpools.  Read-only, and live.
+     */
+    Map<Node, Machine> getAllMachines()
+    {
+        return Collections.unmodifiableMap(subtreeMachines);
     }
 
-    @SuppressWarnings("unchecked")
-	HashMap<Node, Machine> getMachinesByOrder(int order)
+    Map<String, Machine> getMachinesByName()
     {
+        return Collections.unmodifiableMap(subtreeByName);
+    }
 
-        HashMap<Node, Machine> machs;
+    Map<String, Machine> getMachinesByIp()
+    {
+        return Collections.unmodifiableMap(subtreeByIp);
+    }
 
-        if( machinesByOrder.containsKey(order) ) {
-            machs = (HashMap<Node, Machine>) machinesByOrder.get(order).clone();
-        } else {
-            machs = new HashMap<Node, Machine>();
+	Map<Node, Machine> getMachinesByOrder(int order)
+    {
+        Map<Node, Machine> machs = subtreeByOrder.get(order);
+        if ( machs == null ) {
+            return Collections.emptyMap();
         }
-
-        for ( NodePool np : children.values() ) {
-            HashMap<Node, Machine> m = np.getMachinesByOrder(order);
-            machs.putAll(m);
-        }                
-
-        return machs;
+        return Collections.unmodifiableMap(machs);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Local machines bucketed by free space in the current cycle.  This is updated in place as shares
+     * are given out so callers that assign shares while walking it must take a copy.
+     */
 	Map<Node, Machine> getVirtualMachinesByOrder(int order)
     {
-        Map<Node, Machine> machs;
-
-        if( virtualMachinesByOrder.containsKey(order) ) {
-        	HashMap<Node, Machine> tmp = (HashMap<Node, Machine>) virtualMachinesByOrder.get(order);
-            machs = (HashMap<Node, Machine>) tmp.clone();
-        } else {
-            machs = new HashMap<Node, Machine>();
+        Map<Node, Machine> machs = virtualMachinesByOrder.get(order);
+        if ( machs == null ) {
+            return Collections.emptyMap();
         }
-
-//         for ( NodePool np : children.values() ) {
-//             HashMap<Machine, Machine> m = np.getVirtualMachinesByOrder(order);
-//             machs.putAll(m);
-//         }                
-
-        return machs;
+        return Collections.unmodifiableMap(machs);
     }
 
     /**
@@ -1091,6 +1087,7 @@ class NodePool
                 machinesByOrder.put(order, mlist);
             }
             mlist.put(m.key(), m);     
+            indexMachine(m);
    
             total_shares += order;     //      UIMA-3939
             signalDb(m, RmNodes.Responsive, true);
@@ -1116,6 +1113,7 @@ class NodePool
             machinesByOrder.put(order, mlist);
         }
         mlist.put(key, machine);        
+        indexMachine(machine);
 
         logger.info(methodName, null, "Nodepool:", id, "Host added:", id, ": ", machine.getId(), "Nodefile:", subpoolNames.get(machine.getId()), // UIMA-4142, add file nodefile
                     String.format("shares %2d total %4d:", order, total_shares), machine.toString()); 
@@ -1189,6 +1187,7 @@ class NodePool
             }
             machinesByName.remove(name);
             machinesByIp.remove(ip);
+            unindexMachine(m, order);
             logger.info(methodName, null, "Nodepool:", id, "Node leaves:", m.getId(), "total shares:", total_shares);
         } else {
             for ( NodePool np : children.values() ) {
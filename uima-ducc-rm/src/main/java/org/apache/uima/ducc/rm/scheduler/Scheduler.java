@@ -23,8 +23,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.uima.ducc.common.Node;
 import org.apache.uima.ducc.common.NodeConfiguration;
@@ -40,6 +45,7 @@ import org.apache.uima.ducc.common.admin.event.RmQueriedNodepool;
 import org.apache.uima.ducc.common.component.AbstractDuccComponent;
 import org.apache.uima.ducc.common.persistence.rm.IRmPersistence;
 import org.apache.uima.ducc.common.persistence.rm.RmPersistenceFactory;
+import org.apache.uima.ducc.common.persistence.rm.WriteBehindRmPersistence;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccProperties;
 import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
@@ -117,6 +123,15 @@ public class Scheduler
     // these two are initialized in constructor
     String schedImplName;
     IScheduler[] schedulers;
+    List<Map<ResourceClass, ResourceClass>> classesByNodepool;           // classes served by each scheduler, same index
+
+    int schedulerThreads = 1;                                             // concurrent top-level nodepool schedulers
+    ForkJoinPool schedulingPool = null;                                   // null if schedulers run serially
+
+    long epochCount = 0;                                                  // scheduling epoch timer, in ms
+    long epochLast = 0;
+    long epochMax = 0;
+    long epochTotal = 0;
 
     long share_free_dram  = 0;               // 0  GB in KB  - minim memory after shares are allocated
     long dramOverride     = 0;               // if > 0, use this instead of amount reported by agents (modeling and testing)
@@ -196,6 +211,15 @@ public class Scheduler
             idFactory = new DuccIdFactory(1);
         }
 
+        schedulerThreads  = SystemPropertyResolver.getIntProperty("ducc.rm.scheduler.threads", 0);   // 0 means one per processor
+        if ( schedulerThreads <= 0 ) {
+            schedulerThreads = Runtime.getRuntime().availableProcessors();
+        }
+        if ( (schedulerThreads > 1) && (schedulingPool == null) ) {
+            schedulingPool = new ForkJoinPool(schedulerThreads);
+        }
+        logger.info(methodName, null, "Top-level nodepools are scheduled with", schedulerThreads, "threads.");
+
 //        try {
 //            schedImplName = SystemPropertyResolver.getStringProperty("ducc.rm.scheduler", "org.apache.uima.ducc.rm.ClassBasedScheduler");
 //            @SuppressWarnings("unchecked")
@@ -547,6 +571,7 @@ public class Scheduler
 
         nodepools = new NodePool[nps.length];                   // top-level nodepools
         schedulers = new IScheduler[nps.length];                // a schedler for each top-level nodepool
+        classesByNodepool = new ArrayList<Map<ResourceClass, ResourceClass>>();
 
         // Here build up the ResourceClass definitions
         logger.info(methodName, null, "Classes:");
@@ -620,6 +645,7 @@ public class Scheduler
             }
 
             schedulers[i].setClasses(classesForNp);
+            classesByNodepool.add(classesForNp);
 
         }
 
@@ -980,6 +1006,7 @@ public class Scheduler
 // TODO does this even use growthOccurred?
 
         synchronized(this) {
+            long epochStart = System.currentTimeMillis();
 
             // before looking at jobs, insure we're updated after a crash
             for ( IRmJob j : jobsToRecover ) {
@@ -1066,10 +1093,9 @@ public class Scheduler
             }
 
             logger.info(methodName, null, "Scheduling " + newJobs.size(), " new jobs.  Existing jobs: " + allJobs.size());
-            for ( int i = 0; i < schedulers.length; i++ ) {
-                logger.info(methodName, null, "Run scheduler", i, "with top-level nodepool", nodepools[i].getId());
-                schedulers[i].schedule(upd);
-            }
+            long npStart = System.currentTimeMillis();
+            runSchedulers(upd);
+            long npTime = System.currentTimeMillis() - npStart;
 
             for ( IRmJob j : allJobs.values() ) {       // UIMA-4577 persist 'demand'
                 try {
@@ -1083,11 +1109,119 @@ public class Scheduler
             logger.info(methodName, null, "\n", upd.toString());
             logger.info(methodName, null, "------------------------------------------------");                
             dispatch(upd, jmu);                 // my own job lists get updated by this
+            persistence.flush();                // write this epoch's updates as a unit
+
+            long epochTime = System.currentTimeMillis() - epochStart;
+            epochCount++;
+            epochLast   = epochTime;
+            epochTotal += epochTime;
+            epochMax    = Math.max(epochMax, epochTime);
+            logger.info(methodName, null, "Scheduling epoch", epochCount, "took", epochTime, "ms, nodepool schedulers", npTime, "ms.");
 
             return jmu;
         }
     }
 
+    /**
+     * Run the top-level nodepool schedulers.  Top-level nodepools share no machines, but they do
+     * share User objects (allotments, wealth), so nodepools with work from a common user are kept
+     * in one group and scheduled in nodepool order, exactly as if run serially.  Independent groups
+     * run concurrently, each scheduler into its own SchedulingUpdate, and the updates are merged in
+     * nodepool order so the result does not depend on the number of threads.
+     */
+    void runSchedulers(SchedulingUpdate upd)
+    {
+        final String methodName = "runSchedulers";
+
+        List<List<Integer>> groups = groupSchedulers();
+        if ( (schedulingPool == null) || (groups.size() < 2) ) {
+            for ( int i = 0; i < schedulers.length; i++ ) {
+                logger.info(methodName, null, "Run scheduler", i, "with top-level nodepool", nodepools[i].getId());
+                schedulers[i].schedule(upd);
+            }
+            return;
+        }
+
+        final SchedulingUpdate[] updates = new SchedulingUpdate[schedulers.length];
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for ( final List<Integer> group : groups ) {
+            tasks.add(new Callable<Object>() {
+                    public Object call()
+                    {
+                        for ( int i : group ) {
+                            logger.info(methodName, null, "Run scheduler", i, "with top-level nodepool", nodepools[i].getId());
+                            updates[i] = new SchedulingUpdate();
+                            schedulers[i].schedule(updates[i]);
+                        }
+                        return null;
+                    }
+                });
+        }
+
+        logger.info(methodName, null, "Run", schedulers.length, "schedulers in", groups.size(), "independent groups on", schedulerThreads, "threads.");
+        for ( Future<Object> f : schedulingPool.invokeAll(tasks) ) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                throw new SchedulingException(null, "Interrupted while scheduling nodepools", e);
+            } catch (ExecutionException e) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new SchedulingException(null, "Nodepool scheduler failed", e.getCause());
+            }
+        }
+
+        for ( int i = 0; i < updates.length; i++ ) {
+            upd.merge(updates[i]);
+        }
+    }
+
+    /**
+     * Partition the schedulers into groups that share no users.  Each group lists its schedulers
+     * in ascending order, and the groups are ordered by their first scheduler.
+     */
+    List<List<Integer>> groupSchedulers()
+    {
+        int[] parent = new int[schedulers.length];
+        Map<User, Integer> firstPool = new HashMap<User, Integer>();
+        for ( int i = 0; i < schedulers.length; i++ ) {
+            parent[i] = i;
+            for ( ResourceClass rc : classesByNodepool.get(i).values() ) {
+                for ( IRmJob j : rc.getAllJobs().values() ) {
+                    Integer first = firstPool.get(j.getUser());
+                    if ( first == null ) {
+                        firstPool.put(j.getUser(), i);
+                    } else {
+                        int a = findGroup(parent, first);
+                        int b = findGroup(parent, i);
+                        parent[Math.max(a, b)] = Math.min(a, b);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<Integer, List<Integer>>();
+        for ( int i = 0; i < schedulers.length; i++ ) {
+            int g = findGroup(parent, i);
+            List<Integer> group = groups.get(g);
+            if ( group == null ) {
+                group = new ArrayList<Integer>();
+                groups.put(g, group);
+            }
+            group.add(i);
+        }
+        return new ArrayList<List<Integer>>(groups.values());
+    }
+
+    private int findGroup(int[] parent, int i)
+    {
+        while ( parent[i] != i ) {
+            i = parent[i];
+        }
+        return i;
+    }
+
     synchronized public void shutdown()
     {
         done = true;
@@ -1381,6 +1515,12 @@ public class Scheduler
         }
 
         calculateLoad(ret);
+        ret.setSchedulingEpoch(epochCount, epochLast, epochMax, (epochCount == 0 ? 0 : epochTotal / epochCount), schedulerThreads);
+        if ( persistence instanceof WriteBehindRmPersistence ) {
+            WriteBehindRmPersistence wb = (WriteBehindRmPersistence) persistence;
+            ret.setPersistence(wb.getQueueDepth(), wb.getWrites(), wb.getCoalesced(), wb.getFailures(),
+                               wb.getLatencyLast(), wb.getLatencyMax(), wb.getLatencyAverage());
+        }
 
         ArrayList<NodePool> allpools = new ArrayList<NodePool>();
         for ( NodePool np : nodepools ) {
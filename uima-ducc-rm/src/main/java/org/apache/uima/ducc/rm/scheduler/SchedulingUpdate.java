@@ -85,6 +85,19 @@ public class SchedulingUpdate
         j.defer(reason);
     }
 
+    /**
+     * Fold in the results of another scheduler.  Callers merge in nodepool order.
+     */
+    void merge(SchedulingUpdate other)
+    {
+        shrunken.putAll(other.shrunken);
+        expanded.putAll(other.expanded);
+        stable.putAll(other.stable);
+        dormant.putAll(other.dormant);
+        reservations.putAll(other.reservations);
+        refusals.putAll(other.refusals);
+    }
+
     HashMap<IRmJob, IRmJob> getRefusedJobs() 
     {
         return refusals;
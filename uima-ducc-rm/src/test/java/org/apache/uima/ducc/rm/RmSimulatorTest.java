@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.rm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Run the simulator over the sample traces in src/test/resources/simulator and
+ * src/test/resources/simulator-nodepools.
+ */
+public class RmSimulatorTest
+{
+    static final String home  = "src/test/resources/simulator";
+    static final String trace = home + "/trace.txt";
+    static final int epochs   = 120;
+
+    static final String nodepoolHome  = "src/test/resources/simulator-nodepools";
+    static final String nodepoolTrace = nodepoolHome + "/trace.txt";
+
+    static final String header = "epoch,ms,nodes,jobs,processes,started,evicted,churn,fairness";
+
+    List<String[]> readReport(File report)
+        throws Exception
+    {
+        List<String[]> ret = new ArrayList<String[]>();
+        BufferedReader br = new BufferedReader(new FileReader(report));
+        try {
+            assertEquals(header, br.readLine());
+            String line;
+            while ( (line = br.readLine()) != null ) {
+                String[] row = line.split(",");
+                assertEquals(line, 9, row.length);
+                ret.add(row);
+            }
+        } finally {
+            br.close();
+        }
+        return ret;
+    }
+
+    List<String> readLines(File f)
+        throws Exception
+    {
+        List<String> ret = new ArrayList<String>();
+        BufferedReader br = new BufferedReader(new FileReader(f));
+        try {
+            String line;
+            while ( (line = br.readLine()) != null ) {
+                ret.add(line);
+            }
+        } finally {
+            br.close();
+        }
+        return ret;
+    }
+
+    File tempReport()
+        throws Exception
+    {
+        File f = File.createTempFile("rm-simulator", ".csv");
+        f.deleteOnExit();
+        return f;
+    }
+
+    @Test
+    public void testReport()
+        throws Exception
+    {
+        File report = tempReport();
+        int rc = RmSimulator.execute(new String[] {home, trace, "--epochs", "" + epochs, "--report", report.getPath(), "--max-epoch-ms", "600000"});
+        assertEquals(0, rc);
+
+        List<String[]> rows = readReport(report);
+        assertEquals(epochs, rows.size());
+
+        long started = 0;
+        long evicted = 0;
+        int maxProcesses = 0;
+        for ( int i = 0; i < rows.size(); i++ ) {
+            String[] row = rows.get(i);
+            assertEquals(i, Integer.parseInt(row[0]));
+            assertEquals((i < 5) ? 8 : 7, Integer.parseInt(row[2]));        // sim7 goes down at epoch 5
+            int s = Integer.parseInt(row[5]);
+            int e = Integer.parseInt(row[6]);
+            assertEquals(s + e, Integer.parseInt(row[7]));
+            started += s;
+            evicted += e;
+            maxProcesses = Math.max(maxProcesses, Integer.parseInt(row[4]));
+            double fairness = Double.parseDouble(row[8]);
+            assertTrue(row[8], (fairness > 0) && (fairness <= 1.0));
+        }
+        assertTrue(started > 0);
+        assertTrue(started >= evicted);
+        assertTrue(maxProcesses > 1);
+
+        // both jobs complete and the service is cancelled well within the run
+        String[] last = rows.get(rows.size() - 1);
+        assertEquals(0, Integer.parseInt(last[3]));
+        assertEquals(0, Integer.parseInt(last[4]));
+        assertEquals("1.0000", last[8]);
+    }
+
+    /**
+     * The top-level nodepools are scheduled in parallel and their updates merged; the result
+     * must not depend on how many threads did the work.  Share ids are handed out as the
+     * nodepools finish so only the per-job counts are compared.
+     */
+    @Test
+    public void testThreads()
+        throws Exception
+    {
+        List<String> serialReport = new ArrayList<String>();
+        List<String> serialAllocations = null;
+        for ( int threads : new int[] {1, 4} ) {
+            File report = tempReport();
+            File allocations = tempReport();
+            int rc = RmSimulator.execute(new String[] {nodepoolHome, nodepoolTrace, "--epochs", "" + epochs, "--threads", "" + threads,
+                                                       "--report", report.getPath(), "--allocations", allocations.getPath()});
+            assertEquals(0, rc);
+
+            List<String> rows = new ArrayList<String>();
+            for ( String[] row : readReport(report) ) {
+                row[1] = "";                                                // scheduling time
+                rows.add(Arrays.toString(row));
+            }
+            assertEquals(epochs, rows.size());
+            List<String> alloc = readLines(allocations);
+
+            if ( serialAllocations == null ) {
+                serialReport = rows;
+                serialAllocations = alloc;
+
+                // both nodepools get work
+                Set<String> jobs = new HashSet<String>();
+                for ( String line : alloc.subList(1, alloc.size()) ) {
+                    jobs.add(line.split(",")[1]);
+                }
+                assertTrue(jobs.toString(), jobs.contains("1") && jobs.contains("11"));
+            } else {
+                assertEquals("allocations with " + threads + " threads", serialAllocations, alloc);
+                assertEquals("report with " + threads + " threads", serialReport, rows);
+            }
+        }
+    }
+
+    @Test
+    public void testMaxEpochMillis()
+        throws Exception
+    {
+        // every schedule() takes longer than a nanosecond
+        File report = tempReport();
+        int rc = RmSimulator.execute(new String[] {home, trace, "--epochs", "5", "--report", report.getPath(), "--max-epoch-ms", "0.000001"});
+        assertEquals(1, rc);
+        assertEquals(5, readReport(report).size());
+    }
+
+    @Test
+    public void testUsage()
+    {
+        assertEquals(2, RmSimulator.execute(new String[] {home}));
+        assertEquals(2, RmSimulator.execute(new String[] {home, trace, "--bogus", "1"}));
+        assertEquals(2, RmSimulator.execute(new String[] {home, trace, "--max-epoch-ms", "soon"}));
+    }
+}
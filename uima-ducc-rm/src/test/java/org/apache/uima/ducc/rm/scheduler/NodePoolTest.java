@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.rm.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.DuccNode;
+import org.apache.uima.ducc.common.Node;
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.node.metrics.NodeMemoryInfo;
+import org.apache.uima.ducc.common.node.metrics.NodeMetrics;
+import org.apache.uima.ducc.rm.scheduler.SchedConstants.EvictionPolicy;
+import org.junit.Test;
+
+/**
+ * The subtree indexes of each nodepool must always hold exactly the machines of that pool
+ * and of all its subpools, as they come, go and come back.
+ */
+public class NodePoolTest
+{
+    static final long KB_PER_GB = 1024 * 1024;
+
+    Node node(String name, String ip, int memory)
+    {
+        long kb = memory * KB_PER_GB;
+        NodeIdentity ni = new NodeIdentity(ip, name);
+        NodeMetrics nm = new NodeMetrics(ni, new NodeMemoryInfo(new long[] {kb, kb, 0, 0}, kb), null, null, null);
+        return new DuccNode(ni, nm, false);
+    }
+
+    Map<String, String> names(String... names)
+    {
+        Map<String, String> ret = new HashMap<String, String>();
+        for ( String n : names ) {
+            ret.put(n, "nodefile");
+        }
+        return ret;
+    }
+
+    /**
+     * Rebuild the subtree indexes from the per-pool maps.
+     */
+    void collect(NodePool np, Map<Node, Machine> machines, Map<String, Machine> byName, Map<String, Machine> byIp, Map<Integer, Map<Node, Machine>> byOrder)
+    {
+        machines.putAll(np.allMachines);
+        byName.putAll(np.machinesByName);
+        byIp.putAll(np.machinesByIp);
+        for ( Map.Entry<Integer, HashMap<Node, Machine>> e : np.machinesByOrder.entrySet() ) {
+            if ( e.getValue().isEmpty() ) continue;
+            Map<Node, Machine> mlist = byOrder.get(e.getKey());
+            if ( mlist == null ) {
+                mlist = new HashMap<Node, Machine>();
+                byOrder.put(e.getKey(), mlist);
+            }
+            mlist.putAll(e.getValue());
+        }
+        for ( NodePool child : np.children.values() ) {
+            collect(child, machines, byName, byIp, byOrder);
+        }
+    }
+
+    void check(NodePool np)
+    {
+        Map<Node, Machine> machines = new HashMap<Node, Machine>();
+        Map<String, Machine> byName = new HashMap<String, Machine>();
+        Map<String, Machine> byIp = new HashMap<String, Machine>();
+        Map<Integer, Map<Node, Machine>> byOrder = new HashMap<Integer, Map<Node, Machine>>();
+        collect(np, machines, byName, byIp, byOrder);
+
+        assertEquals(np.getId(), machines, np.subtreeMachines);
+        assertEquals(np.getId(), byName, np.subtreeByName);
+        assertEquals(np.getId(), byIp, np.subtreeByIp);
+        assertEquals(np.getId(), byOrder, np.subtreeByOrder);
+        for ( int order : byOrder.keySet() ) {
+            assertEquals(np.getId(), byOrder.get(order), np.getMachinesByOrder(order));
+        }
+        for ( Machine m : machines.values() ) {
+            assertTrue(np.containsMachine(m));
+        }
+
+        for ( NodePool child : np.children.values() ) {
+            check(child);
+        }
+    }
+
+    @Test
+    public void testSubtreeIndexes()
+    {
+        // root holds r1 and r2, A holds a1 and a2, and A's subpool B holds b1
+        NodePool root = new NodePool(null, "--default--", names("r1", "r2"), EvictionPolicy.SHRINK_BY_MACHINE, 0, 0, 1024 * 1024);
+        NodePool a = root.createSubpool("A", names("a1", "a2", "b1"), 1);
+        NodePool b = a.createSubpool("B", names("b1"), 2);
+
+        Node r1 = node("r1", "10.0.0.1", 15);
+        Node r2 = node("r2", "10.0.0.2", 31);
+        Node a1 = node("a1", "10.0.1.1", 15);
+        Node a2 = node("a2", "10.0.1.2", 31);
+        Node b1 = node("b1", "10.0.2.1", 63);
+
+        root.nodeArrives(r1, 1);
+        root.nodeArrives(r2, 2);
+        root.nodeArrives(a1, 1);
+        root.nodeArrives(a2, 2);
+        Machine mb1 = root.nodeArrives(b1, 4);
+        check(root);
+        assertEquals(5, root.getAllMachines().size());
+        assertEquals(3, a.getAllMachines().size());
+        assertEquals(1, b.getAllMachines().size());
+        assertSame(mb1, root.getMachine(new NodeIdentity("10.0.2.1", "b1")));
+        assertEquals(2, root.getMachinesByOrder(1).size());
+
+        // already known: nothing changes
+        root.nodeArrives(node("a1", "10.0.1.1", 15), 1);
+        check(root);
+
+        // a2 stops responding, then comes back with a different share order
+        Machine ma2 = root.getMachine(a2);
+        root.nodeLeaves(ma2);
+        check(root);
+        assertNull(root.getMachinesByName().get("a2"));
+        assertNull(a.getMachinesByIp().get("10.0.1.2"));
+        assertTrue(root.getMachinesByOrder(2).containsKey(r2));
+        assertFalse(root.getMachinesByOrder(2).containsKey(a2));
+        assertSame(ma2, root.nodeArrives(node("a2", "10.0.1.2", 47), 3));
+        check(root);
+        assertSame(ma2, root.getMachinesByOrder(3).get(a2));
+        assertFalse(root.getMachinesByOrder(2).containsKey(a2));
+
+        // the last machine of an order leaves the whole chain
+        root.nodeLeaves(mb1);
+        check(root);
+        assertTrue(b.getAllMachines().isEmpty());
+        assertTrue(root.getMachinesByOrder(4).isEmpty());
+        assertNull(root.subtreeByOrder.get(4));
+        root.nodeArrives(b1, 4);
+        check(root);
+        assertEquals(1, a.getMachinesByOrder(4).size());
+
+        // varied off, then on, then it arrives again as a new machine
+        Machine mr1 = root.getMachine(r1);
+        root.varyoff("r1");
+        check(root);
+        assertNotNull(root.getMachine(r1));           // found among the offline machines
+        assertFalse(root.containsMachine(mr1));
+        root.nodeArrives(r1, 1);                       // offline: not activated
+        check(root);
+        assertFalse(root.containsMachine(mr1));
+        root.varyon("r1");
+        Machine again = root.nodeArrives(r1, 1);
+        check(root);
+        assertTrue(root.containsMachine(again));
+        assertEquals(5, root.getAllMachines().size());
+    }
+}
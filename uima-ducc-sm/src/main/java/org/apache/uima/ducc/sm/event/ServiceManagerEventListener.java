@@ -23,6 +23,7 @@ import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.sm.IServiceManager;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReplica;
 import org.apache.uima.ducc.transport.event.ServiceDisableEvent;
 import org.apache.uima.ducc.transport.event.ServiceEnableEvent;
 import org.apache.uima.ducc.transport.event.ServiceIgnoreEvent;
@@ -50,6 +51,7 @@ public class ServiceManagerEventListener
 	//	private DuccEventDispatcher eventDispatcher;
 //	private String targetEndpoint;
 	private IServiceManager serviceManager;
+	private OrchestratorStateReplica orchestratorStateReplica = new OrchestratorStateReplica("SM");
 	
 
 	private static DuccLogger logger = DuccLogger.getLogger(ServiceManagerEventListener.class.getName(), "SM");	
@@ -222,6 +224,10 @@ public class ServiceManagerEventListener
 		System.out.println("......... Service Manager Received OrchestratorStateDuccEvent.");
 		// serviceManager.evaluateServiceRequirements(duccEvent.getWorkMap());
         try {
+            if ( !orchestratorStateReplica.apply(duccEvent) ) {
+                logger.info(methodName, null, "Awaiting Orchestrator state snapshot. Ignoring Orchestrator state update");
+                return;
+            }
             serviceManager.orchestratorStateArrives(duccEvent.getWorkMap());
         } catch ( Throwable t ) {
             logger.error(methodName, null, t);
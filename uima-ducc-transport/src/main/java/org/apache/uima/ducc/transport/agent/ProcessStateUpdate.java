@@ -38,6 +38,7 @@ public class ProcessStateUpdate implements Serializable {
 	String processJmxUrl;
 	String message;
 	List<IUimaPipelineAEComponent> uimaPipeline;
+	List<IUimaPipelineAEComponent> threadInitTimes;
 	
 	public ProcessStateUpdate(ProcessState state, String pid, String duccProcessId) {
 		this(state,pid,duccProcessId,null,null);
@@ -67,6 +68,18 @@ public class ProcessStateUpdate implements Serializable {
 	public void setUimaPipeline(List<IUimaPipelineAEComponent> uimaPipeline) {
 		this.uimaPipeline = uimaPipeline;
 	}
+	/**
+	 * @return the time each worker thread spent deploying its analytics
+	 */
+	public List<IUimaPipelineAEComponent> getThreadInitTimes() {
+		return threadInitTimes;
+	}
+	/**
+	 * @param threadInitTimes the worker thread deploy times to set
+	 */
+	public void setThreadInitTimes(List<IUimaPipelineAEComponent> threadInitTimes) {
+		this.threadInitTimes = threadInitTimes;
+	}
 	/**
 	 * @return the state
 	 */
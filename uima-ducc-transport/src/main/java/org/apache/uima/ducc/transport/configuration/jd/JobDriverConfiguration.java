@@ -18,8 +18,9 @@
 */
 package org.apache.uima.ducc.transport.configuration.jd;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -34,12 +35,13 @@ import org.apache.uima.ducc.common.config.CommonConfiguration;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
 import org.apache.uima.ducc.common.utils.Utils;
-import org.apache.uima.ducc.common.utils.XStreamUtils;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.container.jd.mh.MessageHandler;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Direction;
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
 import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.apache.uima.ducc.container.net.impl.TransactionCodecFactory;
 import org.apache.uima.ducc.transport.DuccTransportConfiguration;
 import org.apache.uima.ducc.transport.configuration.jd.iface.IJobDriverComponent;
 import org.eclipse.jetty.server.Server;
@@ -218,27 +220,14 @@ import org.springframework.context.annotation.Import;
 		    {
 		    	try {
 			    	long post_stime = System.nanoTime();
-					StringBuilder sb = new StringBuilder();
-					BufferedReader reader = request.getReader();
-					String line;
-					while ((line = reader.readLine()) != null ) {
-						sb.append(line);
-					}
-					//char[] content = new char[request.getContentLength()];
-					String content = sb.toString().trim();
-
-					//char[] content = new char[request.getContentLength()];
-
-					//request.getReader().read(content);
-					logger.debug("doPost",jobid, "Http Request Body:::"+String.valueOf(content));
+			    	// The request content type tells which codec the JP used
+			    	ITransactionCodec requestCodec = TransactionCodecFactory.getCodec(request.getContentType());
+			    	byte[] content = readContent(request);
+			    	if(logger.isDebug()) {
+			    		logger.debug("doPost",jobid, "Http Request Body:::"+requestCodec.getContentType()+" "+content.length+" bytes");
+			    	}
 					
-					IMetaCasTransaction imt=null;
-					//String t = String.valueOf(content);
-						
-//					imt = (IMetaCasTransaction) XStreamUtils
-//									.unmarshall(t.trim());
-					imt = (IMetaCasTransaction) XStreamUtils
-							.unmarshall(content);
+					IMetaCasTransaction imt = requestCodec.decode(content);
 					MessageHandler.accumulateTimes("Unmarshall", post_stime);
 			        
 			    	// process JP's request
@@ -248,12 +237,15 @@ import org.springframework.context.annotation.Import;
 			    	// setup reply 
 			    	imt.setDirection(Direction.Response);
 
+			    	// Reply in binary only to JPs that said they accept it
+			    	ITransactionCodec replyCodec = TransactionCodecFactory.getReplyCodec(request.getHeader(TransactionCodecFactory.acceptHeader));
+			    	byte[] body = replyCodec.encode(imt);
+			    	
 					response.setStatus(HttpServletResponse.SC_OK);
 
-					response.setHeader("content-type", "text/xml");
-					String body = XStreamUtils.marshall(imt);
-						
-					response.getWriter().write(body);
+					response.setHeader("content-type", replyCodec.getContentType());
+					response.setContentLength(body.length);
+					response.getOutputStream().write(body);
 					
 					// When debugging accumulate times taken by each stage of the message processing
 					MessageHandler.accumulateTimes("Marshall", marshall_stime);
@@ -263,6 +255,18 @@ import org.springframework.context.annotation.Import;
 		    	}
 		    }
 		    
+		    private byte[] readContent(HttpServletRequest request) throws IOException {
+		    	int length = request.getContentLength();
+		    	ByteArrayOutputStream baos = new ByteArrayOutputStream(length > 0 ? length : 4096);
+		    	InputStream is = request.getInputStream();
+		    	byte[] buffer = new byte[4096];
+		    	int count;
+		    	while ((count = is.read(buffer)) != -1) {
+		    		baos.write(buffer, 0, count);
+		    	}
+		    	return baos.toByteArray();
+		    }
+		    
 
 		}
 		
@@ -71,6 +71,9 @@ implements IAgentSession, IJobProcessManagerCallbackListener {
 		notify(state, null);
 	}
 	public void notify(ProcessState state, String message) {
+		notify(state, message, null);
+	}
+	public void notify(ProcessState state, String message, List<IUimaPipelineAEComponent> threadInitTimes) {
 	  synchronized( stateLock ) {
 	    this.state = state;
 	    if ( pid == null ) {
@@ -87,6 +90,7 @@ implements IAgentSession, IJobProcessManagerCallbackListener {
 	    if (endpoint != null ) {
 	      processUpdate.setSocketEndpoint(endpoint);
 	    }
+	    processUpdate.setThreadInitTimes(threadInitTimes);
 	    this.notify(processUpdate);
 	  }
 	}
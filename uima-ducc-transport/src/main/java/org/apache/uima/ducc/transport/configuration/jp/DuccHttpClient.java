@@ -22,11 +22,12 @@ import java.lang.management.ManagementFactory;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.methods.ByteArrayRequestEntity;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.RequestEntity;
-import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpHost;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
@@ -42,10 +43,10 @@ import org.apache.http.protocol.RequestTargetHost;
 import org.apache.http.protocol.RequestUserAgent;
 import org.apache.uima.ducc.common.NodeIdentity;
 import org.apache.uima.ducc.common.utils.DuccLogger;
-import org.apache.uima.ducc.common.utils.XStreamUtils;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Direction;
-import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.apache.uima.ducc.container.net.iface.ITransactionCodec;
+import org.apache.uima.ducc.container.net.impl.TransactionCodecFactory;
 
 public class DuccHttpClient {
 	DuccLogger logger = new DuccLogger(DuccHttpClient.class);
@@ -60,6 +61,8 @@ public class DuccHttpClient {
 	String pid = "";
 	ReentrantLock lock = new ReentrantLock();
 	int timeout;
+	// start with XML, switch to binary once the JD replies in binary
+	volatile ITransactionCodec requestCodec = TransactionCodecFactory.getXml();
 	
 	// New --------------------
     HttpClient httpClient = null;
@@ -174,12 +177,21 @@ public class DuccHttpClient {
     	transaction.setRequesterNodeName(getNodeName());
     	transaction.setRequesterProcessName(getProcessName());
     	transaction.setRequesterProcessId(Integer.valueOf(pid));
-    	transaction.setRequesterThreadId((int)Thread.currentThread().getId());
+    	// prefetched work items are tracked under a virtual thread id
+    	if ( transaction.getRequesterThreadId() == 0 ) {
+        	transaction.setRequesterThreadId((int)Thread.currentThread().getId());
+    	}
     	logger.trace(location, null, "ip:"+transaction.getRequesterAddress());
     	logger.trace(location, null, "nodeName:"+transaction.getRequesterNodeName());
     	logger.trace(location, null, "processName:"+transaction.getRequesterProcessName());
     	logger.trace(location, null, "processId:"+transaction.getRequesterProcessId());
     	logger.trace(location, null, "threadId:"+transaction.getRequesterThreadId());
+    	if ( transaction.getBatch() != null ) {
+    		for( IMetaCasTransaction item : transaction.getBatch() ) {
+    			addCommonHeaders(item);
+    			item.setDirection(Direction.Request);
+    		}
+    	}
     }
     
     private void addCommonHeaders( PostMethod method ) {
@@ -203,21 +215,23 @@ public class DuccHttpClient {
 		
 		while( retry-- > 0 ) {
 			try {
-				// Serialize request object to XML
-				String body = XStreamUtils.marshall(transaction);
-	            RequestEntity e = new StringRequestEntity(body,"application/xml","UTF-8" );
+				// Serialize request object using the negotiated codec
+				ITransactionCodec codec = requestCodec;
+				byte[] body = codec.encode(transaction);
+	            RequestEntity e = new ByteArrayRequestEntity(body, codec.getContentType());
 	            
 	            postMethod.setRequestEntity(e);
 	            
 	            addCommonHeaders(postMethod);
 	    
-	            postMethod.setRequestHeader("Content-Length", String.valueOf(body.length()));
+	            postMethod.setRequestHeader("Content-Length", String.valueOf(body.length));
+	            postMethod.setRequestHeader(TransactionCodecFactory.acceptHeader, TransactionCodecFactory.getAccept());
 	            logger.debug("execute",null, "calling httpClient.executeMethod()");
 	            // wait for a reply
 	            httpClient.executeMethod(postMethod);
 	            logger.debug("execute",null, "httpClient.executeMethod() returned");
                 
-                String content = new String(postMethod.getResponseBody());
+                byte[] content = postMethod.getResponseBody();
                 
 				if ( postMethod.getStatusLine().getStatusCode() != 200) {
 					logger.error("execute", null, "Unable to Communicate with JD - Error:"+postMethod.getStatusLine());
@@ -226,17 +240,28 @@ public class DuccHttpClient {
 					throw new RuntimeException("JP Http Client Unable to Communicate with JD - Error:"+postMethod.getStatusLine());
 				}
 				logger.debug("execute", null, "Thread:"+Thread.currentThread().getId()+" JD Reply Status:"+postMethod.getStatusLine());
-				logger.debug("execute", null, "Thread:"+Thread.currentThread().getId()+" Recv'd:"+content);
+				// The reply content type tells which codec the JD used
+				String contentType = null;
+				Header header = postMethod.getResponseHeader(TransactionCodecFactory.contentTypeHeader);
+				if ( header != null ) {
+					contentType = header.getValue();
+				}
+				ITransactionCodec replyCodec = TransactionCodecFactory.getCodec(contentType);
+				logger.debug("execute", null, "Thread:"+Thread.currentThread().getId()+" Recv'd:"+content.length+" bytes "+replyCodec.getContentType());
 				Object o;
 				try {
-					o = XStreamUtils.unmarshall(content); //sb.toString());
+					o = replyCodec.decode(content);
 					
 				} catch( Exception ex) {
-					logger.error("execute", null, "Thread:"+Thread.currentThread().getId()+" ERRR::Content causing error:"+postMethod.getResponseBody(),ex);
+					logger.error("execute", null, "Thread:"+Thread.currentThread().getId()+" ERRR::Content causing error:"+new String(content),ex);
 					throw ex;
 				}
+				if ( replyCodec != requestCodec ) {
+					logger.info("execute", null, "JD replied with "+replyCodec.getContentType()+" - using it for subsequent requests");
+					requestCodec = replyCodec;
+				}
 				if ( o instanceof IMetaCasTransaction) {
-					reply = (MetaCasTransaction)o;
+					reply = (IMetaCasTransaction)o;
 					break;
 				} else {
 					throw new InvalidClassException("Expected IMetaCasTransaction - Instead Received "+o.getClass().getName());
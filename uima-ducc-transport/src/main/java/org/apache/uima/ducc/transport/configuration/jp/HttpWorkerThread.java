@@ -58,6 +58,7 @@ public class HttpWorkerThread implements Runnable {
     		new ConcurrentHashMap<String, IMetaCasTransaction>();
     static AtomicInteger maxFrameworkFailures;
     private int maxFrameworkErrors = 2;   // default
+    private PrefetchCourier courier = null;
 	public HttpWorkerThread(JobProcessComponent component, DuccHttpClient httpClient,
 			Object processorInstance, CountDownLatch workerThreadCount,
 			CountDownLatch threadReadyCount, Map<String, IMetaCasTransaction> transactionMap,
@@ -78,6 +79,8 @@ public class HttpWorkerThread implements Runnable {
 	    logger.info("HttpWorkerThread.run()", null, "Starting JP Process Thread Id:"+Thread.currentThread().getId());
 	    Method processMethod = null;
 	    Method getKeyMethod = null;
+	    Method processCompactMethod = null;
+	    String[][] metricsLayout = null;
 	    boolean error=false;
 	    // ***** DEPLOY ANALYTICS ***********
 	    // First, deploy analytics in a provided process container. Use java reflection to call
@@ -85,12 +88,32 @@ public class HttpWorkerThread implements Runnable {
 	    // loaded from ducc-user jar provided in system classpath
 	    try {
 			processMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("process", Object.class);	
-			getKeyMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("getKey", String.class);	
+			getKeyMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("getKey", Object.class);	
 			
-			synchronized(HttpWorkerThread.class) {
-				Method deployMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("deploy");
+			Method deployMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("deploy");
+			long deployStart;
+			if ( duccComponent.isParallelInit() ) {
+				// analytics are thread safe, all worker threads deploy concurrently
+				deployStart = System.currentTimeMillis();
 				deployMethod.invoke(processorInstance);
-				System.out.println(".... Deployed Processing Container - Initialization Successful - Thread "+Thread.currentThread().getId());
+			} else {
+				synchronized(HttpWorkerThread.class) {
+					deployStart = System.currentTimeMillis();
+					deployMethod.invoke(processorInstance);
+				}
+			}
+			duccComponent.threadInitialized(Thread.currentThread().getId(), System.currentTimeMillis() - deployStart);
+			System.out.println(".... Deployed Processing Container - Initialization Successful - Thread "+Thread.currentThread().getId());
+			// Containers which resolve their AE metrics layout at deploy time
+			// return per CAS metrics as a numeric array
+			try {
+				Method layoutMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("getPerformanceMetricsLayout");
+				metricsLayout = (String[][])layoutMethod.invoke(processorInstance);
+				if ( metricsLayout != null ) {
+					processCompactMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("processCompact", Object.class);
+				}
+			} catch( NoSuchMethodException e) {
+				// older ducc-user jar
 			}
 
 			// each thread needs its own PostMethod
@@ -147,6 +170,8 @@ public class HttpWorkerThread implements Runnable {
 			
 			
 	   	logger.info("HttpWorkerThread.run()", null, "Begin Processing Work Items - Thread Id:"+Thread.currentThread().getId());
+		// in prefetch mode the next work items are fetched and acknowledged while process() runs
+		courier = duccComponent.getPrefetchCourier();
 		try {
 			// Enter process loop. Stop this thread on the first process error.
 			while (duccComponent.isRunning()) {  
@@ -154,37 +179,54 @@ public class HttpWorkerThread implements Runnable {
 				try {
 					int major = IdGenerator.addAndGet(1);
 					int minor = 0;
-
-					IMetaCasTransaction transaction = new MetaCasTransaction();
-					TransactionId tid = new TransactionId(major, minor);
-					transaction.setTransactionId(tid);
-					// According to HTTP spec, GET may not contain Body in 
-					// HTTP request. HttpClient actually enforces this. So
-					// do a POST instead of a GET.
-					transaction.setType(Type.Get);  // Tell JD you want a Work Item
-					command = Type.Get.name();
-			    	logger.debug("HttpWorkerThread.run()", null, "Thread Id:"+Thread.currentThread().getId()+" Requesting next WI from JD");;
-					// send a request to JD and wait for a reply
-			    	transaction = httpClient.execute(transaction, postMethod);
-                    // The JD may not provide a Work Item to process.
-			    	if ( transaction.getMetaCas()!= null) {
-    					logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" Recv'd WI:"+transaction.getMetaCas().getSystemKey());
-    					// Confirm receipt of the CAS. 
-    					transaction.setType(Type.Ack);
-    					command = Type.Ack.name();
-    					tid = new TransactionId(major, minor++);
-    					transaction.setTransactionId(tid);
-    					logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" Sending ACK request - WI:"+transaction.getMetaCas().getSystemKey());
-    					transaction = httpClient.execute(transaction, postMethod); 
-    					if ( transaction.getMetaCas() == null) {
-    						// this can be the case when a JD receives ACK late 
-        					logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" ACK reply recv'd, however there is no MetaCas. The JD Cancelled the transaction");
-        					continue; // ask for more
-    					}
-                        logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" ACK reply recv'd");
-                    } else {
-    					logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" Recv'd JD Response, however there is no MetaCas. Sleeping for "+duccComponent.getThreadSleepTime());
-                    }
+					IMetaCasTransaction transaction;
+					TransactionId tid;
+					if ( courier != null ) {
+						// Prefetch mode: the courier already did Get and AckQueued
+						transaction = courier.next();
+						if ( transaction == null ) {
+							if ( courier.isClosed() ) {
+								// the courier thread ended, fetch work items synchronously from now on
+								logger.warn("run", null,"Thread:"+Thread.currentThread().getId()+" Prefetch Courier Closed - Requesting WIs from JD directly");
+								courier = null;
+							}
+							continue;  // courier backs off when the JD has no work
+						}
+						logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" Starting prefetched WI:"+transaction.getMetaCas().getSystemKey());
+						command = Type.Start.name();
+						courier.start(transaction);
+					} else {
+						transaction = new MetaCasTransaction();
+						tid = new TransactionId(major, minor);
+						transaction.setTransactionId(tid);
+						// According to HTTP spec, GET may not contain Body in 
+						// HTTP request. HttpClient actually enforces this. So
+						// do a POST instead of a GET.
+						transaction.setType(Type.Get);  // Tell JD you want a Work Item
+						command = Type.Get.name();
+				    	logger.debug("HttpWorkerThread.run()", null, "Thread Id:"+Thread.currentThread().getId()+" Requesting next WI from JD");;
+						// send a request to JD and wait for a reply
+				    	transaction = httpClient.execute(transaction, postMethod);
+	                    // The JD may not provide a Work Item to process.
+				    	if ( transaction.getMetaCas()!= null) {
+	    					logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" Recv'd WI:"+transaction.getMetaCas().getSystemKey());
+	    					// Confirm receipt of the CAS. 
+	    					transaction.setType(Type.Ack);
+	    					command = Type.Ack.name();
+	    					tid = new TransactionId(major, minor++);
+	    					transaction.setTransactionId(tid);
+	    					logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" Sending ACK request - WI:"+transaction.getMetaCas().getSystemKey());
+	    					transaction = httpClient.execute(transaction, postMethod); 
+	    					if ( transaction.getMetaCas() == null) {
+	    						// this can be the case when a JD receives ACK late 
+	        					logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" ACK reply recv'd, however there is no MetaCas. The JD Cancelled the transaction");
+	        					continue; // ask for more
+	    					}
+	                        logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" ACK reply recv'd");
+	                    } else {
+	    					logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" Recv'd JD Response, however there is no MetaCas. Sleeping for "+duccComponent.getThreadSleepTime());
+	                    }
+					}
 
                     
 					// if the JD did not provide a Work Item, most likely the CR is
@@ -229,8 +271,24 @@ public class HttpWorkerThread implements Runnable {
 							//    ********** PROCESS() **************
 							// using java reflection, call process to analyze the CAS. While 
 							// we are blocking, user code may issue investment reset asynchronously.
-							 List<Properties> metrics = (List<Properties>)processMethod.
-							   invoke(processorInstance, transaction.getMetaCas().getUserSpaceCas());
+							IPerformanceMetrics metricsWrapper =
+									new PerformanceMetrics();
+							long[] values = null;
+							if ( processCompactMethod != null ) {
+								values = (long[])processCompactMethod.
+								   invoke(processorInstance, transaction.getMetaCas().getUserSpaceCas());
+								if ( values == null ) {
+									// container declined, use process() from now on
+									processCompactMethod = null;
+								}
+							}
+							if ( values != null ) {
+								metricsWrapper.set(metricsLayout[0], metricsLayout[1], values);
+							} else {
+								List<Properties> metrics = (List<Properties>)processMethod.
+								   invoke(processorInstance, transaction.getMetaCas().getUserSpaceCas());
+								metricsWrapper.set(metrics);
+							}
 							//    ***********************************
 							if ( key != null ) {
                                 // process ended we no longer expect investment reset from user
@@ -239,9 +297,6 @@ public class HttpWorkerThread implements Runnable {
 							}
 							
 		                    logger.debug("run", null,"Thread:"+Thread.currentThread().getId()+" process() completed");
-							IPerformanceMetrics metricsWrapper =
-									new PerformanceMetrics();
-							metricsWrapper.set(metrics);
 							transaction.getMetaCas().setPerformanceMetrics(metricsWrapper);
 							
 						}  catch( InvocationTargetException ee) {
@@ -278,19 +333,29 @@ public class HttpWorkerThread implements Runnable {
 						}
 						// Dont return serialized CAS to reduce the msg size
 						transaction.getMetaCas().setUserSpaceCas(null);
-						transaction.setType(Type.End);
 						command = Type.End.name();
+						// the courier owns the transaction once end() is called
+						String wid = null;
+						try {
+							wid = transaction.getMetaCas().getSystemKey();
+						} catch( Exception e) {
+							
+						}
+						if ( courier != null ) {
+							// Work Item Processed - End is sent by the courier
+							courier.end(transaction);
+							if ( workItemFailed ) {
+								// make sure the JD sees the failure before the process halts
+								courier.flush(duccComponent.getTimeout());
+							}
+						} else {
+							transaction.setType(Type.End);
 
-						tid = new TransactionId(major, minor++);
-						transaction.setTransactionId(tid);
+							tid = new TransactionId(major, minor++);
+							transaction.setTransactionId(tid);
 
-						httpClient.execute(transaction, postMethod); // Work Item Processed - End
-                    	String wid = null;
-                    	try {
-                    		wid = transaction.getMetaCas().getSystemKey();
-                    	} catch( Exception e) {
-                    		
-                    	}
+							httpClient.execute(transaction, postMethod); // Work Item Processed - End
+						}
 	                    logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" sent END for WI:"+wid);
 	                    if ( workItemFailed ) {
 	                        if ( wid != null ) {
@@ -21,6 +21,8 @@ package org.apache.uima.ducc.transport.configuration.jp;
 
 import java.lang.reflect.Method;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,9 +41,12 @@ import org.apache.uima.ducc.common.component.AbstractDuccComponent;
 import org.apache.uima.ducc.common.component.IJobProcessor;
 import org.apache.uima.ducc.common.container.FlagsHelper;
 import org.apache.uima.ducc.common.main.DuccService;
+import org.apache.uima.analysis_engine.AnalysisEngineManagement;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
 import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Type;
+import org.apache.uima.ducc.transport.agent.IUimaPipelineAEComponent;
+import org.apache.uima.ducc.transport.agent.UimaPipelineAEComponent;
 import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
 
 public class JobProcessComponent extends AbstractDuccComponent 
@@ -56,6 +61,10 @@ implements IJobProcessor{
 	protected String dd;
 	private int timeout = 30000;  // default socket timeout for HTTPClient
 	private int threadSleepTime = 5000; // time to sleep between GET requests if JD sends null CAS
+	private int prefetchDepth = 0; // work items queued ahead per worker thread, 0 = no prefetch
+	private volatile boolean parallelInit = false; // deploy analytics in all worker threads concurrently
+	// time each worker thread spent deploying its analytics
+	private List<IUimaPipelineAEComponent> threadInitTimes = new ArrayList<IUimaPipelineAEComponent>();
 	private CountDownLatch workerThreadCount = null;
 	private CountDownLatch threadReadyCount=null;
 	private AtomicInteger maxFrameworkFailures = null;
@@ -67,6 +76,7 @@ implements IJobProcessor{
     
     
 	private DuccHttpClient httpClient = null;
+	private PrefetchCourier courier = null;
     private Object processorInstance=null;
 	public JobProcessComponent(String componentName, CamelContext ctx,JobProcessConfiguration jpc) {
 		super(componentName,ctx);
@@ -104,6 +114,34 @@ implements IJobProcessor{
     }
     public int getThreadSleepTime() {
     	return threadSleepTime;
+    }
+    public void setPrefetchDepth(int depth) {
+    	prefetchDepth = depth;
+    }
+    public int getPrefetchDepth() {
+    	return prefetchDepth;
+    }
+    public void setParallelInit(boolean parallelInit) {
+    	this.parallelInit = parallelInit;
+    }
+    public boolean isParallelInit() {
+    	return parallelInit;
+    }
+    /**
+     * Called by each worker thread once its analytics are deployed.
+     */
+    public void threadInitialized(long threadId, long initTime) {
+    	synchronized( threadInitTimes ) {
+    		UimaPipelineAEComponent c = new UimaPipelineAEComponent("Worker Thread "+(threadInitTimes.size()+1)+" deploy",
+    				threadId, AnalysisEngineManagement.State.Ready);
+    		c.setInitializationTime(initTime);
+    		threadInitTimes.add(c);
+    	}
+    	getLogger().info("threadInitialized", null, "Thread:"+threadId+" Deployed Analytics in "+initTime+" ms"
+    			+(parallelInit ? " (parallel initialization)" : ""));
+    }
+    public PrefetchCourier getPrefetchCourier() {
+    	return courier;
     }
 	protected void setDD(String dd) {
 		this.dd = dd;
@@ -258,6 +296,10 @@ implements IJobProcessor{
 
 				// initialize http client's timeout
 				httpClient.setTimeout(timeout);
+				if ( prefetchDepth > 0 ) {
+					// one courier fetches ahead and sends Start/End for all worker threads
+					courier = new PrefetchCourier(this, httpClient, prefetchDepth, scaleout, maxFrameworkFailures);
+				}
 				
 				System.out.println("JMX Connect String:"+ processJmxUrl);
 		    	getLogger().info("start", null, "Starting "+scaleout+" Process Threads - JMX Connect String:"+ processJmxUrl);
@@ -275,7 +317,15 @@ implements IJobProcessor{
 			    	currentState = ProcessState.Running;
 					// Update agent with the most up-to-date state of the pipeline
 					// all is well, so notify agent that this process is in Running state
-					agent.notify(currentState, processJmxUrl);
+					// and report how long each thread took to deploy
+					List<IUimaPipelineAEComponent> initTimes;
+					synchronized( threadInitTimes ) {
+						initTimes = new ArrayList<IUimaPipelineAEComponent>(threadInitTimes);
+					}
+					agent.notify(currentState, processJmxUrl, initTimes);
+					if ( courier != null ) {
+						courier.start();
+					}
 					// Stop polling for AE state. All AEs have initialized. No need
 					// to poll. 
 					try {
@@ -307,6 +357,9 @@ implements IJobProcessor{
 		    		tpe.shutdown();
 		    		tpe.awaitTermination(0, TimeUnit.MILLISECONDS);
 		    	}
+		    	if ( courier != null ) {
+		    		courier.stop();
+		    	}
 		    	
 		    	if ( workerThreadCount != null ) {
 			    	workerThreadCount.await();
@@ -259,6 +259,16 @@ public class JobProcessConfiguration {
 			  duccComponent.getLogger().info("getProcessManagerInstance", null,
 			      "Overriding Default Thread Sleep Time - New Value "+common.processThreadSleepTime+" ms");
 			}
+			if ( common.processPrefetchDepth != null ) {
+			  duccComponent.setPrefetchDepth(Integer.parseInt(common.processPrefetchDepth.trim()));
+			  duccComponent.getLogger().info("getProcessManagerInstance", null,
+			      "Overriding Default Prefetch Depth - New Value "+common.processPrefetchDepth);
+			}
+			if ( common.processParallelInit != null ) {
+			  duccComponent.setParallelInit(Boolean.parseBoolean(common.processParallelInit.trim()));
+			  duccComponent.getLogger().info("getProcessManagerInstance", null,
+			      "Overriding Default Parallel Initialization - New Value "+common.processParallelInit);
+			}
 			if ( common.processRequestTimeout != null ) {
 	          duccComponent.setTimeout(Integer.valueOf(common.processRequestTimeout));
 			  duccComponent.getLogger().info("getProcessManagerInstance", null,
@@ -0,0 +1,456 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+
+package org.apache.uima.ducc.transport.configuration.jp;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.container.net.iface.IMetaCas;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction;
+import org.apache.uima.ducc.container.net.iface.IMetaCasTransaction.Type;
+import org.apache.uima.ducc.container.net.impl.MetaCas;
+import org.apache.uima.ducc.container.net.impl.MetaCasTransaction;
+import org.apache.uima.ducc.container.net.impl.TransactionId;
+
+/**
+ * Background courier shared by the HttpWorkerThreads of a JP running in 
+ * prefetch mode.
+ * 
+ * The courier keeps up to <i>depth</i> work items per worker thread fetched 
+ * (Get) and acknowledged as queued (AckQueued) so that worker threads never 
+ * wait on the JD between process() calls. Start and End transactions are 
+ * handed to the courier by the worker threads and delivered asynchronously, 
+ * in order.
+ * 
+ * Whenever more than one transaction is ready to go the courier sends them 
+ * to the JD as a single Batch transaction: all free slots are filled with 
+ * one Get and one AckQueued, and all pending Start/End are sent together.
+ * 
+ * The JD tracks one work item per remote thread, so each prefetched work
+ * item is requested under its own virtual thread id (slot). A slot is in 
+ * use from Get until the End for its work item has been delivered.
+ * 
+ * Transactions the JD did not acknowledge are retried, in order, ahead of
+ * anything queued later. Failures other than timeouts count against the
+ * JP's framework failure limit, as in HttpWorkerThread.
+ * 
+ * When the courier thread ends, whether stopped or failed, work items not
+ * yet taken by a worker thread are returned to the JD unstarted, and any
+ * Start/End still queued is delivered. From then on Start/End are sent by
+ * the calling worker thread, and worker threads fetch synchronously.
+ */
+public class PrefetchCourier implements Runnable {
+	DuccLogger logger = new DuccLogger(PrefetchCourier.class);
+	
+	// virtual thread ids are allocated well above real JVM thread ids
+	private static AtomicInteger slotIdGenerator = new AtomicInteger(100000);
+	
+	private static AtomicInteger idGenerator = new AtomicInteger();
+	
+	private DuccHttpClient httpClient = null;
+	private JobProcessComponent duccComponent = null;
+	private PostMethod postMethod = null;
+	
+	private BlockingQueue<Integer> slots = null;
+	private BlockingQueue<IMetaCasTransaction> ready = null;
+	private BlockingQueue<IMetaCasTransaction> outbound = new LinkedBlockingQueue<IMetaCasTransaction>();
+	
+	private List<IMetaCasTransaction> undelivered = new ArrayList<IMetaCasTransaction>();
+	private long retryAt = 0;
+	
+	private AtomicInteger maxFrameworkFailures = null;
+	private int maxFrameworkErrors = 0;
+	
+	private Object monitor = new Object();
+	private int pending = 0;
+	private long backoffUntil = 0;
+	
+	private volatile boolean stopped = false;
+	private volatile boolean closed = false;
+	private Thread thread = null;
+	
+	public PrefetchCourier(JobProcessComponent component, DuccHttpClient httpClient, int depth, int threads, AtomicInteger maxFrameworkFailures) {
+		this.duccComponent = component;
+		this.httpClient = httpClient;
+		this.maxFrameworkFailures = maxFrameworkFailures;
+		this.maxFrameworkErrors = maxFrameworkFailures.get();
+		ready = new ArrayBlockingQueue<IMetaCasTransaction>(depth*threads);
+		// queued + processing + End in flight
+		int count = (depth+2)*threads;
+		slots = new ArrayBlockingQueue<Integer>(count);
+		for(int i=0; i<count; i++) {
+			slots.add(slotIdGenerator.incrementAndGet());
+		}
+		postMethod = new PostMethod(httpClient.getJdUrl());
+		postMethod.getParams().setParameter(HttpMethodParams.SO_TIMEOUT, component.getTimeout());
+	}
+	
+	public void start() {
+		thread = new Thread(this);
+		thread.setName("JP Prefetch Courier");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Stop fetching and wait, at most the JP timeout, for the queued work
+	 * items to be returned to the JD.
+	 */
+	public void stop() {
+		stopped = true;
+		if ( thread != null ) {
+			thread.interrupt();
+			try {
+				thread.join(duccComponent.getTimeout());
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	private boolean isActive() {
+		return !stopped && duccComponent.isRunning();
+	}
+	
+	/**
+	 * True once the courier thread has ended; worker threads then fetch
+	 * work items themselves.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Returns the next prefetched work item, or null if none arrived 
+	 * within the JP thread sleep time or the courier is closed.
+	 */
+	public IMetaCasTransaction next() throws InterruptedException {
+		if(closed) {
+			return ready.poll();
+		}
+		return ready.poll(duccComponent.getThreadSleepTime(), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Tell the JD that processing of a prefetched work item has begun.
+	 * The CAS itself is not returned to the JD.
+	 */
+	public void start(IMetaCasTransaction transaction) {
+		IMetaCasTransaction start = new MetaCasTransaction();
+		start.setRequesterThreadId(transaction.getRequesterThreadId());
+		start.setTransactionId(new TransactionId(transaction.getTransactionId().getMajor(), transaction.getTransactionId().getMinor()+1));
+		IMetaCas source = transaction.getMetaCas();
+		MetaCas metaCas = new MetaCas(Integer.parseInt(source.getSystemKey()), source.getUserKey(), null);
+		start.setMetaCas(metaCas);
+		start.setType(Type.Start);
+		send(start);
+	}
+	
+	/**
+	 * Queue the End for a processed work item. The caller must not 
+	 * touch the transaction afterwards.
+	 */
+	public void end(IMetaCasTransaction transaction) {
+		TransactionId tid = transaction.getTransactionId();
+		transaction.setTransactionId(new TransactionId(tid.getMajor(), tid.getMinor()+2));
+		transaction.setType(Type.End);
+		send(transaction);
+	}
+	
+	private void send(IMetaCasTransaction transaction) {
+		synchronized(monitor) {
+			if(!closed) {
+				pending++;
+				outbound.add(transaction);
+				return;
+			}
+		}
+		// no courier thread, deliver from the calling thread
+		List<IMetaCasTransaction> list = new ArrayList<IMetaCasTransaction>();
+		list.add(transaction);
+		deliverOnce(list);
+	}
+	
+	/**
+	 * Block until all queued Start and End transactions are delivered,
+	 * or the given time has elapsed.
+	 */
+	public void flush(long millis) {
+		long deadline = System.currentTimeMillis()+millis;
+		synchronized(monitor) {
+			while(pending > 0) {
+				long wait = deadline - System.currentTimeMillis();
+				if(wait <= 0) {
+					break;
+				}
+				try {
+					monitor.wait(wait);
+				}
+				catch(InterruptedException e) {
+					break;
+				}
+			}
+		}
+	}
+	
+	public void run() {
+		logger.info("run", null, "Prefetch Courier Started - queue:"+ready.remainingCapacity()+" slots:"+slots.size());
+		try {
+			while(isActive()) {
+				// deliver Start/End first so the JD sees them promptly
+				if(System.currentTimeMillis() >= retryAt) {
+					List<IMetaCasTransaction> list = new ArrayList<IMetaCasTransaction>(undelivered);
+					undelivered.clear();
+					outbound.drainTo(list);
+					if(!list.isEmpty()) {
+						deliver(list);
+						continue;
+					}
+				}
+				if(!undelivered.isEmpty()) {
+					// no new work while the JD is not taking our Start/End
+					Thread.sleep(Math.max(1, retryAt - System.currentTimeMillis()));
+					continue;
+				}
+				if(ready.remainingCapacity() > 0 && System.currentTimeMillis() >= backoffUntil) {
+					List<Integer> free = new ArrayList<Integer>();
+					slots.drainTo(free, ready.remainingCapacity());
+					if(!free.isEmpty()) {
+						fetch(free);
+						continue;
+					}
+				}
+				long wait = Math.max(1, Math.min(backoffUntil - System.currentTimeMillis(), duccComponent.getThreadSleepTime()));
+				IMetaCasTransaction transaction = outbound.poll(wait, TimeUnit.MILLISECONDS);
+				if(transaction != null) {
+					List<IMetaCasTransaction> list = new ArrayList<IMetaCasTransaction>();
+					list.add(transaction);
+					outbound.drainTo(list);
+					deliver(list);
+				}
+			}
+		}
+		catch(InterruptedException e) {
+		}
+		catch(Throwable t) {
+			logger.error("run", null, t);
+		}
+		finally {
+			close();
+			logger.info("run", null, "Prefetch Courier Stopped");
+		}
+	}
+	
+	/*
+	 * Hand back the work items no worker thread has taken and deliver the
+	 * Start/End still queued; worker threads blocked in flush() are released.
+	 */
+	private void close() {
+		List<IMetaCasTransaction> list = new ArrayList<IMetaCasTransaction>(undelivered);
+		undelivered.clear();
+		synchronized(monitor) {
+			closed = true;
+			outbound.drainTo(list);
+		}
+		List<IMetaCasTransaction> queued = new ArrayList<IMetaCasTransaction>();
+		ready.drainTo(queued);
+		for(IMetaCasTransaction transaction : queued) {
+			logger.info("close", null, "Slot:"+transaction.getRequesterThreadId()+" Returning WI:"+transaction.getMetaCas().getSystemKey());
+			TransactionId tid = transaction.getTransactionId();
+			transaction.setTransactionId(new TransactionId(tid.getMajor(), tid.getMinor()+1));
+			transaction.setType(Type.Return);
+			transaction.getMetaCas().setUserSpaceCas(null);
+			list.add(transaction);
+		}
+		if(!list.isEmpty()) {
+			deliverOnce(list);
+		}
+		synchronized(monitor) {
+			pending = 0;
+			monitor.notifyAll();
+		}
+	}
+	
+	/*
+	 * Single attempt, without retry, once the courier thread has ended;
+	 * the JD recovers anything lost by its timeouts.
+	 */
+	private void deliverOnce(List<IMetaCasTransaction> list) {
+		try {
+			exchange(list);
+		}
+		catch(Exception e) {
+			logger.error("deliverOnce", null, "Unable to deliver "+list.size()+" transaction(s)", e);
+			if(!(e instanceof SocketTimeoutException)) {
+				frameworkFailure();
+			}
+		}
+	}
+	
+	/*
+	 * Send one transaction as is, or several as a single Batch. 
+	 * Replies are returned in request order. Synchronized since worker
+	 * threads share the PostMethod once the courier is closed.
+	 */
+	private synchronized List<IMetaCasTransaction> exchange(List<IMetaCasTransaction> list) throws Exception {
+		List<IMetaCasTransaction> replies;
+		if(list.size() == 1) {
+			replies = new ArrayList<IMetaCasTransaction>(1);
+			replies.add(httpClient.execute(list.get(0), postMethod));
+		}
+		else {
+			IMetaCasTransaction batch = new MetaCasTransaction();
+			batch.setTransactionId(new TransactionId(idGenerator.incrementAndGet(), 0));
+			batch.setType(Type.Batch);
+			batch.setBatch(list);
+			IMetaCasTransaction reply = httpClient.execute(batch, postMethod);
+			replies = reply.getBatch();
+			if(replies == null || replies.size() != list.size()) {
+				throw new RuntimeException("Batch of "+list.size()+" transactions - JD replied with "+(replies == null ? 0 : replies.size()));
+			}
+		}
+		return replies;
+	}
+	
+	/*
+	 * Slots are released only once the JD has acknowledged the End for 
+	 * their work item. Undelivered transactions are kept for retry.
+	 */
+	private void deliver(List<IMetaCasTransaction> list) {
+		try {
+			List<IMetaCasTransaction> replies = exchange(list);
+			for(int i=0; i<replies.size(); i++) {
+				if(replies.get(i).getMetaCas() == null) {
+					// the JD no longer associates this work item with the slot
+					IMetaCasTransaction transaction = list.get(i);
+					logger.info("deliver", null, "Slot:"+transaction.getRequesterThreadId()+" "+transaction.getType()+" reply recv'd, however there is no MetaCas. The JD Cancelled the transaction");
+				}
+			}
+			maxFrameworkFailures.set(maxFrameworkErrors);   // reset framework failures on success
+		}
+		catch(Exception e) {
+			if(e instanceof SocketTimeoutException) {
+				logger.warn("deliver", null, "Timed Out While Awaiting Response from JD for "+list.size()+" transaction(s) - Retrying ...");
+			}
+			else {
+				logger.error("deliver", null, "Unable to deliver "+list.size()+" transaction(s) - Retrying ...", e);
+				frameworkFailure();
+			}
+			undelivered.addAll(list);
+			retryAt = System.currentTimeMillis()+duccComponent.getThreadSleepTime();
+			return;
+		}
+		for(IMetaCasTransaction transaction : list) {
+			if(transaction.getType() == Type.End) {
+				slots.add(transaction.getRequesterThreadId());
+			}
+		}
+		synchronized(monitor) {
+			pending -= list.size();
+			monitor.notifyAll();
+		}
+	}
+	
+	private void frameworkFailure() {
+		// If max framework error count has been reached 
+		// just exit the process
+		if ( maxFrameworkFailures.decrementAndGet() <= 0 ) {
+			System.out.println("Exiting Process Due to a Framework error");
+			System.out.flush();
+			logger.error("frameworkFailure", null, "The Job Process Terminating Due To a Framework Error");
+			Runtime.getRuntime().halt(-1);
+		}
+	}
+	
+	private void fetch(List<Integer> free) {
+		List<Integer> queued = new ArrayList<Integer>();
+		try {
+			List<IMetaCasTransaction> gets = new ArrayList<IMetaCasTransaction>();
+			for(Integer slot : free) {
+				IMetaCasTransaction transaction = new MetaCasTransaction();
+				transaction.setRequesterThreadId(slot);
+				transaction.setTransactionId(new TransactionId(idGenerator.incrementAndGet(), 0));
+				transaction.setType(Type.Get);
+				gets.add(transaction);
+			}
+			List<IMetaCasTransaction> replies = exchange(gets);
+			List<IMetaCasTransaction> acks = new ArrayList<IMetaCasTransaction>();
+			List<Object> cases = new ArrayList<Object>();
+			List<Integer> ackSlots = new ArrayList<Integer>();
+			for(int i=0; i<replies.size(); i++) {
+				IMetaCasTransaction transaction = replies.get(i);
+				if(transaction.getMetaCas() == null || transaction.getMetaCas().getUserSpaceCas() == null) {
+					continue;
+				}
+				logger.info("fetch", null, "Slot:"+free.get(i)+" Recv'd WI:"+transaction.getMetaCas().getSystemKey());
+				// confirm receipt, but the work item has not started yet
+				TransactionId tid = transaction.getTransactionId();
+				transaction.setTransactionId(new TransactionId(tid.getMajor(), 1));
+				transaction.setType(Type.AckQueued);
+				cases.add(transaction.getMetaCas().getUserSpaceCas());
+				transaction.getMetaCas().setUserSpaceCas(null);
+				acks.add(transaction);
+				ackSlots.add(free.get(i));
+			}
+			if(acks.size() < free.size()) {
+				logger.debug("fetch", null, "Recv'd "+acks.size()+" of "+free.size()+" requested WIs. Sleeping for "+duccComponent.getThreadSleepTime());
+				backoffUntil = System.currentTimeMillis()+duccComponent.getThreadSleepTime();
+			}
+			if(acks.isEmpty()) {
+				return;
+			}
+			replies = exchange(acks);
+			for(int i=0; i<replies.size(); i++) {
+				IMetaCasTransaction reply = replies.get(i);
+				if(reply.getMetaCas() == null) {
+					logger.info("fetch", null, "Slot:"+ackSlots.get(i)+" ACK reply recv'd, however there is no MetaCas. The JD Cancelled the transaction");
+					continue;
+				}
+				reply.getMetaCas().setUserSpaceCas(cases.get(i));
+				ready.add(reply);
+				queued.add(ackSlots.get(i));
+			}
+		}
+		catch(Exception e) {
+			logger.error("fetch", null, e);
+			if(!(e instanceof SocketTimeoutException)) {
+				frameworkFailure();
+			}
+			backoffUntil = System.currentTimeMillis()+duccComponent.getThreadSleepTime();
+		}
+		finally {
+			for(Integer slot : free) {
+				if(!queued.contains(slot)) {
+					slots.add(slot);
+				}
+			}
+		}
+	}
+}
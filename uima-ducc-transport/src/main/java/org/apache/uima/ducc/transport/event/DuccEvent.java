@@ -50,7 +50,8 @@ public interface DuccEvent extends Serializable { // extends Map<Object, Object>
             SERVICE_STOP,
             SERVICE_QUERY,
             DUCCWORK,
-            AGENT_PING
+            AGENT_PING,
+            ORCHESTRATOR_STATE_RESYNC
             };
 	
 	public EventType getEventType();
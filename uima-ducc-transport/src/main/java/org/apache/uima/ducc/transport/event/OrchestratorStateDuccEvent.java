@@ -20,6 +20,8 @@ package org.apache.uima.ducc.transport.event;
 
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
@@ -33,12 +35,23 @@ import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
 
 public class OrchestratorStateDuccEvent extends AbstractDuccEvent  {
 	
-	private static final long serialVersionUID = 2L;
+	/**
+	 * please increment this sUID when removing or modifying a field 
+	 */
+	private static final long serialVersionUID = 3L;
 	
 	private static DuccId jobid = null;
 	private static DuccLogger logger = null;
 	
 	private IDuccWorkMap workMap = null;
+	
+	// publisher incarnation and publication number within it
+	private long epoch = 0;
+	private long version = 0;
+	
+	// when false workMap holds only the entries changed since the previous version
+	private boolean snapshot = true;
+	private ArrayList<DuccId> removed = new ArrayList<DuccId>();
 
 	public OrchestratorStateDuccEvent() {
 		super(EventType.ORCHESTRATOR_STATE);
@@ -49,17 +62,70 @@ public class OrchestratorStateDuccEvent extends AbstractDuccEvent  {
 		logger = duccLogger;
 	}
 	
+	/**
+	 * The value is retained as is: its entries must not change afterwards
+	 * and should already be trimmed, see trim(IDuccWork).
+	 */
 	public void setWorkMap(IDuccWorkMap value) {
-		this.workMap = value.deepCopy();
-		trim();
+		this.workMap = value;
+		this.snapshot = true;
+		this.removed = new ArrayList<DuccId>();
+	}
+	
+	public void setDelta(IDuccWorkMap changed, List<DuccId> removed) {
+		setWorkMap(changed);
+		this.snapshot = false;
+		this.removed = new ArrayList<DuccId>(removed);
+	}
+	
+	/**
+	 * Replace a delta by the complete map reconstructed by the subscriber.
+	 * The value is retained as is, since getWorkMap() hands out copies of
+	 * the map, though not of its entries.
+	 */
+	public void setResolvedWorkMap(IDuccWorkMap value) {
+		this.workMap = value;
+		this.snapshot = true;
+		this.removed = new ArrayList<DuccId>();
+	}
+	
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+	
+	public List<DuccId> getRemoved() {
+		return removed;
 	}
 	
+	public void setEpoch(long value) {
+		epoch = value;
+	}
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	public void setVersion(long value) {
+		version = value;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * A map of its own for each caller, whose entries are shared with the
+	 * event and every other caller, so they must be treated as read only.
+	 * Subscribers using OrchestratorStateReplica receive entries that are
+	 * replaced, never modified, when they change.  A caller that needs to
+	 * modify entries must make its own deepCopy().
+	 */
 	public IDuccWorkMap getWorkMap() {
-		IDuccWorkMap value = this.workMap.deepCopy();
+		IDuccWorkMap value = this.workMap.shallowCopy();
 		return value;
 	}
 	
-	private int sizeOf(Object object) {
+	private static int sizeOf(Object object) {
 		String location = "sizeOf";
 		int retVal = 0;
 		try {
@@ -83,14 +149,18 @@ public class OrchestratorStateDuccEvent extends AbstractDuccEvent  {
 		return retVal;
 	}
 	
-	private void trim() {
+	/**
+	 * Drop the command lines, not needed by subscribers, from an entry
+	 * about to be published.  Returns the number of bytes trimmed when
+	 * logging, else 0.
+	 */
+	public static int trim(IDuccWork dw) {
 		String location = "trim";
 		int bytesTrimmed = 0;
-		for(Object key : workMap.keySet()) {
+		if(dw != null) {
 			ICommandLine cmdLine1 = null;
 			ICommandLine cmdLine2 = null;
-			DuccId duccId = (DuccId) key;
-			IDuccWork dw = (IDuccWork) workMap.get(duccId);
+			DuccId duccId = dw.getDuccId();
 			if(dw instanceof IDuccWorkJob) {
 				IDuccWorkJob job = (IDuccWorkJob) dw;
 				if(logger != null) {
@@ -133,9 +203,6 @@ public class OrchestratorStateDuccEvent extends AbstractDuccEvent  {
 				dwe.setCommandLine(null);
 			}
 		}
-		if(logger != null) {
-			String message = "total:"+bytesTrimmed;
-			logger.debug(location, jobid, message);
-		}
+		return bytesTrimmed;
 	}
 }
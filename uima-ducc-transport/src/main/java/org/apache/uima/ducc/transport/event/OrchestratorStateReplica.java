@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event;
+
+import java.util.Map.Entry;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.dispatcher.DuccEventHttpDispatcher;
+import org.apache.uima.ducc.transport.dispatcher.IDuccEventDispatcher;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
+
+/**
+ * Subscriber side copy of the Orchestrator work map, maintained from the
+ * snapshots and deltas published by the Orchestrator.  When a delta does not
+ * follow on from the replica (missed publication, Orchestrator restart, late
+ * start) the replica asks the Orchestrator for a snapshot and discards deltas
+ * until one arrives.
+ */
+public class OrchestratorStateReplica {
+	
+	private DuccLogger logger = null;
+	private DuccId jobid = null;
+	
+	private String requester = null;
+	
+	private IDuccWorkMap workMap = null;
+	private long epoch = 0;
+	private long version = 0;
+	
+	private long resyncRetryMillis = 60*1000;
+	private long resyncRequested = 0;
+	
+	public OrchestratorStateReplica(String requester) {
+		this.requester = requester;
+		this.logger = DuccLogger.getLogger(OrchestratorStateReplica.class, requester);
+	}
+	
+	/**
+	 * Apply the publication to the replica, then put the complete work map
+	 * back into the event so that consumers are unaware of deltas.
+	 * 
+	 * @return false if the event is unusable pending a resync
+	 */
+	public synchronized boolean apply(OrchestratorStateDuccEvent event) {
+		String location = "apply";
+		boolean retVal = false;
+		if(event.isSnapshot()) {
+			workMap = event.getWorkMap();
+			epoch = event.getEpoch();
+			version = event.getVersion();
+			resyncRequested = 0;
+			logger.debug(location, jobid, "snapshot epoch:"+epoch+" version:"+version+" size:"+workMap.size());
+			retVal = true;
+		}
+		else if(workMap == null) {
+			resync("no snapshot", event);
+		}
+		else if(event.getEpoch() != epoch) {
+			resync("epoch", event);
+		}
+		else if(event.getVersion() != version+1) {
+			resync("version", event);
+		}
+		else {
+			IDuccWorkMap delta = event.getWorkMap();
+			for(DuccId duccId : event.getRemoved()) {
+				workMap.removeDuccWork(duccId);
+			}
+			for(Entry<DuccId, IDuccWork> entry : delta.getMap().entrySet()) {
+				workMap.removeDuccWork(entry.getKey());
+				workMap.addDuccWork(entry.getValue());
+			}
+			((DuccWorkMap)workMap).setJobDriverNodeCount(delta.getJobDriverNodeCount());
+			version = event.getVersion();
+			logger.debug(location, jobid, "delta epoch:"+epoch+" version:"+version+" changed:"+delta.size()+" removed:"+event.getRemoved().size()+" size:"+workMap.size());
+			retVal = true;
+		}
+		if(retVal) {
+			// entries are replaced, never modified, so sharing them is safe
+			event.setResolvedWorkMap(workMap.shallowCopy());
+		}
+		return retVal;
+	}
+	
+	private void resync(String reason, OrchestratorStateDuccEvent event) {
+		String location = "resync";
+		long now = System.currentTimeMillis();
+		String message = "reason:"+reason+" "+"epoch:"+epoch+"/"+event.getEpoch()+" "+"version:"+version+"/"+event.getVersion();
+		if(now - resyncRequested < resyncRetryMillis) {
+			logger.debug(location, jobid, message+" "+"pending");
+		}
+		else {
+			resyncRequested = now;
+			logger.info(location, jobid, message);
+			requestSnapshot(new OrchestratorStateResyncRequestEvent(requester, epoch, version));
+		}
+	}
+	
+	/**
+	 * Ask the Orchestrator to make its next publication a snapshot.  The
+	 * request is sent on its own thread so as not to hold up the subscriber.
+	 */
+	protected void requestSnapshot(final OrchestratorStateResyncRequestEvent request) {
+		Thread thread = new Thread() {
+			public void run() {
+				String location = "requestSnapshot";
+				IDuccEventDispatcher dispatcher = null;
+				try {
+					dispatcher = new DuccEventHttpDispatcher(getTargetUrl());
+					dispatcher.dispatchAndWaitForDuccReply(request);
+				}
+				catch(Exception e) {
+					logger.error(location, jobid, e);
+				}
+				finally {
+					if(dispatcher != null) {
+						dispatcher.close();
+					}
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	private String getTargetUrl() {
+		String server = "orchestrator";
+		String host = DuccPropertiesResolver.get("ducc." + server + ".http.node");
+	    String port = DuccPropertiesResolver.get("ducc." + server + ".http.port");
+        if ( host == null || port == null ) {
+        	String message = "ducc." + server + ".http.node and/or .port not set in ducc.properties";
+            throw new IllegalStateException(message);
+        }
+        return "http://" + host + ":" + port + "/" + server.substring(0, 2);
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event;
+
+public class OrchestratorStateResyncRequestEvent extends AbstractDuccOrchestratorEvent {
+
+	private static final long serialVersionUID = 1L;
+	
+	private String requester = null;
+	private long epoch = 0;
+	private long version = 0;
+	
+	public OrchestratorStateResyncRequestEvent(String requester, long epoch, long version) {
+		super(EventType.ORCHESTRATOR_STATE_RESYNC);
+		setRequester(requester);
+		setEpoch(epoch);
+		setVersion(version);
+	}
+	
+	private void setRequester(String value) {
+		requester = value;
+	}
+	
+	public String getRequester() {
+		return requester;
+	}
+	
+	private void setEpoch(long value) {
+		epoch = value;
+	}
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	private void setVersion(long value) {
+		version = value;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+}
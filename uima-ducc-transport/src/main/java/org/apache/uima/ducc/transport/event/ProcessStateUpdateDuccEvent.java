@@ -67,6 +67,9 @@ public class ProcessStateUpdateDuccEvent extends AbstractDuccEvent {
 	public List<IUimaPipelineAEComponent> getUimaPipeline() {
 		return processUpdate.getUimaPipeline();
 	}
+	public List<IUimaPipelineAEComponent> getThreadInitTimes() {
+		return processUpdate.getThreadInitTimes();
+	}
 	public String getProcessJmxUrl() {
 		return processUpdate.getProcessJmxUrl();
 	}
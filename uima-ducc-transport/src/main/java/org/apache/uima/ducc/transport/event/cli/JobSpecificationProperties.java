@@ -50,6 +50,8 @@ public class JobSpecificationProperties extends SpecificationProperties implemen
 	public static String key_driver_exception_handler = "driver_exception_handler";
 	public static String key_driver_exception_handler_arguments = "driver_exception_handler_arguments";
 	
+	public static String key_cas_serialization = "cas_serialization";
+	
 	public static String key_process_jvm_args = "process_jvm_args";
 	public static String key_process_memory_size = "process_memory_size";
 	public static String key_process_DD = "process_descriptor_DD";
@@ -98,6 +100,7 @@ public class JobSpecificationProperties extends SpecificationProperties implemen
 		key_driver_descriptor_CR_overrides,
 		key_driver_exception_handler,
 		key_driver_exception_handler_arguments,
+		key_cas_serialization,
 		key_process_jvm_args,
 		key_process_memory_size,
 		key_process_DD,
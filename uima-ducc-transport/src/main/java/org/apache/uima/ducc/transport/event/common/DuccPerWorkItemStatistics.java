@@ -29,6 +29,10 @@ public class DuccPerWorkItemStatistics implements IDuccPerWorkItemStatistics {
 	private double min = 0;
 	private double mean = 0;
 	private double stddev = 0;
+	private double p50 = 0;
+	private double p95 = 0;
+	private double p99 = 0;
+	private double p999 = 0;
 	
 	public DuccPerWorkItemStatistics(double max, double min, double mean, double stddev) {
 		this.max = max;
@@ -36,6 +40,14 @@ public class DuccPerWorkItemStatistics implements IDuccPerWorkItemStatistics {
 		this.mean = mean;
 		this.stddev = stddev;
 	}
+	
+	public DuccPerWorkItemStatistics(double max, double min, double mean, double stddev, double p50, double p95, double p99, double p999) {
+		this(max, min, mean, stddev);
+		this.p50 = p50;
+		this.p95 = p95;
+		this.p99 = p99;
+		this.p999 = p999;
+	}
 
     public void setStandardDeviation(double s)
     {
@@ -60,5 +72,21 @@ public class DuccPerWorkItemStatistics implements IDuccPerWorkItemStatistics {
 	public double getStandardDeviation() {
 		return stddev;
 	}
+
+	public double getPercentile50() {
+		return p50;
+	}
+
+	public double getPercentile95() {
+		return p95;
+	}
+
+	public double getPercentile99() {
+		return p99;
+	}
+
+	public double getPercentile999() {
+		return p999;
+	}
 	
 }
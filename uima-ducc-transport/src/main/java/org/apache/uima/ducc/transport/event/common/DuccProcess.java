@@ -53,6 +53,7 @@ public class DuccProcess implements IDuccProcess {
 	private ProcessType processType;
 	private List<IUimaPipelineAEComponent> uimaPipelineComponentList =
 		new ArrayList<IUimaPipelineAEComponent>(); // empty list
+	private List<IUimaPipelineAEComponent> threadInitTimes = null;
 	private ProcessGarbageCollectionStats gcStats=null;
 	private String processJmxUrl;
 	private IDuccProcessWorkItems processWorkItems= null;
@@ -111,6 +112,14 @@ public class DuccProcess implements IDuccProcess {
 		this.uimaPipelineComponentList = uimaPipelineComponentList;
 	}
 
+	public List<IUimaPipelineAEComponent> getThreadInitTimes() {
+		return threadInitTimes;
+	}
+
+	public void setThreadInitTimes(List<IUimaPipelineAEComponent> threadInitTimes) {
+		this.threadInitTimes = threadInitTimes;
+	}
+
 	
 	public DuccId getDuccId() {
 		return duccId;
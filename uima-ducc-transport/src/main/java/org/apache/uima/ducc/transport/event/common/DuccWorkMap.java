@@ -17,8 +17,11 @@
  * under the License.
 */
 package org.apache.uima.ducc.transport.event.common;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -52,6 +55,24 @@ public class DuccWorkMap implements IDuccWorkMap {
 	private ConcurrentHashMap<String,DuccId> concurrentServiceMap = null;
 	private ConcurrentHashMap<String,DuccId> concurrentReservationMap = null;
 	
+	// entries marked as changed in place, since the last and the one before last snapshot
+	private transient HashSet<DuccId> dirty = null;
+	private transient HashSet<DuccId> dirtyPrevious = null;
+	
+	// read only copies of the entries, shared from one snapshot to the next
+	private transient HashMap<DuccId,Frozen> frozenMap = null;
+	private transient DuccWorkMap lastSnapshot = null;
+	private transient long snapshotMisses = 0;
+	
+	private static class Frozen {
+		private IDuccWork duccWork;
+		private byte[] digest;
+		private Frozen(IDuccWork duccWork, byte[] digest) {
+			this.duccWork = duccWork;
+			this.digest = digest;
+		}
+	}
+	
 	public DuccWorkMap() {
 		concurrentJobMap = new ConcurrentHashMap<String,DuccId>();
 		concurrentServiceMap = new ConcurrentHashMap<String,DuccId>();
@@ -242,6 +263,13 @@ public class DuccWorkMap implements IDuccWorkMap {
 	}
 	
 	public void addDuccWork(IDuccWork duccWork) {
+		synchronized(this) {
+			add(duccWork);
+			setDirty(duccWork.getDuccId());
+		}
+	}
+	
+	private void add(IDuccWork duccWork) {
 		synchronized(this) {
 			duccWork.getDuccId();
 			DuccId key = duccWork.getDuccId();
@@ -277,6 +305,7 @@ public class DuccWorkMap implements IDuccWorkMap {
 	
 	public void removeDuccWork(DuccId duccId) {
 		synchronized(this) {
+			setDirty(duccId);
 			IDuccWork duccWork = concurrentWorkMap.remove(duccId);
 			if(duccWork != null) {
 				switch(duccWork.getDuccType()) {
@@ -398,6 +427,104 @@ public class DuccWorkMap implements IDuccWorkMap {
 		}
 	}
 	
+	/**
+	 * Copy of the map whose entries are the same objects as in this map.
+	 */
+	public DuccWorkMap shallowCopy() {
+		synchronized (this) {
+			DuccWorkMap retVal = new DuccWorkMap();
+			for(IDuccWork duccWork : concurrentWorkMap.values()) {
+				retVal.addDuccWork(duccWork);
+			}
+			retVal.setJobDriverNodeCount(getJobDriverNodeCount());
+			return retVal;
+		}
+	}
+	
+	/**
+	 * Record that an entry was, or is about to be, changed in place, so
+	 * that the next snapshot copies it afresh.  A mark taken before a
+	 * change is only safe while this map stays locked until the change is
+	 * complete; otherwise a snapshot taken in between would consume it, so
+	 * changes made without the lock must be marked after they are made.
+	 */
+	public void setDirty(DuccId duccId) {
+		synchronized (this) {
+			if(duccId != null) {
+				if(dirty == null) {
+					dirty = new HashSet<DuccId>();
+				}
+				dirty.add(duccId);
+			}
+		}
+	}
+	
+	/**
+	 * Read only copy of the map.  Each entry is a frozen copy, shared with
+	 * the previous snapshot unless the entry was marked dirty since, and a
+	 * snapshot with nothing marked is returned again as is.  The cost thus
+	 * follows the change rate rather than the map size.  A marked entry is
+	 * checked again by the following snapshot too, to catch changes made
+	 * just after the first.  With verify every entry is checked, so that
+	 * changes never marked are caught too; such entries count as misses.
+	 */
+	public DuccWorkMap snapshot(boolean verify) {
+		synchronized (this) {
+			HashSet<DuccId> current = (dirty == null) ? new HashSet<DuccId>() : dirty;
+			HashSet<DuccId> previous = (dirtyPrevious == null) ? new HashSet<DuccId>() : dirtyPrevious;
+			if(!verify && (lastSnapshot != null) && current.isEmpty() && previous.isEmpty()) {
+				if(lastSnapshot.getJobDriverNodeCount() == getJobDriverNodeCount()) {
+					return lastSnapshot;
+				}
+			}
+			if(frozenMap == null) {
+				frozenMap = new HashMap<DuccId,Frozen>();
+			}
+			MessageDigest md = null;
+			try {
+				md = MessageDigest.getInstance("MD5");
+			}
+			catch(NoSuchAlgorithmException e) {
+				// copy every checked entry afresh
+			}
+			HashMap<DuccId,Frozen> nextFrozenMap = new HashMap<DuccId,Frozen>();
+			DuccWorkMap retVal = new DuccWorkMap();
+			for(IDuccWork duccWork : concurrentWorkMap.values()) {
+				DuccId duccId = duccWork.getDuccId();
+				Frozen frozen = frozenMap.get(duccId);
+				boolean marked = current.contains(duccId) || previous.contains(duccId);
+				if((frozen == null) || marked || verify) {
+					byte[] bytes = SerializationUtils.serialize(duccWork);
+					byte[] digest = (md == null) ? null : md.digest(bytes);
+					if((frozen == null) || (digest == null) || (frozen.digest == null) || !MessageDigest.isEqual(digest, frozen.digest)) {
+						if((frozen != null) && !marked) {
+							snapshotMisses++;
+						}
+						frozen = new Frozen((IDuccWork) SerializationUtils.deserialize(bytes), digest);
+					}
+				}
+				nextFrozenMap.put(duccId, frozen);
+				retVal.add(frozen.duccWork);
+			}
+			retVal.setJobDriverNodeCount(getJobDriverNodeCount());
+			frozenMap = nextFrozenMap;
+			dirtyPrevious = current;
+			dirty = null;
+			lastSnapshot = retVal;
+			return retVal;
+		}
+	}
+	
+	/**
+	 * Number of changed entries found by verifying snapshots that had not
+	 * been marked dirty.
+	 */
+	public long getSnapshotMisses() {
+		synchronized (this) {
+			return snapshotMisses;
+		}
+	}
+	
 	/*
 	 * *****
 	 */
@@ -465,22 +592,30 @@ public class DuccWorkMap implements IDuccWorkMap {
 
 	
 	public Object put(Object key, Object value) {
+		setDirty((DuccId)key);
 		return concurrentWorkMap.put((DuccId)key, (IDuccWork)value);
 	}
 
 	
 	public Object remove(Object key) {
+		setDirty((DuccId)key);
 		return concurrentWorkMap.remove(key);
 	}
 
 	@SuppressWarnings("unchecked")
 	
 	public void putAll(Map m) {
+		for(Object key : m.keySet()) {
+			setDirty((DuccId)key);
+		}
 		concurrentWorkMap.putAll(m);
 	}
 
 	
 	public void clear() {
+		for(DuccId key : concurrentWorkMap.keySet()) {
+			setDirty(key);
+		}
 		 concurrentWorkMap.clear();
 	}
 
@@ -26,5 +26,9 @@ public interface IDuccPerWorkItemStatistics extends Serializable {
 	public double getMin();
 	public double getMean();
 	public double getStandardDeviation();
+	public double getPercentile50();
+	public double getPercentile95();
+	public double getPercentile99();
+	public double getPercentile999();
 	public void   setStandardDeviation(double s);
 }
@@ -103,6 +103,10 @@ public interface IDuccProcess extends Serializable {
 	public void setUimaPipelineComponents(List<IUimaPipelineAEComponent> uimaPipelineAEComponents); 
 	public List<IUimaPipelineAEComponent> getUimaPipelineComponents(); 
 	
+	// time each JP worker thread spent deploying its analytics, kept after initialization
+	public void setThreadInitTimes(List<IUimaPipelineAEComponent> threadInitTimes); 
+	public List<IUimaPipelineAEComponent> getThreadInitTimes(); 
+	
 	public void setCpuTime(long cpuTime);
 	public long getCpuTime();
 	
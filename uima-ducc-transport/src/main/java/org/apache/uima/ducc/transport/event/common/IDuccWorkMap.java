@@ -30,6 +30,9 @@ import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 public interface IDuccWorkMap extends Serializable, Map {
 	
 	public IDuccWorkMap deepCopy();
+	public IDuccWorkMap shallowCopy();
+	public IDuccWorkMap snapshot(boolean verify);
+	public void setDirty(DuccId duccId);
 	
 	public Set<DuccId> getJobKeySet();
 	public Set<DuccId> getServiceKeySet();
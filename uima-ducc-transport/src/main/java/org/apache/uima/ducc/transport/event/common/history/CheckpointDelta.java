@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common.history;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+
+/**
+ * Orchestrator checkpoint journal record: the work map entries and the
+ * process to job map entries that changed since the previous record, or
+ * since the compacted checkpoint it follows.
+ */
+public class CheckpointDelta implements Serializable {
+	
+	/**
+	 * please increment this sUID when removing or modifying a field 
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	private ArrayList<IDuccWork> changed = new ArrayList<IDuccWork>();
+	private ArrayList<DuccId> removed = new ArrayList<DuccId>();
+	
+	private HashMap<DuccId,DuccId> processToJobChanged = new HashMap<DuccId,DuccId>();
+	private ArrayList<DuccId> processToJobRemoved = new ArrayList<DuccId>();
+	
+	/**
+	 * Work map entries are compared by identity: work and prevWork are
+	 * snapshots, see DuccWorkMap.snapshot(verify), which share the copy of
+	 * each entry that has not changed in between.
+	 */
+	public static CheckpointDelta diff(Map<DuccId,IDuccWork> prevWork, Map<DuccId,DuccId> prevProcessToJob, DuccWorkMap work, Map<DuccId,DuccId> processToJob) {
+		CheckpointDelta retVal = new CheckpointDelta();
+		Map<DuccId,IDuccWork> map = work.getMap();
+		for(Entry<DuccId,IDuccWork> entry : map.entrySet()) {
+			if(prevWork.get(entry.getKey()) != entry.getValue()) {
+				retVal.changed.add(entry.getValue());
+			}
+		}
+		for(DuccId duccId : prevWork.keySet()) {
+			if(!map.containsKey(duccId)) {
+				retVal.removed.add(duccId);
+			}
+		}
+		for(Entry<DuccId,DuccId> entry : processToJob.entrySet()) {
+			if(!entry.getValue().equals(prevProcessToJob.get(entry.getKey()))) {
+				retVal.processToJobChanged.put(entry.getKey(), entry.getValue());
+			}
+		}
+		for(DuccId processId : prevProcessToJob.keySet()) {
+			if(!processToJob.containsKey(processId)) {
+				retVal.processToJobRemoved.add(processId);
+			}
+		}
+		return retVal;
+	}
+	
+	public List<IDuccWork> getChanged() {
+		return changed;
+	}
+	
+	public List<DuccId> getRemoved() {
+		return removed;
+	}
+	
+	public int size() {
+		return changed.size()+removed.size()+processToJobChanged.size()+processToJobRemoved.size();
+	}
+	
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	public void apply(DuccWorkMap work, Map<DuccId,DuccId> processToJob) {
+		for(DuccId duccId : removed) {
+			work.removeDuccWork(duccId);
+		}
+		for(IDuccWork duccWork : changed) {
+			work.removeDuccWork(duccWork.getDuccId());
+			work.addDuccWork(duccWork);
+		}
+		for(DuccId processId : processToJobRemoved) {
+			processToJob.remove(processId);
+		}
+		processToJob.putAll(processToJobChanged);
+	}
+	
+	/**
+	 * Apply serialized records in order, stopping at the first one that
+	 * cannot be read, such as a torn last write, so that the checkpoint
+	 * and the records before it are still restored.
+	 * 
+	 * @return the number of records applied
+	 */
+	public static int replay(Collection<byte[]> records, DuccWorkMap work, Map<DuccId,DuccId> processToJob) {
+		int retVal = 0;
+		for(byte[] record : records) {
+			CheckpointDelta delta;
+			try {
+				delta = (CheckpointDelta) SerializationUtils.deserialize(record);
+			}
+			catch(Exception e) {
+				break;
+			}
+			delta.apply(work, processToJob);
+			retVal++;
+		}
+		return retVal;
+	}
+}
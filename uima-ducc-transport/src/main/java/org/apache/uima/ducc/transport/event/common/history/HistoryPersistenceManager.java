@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Properties;
 
 import org.apache.uima.ducc.common.DuccEnvironmentHelper;
 import org.apache.uima.ducc.common.IDuccEnv;
@@ -39,6 +40,8 @@ import org.apache.uima.ducc.common.utils.IOHelper;
 import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
@@ -58,6 +61,9 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
     private String dwr = "dwr";
     private String dws = "dws";
     
+    // <id>.<dwj|dwr|dws>.summary holds the HistorySummary as properties
+    private String summary = "summary";
+    
     private enum Verbosity {
         QUIET,
         SPEAK,
@@ -67,6 +73,14 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         mkdirs();
     }
     
+    // package only, for testing against another history directory
+    HistoryPersistenceManager(String historyDirectory) {
+        historyDirectory_jobs = historyDirectory+File.separator+"jobs"+File.separator;
+        historyDirectory_reservations = historyDirectory+File.separator+"reservations"+File.separator;
+        historyDirectory_services = historyDirectory+File.separator+"services"+File.separator;
+        mkdirs();
+    }
+    
     public boolean init(DuccLogger logger)
     {
     	this.logger = logger;
@@ -104,6 +118,7 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         out = new ObjectOutputStream(fos);
         out.writeObject(duccWorkJob);
         out.close();
+        saveSummary(historyDirectory_jobs, dwj, duccWorkJob);
     }
     
     public List<IDuccWorkJob> restoreJobs(long max)
@@ -261,6 +276,7 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         out = new ObjectOutputStream(fos);
         out.writeObject(duccWorkReservation);
         out.close();
+        saveSummary(historyDirectory_reservations, dwr, duccWorkReservation);
     }
     
     
@@ -400,6 +416,7 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         out = new ObjectOutputStream(fos);
         out.writeObject(duccWorkService);
         out.close();
+        saveSummary(historyDirectory_services, dws, duccWorkService);
     }
 
 
@@ -462,7 +479,231 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
 
         return ret;
     }
+
+    /**
+     * Write the summary file next to a history file.  It is written to a temporary file and
+     * renamed so a reader never sees it half written.  Failure is not fatal: the summary is then
+     * rebuilt from the history file when it is first listed.
+     */
+    private void saveSummary(String directory, String extension, IDuccWork work)
+    {
+        String methodName = "saveSummary";
+        String id = normalize(""+work.getDuccId().getFriendly());
+        File file = new File(directory+File.separator+id+"."+extension+"."+summary);
+        File temp = new File(file.getPath()+".tmp");
+        try {
+            FileOutputStream fos = new FileOutputStream(temp);
+            try {
+                HistorySummary.create(work).toProperties().store(fos, null);
+            }
+            finally {
+                fos.close();
+            }
+            if(!temp.renameTo(file)) {
+                file.delete();
+                if(!temp.renameTo(file)) {
+                    throw new IOException("cannot rename "+temp+" to "+file);
+                }
+            }
+        }
+        catch(Exception e) {
+            temp.delete();
+            logger.warn(methodName, work.getDuccId(), "Unable to save history summary:", e);
+        }
+    }
+    
+    private HistorySummary restoreSummary(String directory, String extension, long duccid)
+    {
+        String methodName = "restoreSummary";
+        File file = new File(directory+File.separator+duccid+"."+extension+"."+summary);
+        if(!file.exists()) {
+            return null;
+        }
+        HistorySummary ret = null;
+        try {
+            FileInputStream fis = new FileInputStream(file);
+            try {
+                Properties properties = new Properties();
+                properties.load(fis);
+                ret = HistorySummary.create(properties);
+            }
+            finally {
+                fis.close();
+            }
+        }
+        catch(Exception e) {
+            logger.warn(methodName, new DuccId(duccid), "Unable to read history summary", file, e);
+        }
+        return ret;
+    }
+
+    /**
+     * Summaries come from the summary files written next to the history files.  Only entries
+     * saved before summaries were kept, or whose summary cannot be read, are restored in full;
+     * their summary file is then written so the next boot finds it.
+     */
+    public List<HistorySummary> restoreSummaries(DuccType type, long max)
+    	throws Exception
+    {
+        String methodName = "restoreSummaries";
+        List<HistorySummary> ret = new ArrayList<HistorySummary>();
+        if(type == null) {
+            return ret;
+        }
+        String directory = null;
+        String extension = null;
+        switch(type) {
+        case Job:
+            directory = historyDirectory_jobs;
+            extension = dwj;
+            break;
+        case Reservation:
+            directory = historyDirectory_reservations;
+            extension = dwr;
+            break;
+        case Service:
+            directory = historyDirectory_services;
+            extension = dws;
+            break;
+        default:
+            return ret;
+        }
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        List<Long> ids = listIds(directory, extension);
+        for ( int i = ids.size()-1; (i >= 0) && (ret.size() < max); i-- ) {
+            long id = ids.get(i);
+            HistorySummary hs = restoreSummary(directory, extension, id);
+            if(hs == null) {
+                IDuccWork w = null;
+                switch(type) {
+                case Job:
+                    w = restoreJob(id);
+                    break;
+                case Reservation:
+                    w = restoreReservation(id);
+                    break;
+                default:
+                    w = restoreService(id);
+                    break;
+                }
+                if(w == null) {
+                    continue;
+                }
+                hs = HistorySummary.create(w);
+                saveSummary(directory, extension, w);
+                restored++;
+            }
+            ret.add(hs);
+        }
+        logger.info(methodName, null, "Found", ret.size(), type, "summaries; restored", restored, "in full. Time:", System.currentTimeMillis() - now);
+        return ret;
+    }
     
+    /**
+     * Files hold only the serialized work, so a query restores each entry, newest first, and
+     * filters the rows it flattens to.
+     */
+    public long query(HistoryQuery query, IHistoryVisitor visitor)
+        throws Exception
+    {
+        long count = 0;
+        List<DuccType> types = new ArrayList<DuccType>();
+        Object type = null;
+        switch ( query.getTable() ) {
+            case Work:
+                type = query.getEqualValue(OrWorkHistoryProps.type);
+                types.add(DuccType.Job);
+                types.add(DuccType.Reservation);
+                types.add(DuccType.Service);
+                break;
+            case Process:
+                type = query.getEqualValue(OrProcessHistoryProps.type);
+                types.add(DuccType.Job);
+                types.add(DuccType.Service);
+                break;
+            case WorkItem:
+                types.add(DuccType.Job);
+                break;
+        }
+        for ( DuccType t : types ) {
+            if ( (type != null) && !type.equals(t.name()) ) continue;
+            List<Long> ids = null;
+            switch ( t ) {
+                case Job:
+                    ids = listIds(historyDirectory_jobs, dwj);
+                    break;
+                case Reservation:
+                    ids = listIds(historyDirectory_reservations, dwr);
+                    break;
+                default:
+                    ids = listIds(historyDirectory_services, dws);
+                    break;
+            }
+            for ( int i = ids.size()-1; i >= 0; i-- ) {
+                IDuccWork w = null;
+                switch ( t ) {
+                    case Job:
+                        w = restoreJob(ids.get(i));
+                        break;
+                    case Reservation:
+                        w = restoreReservation(ids.get(i));
+                        break;
+                    default:
+                        w = restoreService(ids.get(i));
+                        break;
+                }
+                if ( w == null ) continue;
+                List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+                Map<String, Object> row = null;
+                switch ( query.getTable() ) {
+                    case Work:
+                        row = HistoryRows.work(w);
+                        row.put(OrWorkHistoryProps.archived.pname(), true);
+                        break;
+                    case Process:
+                        rows.addAll(HistoryRows.processes(w));
+                        break;
+                    case WorkItem:
+                        row = HistoryRows.workItems(w);
+                        break;
+                }
+                if ( row != null ) rows.add(row);
+                for ( Map<String, Object> r : rows ) {
+                    if ( query.matches(r) ) {
+                        count++;
+                        if ( !visitor.visit(r) || (count >= query.getLimit()) ) return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The ducc ids of the files in the directory with the extension, ascending.
+     */
+    private List<Long> listIds(String directory, String extension)
+    {
+        String methodName = "listIds";
+        List<Long> ret = new ArrayList<Long>();
+        File[] listOfFiles = new File(directory).listFiles();
+        if(listOfFiles != null) {
+            for ( File f : listOfFiles ) {
+                String name = f.getName();
+                if ( f.isFile() && name.endsWith("."+extension) ) {
+                    try {
+                        ret.add(Long.parseLong(name.substring(0, name.indexOf("."))));
+                    } catch ( NumberFormatException e ) {
+                        logger.warn(methodName, null, "History file", name, ": cannot extract ducc id.");
+                    }
+                }
+            }
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+
     // public void serviceSaveConditional(IDuccWorkService duccWorkService)
     //         throws IOException {
     //     String id = normalize(""+duccWorkService.getDuccId().getFriendly());
@@ -485,6 +726,7 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         out = new ObjectOutputStream(fos);
         out.writeObject(duccWorkService);
         out.close();
+        saveSummary(historyDirectory_services, dws, duccWorkService);
     }
 
     
@@ -568,6 +810,12 @@ public class HistoryPersistenceManager implements IHistoryPersistenceManager {
         return null;
     }
 
+    public boolean checkpoint(int sequence, CheckpointDelta delta)
+        throws Exception
+    {
+        return false;
+    }
+
     private static int doJobs(HistoryPersistenceManager hpm) 
     		throws Exception
     {
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.persistence.IDbProperty;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrProcessHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkItemHistoryProps;
+
+/**
+ * Selection over one of the columnar history tables, e.g. all jobs of
+ * a user submitted since some time:
+ * 
+ * new HistoryQuery(Table.Work)
+ *     .equal(OrWorkHistoryProps.type, "Job")
+ *     .equal(OrWorkHistoryProps.username, user)
+ *     .atLeast(OrWorkHistoryProps.submitted, since)
+ * 
+ * Criteria are and-ed.  The database evaluates them server side, so at
+ * least one should be on a key or indexed column.
+ */
+public class HistoryQuery {
+	
+	public enum Table {
+		Work(OrWorkHistoryProps.WORK_HISTORY_TABLE, OrWorkHistoryProps.values()),
+		Process(OrProcessHistoryProps.PROCESS_HISTORY_TABLE, OrProcessHistoryProps.values()),
+		WorkItem(OrWorkItemHistoryProps.WORKITEM_HISTORY_TABLE, OrWorkItemHistoryProps.values()),
+		;
+		
+		private IDbProperty table;
+		private IDbProperty[] columns;
+		
+		private Table(IDbProperty table, IDbProperty[] columns) {
+			this.table = table;
+			this.columns = columns;
+		}
+		
+		public String pname() {
+			return table.pname();
+		}
+		
+		public IDbProperty[] columns() {
+			return columns;
+		}
+	}
+	
+	public enum Operator {
+		EQ("="),
+		GE(">="),
+		LE("<="),
+		;
+		
+		private String cql;
+		
+		private Operator(String cql) {
+			this.cql = cql;
+		}
+		
+		public String cql() {
+			return cql;
+		}
+	}
+	
+	public static class Criterion {
+		
+		private IDbProperty column;
+		private Operator operator;
+		private Object value;
+		
+		private Criterion(IDbProperty column, Operator operator, Object value) {
+			this.column = column;
+			this.operator = operator;
+			this.value = value;
+		}
+		
+		public IDbProperty getColumn() {
+			return column;
+		}
+		
+		public Operator getOperator() {
+			return operator;
+		}
+		
+		public Object getValue() {
+			return value;
+		}
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private boolean matches(Object actual) {
+			boolean retVal = false;
+			if(actual != null) {
+				switch(operator) {
+				case EQ:
+					retVal = actual.equals(value);
+					break;
+				case GE:
+					retVal = ((Comparable) actual).compareTo(value) >= 0;
+					break;
+				case LE:
+					retVal = ((Comparable) actual).compareTo(value) <= 0;
+					break;
+				}
+			}
+			return retVal;
+		}
+	}
+	
+	private Table table;
+	private List<Criterion> criteria = new ArrayList<Criterion>();
+	private long limit = Long.MAX_VALUE;
+	
+	public HistoryQuery(Table table) {
+		this.table = table;
+	}
+	
+	private HistoryQuery add(IDbProperty column, Operator operator, Object value) {
+		if(column.isMeta()) {
+			throw new IllegalArgumentException("Not a column: " + column.pname());
+		}
+		if(value == null) {
+			throw new IllegalArgumentException("No value for " + column.pname());
+		}
+		criteria.add(new Criterion(column, operator, normalize(column, value)));
+		return this;
+	}
+	
+	/**
+	 * Numbers are compared and bound as the column's own type.
+	 */
+	private Object normalize(IDbProperty column, Object value) {
+		Object retVal = value;
+		if(value instanceof Number) {
+			Number number = (Number) value;
+			switch(column.type()) {
+			case Long:
+				retVal = Long.valueOf(number.longValue());
+				break;
+			case Integer:
+				retVal = Integer.valueOf(number.intValue());
+				break;
+			case Double:
+				retVal = Double.valueOf(number.doubleValue());
+				break;
+			default:
+				break;
+			}
+		}
+		return retVal;
+	}
+	
+	public HistoryQuery equal(IDbProperty column, Object value) {
+		return add(column, Operator.EQ, value);
+	}
+	
+	public HistoryQuery atLeast(IDbProperty column, Object value) {
+		return add(column, Operator.GE, value);
+	}
+	
+	public HistoryQuery atMost(IDbProperty column, Object value) {
+		return add(column, Operator.LE, value);
+	}
+	
+	public HistoryQuery limit(long limit) {
+		this.limit = limit;
+		return this;
+	}
+	
+	public Table getTable() {
+		return table;
+	}
+	
+	public List<Criterion> getCriteria() {
+		return criteria;
+	}
+	
+	public long getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * The value the query requires of a column, if it has an equality criterion on it.
+	 */
+	public Object getEqualValue(IDbProperty column) {
+		Object retVal = null;
+		for(Criterion criterion : criteria) {
+			if(criterion.column == column) {
+				if(criterion.operator == Operator.EQ) {
+					retVal = criterion.value;
+					break;
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * For stores that cannot filter server side.
+	 */
+	public boolean matches(Map<String,Object> row) {
+		boolean retVal = true;
+		for(Criterion criterion : criteria) {
+			if(!criterion.matches(row.get(criterion.column.pname()))) {
+				retVal = false;
+				break;
+			}
+		}
+		return retVal;
+	}
+}
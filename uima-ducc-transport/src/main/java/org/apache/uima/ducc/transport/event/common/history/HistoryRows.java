@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.persistence.IDbProperty;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.IDuccPerWorkItemStatistics;
+import org.apache.uima.ducc.transport.event.common.IDuccProcess;
+import org.apache.uima.ducc.transport.event.common.IDuccProcessMap;
+import org.apache.uima.ducc.transport.event.common.IDuccProcessWorkItems;
+import org.apache.uima.ducc.transport.event.common.IDuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkExecutable;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.ITimeWindow;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrProcessHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkItemHistoryProps;
+
+/**
+ * Flattens a work object into the rows of the columnar history tables,
+ * each row keyed by property name.
+ */
+public class HistoryRows {
+	
+	public static final String JD = "JD";
+	
+	/**
+	 * Services and APs share a history; Pop is folded into Service.
+	 */
+	public static DuccType getType(IDuccWork dw) {
+		DuccType retVal = dw.getDuccType();
+		if(retVal == DuccType.Pop) {
+			retVal = DuccType.Service;
+		}
+		return retVal;
+	}
+	
+	public static Map<String,Object> work(IDuccWork dw) {
+		Map<String,Object> row = new HashMap<String,Object>();
+		HistorySummary summary = HistorySummary.create(dw);
+		put(row, OrWorkHistoryProps.type, getType(dw).name());
+		put(row, OrWorkHistoryProps.ducc_dbid, summary.getId());
+		put(row, OrWorkHistoryProps.username, summary.getUser());
+		put(row, OrWorkHistoryProps.description, summary.getDescription());
+		put(row, OrWorkHistoryProps.state, summary.getState());
+		put(row, OrWorkHistoryProps.completion, summary.getCompletion());
+		put(row, OrWorkHistoryProps.deployment, summary.getDeployment());
+		put(row, OrWorkHistoryProps.submitted, summary.getSubmitted());
+		put(row, OrWorkHistoryProps.ended, summary.getEnded());
+		put(row, OrWorkHistoryProps.work_items_total, toLong(summary.getWorkItemsTotal()));
+		put(row, OrWorkHistoryProps.work_items_completed, toLong(summary.getWorkItemsCompleted()));
+		put(row, OrWorkHistoryProps.work_items_error, toLong(summary.getWorkItemsError()));
+		put(row, OrWorkHistoryProps.processes, summary.getProcesses());
+		IDuccSchedulingInfo si = dw.getSchedulingInfo();
+		if(si != null) {
+			put(row, OrWorkHistoryProps.scheduling_class, si.getSchedulingClass());
+		}
+		return row;
+	}
+	
+	/**
+	 * One row per process, job driver included; empty for reservations.
+	 */
+	public static List<Map<String,Object>> processes(IDuccWork dw) {
+		List<Map<String,Object>> rows = new ArrayList<Map<String,Object>>();
+		if(dw instanceof IDuccWorkJob) {
+			IDuccWorkJob job = (IDuccWorkJob) dw;
+			if(job.getDriver() != null) {
+				processes(rows, dw, job.getDriver().getProcessMap(), JD);
+			}
+		}
+		if(dw instanceof IDuccWorkExecutable) {
+			processes(rows, dw, ((IDuccWorkExecutable) dw).getProcessMap(), null);
+		}
+		return rows;
+	}
+	
+	private static void processes(List<Map<String,Object>> rows, IDuccWork dw, IDuccProcessMap map, String processType) {
+		if(map != null) {
+			for(Entry<DuccId,IDuccProcess> entry : map.entrySet()) {
+				rows.add(process(dw, entry.getKey(), entry.getValue(), processType));
+			}
+		}
+	}
+	
+	private static Map<String,Object> process(IDuccWork dw, DuccId id, IDuccProcess process, String processType) {
+		Map<String,Object> row = new HashMap<String,Object>();
+		put(row, OrProcessHistoryProps.ducc_dbid, dw.getDuccId().getFriendly());
+		put(row, OrProcessHistoryProps.process_id, id.getFriendly());
+		put(row, OrProcessHistoryProps.type, getType(dw).name());
+		if(processType == null) {
+			processType = asString(process.getProcessType());
+		}
+		put(row, OrProcessHistoryProps.process_type, processType);
+		NodeIdentity nodeIdentity = process.getNodeIdentity();
+		if(nodeIdentity != null) {
+			put(row, OrProcessHistoryProps.node, nodeIdentity.getName());
+		}
+		put(row, OrProcessHistoryProps.pid, process.getPID());
+		put(row, OrProcessHistoryProps.state, asString(process.getProcessState()));
+		put(row, OrProcessHistoryProps.reason_stopped, process.getReasonForStoppingProcess());
+		put(row, OrProcessHistoryProps.deallocation, asString(process.getProcessDeallocationType()));
+		put(row, OrProcessHistoryProps.exit_code, process.getProcessExitCode());
+		put(row, OrProcessHistoryProps.failed, process.isFailed() || process.isFailedInitialization());
+		put(row, OrProcessHistoryProps.started, getStart(process));
+		put(row, OrProcessHistoryProps.ended, getEnd(process));
+		put(row, OrProcessHistoryProps.rss_max, process.getResidentMemoryMax());
+		put(row, OrProcessHistoryProps.swap_max, process.getSwapUsageMax());
+		put(row, OrProcessHistoryProps.cpu, process.getCpuTime());
+		IDuccProcessWorkItems pwi = process.getProcessWorkItems();
+		if(pwi != null) {
+			put(row, OrProcessHistoryProps.work_items_done, pwi.getCountDone());
+			put(row, OrProcessHistoryProps.work_items_error, pwi.getCountError());
+			put(row, OrProcessHistoryProps.work_items_retry, pwi.getCountRetry());
+			put(row, OrProcessHistoryProps.work_items_preempt, pwi.getCountPreempt());
+			put(row, OrProcessHistoryProps.work_item_millis_avg, pwi.getMillisAvg());
+		}
+		return row;
+	}
+	
+	/**
+	 * The work item row of a job, or null for other kinds of work.
+	 */
+	public static Map<String,Object> workItems(IDuccWork dw) {
+		Map<String,Object> row = null;
+		IDuccSchedulingInfo si = dw.getSchedulingInfo();
+		if((dw.getDuccType() == DuccType.Job) && (si != null)) {
+			row = new HashMap<String,Object>();
+			put(row, OrWorkItemHistoryProps.ducc_dbid, dw.getDuccId().getFriendly());
+			put(row, OrWorkItemHistoryProps.total, toLong(si.getWorkItemsTotal()));
+			put(row, OrWorkItemHistoryProps.completed, toLong(si.getWorkItemsCompleted()));
+			put(row, OrWorkItemHistoryProps.error, toLong(si.getWorkItemsError()));
+			put(row, OrWorkItemHistoryProps.retry, toLong(si.getWorkItemsRetry()));
+			put(row, OrWorkItemHistoryProps.lost, toLong(si.getWorkItemsLost()));
+			put(row, OrWorkItemHistoryProps.preempt, toLong(si.getWorkItemsPreempt()));
+			put(row, OrWorkItemHistoryProps.dispatched, toLong(si.getWorkItemsDispatched()));
+			IDuccPerWorkItemStatistics stats = si.getPerWorkItemStatistics();
+			if(stats != null) {
+				put(row, OrWorkItemHistoryProps.millis_min, stats.getMin());
+				put(row, OrWorkItemHistoryProps.millis_max, stats.getMax());
+				put(row, OrWorkItemHistoryProps.millis_mean, stats.getMean());
+				put(row, OrWorkItemHistoryProps.millis_stddev, stats.getStandardDeviation());
+			}
+		}
+		return row;
+	}
+	
+	private static long getStart(IDuccProcess process) {
+		long retVal = getStart(process.getTimeWindowInit());
+		if(retVal < 0) {
+			retVal = getStart(process.getTimeWindowRun());
+		}
+		return retVal;
+	}
+	
+	private static long getStart(ITimeWindow tw) {
+		long retVal = -1;
+		if(tw != null) {
+			retVal = tw.getStartLong();
+		}
+		return retVal;
+	}
+	
+	private static long getEnd(IDuccProcess process) {
+		long retVal = getEnd(process.getTimeWindowRun());
+		if(retVal < 0) {
+			retVal = getEnd(process.getTimeWindowInit());
+		}
+		return retVal;
+	}
+	
+	private static long getEnd(ITimeWindow tw) {
+		long retVal = -1;
+		if(tw != null) {
+			retVal = tw.getEndLong();
+		}
+		return retVal;
+	}
+	
+	private static void put(Map<String,Object> row, IDbProperty column, Object value) {
+		if(value != null) {
+			row.put(column.pname(), value);
+		}
+	}
+	
+	private static long toLong(String value) {
+		long retVal = 0;
+		if(value != null) {
+			try {
+				retVal = Long.parseLong(value.trim());
+			}
+			catch(NumberFormatException e) {
+			}
+		}
+		return retVal;
+	}
+	
+	private static String asString(Object object) {
+		String retVal = null;
+		if(object != null) {
+			retVal = object.toString();
+		}
+		return retVal;
+	}
+}
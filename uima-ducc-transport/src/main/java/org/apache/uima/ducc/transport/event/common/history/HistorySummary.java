@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common.history;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.uima.ducc.transport.event.common.IDuccProcessMap;
+import org.apache.uima.ducc.transport.event.common.IDuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccStandardInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkExecutable;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkHistoryProps;
+
+/**
+ * Compact history record kept alongside each saved job, reservation or
+ * service so that readers can list history without deserializing the
+ * complete work object.
+ */
+public class HistorySummary implements Serializable {
+	
+	/**
+	 * please increment this sUID when removing or modifying a field 
+	 */
+	private static final long serialVersionUID = 1L;
+	
+	private long id;
+	private DuccType type;
+	private String user;
+	private String description;
+	private String state;
+	private String completion;
+	private String deployment;
+	private boolean completed;
+	private boolean operational;
+	private long submitted;
+	private long ended;
+	private String workItemsTotal;
+	private String workItemsCompleted;
+	private String workItemsError;
+	private int processes;
+	
+	public static HistorySummary create(IDuccWork dw) {
+		HistorySummary retVal = new HistorySummary();
+		retVal.id = dw.getDuccId().getFriendly();
+		retVal.type = dw.getDuccType();
+		IDuccStandardInfo si = dw.getStandardInfo();
+		if(si != null) {
+			retVal.user = si.getUser();
+			retVal.description = si.getDescription();
+			retVal.submitted = si.getDateOfSubmissionMillis(0);
+			retVal.ended = si.getDateOfCompletionMillis(0);
+		}
+		retVal.state = asString(dw.getStateObject());
+		retVal.completion = asString(dw.getCompletionTypeObject());
+		retVal.completed = dw.isCompleted();
+		retVal.operational = dw.isOperational();
+		if(dw instanceof IDuccWorkService) {
+			retVal.deployment = asString(((IDuccWorkService) dw).getServiceDeploymentType());
+		}
+		IDuccSchedulingInfo schedulingInfo = dw.getSchedulingInfo();
+		if(schedulingInfo != null) {
+			retVal.workItemsTotal = schedulingInfo.getWorkItemsTotal();
+			retVal.workItemsCompleted = schedulingInfo.getWorkItemsCompleted();
+			retVal.workItemsError = schedulingInfo.getWorkItemsError();
+		}
+		if(dw instanceof IDuccWorkExecutable) {
+			IDuccProcessMap processMap = ((IDuccWorkExecutable) dw).getProcessMap();
+			if(processMap != null) {
+				retVal.processes = processMap.size();
+			}
+		}
+		return retVal;
+	}
+	
+	public static List<HistorySummary> create(List<? extends IDuccWork> list) {
+		ArrayList<HistorySummary> retVal = new ArrayList<HistorySummary>();
+		if(list != null) {
+			for(IDuccWork dw : list) {
+				if(dw != null) {
+					retVal.add(create(dw));
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Summary of a row of the columnar work history.  Everything there has
+	 * been moved to history and so is no longer operational.
+	 */
+	public static HistorySummary create(Map<String,Object> row) {
+		HistorySummary retVal = new HistorySummary();
+		retVal.id = getLong(row, OrWorkHistoryProps.ducc_dbid);
+		String type = (String) row.get(OrWorkHistoryProps.type.pname());
+		if(type != null) {
+			retVal.type = DuccType.valueOf(type);
+		}
+		retVal.user = (String) row.get(OrWorkHistoryProps.username.pname());
+		retVal.description = (String) row.get(OrWorkHistoryProps.description.pname());
+		retVal.state = (String) row.get(OrWorkHistoryProps.state.pname());
+		retVal.completion = (String) row.get(OrWorkHistoryProps.completion.pname());
+		retVal.deployment = (String) row.get(OrWorkHistoryProps.deployment.pname());
+		retVal.completed = true;
+		retVal.operational = false;
+		retVal.submitted = getLong(row, OrWorkHistoryProps.submitted);
+		retVal.ended = getLong(row, OrWorkHistoryProps.ended);
+		retVal.workItemsTotal = ""+getLong(row, OrWorkHistoryProps.work_items_total);
+		retVal.workItemsCompleted = ""+getLong(row, OrWorkHistoryProps.work_items_completed);
+		retVal.workItemsError = ""+getLong(row, OrWorkHistoryProps.work_items_error);
+		Object processes = row.get(OrWorkHistoryProps.processes.pname());
+		if(processes != null) {
+			retVal.processes = ((Number) processes).intValue();
+		}
+		return retVal;
+	}
+	
+	/**
+	 * The summary as plain text properties, for the file history's summary
+	 * files.  Unlike the serialized work they do not depend on class versions.
+	 */
+	public Properties toProperties() {
+		Properties retVal = new Properties();
+		retVal.setProperty("id", ""+id);
+		put(retVal, "type", asString(type));
+		put(retVal, "user", user);
+		put(retVal, "description", description);
+		put(retVal, "state", state);
+		put(retVal, "completion", completion);
+		put(retVal, "deployment", deployment);
+		retVal.setProperty("completed", ""+completed);
+		retVal.setProperty("operational", ""+operational);
+		retVal.setProperty("submitted", ""+submitted);
+		retVal.setProperty("ended", ""+ended);
+		put(retVal, "workItemsTotal", workItemsTotal);
+		put(retVal, "workItemsCompleted", workItemsCompleted);
+		put(retVal, "workItemsError", workItemsError);
+		retVal.setProperty("processes", ""+processes);
+		return retVal;
+	}
+	
+	public static HistorySummary create(Properties properties) {
+		HistorySummary retVal = new HistorySummary();
+		retVal.id = Long.parseLong(properties.getProperty("id"));
+		String type = properties.getProperty("type");
+		if(type != null) {
+			retVal.type = DuccType.valueOf(type);
+		}
+		retVal.user = properties.getProperty("user");
+		retVal.description = properties.getProperty("description");
+		retVal.state = properties.getProperty("state");
+		retVal.completion = properties.getProperty("completion");
+		retVal.deployment = properties.getProperty("deployment");
+		retVal.completed = Boolean.parseBoolean(properties.getProperty("completed"));
+		retVal.operational = Boolean.parseBoolean(properties.getProperty("operational"));
+		retVal.submitted = Long.parseLong(properties.getProperty("submitted", "0"));
+		retVal.ended = Long.parseLong(properties.getProperty("ended", "0"));
+		retVal.workItemsTotal = properties.getProperty("workItemsTotal");
+		retVal.workItemsCompleted = properties.getProperty("workItemsCompleted");
+		retVal.workItemsError = properties.getProperty("workItemsError");
+		retVal.processes = Integer.parseInt(properties.getProperty("processes", "0"));
+		return retVal;
+	}
+	
+	private static void put(Properties properties, String key, String value) {
+		if(value != null) {
+			properties.setProperty(key, value);
+		}
+	}
+	
+	private static long getLong(Map<String,Object> row, OrWorkHistoryProps column) {
+		long retVal = 0;
+		Object value = row.get(column.pname());
+		if(value != null) {
+			retVal = ((Number) value).longValue();
+		}
+		return retVal;
+	}
+	
+	private static String asString(Object object) {
+		String retVal = null;
+		if(object != null) {
+			retVal = object.toString();
+		}
+		return retVal;
+	}
+	
+	public long getId() {
+		return id;
+	}
+	
+	public DuccType getType() {
+		return type;
+	}
+	
+	public String getUser() {
+		return user;
+	}
+	
+	public String getDescription() {
+		return description;
+	}
+	
+	public String getState() {
+		return state;
+	}
+	
+	public String getCompletion() {
+		return completion;
+	}
+	
+	/**
+	 * @return the ServiceDeploymentType name, for services only
+	 */
+	public String getDeployment() {
+		return deployment;
+	}
+	
+	public boolean isCompleted() {
+		return completed;
+	}
+	
+	public boolean isOperational() {
+		return operational;
+	}
+	
+	public long getSubmitted() {
+		return submitted;
+	}
+	
+	public long getEnded() {
+		return ended;
+	}
+	
+	public String getWorkItemsTotal() {
+		return workItemsTotal;
+	}
+	
+	public String getWorkItemsCompleted() {
+		return workItemsCompleted;
+	}
+	
+	public String getWorkItemsError() {
+		return workItemsError;
+	}
+	
+	public int getProcesses() {
+		return processes;
+	}
+}
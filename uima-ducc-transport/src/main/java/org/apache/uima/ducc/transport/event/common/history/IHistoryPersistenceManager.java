@@ -26,6 +26,7 @@ import org.apache.uima.ducc.common.persistence.IDbProperty;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
@@ -45,9 +46,38 @@ public interface IHistoryPersistenceManager
 	public IDuccWorkService           restoreService(long friendly_id)              throws Exception;
 	public List<IDuccWorkService>     restoreServices(long max)                     throws Exception;
 
+    /**
+     * Summaries of the most recent history entries of the given type, without
+     * restoring the work objects themselves.
+     *
+     * @param type Job, Reservation or Service.
+     * @param max The maximum number of summaries to return.
+     */
+	public List<HistorySummary>       restoreSummaries(DuccType type, long max)     throws Exception;
+
+    /**
+     * Stream the rows of one of the columnar history tables that satisfy the query.  Rows
+     * are handed to the visitor as they are read; no work objects are kept.
+     *
+     * @param query The table, criteria and row limit.
+     * @param visitor Called once per matching row; return false from it to stop early.
+     * @return The number of rows visited.
+     */
+	public long                       query(HistoryQuery query, IHistoryVisitor visitor) throws Exception;
+
     public boolean checkpoint(DuccWorkMap work, Map<DuccId, DuccId> processToJob)   throws Exception;
     public Pair<DuccWorkMap, Map<DuccId, DuccId>>  restore()                        throws Exception;
 
+    /**
+     * Append a journal record to the checkpoint.  Records are replayed in sequence
+     * order by restore() and discarded by the next full checkpoint.
+     *
+     * @param sequence Position of the record after the full checkpoint, starting at 1.
+     * @param delta The changes since the previous record.
+     * @return false if the record was not saved, in which case a full checkpoint is required.
+     */
+    public boolean checkpoint(int sequence, CheckpointDelta delta)                  throws Exception;
+
     /**
      * Establish a logger and anything else the persistence may need.
      *
@@ -115,6 +145,290 @@ public interface IHistoryPersistenceManager
 
      };
 
+    public enum OrWorkHistoryProps    // one row of first-class columns per job, reservation or service instance
+        implements IDbProperty
+    {
+        WORK_HISTORY_TABLE {
+            public String pname()      { return "work_history"; } 
+            public boolean isPrivate() { return true; }    		
+            public boolean isMeta()    { return true; }    		
+        },
+
+        type {
+            public String pname()         { return "type"; }     // DuccType name: "Job", "Reservation", "Service"
+            public boolean isPrimaryKey() { return true; }
+        },
+
+        ducc_dbid {
+            public String pname()         { return "ducc_dbid"; }
+            public Type type()            { return Type.Long; }
+            public boolean isPrimaryKey() { return true; }
+        },
+
+        username {
+            public String pname()         { return "username"; }
+            public boolean isIndex()      { return true; }
+        },
+
+        description {
+            public String pname()         { return "description"; }
+        },
+
+        state {
+            public String pname()         { return "state"; }
+            public boolean isIndex()      { return true; }
+        },
+
+        completion {
+            public String pname()         { return "completion"; }
+        },
+
+        deployment {
+            public String pname()         { return "deployment"; }     // services only: uima, custom, other (AP)
+        },
+
+        scheduling_class {
+            public String pname()         { return "scheduling_class"; }
+        },
+
+        submitted {
+            public String pname()         { return "submitted"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        ended {
+            public String pname()         { return "ended"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_total {
+            public String pname()         { return "work_items_total"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_completed {
+            public String pname()         { return "work_items_completed"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_error {
+            public String pname()         { return "work_items_error"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        processes {
+            public String pname()         { return "processes"; }
+            public Type type()            { return Type.Integer; }
+        },
+
+        archived {
+            public String pname()         { return "archived"; }       // is the serialized work in the archive table?
+            public Type type()            { return Type.Boolean; }
+        },
+
+        ;
+        public Type type() { return Type.String; }
+        public boolean isPrimaryKey() { return false; }
+        public boolean isPrivate()  { return false; }
+        public boolean isMeta()  { return false; }
+        public boolean isIndex()  { return false; }
+        public String columnName() { return pname(); }
+
+     };
+
+    public enum OrProcessHistoryProps    // one row per process of a job or service instance, clustered under the work
+        implements IDbProperty
+    {
+        PROCESS_HISTORY_TABLE {
+            public String pname()      { return "process_history"; } 
+            public boolean isPrivate() { return true; }    		
+            public boolean isMeta()    { return true; }    		
+        },
+
+        ducc_dbid {
+            public String pname()         { return "ducc_dbid"; }      // the owning work
+            public Type type()            { return Type.Long; }
+            public boolean isPrimaryKey() { return true; }
+        },
+
+        process_id {
+            public String pname()         { return "process_id"; }
+            public Type type()            { return Type.Long; }
+            public boolean isPrimaryKey() { return true; }
+        },
+
+        type {
+            public String pname()         { return "type"; }           // DuccType name of the owning work
+        },
+
+        process_type {
+            public String pname()         { return "process_type"; }   // "JD" for job drivers, else the ProcessType
+        },
+
+        node {
+            public String pname()         { return "node"; }
+            public boolean isIndex()      { return true; }
+        },
+
+        pid {
+            public String pname()         { return "pid"; }
+        },
+
+        state {
+            public String pname()         { return "state"; }
+        },
+
+        reason_stopped {
+            public String pname()         { return "reason_stopped"; }
+        },
+
+        deallocation {
+            public String pname()         { return "deallocation"; }
+        },
+
+        exit_code {
+            public String pname()         { return "exit_code"; }
+            public Type type()            { return Type.Integer; }
+        },
+
+        failed {
+            public String pname()         { return "failed"; }
+            public Type type()            { return Type.Boolean; }
+        },
+
+        started {
+            public String pname()         { return "started"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        ended {
+            public String pname()         { return "ended"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        rss_max {
+            public String pname()         { return "rss_max"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        swap_max {
+            public String pname()         { return "swap_max"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        cpu {
+            public String pname()         { return "cpu"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_done {
+            public String pname()         { return "work_items_done"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_error {
+            public String pname()         { return "work_items_error"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_retry {
+            public String pname()         { return "work_items_retry"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_items_preempt {
+            public String pname()         { return "work_items_preempt"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        work_item_millis_avg {
+            public String pname()         { return "work_item_millis_avg"; }
+            public Type type()            { return Type.Long; }
+        },
+
+        ;
+        public Type type() { return Type.String; }
+        public boolean isPrimaryKey() { return false; }
+        public boolean isPrivate()  { return false; }
+        public boolean isMeta()  { return false; }
+        public boolean isIndex()  { return false; }
+        public String columnName() { return pname(); }
+
+     };
+
+    public enum OrWorkItemHistoryProps    // work item totals and timing, one row per job
+        implements IDbProperty
+    {
+        WORKITEM_HISTORY_TABLE {
+            public String pname()      { return "workitem_history"; } 
+            public boolean isPrivate() { return true; }    		
+            public boolean isMeta()    { return true; }    		
+        },
+
+        ducc_dbid {
+            public String pname()         { return "ducc_dbid"; }
+            public Type type()            { return Type.Long; }
+            public boolean isPrimaryKey() { return true; }
+        },
+
+        total {
+            public String pname()         { return "total"; }
+        },
+
+        completed {
+            public String pname()         { return "completed"; }
+        },
+
+        error {
+            public String pname()         { return "error"; }
+        },
+
+        retry {
+            public String pname()         { return "retry"; }
+        },
+
+        lost {
+            public String pname()         { return "lost"; }
+        },
+
+        preempt {
+            public String pname()         { return "preempt"; }
+        },
+
+        dispatched {
+            public String pname()         { return "dispatched"; }
+        },
+
+        millis_min {
+            public String pname()         { return "millis_min"; }
+            public Type type()            { return Type.Double; }
+        },
+
+        millis_max {
+            public String pname()         { return "millis_max"; }
+            public Type type()            { return Type.Double; }
+        },
+
+        millis_mean {
+            public String pname()         { return "millis_mean"; }
+            public Type type()            { return Type.Double; }
+        },
+
+        millis_stddev {
+            public String pname()         { return "millis_stddev"; }
+            public Type type()            { return Type.Double; }
+        },
+
+        ;
+        public Type type() { return Type.Long; }
+        public boolean isPrimaryKey() { return false; }
+        public boolean isPrivate()  { return false; }
+        public boolean isMeta()  { return false; }
+        public boolean isIndex()  { return false; }
+        public String columnName() { return pname(); }
+
+     };
+
     public enum OrCkptProps    // properties for the OR checkpoint
         implements IDbProperty
     {
@@ -16,10 +16,18 @@
  * specific language governing permissions and limitations
  * under the License.
 */
-package org.apache.uima.ducc.container.common.fsm.iface;
+package org.apache.uima.ducc.transport.event.common.history;
 
-public interface IStateEventKey extends Comparable<Object> {
+import java.util.Map;
+
+/**
+ * Receives the rows of a history query one at a time, as they are read.
+ */
+public interface IHistoryVisitor {
 	
-	public IState getState();
-	public IEvent getEvent();
+	/**
+	 * @param row The columns of one row, keyed by property name.
+	 * @return true to continue, false to stop the query.
+	 */
+	public boolean visit(Map<String,Object> row);
 }
@@ -27,6 +27,7 @@ import org.apache.uima.ducc.common.Pair;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
@@ -101,6 +102,18 @@ public class NullHistoryManager
 		return  new ArrayList<IDuccWorkService>();
 	}
 
+	public List<HistorySummary> restoreSummaries(DuccType type, long max) 
+        throws Exception
+    {
+		return  new ArrayList<HistorySummary>();
+	}
+
+	public long query(HistoryQuery query, IHistoryVisitor visitor) 
+        throws Exception
+    {
+		return 0;
+	}
+
 	
 	public IDuccWorkService serviceRestore(String fileName) 
     {
@@ -128,5 +141,6 @@ public class NullHistoryManager
 
     public boolean checkpoint(DuccWorkMap work, Map<DuccId, DuccId> processToJob)   throws Exception { return false; }
     public Pair<DuccWorkMap, Map<DuccId, DuccId>> restore()                         throws Exception { return null; }
+    public boolean checkpoint(int sequence, CheckpointDelta delta)                  throws Exception { return false; }
 	
 }
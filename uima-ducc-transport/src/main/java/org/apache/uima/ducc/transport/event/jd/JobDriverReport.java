@@ -182,7 +182,11 @@ public class JobDriverReport implements Serializable, IDriverStatusReport {
 			operatingInfo.getWorkItemFinishedMillisMax(),
 			operatingInfo.getWorkItemFinishedMillisMin(),
 			operatingInfo.getWorkItemFinishedMillisAvg(),
-			operatingInfo.getWorkItemFinishedMillisStdDev()
+			operatingInfo.getWorkItemFinishedMillisStdDev(),
+			operatingInfo.getWorkItemFinishedMillisP50(),
+			operatingInfo.getWorkItemFinishedMillisP95(),
+			operatingInfo.getWorkItemFinishedMillisP99(),
+			operatingInfo.getWorkItemFinishedMillisP999()
 			);
 		setPerWorkItemStatistics(perWorkItemStatistics);
 		// per process statistics
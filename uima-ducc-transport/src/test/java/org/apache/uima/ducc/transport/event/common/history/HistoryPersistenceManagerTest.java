@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import org.apache.uima.ducc.common.main.DuccService;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.DuccStandardInfo;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryPersistenceManagerTest {
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		if(DuccService.getDuccLogger() == null) {
+			DuccService.setDuccLogger(DuccLogger.getLogger(HistoryPersistenceManagerTest.class, "TEST"));
+		}
+		directory = File.createTempFile("history", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+	
+	@After
+	public void tearDown() {
+		delete(directory);
+	}
+	
+	private void delete(File file) {
+		File[] files = file.listFiles();
+		if(files != null) {
+			for(File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+	
+	private DuccWorkJob getJob(long id) {
+		DuccWorkJob job = new DuccWorkJob(new DuccId(id));
+		job.setJobState(JobState.Completed);
+		DuccStandardInfo si = new DuccStandardInfo();
+		si.setUser("user"+id);
+		si.setDescription("job "+id+" = a\nb");
+		si.setDateOfSubmissionMillis(1000*id);
+		job.setStandardInfo(si);
+		DuccSchedulingInfo schedulingInfo = new DuccSchedulingInfo();
+		schedulingInfo.setWorkItemsTotal("10");
+		schedulingInfo.setWorkItemsCompleted("9");
+		job.setSchedulingInfo(schedulingInfo);
+		return job;
+	}
+	
+	private File getFile(long id, String extension) {
+		return new File(directory, "jobs"+File.separator+id+"."+extension);
+	}
+	
+	@Test
+	public void test_01() throws Exception {
+		// summaries come from the summary files, newest first, without reading the history files
+		HistoryPersistenceManager hpm = new HistoryPersistenceManager(directory.getPath());
+		for(long id=1; id<=3; id++) {
+			hpm.saveJob(getJob(id));
+			assertTrue(getFile(id, "dwj.summary").exists());
+		}
+		FileOutputStream fos = new FileOutputStream(getFile(3, "dwj"));
+		fos.write("not a job".getBytes());
+		fos.close();
+		List<HistorySummary> list = hpm.restoreSummaries(DuccType.Job, 2);
+		assertEquals(2, list.size());
+		HistorySummary hs = list.get(0);
+		assertEquals(3, hs.getId());
+		assertEquals(DuccType.Job, hs.getType());
+		assertEquals("user3", hs.getUser());
+		assertEquals("job 3 = a\nb", hs.getDescription());
+		assertEquals(3000, hs.getSubmitted());
+		assertEquals("9", hs.getWorkItemsCompleted());
+		assertTrue(hs.isCompleted());
+		assertEquals(2, list.get(1).getId());
+	}
+	
+	@Test
+	public void test_02() throws Exception {
+		// history saved before summaries were kept is restored once and its summary written
+		HistoryPersistenceManager hpm = new HistoryPersistenceManager(directory.getPath());
+		hpm.saveJob(getJob(1));
+		hpm.saveJob(getJob(2));
+		File sidecar = getFile(1, "dwj.summary");
+		assertTrue(sidecar.delete());
+		List<HistorySummary> list = hpm.restoreSummaries(DuccType.Job, 10);
+		assertEquals(2, list.size());
+		assertEquals(1, list.get(1).getId());
+		assertEquals("user1", list.get(1).getUser());
+		assertTrue(sidecar.exists());
+		assertFalse(getFile(1, "dwj.summary.tmp").exists());
+		assertEquals(0, hpm.restoreSummaries(DuccType.Reservation, 10).size());
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.history.CheckpointDelta;
+import org.junit.Test;
+
+public class CheckpointDeltaTest {
+	
+	@Test
+	public void test_01() throws Exception {
+		DuccWorkMap live = new DuccWorkMap();
+		ConcurrentHashMap<DuccId,DuccId> processToJob = new ConcurrentHashMap<DuccId,DuccId>();
+		for(int i=0; i<4; i++) {
+			DuccWorkJob job = new DuccWorkJob(new DuccId(i));
+			job.setJobState(JobState.Running);
+			live.addDuccWork(job);
+			processToJob.put(new DuccId(100+i), job.getDuccId());
+		}
+		// the full checkpoint
+		DuccWorkMap s1 = live.snapshot(true);
+		DuccWorkMap restored = (DuccWorkMap) SerializationUtils.clone(s1);
+		HashMap<DuccId,DuccId> restoredProcessToJob = new HashMap<DuccId,DuccId>(processToJob);
+		HashMap<DuccId,IDuccWork> prevWork = new HashMap<DuccId,IDuccWork>(s1.getMap());
+		HashMap<DuccId,DuccId> prevProcessToJob = new HashMap<DuccId,DuccId>(processToJob);
+		// nothing changed
+		DuccWorkMap s2 = live.snapshot(false);
+		CheckpointDelta delta = CheckpointDelta.diff(prevWork, prevProcessToJob, s2, processToJob);
+		assertTrue(delta.isEmpty());
+		// one job changed, one removed, one added; processes follow
+		DuccWorkJob changed = (DuccWorkJob) live.findDuccWork("1");
+		changed.setJobState(JobState.Completed);
+		live.setDirty(changed.getDuccId());
+		live.removeDuccWork(live.findDuccWork("2").getDuccId());
+		processToJob.remove(new DuccId(102));
+		DuccWorkJob job = new DuccWorkJob(new DuccId(4));
+		live.addDuccWork(job);
+		processToJob.put(new DuccId(104), job.getDuccId());
+		DuccWorkMap s3 = live.snapshot(false);
+		delta = CheckpointDelta.diff(prevWork, prevProcessToJob, s3, processToJob);
+		assertEquals(2, delta.getChanged().size());
+		assertEquals(1, delta.getRemoved().size());
+		assertEquals(5, delta.size());
+		// replay the record as restore would
+		delta = (CheckpointDelta) SerializationUtils.clone(delta);
+		delta.apply(restored, restoredProcessToJob);
+		assertEquals(4, restored.getJobCount());
+		assertEquals(JobState.Completed, ((IDuccWorkJob) restored.findDuccWork("1")).getJobState());
+		assertNull(restored.findDuccWork("2"));
+		assertEquals(processToJob, restoredProcessToJob);
+	}
+	
+	// a corrupt trailing record stops the replay, the records before it are kept
+	@Test
+	public void test_02() throws Exception {
+		DuccWorkMap live = new DuccWorkMap();
+		HashMap<DuccId,DuccId> processToJob = new HashMap<DuccId,DuccId>();
+		for(int i=0; i<3; i++) {
+			DuccWorkJob job = new DuccWorkJob(new DuccId(i));
+			job.setJobState(JobState.Running);
+			live.addDuccWork(job);
+		}
+		DuccWorkMap s1 = live.snapshot(true);
+		DuccWorkMap restored = (DuccWorkMap) SerializationUtils.clone(s1);
+		HashMap<DuccId,DuccId> restoredProcessToJob = new HashMap<DuccId,DuccId>();
+		ArrayList<byte[]> records = new ArrayList<byte[]>();
+		DuccWorkMap prev = s1;
+		for(int i=0; i<3; i++) {
+			DuccWorkJob job = (DuccWorkJob) live.findDuccWork(""+i);
+			job.setJobState(JobState.Completed);
+			live.setDirty(job.getDuccId());
+			DuccWorkMap next = live.snapshot(false);
+			CheckpointDelta delta = CheckpointDelta.diff(prev.getMap(), processToJob, next, processToJob);
+			assertEquals(1, delta.size());
+			records.add(SerializationUtils.serialize(delta));
+			prev = next;
+		}
+		// the last write was torn
+		byte[] last = records.get(2);
+		records.set(2, Arrays.copyOf(last, last.length/2));
+		assertEquals(2, CheckpointDelta.replay(records, restored, restoredProcessToJob));
+		assertEquals(3, restored.getJobCount());
+		assertEquals(JobState.Completed, ((IDuccWorkJob) restored.findDuccWork("0")).getJobState());
+		assertEquals(JobState.Completed, ((IDuccWorkJob) restored.findDuccWork("1")).getJobState());
+		assertEquals(JobState.Running, ((IDuccWorkJob) restored.findDuccWork("2")).getJobState());
+	}
+}
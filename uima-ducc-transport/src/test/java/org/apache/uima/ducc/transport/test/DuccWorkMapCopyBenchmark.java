@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+
+/**
+ * Measures the time and allocation of DuccWorkMap.snapshot() compared with
+ * deepCopy() and shallowCopy(), when 1% of the entries change between
+ * snapshots.  Allocation is only reported on JVMs whose ThreadMXBean can
+ * count allocated bytes.
+ *
+ * Usage: DuccWorkMapCopyBenchmark [jobs ...]
+ */
+public class DuccWorkMapCopyBenchmark {
+	
+	static final int[] SIZES = { 100, 1000, 10000 };
+	
+	public static void main(String[] args) {
+		int[] sizes = SIZES;
+		if(args.length > 0) {
+			sizes = new int[args.length];
+			for(int i=0; i<args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		for(int jobs : sizes) {
+			run(bean, jobs);
+		}
+	}
+	
+	static DuccWorkMap create(int jobs) {
+		DuccWorkMap workMap = new DuccWorkMap();
+		for(int i=0; i<jobs; i++) {
+			DuccWorkJob job = new DuccWorkJob(new DuccId(i));
+			job.setJobState(JobState.Running);
+			job.setWiTotal(1000);
+			workMap.addDuccWork(job);
+		}
+		return workMap;
+	}
+	
+	static void run(ThreadMXBean bean, int jobs) {
+		DuccWorkMap workMap = create(jobs);
+		workMap.snapshot(false);
+		workMap.snapshot(false);
+		for(int i=0; i<jobs/100; i++) {
+			DuccWorkJob job = (DuccWorkJob) workMap.findDuccWork(""+(i*100));
+			job.setWiDone(i+1);
+			workMap.setDirty(job.getDuccId());
+		}
+		long a0 = allocated(bean);
+		long t0 = System.nanoTime();
+		workMap.deepCopy();
+		long t1 = System.nanoTime();
+		long a1 = allocated(bean);
+		report("deepCopy", jobs, t0, t1, a0, a1);
+		a0 = allocated(bean);
+		t0 = System.nanoTime();
+		workMap.snapshot(false);
+		t1 = System.nanoTime();
+		a1 = allocated(bean);
+		report("snapshot", jobs, t0, t1, a0, a1);
+		a0 = allocated(bean);
+		t0 = System.nanoTime();
+		workMap.shallowCopy();
+		t1 = System.nanoTime();
+		a1 = allocated(bean);
+		report("shallow", jobs, t0, t1, a0, a1);
+	}
+	
+	static long allocated(ThreadMXBean bean) {
+		long retVal = 0;
+		if(bean instanceof com.sun.management.ThreadMXBean) {
+			retVal = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return retVal;
+	}
+	
+	static void report(String label, int jobs, long t0, long t1, long a0, long a1) {
+		System.out.println(String.format("%6d jobs %-10s %8.3f ms %12d bytes", jobs, label, (t1-t0)/1000000.0, a1-a0));
+	}
+}
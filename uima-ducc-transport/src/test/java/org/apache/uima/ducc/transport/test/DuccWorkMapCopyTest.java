@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+import org.junit.Test;
+
+public class DuccWorkMapCopyTest {
+	
+	private DuccWorkMap create(int jobs) {
+		DuccWorkMap workMap = new DuccWorkMap();
+		for(int i=0; i<jobs; i++) {
+			DuccWorkJob job = new DuccWorkJob(new DuccId(i));
+			job.setJobState(JobState.Running);
+			job.setWiTotal(1000);
+			workMap.addDuccWork(job);
+		}
+		return workMap;
+	}
+	
+	@Test
+	public void test_01() {
+		DuccWorkMap workMap = create(3);
+		DuccWorkMap deep = (DuccWorkMap) workMap.deepCopy();
+		DuccWorkMap shallow = workMap.shallowCopy();
+		assertEquals(3, shallow.getJobCount());
+		assertNotSame(workMap.findDuccWork("1"), deep.findDuccWork("1"));
+		assertSame(workMap.findDuccWork("1"), shallow.findDuccWork("1"));
+		((DuccWorkJob) workMap.findDuccWork("1")).setJobState(JobState.Completing);
+		workMap.removeDuccWork(workMap.findDuccWork("2").getDuccId());
+		assertEquals(JobState.Running, ((IDuccWorkJob) deep.findDuccWork("1")).getJobState());
+		assertEquals(JobState.Completing, ((IDuccWorkJob) shallow.findDuccWork("1")).getJobState());
+		assertEquals(2, workMap.getJobCount());
+		assertEquals(3, shallow.getJobCount());
+		assertNull(workMap.findDuccWork("2"));
+	}
+	
+	private int shared(DuccWorkMap a, DuccWorkMap b) {
+		int retVal = 0;
+		for(IDuccWork dw : a.getMap().values()) {
+			if(b.getMap().get(dw.getDuccId()) == dw) {
+				retVal++;
+			}
+		}
+		return retVal;
+	}
+	
+	// snapshot copies only entries marked dirty, at 100, 1000 and 10000 jobs
+	@Test
+	public void test_02() {
+		int[] sizes = { 100, 1000, 10000 };
+		for(int jobs : sizes) {
+			DuccWorkMap workMap = create(jobs);
+			DuccWorkMap s1 = workMap.snapshot(false);
+			assertEquals(jobs, s1.getJobCount());
+			assertNotSame(workMap.findDuccWork("0"), s1.findDuccWork("0"));
+			// added entries are checked once more, unchanged they are shared
+			DuccWorkMap s2 = workMap.snapshot(false);
+			assertEquals(jobs, shared(s1, s2));
+			// nothing marked, nothing to copy
+			assertSame(s2, workMap.snapshot(false));
+			for(int i=0; i<jobs/100; i++) {
+				DuccWorkJob job = (DuccWorkJob) workMap.findDuccWork(""+(i*100));
+				job.setWiDone(i+1);
+				workMap.setDirty(job.getDuccId());
+			}
+			DuccWorkMap s3 = workMap.snapshot(false);
+			assertEquals(jobs-jobs/100, shared(s2, s3));
+			assertEquals(1, ((IDuccWorkJob) s3.findDuccWork("0")).getWiDone());
+			assertEquals(jobs, shared(s3, workMap.snapshot(false)));
+		}
+	}
+	
+	// verify catches changes that were not marked dirty
+	@Test
+	public void test_03() {
+		DuccWorkMap workMap = create(10);
+		workMap.snapshot(false);
+		DuccWorkMap s1 = workMap.snapshot(false);
+		((DuccWorkJob) workMap.findDuccWork("3")).setJobState(JobState.Completing);
+		DuccWorkMap s2 = workMap.snapshot(false);
+		assertSame(s1, s2);
+		assertEquals(JobState.Running, ((IDuccWorkJob) s2.findDuccWork("3")).getJobState());
+		DuccWorkMap s3 = workMap.snapshot(true);
+		assertEquals(9, shared(s2, s3));
+		assertEquals(JobState.Completing, ((IDuccWorkJob) s3.findDuccWork("3")).getJobState());
+		assertEquals(1, workMap.getSnapshotMisses());
+		// removed entries leave the snapshot
+		workMap.removeDuccWork(workMap.findDuccWork("4").getDuccId());
+		DuccWorkMap s4 = workMap.snapshot(false);
+		assertEquals(9, s4.getJobCount());
+		assertNull(s4.findDuccWork("4"));
+		assertEquals(9, shared(s3, s4));
+	}
+}
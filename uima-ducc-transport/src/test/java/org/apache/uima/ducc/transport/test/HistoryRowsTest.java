@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccProcess;
+import org.apache.uima.ducc.transport.event.common.DuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.DuccStandardInfo;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IDuccProcessType.ProcessType;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
+import org.apache.uima.ducc.transport.event.common.history.HistoryQuery;
+import org.apache.uima.ducc.transport.event.common.history.HistoryQuery.Table;
+import org.apache.uima.ducc.transport.event.common.history.HistoryRows;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrProcessHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkHistoryProps;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager.OrWorkItemHistoryProps;
+import org.junit.Test;
+
+public class HistoryRowsTest {
+	
+	private DuccWorkJob getJob() throws Exception {
+		DuccWorkJob job = new DuccWorkJob(new DuccId(7));
+		job.setJobState(JobState.Completed);
+		DuccStandardInfo si = new DuccStandardInfo();
+		si.setUser("bob");
+		si.setDateOfSubmissionMillis(1000);
+		job.setStandardInfo(si);
+		DuccSchedulingInfo schedulingInfo = new DuccSchedulingInfo();
+		schedulingInfo.setSchedulingClass("normal");
+		schedulingInfo.setWorkItemsTotal("10");
+		schedulingInfo.setWorkItemsCompleted("9");
+		job.setSchedulingInfo(schedulingInfo);
+		for(int i=0; i<2; i++) {
+			DuccId processId = new DuccId(100+i);
+			DuccProcess process = new DuccProcess(processId, new NodeIdentity("1.2.3."+i, "node"+i), ProcessType.Job_Uima_AS_Process);
+			process.setProcessState((i == 0) ? ProcessState.Stopped : ProcessState.Failed);
+			job.getProcessMap().put(processId, process);
+		}
+		return job;
+	}
+	
+	@Test
+	public void test_01() throws Exception {
+		DuccWorkJob job = getJob();
+		Map<String,Object> work = HistoryRows.work(job);
+		assertEquals("Job", work.get(OrWorkHistoryProps.type.pname()));
+		assertEquals(7L, work.get(OrWorkHistoryProps.ducc_dbid.pname()));
+		assertEquals("bob", work.get(OrWorkHistoryProps.username.pname()));
+		assertEquals(10L, work.get(OrWorkHistoryProps.work_items_total.pname()));
+		assertEquals("normal", work.get(OrWorkHistoryProps.scheduling_class.pname()));
+		assertEquals(2, work.get(OrWorkHistoryProps.processes.pname()));
+		// the summary read back from the columns
+		HistorySummary summary = HistorySummary.create(work);
+		assertEquals(7, summary.getId());
+		assertEquals("bob", summary.getUser());
+		assertEquals("9", summary.getWorkItemsCompleted());
+		assertTrue(summary.isCompleted());
+		
+		List<Map<String,Object>> processes = HistoryRows.processes(job);
+		assertEquals(2, processes.size());
+		Map<String,Object> workItems = HistoryRows.workItems(job);
+		assertEquals(9L, workItems.get(OrWorkItemHistoryProps.completed.pname()));
+	}
+	
+	@Test
+	public void test_02() throws Exception {
+		DuccWorkJob job = getJob();
+		Map<String,Object> work = HistoryRows.work(job);
+		HistoryQuery query = new HistoryQuery(Table.Work)
+			.equal(OrWorkHistoryProps.type, "Job")
+			.equal(OrWorkHistoryProps.username, "bob")
+			.atLeast(OrWorkHistoryProps.submitted, 1000);
+		assertTrue(query.matches(work));
+		query.atMost(OrWorkHistoryProps.submitted, 999);
+		assertFalse(query.matches(work));
+		assertEquals("Job", query.getEqualValue(OrWorkHistoryProps.type));
+		// processes that failed on a node
+		query = new HistoryQuery(Table.Process)
+			.equal(OrProcessHistoryProps.node, "node1")
+			.equal(OrProcessHistoryProps.failed, true);
+		int count = 0;
+		for(Map<String,Object> process : HistoryRows.processes(job)) {
+			if(query.matches(process)) {
+				assertEquals(101L, process.get(OrProcessHistoryProps.process_id.pname()));
+				count++;
+			}
+		}
+		assertEquals(1, count);
+	}
+}
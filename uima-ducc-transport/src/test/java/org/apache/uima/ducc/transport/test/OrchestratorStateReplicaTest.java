@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReplica;
+import org.apache.uima.ducc.transport.event.OrchestratorStateResyncRequestEvent;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
+import org.junit.Test;
+
+public class OrchestratorStateReplicaTest {
+	
+	private class Replica extends OrchestratorStateReplica {
+		
+		private int requests = 0;
+		
+		public Replica() {
+			super("test");
+		}
+		
+		@Override
+		protected void requestSnapshot(OrchestratorStateResyncRequestEvent request) {
+			requests++;
+		}
+	}
+	
+	private DuccWorkJob job(long id, JobState state) {
+		DuccWorkJob job = new DuccWorkJob(new DuccId(id));
+		job.setJobState(state);
+		return job;
+	}
+	
+	private OrchestratorStateDuccEvent snapshot(long epoch, long version, DuccWorkJob... jobs) {
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		DuccWorkMap workMap = new DuccWorkMap();
+		for(DuccWorkJob job : jobs) {
+			workMap.addDuccWork(job);
+		}
+		event.setEpoch(epoch);
+		event.setVersion(version);
+		event.setWorkMap(workMap);
+		return event;
+	}
+	
+	private OrchestratorStateDuccEvent delta(long epoch, long version, List<DuccId> removed, DuccWorkJob... jobs) {
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		DuccWorkMap workMap = new DuccWorkMap();
+		for(DuccWorkJob job : jobs) {
+			workMap.addDuccWork(job);
+		}
+		event.setEpoch(epoch);
+		event.setVersion(version);
+		event.setDelta(workMap, removed);
+		return event;
+	}
+	
+	@Test
+	public void test_01() {
+		Replica replica = new Replica();
+		OrchestratorStateDuccEvent event = snapshot(1, 1, job(1, JobState.Running), job(2, JobState.WaitingForResources));
+		assertTrue(replica.apply(event));
+		assertEquals(2, event.getWorkMap().getJobCount());
+		List<DuccId> removed = new ArrayList<DuccId>();
+		removed.add(new DuccId(1));
+		event = delta(1, 2, removed, job(2, JobState.Running), job(3, JobState.Received));
+		assertTrue(replica.apply(event));
+		assertTrue(event.isSnapshot());
+		IDuccWorkMap workMap = event.getWorkMap();
+		assertEquals(2, workMap.getJobCount());
+		assertNull(workMap.findDuccWork("1"));
+		assertEquals(JobState.Running, ((IDuccWorkJob) workMap.findDuccWork("2")).getJobState());
+		assertEquals(JobState.Received, ((IDuccWorkJob) workMap.findDuccWork("3")).getJobState());
+		assertEquals(0, replica.requests);
+	}
+	
+	@Test
+	public void test_02() {
+		Replica replica = new Replica();
+		List<DuccId> removed = new ArrayList<DuccId>();
+		// no snapshot yet
+		assertFalse(replica.apply(delta(1, 5, removed, job(1, JobState.Running))));
+		assertEquals(1, replica.requests);
+		assertTrue(replica.apply(snapshot(1, 6, job(1, JobState.Running))));
+		// missed version 7
+		assertFalse(replica.apply(delta(1, 8, removed, job(1, JobState.Completing))));
+		assertEquals(2, replica.requests);
+		// resync pending
+		assertFalse(replica.apply(delta(1, 9, removed, job(1, JobState.Completed))));
+		assertEquals(2, replica.requests);
+		assertTrue(replica.apply(snapshot(1, 10, job(1, JobState.Completed))));
+		// publisher restarted
+		assertFalse(replica.apply(delta(2, 1, removed, job(1, JobState.Completed))));
+		assertEquals(3, replica.requests);
+	}
+	
+	@Test
+	public void test_03() {
+		// each caller gets its own map, entries are shared rather than copied
+		Replica replica = new Replica();
+		OrchestratorStateDuccEvent event = snapshot(1, 1, job(1, JobState.Running), job(2, JobState.Running));
+		assertTrue(replica.apply(event));
+		IDuccWorkMap m1 = event.getWorkMap();
+		IDuccWorkMap m2 = event.getWorkMap();
+		assertNotSame(m1, m2);
+		assertSame(m1.findDuccWork("1"), m2.findDuccWork("1"));
+		m2.removeDuccWork(new DuccId(1));
+		assertEquals(2, m1.getJobCount());
+		// unchanged entries keep their identity across publications
+		List<DuccId> removed = new ArrayList<DuccId>();
+		event = delta(1, 2, removed, job(2, JobState.Completing));
+		assertTrue(replica.apply(event));
+		IDuccWorkMap m3 = event.getWorkMap();
+		assertSame(m1.findDuccWork("1"), m3.findDuccWork("1"));
+		assertEquals(JobState.Completing, ((IDuccWorkJob) m3.findDuccWork("2")).getJobState());
+		assertEquals(JobState.Running, ((IDuccWorkJob) m1.findDuccWork("2")).getJobState());
+	}
+}
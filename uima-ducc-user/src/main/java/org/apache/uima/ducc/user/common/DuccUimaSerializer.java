@@ -213,6 +213,20 @@ public class DuccUimaSerializer {
     }
   }
   
+  // compressed form 4, the receiver must use the same type system
+  public byte[] serializeCasToCompressedBinary(CAS aCAS) throws Exception {
+    ByteArrayOutputStream fos = null;
+    try {
+      fos = new ByteArrayOutputStream();
+      Serialization.serializeWithCompression(aCAS, fos);
+      return fos.toByteArray();
+    } finally {
+      if (fos != null) {
+        fos.close();
+      }
+    }
+  }
+
   // used to return non-delta cas's (used if delta cas disallowed, for instance by having a CPP delegate)
   public byte[] serializeCasToBinary6(CAS aCAS) throws Exception {
     ByteArrayOutputStream fos = null;
@@ -56,8 +56,13 @@ public class JdUserCollectionReader {
 	private static DuccUimaSerializer uimaSerializer = new DuccUimaSerializer();
 	private static XmiSerializationSharedData xmiSerializationSharedData = new XmiSerializationSharedData();
 	
+	public static final String casSerializationXmi = "xmi";
+	public static final String casSerializationBinary = "binary";
+	
 	private String crXml = null;
 	private String crCfg = null;
+	
+	private String casSerialization = casSerializationXmi;
 
 	private JdUserCasManager cm = null;
 	private CollectionReader cr = null;
@@ -71,6 +76,11 @@ public class JdUserCollectionReader {
 	public JdUserCollectionReader(String crXml, String crCfg) throws Exception {
 		initialize(crXml, crCfg);
 	}
+	
+	public JdUserCollectionReader(String crXml, String crCfg, String casSerialization) throws Exception {
+		setCasSerialization(casSerialization);
+		initialize(crXml, crCfg);
+	}
 
 	public void initialize(String crXml, String crCfg) throws Exception {
 		try {
@@ -150,9 +160,15 @@ public class JdUserCollectionReader {
 			if(cr.hasNext()) {
 				CAS cas = cm.getEmptyCas();
 				cr.getNext(cas);
-				String serializedCas = serialize(cas);
 				String documentText = CasHelper.getId(cas);
-				retVal = new JdUserMetaCas(seqNo.incrementAndGet(), serializedCas, documentText);
+				if(isBinary()) {
+					byte[] serializedCas = serializeBinary(cas);
+					retVal = new JdUserMetaCas(seqNo.incrementAndGet(), serializedCas, documentText);
+				}
+				else {
+					String serializedCas = serialize(cas);
+					retVal = new JdUserMetaCas(seqNo.incrementAndGet(), serializedCas, documentText);
+				}
 				cm.recycle(cas);
 			}
 		}
@@ -172,6 +188,38 @@ public class JdUserCollectionReader {
 		return cas;
 	}
 	
+	public byte[] serializeBinary(CAS cas) throws Exception {
+		byte[] serializedCas = uimaSerializer.serializeCasToCompressedBinary(cas);
+		return serializedCas;
+	}
+	
+	public CAS deserialize(byte[] serializedCas) throws Exception {
+		CAS cas = cm.getEmptyCas();
+		uimaSerializer.deserializeCasFromBinary(serializedCas, cas);
+		return cas;
+	}
+	
+	/**
+	 * The error handler interface takes XMI, so convert a binary
+	 * serialized CAS back to XMI when necessary.
+	 */
+	public String getXmi(Object serializedCas) throws Exception {
+		String retVal = null;
+		if(serializedCas instanceof byte[]) {
+			CAS cas = deserialize((byte[]) serializedCas);
+			try {
+				retVal = serialize(cas);
+			}
+			finally {
+				recycle(cas);
+			}
+		}
+		else if(serializedCas != null) {
+			retVal = (String) serializedCas;
+		}
+		return retVal;
+	}
+	
 	public void recycle(CAS cas) {
 		cm.recycle(cas);
 	}
@@ -192,6 +240,23 @@ public class JdUserCollectionReader {
 		return crCfg;
 	}
 	
+	private void setCasSerialization(String value) {
+		if(value != null) {
+			String trimmedValue = value.trim();
+			if(trimmedValue.equalsIgnoreCase(casSerializationBinary)) {
+				casSerialization = casSerializationBinary;
+			}
+		}
+	}
+	
+	public String getCasSerialization() {
+		return casSerialization;
+	}
+	
+	private boolean isBinary() {
+		return casSerializationBinary.equals(casSerialization);
+	}
+	
 	private void setCr(CollectionReader value) {
 		cr = value;
 	}
@@ -22,6 +22,7 @@ public class JdUserMetaCas {
 
 	private int seqNo = -1;
 	private String serializedCas = null;
+	private byte[] serializedCasBinary = null;
 	private String documentText = null;
 	private Exception  userException = null;
 	
@@ -31,6 +32,12 @@ public class JdUserMetaCas {
 		setDocumentText(documentText);
 	}
 	
+	public JdUserMetaCas(int seqNo, byte[] serializedCasBinary, String documentText) {
+		setSeqNo(seqNo);
+		setSerializedCasBinary(serializedCasBinary);
+		setDocumentText(documentText);
+	}
+	
 	public JdUserMetaCas(int seqNo, String serializedCas, String documentText, Exception userException) {
 		setSeqNo(seqNo);
 		setSerializedCas(serializedCas);
@@ -54,6 +61,23 @@ public class JdUserMetaCas {
 		return serializedCas;
 	}
 	
+	private void setSerializedCasBinary(byte[] value) {
+		serializedCasBinary = value;
+	}
+	
+	public byte[] getSerializedCasBinary() {
+		return serializedCasBinary;
+	}
+	
+	// XMI String or compressed binary byte[], as shipped to the JP
+	public Object getUserSpaceCas() {
+		Object retVal = serializedCas;
+		if(serializedCasBinary != null) {
+			retVal = serializedCasBinary;
+		}
+		return retVal;
+	}
+	
 	private void setDocumentText(String value) {
 		documentText = value;
 	}
@@ -74,7 +98,12 @@ public class JdUserMetaCas {
 		StringBuffer sb = new StringBuffer();
 		sb.append("seq:"+getSeqNo()+" ");
 		sb.append("id:"+getDocumentText()+" ");
-		sb.append("cas:"+getSerializedCas()+" ");
+		if(serializedCasBinary != null) {
+			sb.append("cas:"+serializedCasBinary.length+" bytes"+" ");
+		}
+		else {
+			sb.append("cas:"+getSerializedCas()+" ");
+		}
 		if(userException != null) {
 			sb.append("exception:"+getUserException().toString());
 		}
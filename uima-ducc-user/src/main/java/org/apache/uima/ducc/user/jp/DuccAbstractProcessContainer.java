@@ -58,7 +58,7 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
 	 * is required to support investment reset. 
 	 *
 	 */
-	public String getKey(String xmi) throws Exception {
+	public String getKey(Object xmi) throws Exception {
 		if ( analysisEngineMetadata == null ) {
 			// WorkItem ID (key) is only supported for pieces 'n parts 
 			return null;
@@ -74,14 +74,25 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
 			cas = CasCreationUtils.createCas(tsd, tp, fsid, props);
 		}
 		// deserialize the CAS
-		XmiSerializationSharedData deserSharedData = new XmiSerializationSharedData();
-		getUimaSerializer().
-		    deserializeCasFromXmi((String)xmi, cas, deserSharedData, true,-1);
+		deserialize(xmi, cas);
 		
 		String key = CasHelper.getId(cas);
 		cas.release();
 		return key;
 	}
+	/**
+	 * Deserialize a CAS sent by the JD, either XMI (String) or, when the
+	 * job specifies binary cas_serialization, compressed binary (byte[]).
+	 */
+	protected void deserialize(Object cargo, CAS cas) throws Exception {
+		if ( cargo instanceof byte[] ) {
+			getUimaSerializer().deserializeCasFromBinary((byte[])cargo, cas);
+		} else {
+			XmiSerializationSharedData deserSharedData = new XmiSerializationSharedData();
+			getUimaSerializer().
+			    deserializeCasFromXmi((String)cargo, cas, deserSharedData, true,-1);
+		}
+	}
     public int getScaleout( ){
 		return scaleout;
 	}
@@ -133,6 +144,38 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
  			if (debug) System.out.println("DuccAbstractProcessContainer.process() <<<<<<<< User Container processed");
          }
      }
+    /**
+     * Returns component names and unique names, in the order used by
+     * processCompact(), for the analytics pinned to the calling thread. Returns
+     * null if this container only reports metrics through process().
+     */
+    public String[][] getPerformanceMetricsLayout() {
+    	return doGetPerformanceMetricsLayout();
+    }
+    /**
+     * Analyze the CAS and return its performance metrics as a numeric array:
+     * per component analysis time followed by per component number of CASes
+     * processed, in the order given by getPerformanceMetricsLayout(). Returns
+     * null, without analyzing the CAS, if this container does not support it;
+     * the caller should then use process().
+     */
+    public long[] processCompact(Object xmi) throws Exception {
+    	if (debug) System.out.println("DuccAbstractProcessContainer.processCompact() >>>>>>>>> Processing User Container");
+ 		ClassLoader savedCL = Thread.currentThread().getContextClassLoader();
+ 		Thread.currentThread().setContextClassLoader(this.getClass().getClassLoader());
+         try {
+     		return doProcessCompact(xmi);
+         }finally {
+ 			Thread.currentThread().setContextClassLoader(savedCL);
+ 			if (debug) System.out.println("DuccAbstractProcessContainer.processCompact() <<<<<<<< User Container processed");
+         }
+     }
+    protected String[][] doGetPerformanceMetricsLayout() {
+    	return null;
+    }
+    protected long[] doProcessCompact(Object subject) throws Exception {
+    	return null;
+    }
     public void stop() throws Exception {
     	if (debug) System.out.println("DuccAbstractProcessContainer.stop() >>>>>>>>> Stopping User Container");
  		// save current context cl and inject System classloader as
@@ -48,7 +48,6 @@ import org.apache.uima.aae.monitor.statistics.AnalysisEnginePerformanceMetrics;
 import org.apache.uima.adapter.jms.client.BaseUIMAAsynchronousEngine_impl;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.CAS;
-import org.apache.uima.cas.impl.XmiSerializationSharedData;
 import org.apache.uima.collection.EntityProcessStatus;
 import org.apache.uima.util.Level;
 import org.apache.uima.util.Logger;
@@ -343,10 +342,8 @@ public class UimaASProcessContainer  extends DuccAbstractProcessContainer {
 		try {
 			// reset last error
 			lastError = null;
-			XmiSerializationSharedData deserSharedData = new XmiSerializationSharedData();
 			// Use thread dedicated UimaSerializer to de-serialize the CAS
-			super.getUimaSerializer().
-				deserializeCasFromXmi((String)xmi, cas, deserSharedData, true,-1);
+			super.deserialize(xmi, cas);
 
 			/*
 			 * The following code commented for now. Re-enable when uima-as
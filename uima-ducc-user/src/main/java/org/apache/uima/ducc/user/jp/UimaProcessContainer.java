@@ -34,7 +34,6 @@ import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineManagement;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.CAS;
-import org.apache.uima.cas.impl.XmiSerializationSharedData;
 import org.apache.uima.ducc.user.common.UimaUtils;
 import org.apache.uima.ducc.user.jp.uima.UimaAnalysisEngineInstancePoolWithThreadAffinity;
 import org.apache.uima.impl.UimaVersion;
@@ -53,6 +52,10 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 
     private static ResourceManager rm=null;
 	Semaphore sharedInitSemaphore = new Semaphore(1);
+	// when true, AE instances are produced concurrently by all worker threads.
+	// Only safe for annotators whose initialize() is thread safe.
+	private boolean parallelInit = "true".equalsIgnoreCase(
+			System.getProperty("ducc.process.parallel.init", "false").trim());
 	// this map enforces thread affinity to specific thread. Needed to make
 	// sure that a thread used to initialized the AE is used to call process().
 	// Some AEs depend on ThreadLocal storage.
@@ -81,6 +84,9 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 
 	    // maintain thread affinity to specific instance of AE
 	  private volatile boolean threadAffinity=true;
+	  // per CAS metrics handle of the AE pinned to the current thread. Built
+	  // once at deploy so that process() only reads counters.
+	  private ThreadLocal<AeMetricsHandle> metricsHandle = new ThreadLocal<AeMetricsHandle>();
 	    /*
 	  private String gen(int length) {
 		  StringBuffer sb = new StringBuffer();
@@ -131,28 +137,35 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 	     paramsMap.put(Resource.PARAM_RESOURCE_MANAGER, rm);
 	     paramsMap.put(AnalysisEngine.PARAM_MBEAN_SERVER, platformMBeanServer);
 
+		boolean serialized = false;
 		try {
-			// Acquire single-permit semaphore to serialize instantiation of
-			// AEs. This is done to control access to non-thread safe 
-			// structures in the core. The sharedInitSemaphore is a static 
-			// and is shared by all instances of this class.
-			sharedInitSemaphore.acquire();
+			if ( !parallelInit ) {
+				// Acquire single-permit semaphore to serialize instantiation of
+				// AEs. This is done to control access to non-thread safe 
+				// structures in the core. The sharedInitSemaphore is a static 
+				// and is shared by all instances of this class.
+				sharedInitSemaphore.acquire();
+				serialized = true;
+			}
 			// Parse the descriptor in the calling thread.
 			rSpecifier = UimaUtils.getResourceSpecifier(analysisEngineDescriptor);
 			AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(rSpecifier,
 					paramsMap);
 
-			instanceMap.checkin(ae);
-			if (instanceMap.size() == scaleout) {
-				try {
-					Properties props = new Properties();
-			        props.setProperty(UIMAFramework.CAS_INITIAL_HEAP_SIZE, "1000");
-
-					analysisEngineMetadata = ae.getAnalysisEngineMetaData();
-					casPool = new CasPool(scaleout, analysisEngineMetadata,rm);
-					latch.countDown();
-				} catch (Exception e) {
-					throw new ResourceInitializationException(e);
+			metricsHandle.set(new AeMetricsHandle(ae));
+			synchronized( instanceMap ) {
+				instanceMap.checkin(ae);
+				if (instanceMap.size() == scaleout) {
+					try {
+						Properties props = new Properties();
+				        props.setProperty(UIMAFramework.CAS_INITIAL_HEAP_SIZE, "1000");
+
+						analysisEngineMetadata = ae.getAnalysisEngineMetaData();
+						casPool = new CasPool(scaleout, analysisEngineMetadata,rm);
+						latch.countDown();
+					} catch (Exception e) {
+						throw new ResourceInitializationException(e);
+					}
 				}
 			}
 
@@ -164,7 +177,9 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 			throw new RuntimeException(e);
 
 		} finally {
-			sharedInitSemaphore.release();
+			if ( serialized ) {
+				sharedInitSemaphore.release();
+			}
 		}
 		
 	}
@@ -182,45 +197,62 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 	}
 
 	public List<Properties> doProcess(Object xmi) throws Exception {
+		long[] values = analyze(xmi);
+		AeMetricsHandle handle = metricsHandle.get();
+		
+		// convert metrics into properties so that we can return this
+		// data in a format which doesnt require UIMA-AS to digest
+		List<Properties> metricsList = new ArrayList<Properties>();
+		for (int i = 0; i < handle.names.length; i++) {
+			Properties p = new Properties();
+			
+			p.setProperty("name", handle.names[i]);
+			p.setProperty("uniqueName", handle.uniqueNames[i]);
+			p.setProperty("analysisTime", String.valueOf(values[i]));
+			p.setProperty("numProcessed", String.valueOf(values[handle.names.length + i]));
+			metricsList.add(p);
+		}
+		return metricsList;
+	}
+
+	public long[] doProcessCompact(Object xmi) throws Exception {
+		return analyze(xmi);
+	}
+
+	public String[][] doGetPerformanceMetricsLayout() {
+		AeMetricsHandle handle = metricsHandle.get();
+		if ( handle == null ) {
+			return null;
+		}
+		return new String[][] { handle.names, handle.uniqueNames };
+	}
+
+	/**
+	 * Analyzes the CAS with the AE pinned to the calling thread and returns
+	 * per component analysis time for this CAS followed by the number of CASes
+	 * each component processed so far, in the order of the thread's metrics
+	 * layout.
+	 */
+	private long[] analyze(Object xmi) throws Exception {
 		AnalysisEngine ae = null;
 		latch.await();
 		CAS cas = casPool.getCas();
 		try {
 			// reset last error
 			lastError = null;
-			XmiSerializationSharedData deserSharedData = new XmiSerializationSharedData();
 			// deserialize the CAS
-			super.getUimaSerializer().
-			    deserializeCasFromXmi((String)xmi, cas, deserSharedData, true,-1);
+			super.deserialize(xmi, cas);
 
 			// the following checks out AE instance pinned to this thread
 			ae = instanceMap.checkout();
-			List<AnalysisEnginePerformanceMetrics> beforeAnalysis = getMetrics(ae);
-			ae.process(cas);
-			List<AnalysisEnginePerformanceMetrics> afterAnalysis = getMetrics(ae);
-
-			// get the delta
-			List<AnalysisEnginePerformanceMetrics> casMetrics = getAEMetricsForCAS(
-					 afterAnalysis, beforeAnalysis);
-
-			// convert UIMA-AS metrics into properties so that we can return
-			// this
-			// data in a format which doesnt require UIMA-AS to digest
-			List<Properties> metricsList = new ArrayList<Properties>();
-			
-			for (AnalysisEnginePerformanceMetrics metrics : casMetrics) {
-				Properties p = new Properties();
-				
-				p.setProperty("name", metrics.getName());
-				p.setProperty("uniqueName", metrics.getUniqueName());
-				p.setProperty("analysisTime",
-						String.valueOf(metrics.getAnalysisTime()));
-				p.setProperty("numProcessed",
-						String.valueOf(metrics.getNumProcessed()));
-				metricsList.add(p);
+			AeMetricsHandle handle = metricsHandle.get();
+			if ( handle == null || handle.ae != ae ) {
+				handle = new AeMetricsHandle(ae);
+				metricsHandle.set(handle);
 			}
-			
-			return metricsList;
+			long[] before = handle.analysisTimes();
+			ae.process(cas);
+			return handle.delta(before);
 		} catch( Throwable e ) {
 			super.lastError = e;
 			Logger logger = UIMAFramework.getLogger();
@@ -237,52 +269,42 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 			}
 		}
 	}
-	   private List<AnalysisEnginePerformanceMetrics> getMetrics(AnalysisEngine ae)
-			throws Exception {
-		List<AnalysisEnginePerformanceMetrics> analysisManagementObjects = new ArrayList<AnalysisEnginePerformanceMetrics>();
-		synchronized(UimaProcessContainer.class) {
-			// Fetch AE's management information that includes per component
-			// performance stats
-			// These stats are internally maintained in a Map. If the AE is an
-			// aggregate
-			// the Map will contain AnalysisEngineManagement instance for each AE.
-			AnalysisEngineManagement aem = ae.getManagementInterface();
-			if (aem.getComponents().size() > 0) {
-				// Flatten the hierarchy by recursively (if this AE is an aggregate)
-				// extracting
-				// primitive AE's AnalysisEngineManagement instance and placing it
-				// in
-				// afterAnalysisManagementObjects List.
-				getLeafManagementObjects(aem, analysisManagementObjects);
-				// System.out.println("-----------------Unique1:"+aem.getUniqueMBeanName());
-				// System.out.println("-----------------Simple1:"+aem.getName());
-			} else {
-				String path = produceUniqueName(aem);
-//				 System.out.println(Thread.currentThread().getId()+" -----------------Unique2:"+aem.getUniqueMBeanName());
-//				 System.out.println(Thread.currentThread().getId()+" -----------------Simple2:"+aem.getName());
-//				 System.out.println(Thread.currentThread().getId()+" -----------------Path:"+path);
-				analysisManagementObjects.add(deepCopyMetrics(aem, path));
 
-			}
-			
+	private List<AnalysisEnginePerformanceMetrics> getMetrics(AnalysisEngine ae,
+			List<AnalysisEngineManagement> leaves) {
+		List<AnalysisEnginePerformanceMetrics> analysisManagementObjects = new ArrayList<AnalysisEnginePerformanceMetrics>();
+		// Fetch AE's management information that includes per component
+		// performance stats
+		// These stats are internally maintained in a Map. If the AE is an
+		// aggregate
+		// the Map will contain AnalysisEngineManagement instance for each AE.
+		AnalysisEngineManagement aem = ae.getManagementInterface();
+		if (aem.getComponents().size() > 0) {
+			// Flatten the hierarchy by recursively (if this AE is an aggregate)
+			// extracting
+			// primitive AE's AnalysisEngineManagement instance and placing it
+			// in
+			// afterAnalysisManagementObjects List.
+			getLeafManagementObjects(aem, analysisManagementObjects, leaves, "");
+		} else {
+			String path = produceUniqueName(aem);
+			analysisManagementObjects.add(deepCopyMetrics(aem, path));
+			leaves.add(aem);
 		}
 		return analysisManagementObjects;
 	}
 
-	private void getLeafManagementObjects(AnalysisEngineManagement aem,
-			List<AnalysisEnginePerformanceMetrics> result) {
-		getLeafManagementObjects(aem, result, "");
-	}
-
 	/**
 	 * Recursively
 	 * 
 	 * @param aem
 	 * @param result
+	 * @param leaves
 	 * @param uimaFullyQualifiedAEContext
 	 */
 	private void getLeafManagementObjects(AnalysisEngineManagement aem,
 			List<AnalysisEnginePerformanceMetrics> result,
+			List<AnalysisEngineManagement> leaves,
 			String uimaFullyQualifiedAEContext) {
 //		System.out.println("----------- 1 getLeafManagementObjects() - Unique Name:"+aem.getUniqueMBeanName()+" UniqueContext:"+uimaFullyQualifiedAEContext);
 		if (aem.getComponents().isEmpty()) {
@@ -313,11 +335,12 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 
 				}
 				result.add(deepCopyMetrics(aem, uimaFullyQualifiedAEContext));
+				leaves.add(aem);
 			}
 		} else {
 			for (AnalysisEngineManagement child : (Iterable<AnalysisEngineManagement>) aem
 					.getComponents().values()) {
-				getLeafManagementObjects(child, result, produceUniqueName(aem));
+				getLeafManagementObjects(child, result, leaves, produceUniqueName(aem));
 			}
 		}
 	}
@@ -417,43 +440,48 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 		
 	}
 
-	private List<AnalysisEnginePerformanceMetrics> getAEMetricsForCAS(
-			List<AnalysisEnginePerformanceMetrics> afterAnalysisManagementObjects,
-			List<AnalysisEnginePerformanceMetrics> beforeAnalysisManagementObjects)
-			throws Exception {
-		// Create a List to hold per CAS analysisTime and total number of CASes processed by each AE. 
-	    // This list will be serialized and sent to the client
-		List<AnalysisEnginePerformanceMetrics> performanceList = new ArrayList<AnalysisEnginePerformanceMetrics>();
-		// Diff the before process() performance metrics with post process performance metrics
-		for (AnalysisEnginePerformanceMetrics after : afterAnalysisManagementObjects) {
-			for (AnalysisEnginePerformanceMetrics before : beforeAnalysisManagementObjects) {
-				String uniqueName = after.getUniqueName();
-				if (before.getUniqueName().equals(after.getUniqueName())) {
-					/*
-					int p1 = after.getUniqueName().indexOf("DUCC.Job");
-					if ( p1 >-1 ) {
-						int p2 = after.getUniqueName().indexOf("/",p1);
-						if ( p2 >-1 ) {
-							uniqueName = after.getUniqueName().substring(p2);
-						}
-					}
-					*/
-					//System.out.println("getAEMetricsForCAS() - Unique Name:"+uniqueName);
-					//String uniqueName =  
-					AnalysisEnginePerformanceMetrics metrics = new AnalysisEnginePerformanceMetrics(
-							after.getName(), uniqueName,
-							after.getAnalysisTime() - before.getAnalysisTime(),
-							after.getNumProcessed());
-					// System.out.println("********************"+metrics.getUniqueName());
-					// System.out.println("********************"+metrics.getName());
-					performanceList.add(metrics);
-					break;
-				}
+	/**
+	 * Leaf components of one AE instance with their names resolved once.
+	 * Snapshots read the components' counters without locking; the AE is
+	 * only ever used by the thread that owns the handle.
+	 */
+	private class AeMetricsHandle {
+		final AnalysisEngine ae;
+		final AnalysisEngineManagement[] leaves;
+		final String[] names;
+		final String[] uniqueNames;
+
+		AeMetricsHandle(AnalysisEngine ae) {
+			this.ae = ae;
+			List<AnalysisEngineManagement> leafList = new ArrayList<AnalysisEngineManagement>();
+			List<AnalysisEnginePerformanceMetrics> metrics = getMetrics(ae, leafList);
+			leaves = leafList.toArray(new AnalysisEngineManagement[leafList.size()]);
+			names = new String[metrics.size()];
+			uniqueNames = new String[metrics.size()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = metrics.get(i).getName();
+				uniqueNames[i] = metrics.get(i).getUniqueName();
+			}
+		}
+
+		long[] analysisTimes() {
+			long[] times = new long[leaves.length];
+			for (int i = 0; i < leaves.length; i++) {
+				times[i] = leaves[i].getAnalysisTime();
 			}
+			return times;
 		}
-		return performanceList;
 
+		long[] delta(long[] before) {
+			long[] values = new long[2 * leaves.length];
+			for (int i = 0; i < leaves.length; i++) {
+				values[i] = leaves[i].getAnalysisTime() - before[i];
+				values[leaves.length + i] = leaves[i].getNumberOfCASesProcessed();
+			}
+			return values;
+		}
 	}
+
 	private static class AnalysisEnginePerformanceMetrics {
 		  
 		  private String name;
@@ -26,10 +26,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.uima.cas.CAS;
+import org.apache.uima.ducc.CasHelper;
 import org.apache.uima.ducc.ErrorHandler;
 import org.apache.uima.ducc.ErrorHandler.InitializationDataKey;
 import org.apache.uima.ducc.IErrorHandler;
@@ -506,4 +510,67 @@ public class TestSuite {
 			}
 		}
 	}
+	
+	private long cpuNanos() {
+		ThreadMXBean tmxb = ManagementFactory.getThreadMXBean();
+		long retVal = System.nanoTime();
+		if(tmxb.isCurrentThreadCpuTimeSupported()) {
+			retVal = tmxb.getCurrentThreadCpuTime();
+		}
+		return retVal;
+	}
+	
+	@Test
+	public void test12() {
+		try {
+			URL url = this.getClass().getResource("/CR100.xml");
+			File file = new File(url.getFile());
+			String crXml = file.getAbsolutePath();
+			debug(crXml);
+			String crCfg = null;
+			JdUserCollectionReader jdcrXmi = new JdUserCollectionReader(crXml, crCfg, JdUserCollectionReader.casSerializationXmi);
+			JdUserCollectionReader jdcrBinary = new JdUserCollectionReader(crXml, crCfg, JdUserCollectionReader.casSerializationBinary);
+			assertTrue(jdcrBinary.getCasSerialization().equals(JdUserCollectionReader.casSerializationBinary));
+			long bytesXmi = 0;
+			long bytesBinary = 0;
+			long cpuXmi = 0;
+			long cpuBinary = 0;
+			int count = 0;
+			JdUserMetaCas mcXmi = jdcrXmi.getJdUserMetaCas();
+			JdUserMetaCas mcBinary = jdcrBinary.getJdUserMetaCas();
+			while(mcXmi != null) {
+				assertTrue(mcBinary != null);
+				assertTrue(mcXmi.getUserSpaceCas() instanceof String);
+				assertTrue(mcBinary.getUserSpaceCas() instanceof byte[]);
+				String xmi = mcXmi.getSerializedCas();
+				byte[] binary = mcBinary.getSerializedCasBinary();
+				bytesXmi += xmi.getBytes("UTF-8").length;
+				bytesBinary += binary.length;
+				long t0 = cpuNanos();
+				CAS casXmi = jdcrXmi.deserialize(xmi);
+				long t1 = cpuNanos();
+				CAS casBinary = jdcrBinary.deserialize(binary);
+				long t2 = cpuNanos();
+				cpuXmi += t1 - t0;
+				cpuBinary += t2 - t1;
+				assertTrue(CasHelper.getId(casXmi).equals(CasHelper.getId(casBinary)));
+				assertTrue(mcBinary.getDocumentText().equals(CasHelper.getId(casBinary)));
+				jdcrXmi.recycle(casXmi);
+				jdcrBinary.recycle(casBinary);
+				// the error handler is always given XMI
+				assertTrue(jdcrBinary.getXmi(binary) != null);
+				count++;
+				mcXmi = jdcrXmi.getJdUserMetaCas();
+				mcBinary = jdcrBinary.getJdUserMetaCas();
+			}
+			assertTrue(mcBinary == null);
+			assertTrue(count == 100);
+			debug("xmi bytes/cas:"+(bytesXmi/count)+" "+"cpu usec/cas:"+(cpuXmi/count/1000));
+			debug("binary bytes/cas:"+(bytesBinary/count)+" "+"cpu usec/cas:"+(cpuBinary/count/1000));
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
 }
@@ -27,10 +27,9 @@ import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
 import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.common.utils.id.DuccId;
-import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
-import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
-import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
 
 
@@ -115,28 +114,28 @@ public class DuccBoot extends Thread {
 	
 	private void restoreReservations(IHistoryPersistenceManager hpm, DuccData duccData) 
     {
-        // Replaced for database.  Both file and database now do all the looping and sorting internally.
+        // History is listed by summary; complete work is restored on demand by HistoryCache.
         String location = "restoreReservations";
-        List<IDuccWorkReservation> duccWorkReservations = null;;
+        List<HistorySummary> summaries = null;
 		try {
-			duccWorkReservations = hpm.restoreReservations(maxReservations);
+			summaries = hpm.restoreSummaries(DuccType.Reservation, maxReservations);
 		} catch (Exception e) {
             logger.warn(location, null, e);
             return;                               // Nothing to do if this fails
 		}
 
-        logger.info(location, jobid, messages.fetchLabel("Number of Reservations fetched from history"), duccWorkReservations.size());
+        logger.info(location, jobid, messages.fetchLabel("Number of Reservations fetched from history"), summaries.size());
 
         int restored = 0;
-        for ( IDuccWorkReservation duccWorkReservation : duccWorkReservations ) {
+        for ( HistorySummary summary : summaries ) {
             try {
-                logger.debug(location, duccWorkReservation.getDuccId(), messages.fetchLabel("restore"));
-                duccData.putIfNotPresent(duccWorkReservation);
-                duccPlugins.restore(duccWorkReservation);
+                logger.debug(location, new DuccId(summary.getId()), messages.fetchLabel("restore"));
+                duccData.putIfNotPresent(summary);
+                duccPlugins.restore(summary);
                 restored++;
             }
             catch(Throwable t) {
-                logger.warn(location, duccWorkReservation.getDuccId(), t);
+                logger.warn(location, new DuccId(summary.getId()), t);
             }
         }
         logger.info(location,null, messages.fetch("Reservations restored: "+restored));
@@ -144,28 +143,28 @@ public class DuccBoot extends Thread {
     
 	private void restoreJobs(IHistoryPersistenceManager hpm, DuccData duccData) 
     {
-        // Replaced for database.  Both file and database now do all the looping and sorting internally.
+        // History is listed by summary; complete work is restored on demand by HistoryCache.
         String location = "restoreJobs";
-        List<IDuccWorkJob> duccWorkJobs = null;;
+        List<HistorySummary> summaries = null;
 		try {
-			duccWorkJobs = hpm.restoreJobs(maxJobs);
+			summaries = hpm.restoreSummaries(DuccType.Job, maxJobs);
 		} catch (Exception e) {
             logger.warn(location, null, e);
             return;                               // Nothing to do if this fails
 		}
 
-        logger.info(location, jobid, messages.fetchLabel("Number of Jobs fetched from history"), duccWorkJobs.size());
+        logger.info(location, jobid, messages.fetchLabel("Number of Jobs fetched from history"), summaries.size());
 
         int restored = 0;
-        for ( IDuccWorkJob duccWorkJob : duccWorkJobs ) {
+        for ( HistorySummary summary : summaries ) {
             try {
-                logger.debug(location, duccWorkJob.getDuccId(), messages.fetchLabel("restore"));
-                duccData.putIfNotPresent(duccWorkJob);
-                duccPlugins.restore(duccWorkJob);
+                logger.debug(location, new DuccId(summary.getId()), messages.fetchLabel("restore"));
+                duccData.putIfNotPresent(summary);
+                duccPlugins.restore(summary);
                 restored++;
             }
             catch(Throwable t) {
-                logger.warn(location, duccWorkJob.getDuccId(), t);
+                logger.warn(location, new DuccId(summary.getId()), t);
             }
         }
         logger.info(location,null, messages.fetch("Jobs restored: "+restored));
@@ -201,28 +200,28 @@ public class DuccBoot extends Thread {
 
 	private void restoreServices(IHistoryPersistenceManager hpm, DuccData duccData) 
     {
-        // Replaced for database.  Both file and database now do all the looping and sorting internally.
+        // History is listed by summary; complete work is restored on demand by HistoryCache.
         String location = "restoreServices";
-        List<IDuccWorkService> duccWorkServices = null;;
+        List<HistorySummary> summaries = null;
 		try {
-			duccWorkServices = hpm.restoreServices(maxServices);
+			summaries = hpm.restoreSummaries(DuccType.Service, maxServices);
 		} catch (Exception e) {
             logger.warn(location, null, e);
             return;                               // Nothing to do if this fails
 		}
 
-        logger.info(location, jobid, messages.fetchLabel("Number of services fetched from history"), duccWorkServices.size());
+        logger.info(location, jobid, messages.fetchLabel("Number of services fetched from history"), summaries.size());
 
         int restored = 0;
-        for ( IDuccWorkService duccWorkService : duccWorkServices ) {
+        for ( HistorySummary summary : summaries ) {
             try {
-                logger.debug(location, duccWorkService.getDuccId(), messages.fetchLabel("restore"));
-                duccData.putIfNotPresent(duccWorkService);
-                duccPlugins.restore(duccWorkService);
+                logger.debug(location, new DuccId(summary.getId()), messages.fetchLabel("restore"));
+                duccData.putIfNotPresent(summary);
+                duccPlugins.restore(summary);
                 restored++;
             }
             catch(Throwable t) {
-                logger.warn(location, duccWorkService.getDuccId(), t);
+                logger.warn(location, new DuccId(summary.getId()), t);
             }
         }
         logger.info(location,null, messages.fetch("Services restored: "+restored));
@@ -34,8 +34,7 @@ import org.apache.uima.ducc.transport.event.common.IDuccWork;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService.ServiceDeploymentType;
-import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
-import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 
 
 public class DuccData {
@@ -70,8 +69,6 @@ public class DuccData {
 	
 	private volatile String published = null;
 	
-	private IHistoryPersistenceManager hpm = HistoryFactory.getInstance(this.getClass().getName());
-	
 	public boolean isPublished() {
 		return published != null;
 	}
@@ -84,6 +81,63 @@ public class DuccData {
 		return published;
 	}
 	
+	/**
+	 * Boot time restore of a history entry by summary only.
+	 */
+	public void putIfNotPresent(HistorySummary summary) {
+		synchronized(this) {
+			switch(summary.getType()) {
+			case Job:
+				JobInfo jobInfo = new JobInfo(summary);
+				if(!sortedJobs.containsKey(jobInfo)) {
+					sortedJobs.put(jobInfo, jobInfo);
+				}
+				break;
+			case Reservation:
+				ReservationInfo reservationInfo = new ReservationInfo(summary);
+				if(!sortedReservations.containsKey(reservationInfo)) {
+					sortedReservations.put(reservationInfo, reservationInfo);
+				}
+				Info rInfo = new Info(summary);
+				if(!sortedCombinedReservations.containsKey(rInfo)) {
+					sortedCombinedReservations.put(rInfo, rInfo);
+				}
+				break;
+			case Service:
+				JobInfo serviceInfo = new JobInfo(summary);
+				if(!sortedServices.containsKey(serviceInfo)) {
+					sortedServices.put(serviceInfo, serviceInfo);
+				}
+				if(ServiceDeploymentType.other.name().equals(summary.getDeployment())) {
+					Info sInfo = new Info(summary);
+					if(!sortedCombinedReservations.containsKey(sInfo)) {
+						sortedCombinedReservations.put(sInfo, sInfo);
+					}
+				}
+				break;
+			default:
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Find work by type and friendly id among the published work, else in
+	 * history (through the HistoryCache).
+	 */
+	public IDuccWork findDuccWork(DuccType duccType, String id) {
+		IDuccWork retVal = duccWorkMap.findDuccWork(duccType, id);
+		if(retVal == null) {
+			try {
+				retVal = HistoryCache.getInstance().get(duccType, Long.parseLong(id.trim()));
+			}
+			catch(NumberFormatException e) {
+				logger.debug("findDuccWork", jobid, id);
+			}
+		}
+		return retVal;
+	}
+	
 	public void putIfNotPresent(IDuccWork duccWork) {
 		synchronized(this) {
 			DuccId duccId = duccWork.getDuccId();
@@ -109,17 +163,7 @@ public class DuccData {
     			IDuccWork duccWork = duccWorkLive.findDuccWork(duccId);
     			IDuccWork history = null;
                 try {
-                    switch(duccWork.getDuccType()) {
-                    case Job:
-                        history = hpm.restoreJob(duccId.getFriendly());
-                        break;
-                    case Reservation:
-                        history = hpm.restoreReservation(duccId.getFriendly());
-                        break;
-                    case Service:
-                        history = hpm.restoreService(duccId.getFriendly());
-                        break;
-                    }
+                    history = HistoryCache.getInstance().get(duccWork.getDuccType(), duccId.getFriendly());
                     if(history != null) {
                         map.put(duccId, history);
                     }
@@ -133,7 +177,8 @@ public class DuccData {
 	public void put(IDuccWorkMap map) {
 		String location = "put";
 		synchronized(this) {
-			IDuccWorkMap mapCopy = map.deepCopy();
+			// map is already a private copy; mergeHistory only adds entries to it
+			IDuccWorkMap mapCopy = map.shallowCopy();
 			mergeHistory(map);
 			duccWorkLive = mapCopy;
 			@SuppressWarnings("unchecked")
@@ -171,7 +216,7 @@ public class DuccData {
 				if(!jobInfo.isOperational()) {
 					count++;
 					if(count > DuccBoot.maxJobs) {
-						DuccId duccId = jobInfo.getJob().getDuccId();
+						DuccId duccId = jobInfo.getDuccId();
 						sortedJobs.remove(jobInfo);
 						keyMapJobs.remove(duccId);
 						pagingObserver.remove(duccId);
@@ -194,7 +239,7 @@ public class DuccData {
 				if(!reservationInfo.isOperational()) {
 					count++;
 					if(count > DuccBoot.maxReservations) {
-						DuccId duccId = reservationInfo.getReservation().getDuccId();
+						DuccId duccId = reservationInfo.getDuccId();
 						sortedReservations.remove(reservationInfo);
 						keyMapReservations.remove(duccId);
 						logger.debug(location, duccId, "size: "+sortedReservations.size());
@@ -216,7 +261,7 @@ public class DuccData {
 				if(!jobInfo.isOperational()) {
 					count++;
 					if(count > DuccBoot.maxServices) {
-						DuccId duccId = jobInfo.getJob().getDuccId();
+						DuccId duccId = jobInfo.getDuccId();
 						sortedServices.remove(jobInfo);
 						keyMapServices.remove(duccId);
 						logger.debug(location, duccId, "size: "+sortedServices.size());
@@ -238,7 +283,7 @@ public class DuccData {
 				if(!info.isOperational()) {
 					count++;
 					if(count > DuccBoot.maxReservations) {
-						DuccId duccId = info.getDuccWork().getDuccId();
+						DuccId duccId = info.getDuccId();
 						sortedCombinedReservations.remove(info);
 						keyMapCombinedReservations.remove(duccId);
 						logger.debug(location, duccId, "size: "+sortedCombinedReservations.size());
@@ -396,9 +441,8 @@ public class DuccData {
 			Iterator<Entry<JobInfo, JobInfo>> iterator = sortedJobs.entrySet().iterator();
 			while(iterator.hasNext()) {
 				JobInfo jobInfo = iterator.next().getValue();
-				DuccWorkJob job = jobInfo.getJob();
-				if(job.getDuccId().getFriendly() == duccId.getFriendly()) {
-					retVal = job;
+				if(jobInfo.getFriendly() == duccId.getFriendly()) {
+					retVal = jobInfo.getJob();
 					break;
 				}
 			}
@@ -413,9 +457,8 @@ public class DuccData {
 			Iterator<Entry<Info, Info>> iterator = sortedReservations.entrySet().iterator();
 			while(iterator.hasNext()) {
 				Info info = iterator.next().getValue();
-				IDuccWork dw = info.getDuccWork();
-				if(dw.getDuccId().getFriendly() == duccId.getFriendly()) {
-					retVal = dw;
+				if(info.getFriendly() == duccId.getFriendly()) {
+					retVal = info.getDuccWork();
 					break;
 				}
 			}
@@ -444,9 +487,8 @@ public class DuccData {
 			Iterator<Entry<Info, Info>> iterator = sortedReservations.entrySet().iterator();
 			while(iterator.hasNext()) {
 				Info info = iterator.next().getValue();
-				IDuccWork dw = info.getDuccWork();
-				if(isEqual(dw.getDuccId(), id)) {
-					retVal = dw;
+				if(isEqual(info.getDuccId(), id)) {
+					retVal = info.getDuccWork();
 					break;
 				}
 			}
@@ -45,8 +45,11 @@ public class DuccDataHelper {
 		DuccData duccData = DuccData.getInstance();
 		ConcurrentSkipListMap<JobInfo, JobInfo> jobs = duccData.getSortedJobs();
 		for(JobInfo jobInfo : jobs.descendingKeySet()) {
+			if(!jobInfo.isOperational()) {
+				continue;
+			}
 			DuccWorkJob job = jobInfo.getJob();
-			if(job.isOperational()) {
+			if(job != null) {
 				DuccId duccId = job.getDuccId();
 				String[] dependencies = job.getServiceDependencies();
 				if(dependencies != null) {
@@ -106,8 +109,11 @@ public class DuccDataHelper {
 		DuccData duccData = DuccData.getInstance();
 		ConcurrentSkipListMap<JobInfo, JobInfo> services = duccData.getSortedServices();
 		for(JobInfo jobInfo : services.descendingKeySet()) {
+			if(!jobInfo.isOperational()) {
+				continue;
+			}
 			DuccWorkJob service = jobInfo.getJob();
-			if(service.isOperational()) {
+			if(service != null) {
 				ServiceDeploymentType type = service.getServiceDeploymentType();
 				if(type != null) {
 					switch(type) {
@@ -141,8 +147,11 @@ public class DuccDataHelper {
 			DuccData duccData = DuccData.getInstance();
 			ConcurrentSkipListMap<JobInfo, JobInfo> jobs = duccData.getSortedJobs();
 			for(JobInfo jobInfo : jobs.descendingKeySet()) {
+				if(!jobInfo.isOperational()) {
+					continue;
+				}
 				DuccWorkJob job = jobInfo.getJob();
-				if(job.isOperational()) {
+				if(job != null) {
 					DuccId jobid = job.getDuccId();
 					IDuccProcessMap map = job.getProcessMap();
 					Iterator<DuccId> procids = map.keySet().iterator();
@@ -27,6 +27,7 @@ import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 import org.apache.uima.ducc.ws.server.DuccWebServer;
 import org.eclipse.jetty.server.Handler;
 
@@ -78,6 +79,20 @@ public class DuccPlugins {
 		}
 	}
 	
+	/**
+	 * History is restored by summary; the complete Job, Reservation or
+	 * Service is read later only if a page asks for it.
+	 */
+	public void restore(HistorySummary summary) {
+		String location = "restore";
+		try {
+			//loc mods here
+		}
+		catch(Throwable t) {
+			logger.error(location, jobid, t);
+		}
+	}
+	
 	/**
 	 * The update method is called for each Orchestrator publication.
 	 * This is an opportunity to have local mods plug-in for
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+
+/**
+ * Bounded LRU of complete history work objects, restored on demand for
+ * entries the web server only knows by HistorySummary.
+ */
+public class HistoryCache {
+	
+	private static DuccLogger logger = DuccLoggerComponents.getWsLogger(HistoryCache.class.getName());
+	
+	// created on first use
+	private static class Holder {
+		private static final HistoryCache instance = new HistoryCache(HistoryFactory.getInstance(HistoryCache.class.getName()), getEntries());
+	}
+	
+	public static HistoryCache getInstance() {
+		return Holder.instance;
+	}
+	
+	private static final int defaultEntries = 256;
+	
+	private static int getEntries() {
+		String location = "getEntries";
+		int entries = defaultEntries;
+		try {
+			String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_ws_history_cache_entries);
+			if(value != null) {
+				entries = Integer.parseInt(value.trim());
+			}
+		}
+		catch(Exception e) {
+			logger.warn(location, null, e);
+		}
+		return entries;
+	}
+	
+	private IHistoryPersistenceManager hpm;
+	
+	private Map<String,IDuccWork> map;
+	
+	private long hits = 0;
+	private long misses = 0;
+	
+	HistoryCache(IHistoryPersistenceManager hpm, int entries) {
+		String location = "HistoryCache";
+		this.hpm = hpm;
+		final int capacity = Math.max(entries, 1);
+		map = new LinkedHashMap<String,IDuccWork>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<String,IDuccWork> eldest) {
+				return size() > capacity;
+			}
+		};
+		logger.info(location, null, "entries:"+capacity);
+	}
+	
+	private String getKey(DuccType type, long id) {
+		return type+":"+id;
+	}
+	
+	/**
+	 * @return the complete work object, or null if history no longer has it
+	 */
+	public IDuccWork get(DuccType type, long id) {
+		String location = "get";
+		String key = getKey(type, id);
+		synchronized(map) {
+			IDuccWork dw = map.get(key);
+			if(dw != null) {
+				hits++;
+				return dw;
+			}
+			misses++;
+		}
+		// restore outside the lock; a concurrent miss on the same key costs one extra read
+		IDuccWork dw = null;
+		try {
+			switch(type) {
+			case Job:
+				dw = hpm.restoreJob(id);
+				break;
+			case Reservation:
+				dw = hpm.restoreReservation(id);
+				break;
+			case Service:
+				dw = hpm.restoreService(id);
+				break;
+			default:
+				break;
+			}
+		}
+		catch(Exception e) {
+			logger.warn(location, new DuccId(id), e);
+		}
+		if(dw != null) {
+			synchronized(map) {
+				map.put(key, dw);
+			}
+		}
+		logger.debug(location, new DuccId(id), type+" "+"found:"+(dw != null)+" "+getStatistics());
+		return dw;
+	}
+	
+	public String getStatistics() {
+		synchronized(map) {
+			return "size:"+map.size()+" "+"hits:"+hits+" "+"misses:"+misses;
+		}
+	}
+}
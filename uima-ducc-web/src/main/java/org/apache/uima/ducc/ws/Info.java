@@ -18,14 +18,17 @@
 */
 package org.apache.uima.ducc.ws;
 
+import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 
 public class Info implements Comparable<Info> {
 
 	private IDuccWork _dw;
+	private HistorySummary _summary;
 	
 	public Info(DuccWorkJob job) {
 		_dw = job;
@@ -35,42 +38,103 @@ public class Info implements Comparable<Info> {
 		_dw = reservation;
 	}
 	
+	/**
+	 * History entry known by summary only; the work itself is restored
+	 * through the HistoryCache when first asked for.
+	 */
+	public Info(HistorySummary summary) {
+		_summary = summary;
+	}
+	
+	/**
+	 * @return the work, or null if a summarized entry is no longer in history
+	 */
 	public IDuccWork getDuccWork() {
-		return _dw;
+		if(_dw != null) {
+			return _dw;
+		}
+		return HistoryCache.getInstance().get(_summary.getType(), _summary.getId());
 	}
 	
 	public DuccWorkJob getJob() {
 		DuccWorkJob retVal = null;
-		if(_dw instanceof DuccWorkJob) {
-			retVal = (DuccWorkJob) _dw;
+		IDuccWork dw = getDuccWork();
+		if(dw instanceof DuccWorkJob) {
+			retVal = (DuccWorkJob) dw;
 		}
 		return retVal;
 	}
 	
 	public DuccWorkReservation getReservation() {
 		DuccWorkReservation retVal = null;
-		if(_dw instanceof DuccWorkReservation) {
-			retVal = (DuccWorkReservation) _dw;
+		IDuccWork dw = getDuccWork();
+		if(dw instanceof DuccWorkReservation) {
+			retVal = (DuccWorkReservation) dw;
 		}
 		return retVal;
 	}
 	
+	public HistorySummary getSummary() {
+		return _summary;
+	}
+	
+	/**
+	 * @return the work's DuccId, or a stand-in carrying only the friendly id
+	 */
+	public DuccId getDuccId() {
+		if(_dw != null) {
+			return _dw.getDuccId();
+		}
+		return new DuccId(_summary.getId());
+	}
+	
+	public long getFriendly() {
+		if(_dw != null) {
+			return _dw.getDuccId().getFriendly();
+		}
+		return _summary.getId();
+	}
+	
+	public DuccType getDuccType() {
+		if(_dw != null) {
+			return _dw.getDuccType();
+		}
+		return _summary.getType();
+	}
+	
+	public String getUser() {
+		if(_dw != null) {
+			return _dw.getStandardInfo().getUser();
+		}
+		return _summary.getUser();
+	}
+	
+	public boolean isCompleted() {
+		if(_dw != null) {
+			return _dw.isCompleted();
+		}
+		return _summary.isCompleted();
+	}
+	
 	public boolean isOperational() {
-		return _dw.isOperational();
+		if(_dw != null) {
+			return _dw.isOperational();
+		}
+		return _summary.isOperational();
 	}
 	
 	
 	public int compareTo(Info info) {
 		int retVal = 0;
-		IDuccWork dw1 = this._dw;
-		IDuccWork dw2 = info._dw;
-		long f1 = dw1.getDuccId().getFriendly();
-		long f2 = dw2.getDuccId().getFriendly();
+		Info i1 = this;
+		Info i2 = info;
+		long f1 = i1.getFriendly();
+		long f2 = i2.getFriendly();
 		if(f1 != f2) {
-			if(!dw1.isOperational() && dw2.isOperational()) {
+			if(!i1.isOperational() && i2.isOperational()) {
 				retVal = 1;
 			}
-			else if(dw1.isOperational() && !dw2.isOperational()) {
+			else if(i1.isOperational() && !i2.isOperational()) {
 				retVal = -1;
 			}
 			else if(f1 > f2) {
@@ -87,14 +151,10 @@ public class Info implements Comparable<Info> {
 	public boolean equals(Object object) {
 		boolean retVal = false;
 		try {
-			IDuccWork dw1 = this._dw;
-			IDuccWork dw2 = (IDuccWork)object;
-			String s1 = dw1.getDuccId().toString();
-			String s2 = dw2.getDuccId().toString();
-			DuccType dt1 = dw1.getDuccType();
-			DuccType dt2 = dw2.getDuccType();
-			if(dt1 == dt2) {
-				retVal = s1.equals(s2);
+			Info i1 = this;
+			Info i2 = (Info)object;
+			if(i1.getDuccType() == i2.getDuccType()) {
+				retVal = i1.getFriendly() == i2.getFriendly();
 			}
 		}
 		catch(Throwable t) {	
@@ -104,8 +164,7 @@ public class Info implements Comparable<Info> {
 	
 	 
 	public int hashCode() {
-		IDuccWork dw = this._dw;
-		String s1 = dw.getDuccId().toString();
+		String s1 = ""+this.getFriendly();
 		return s1.hashCode();
 	}
 
@@ -18,22 +18,77 @@
 */
 package org.apache.uima.ducc.ws;
 
+import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 
 public class JobInfo implements Comparable<JobInfo> {
 
 	private DuccWorkJob _job;
+	private HistorySummary _summary;
 	
 	public JobInfo(DuccWorkJob job) {
 		_job = job;
 	}
 
+	/**
+	 * History entry known by summary only; the job itself is restored
+	 * through the HistoryCache when first asked for.
+	 */
+	public JobInfo(HistorySummary summary) {
+		_summary = summary;
+	}
+	
+	/**
+	 * @return the job, or null if a summarized job is no longer in history
+	 */
 	public DuccWorkJob getJob() {
-		return _job;
+		if(_job != null) {
+			return _job;
+		}
+		return (DuccWorkJob) HistoryCache.getInstance().get(_summary.getType(), _summary.getId());
+	}
+	
+	public HistorySummary getSummary() {
+		return _summary;
+	}
+	
+	/**
+	 * @return the work's DuccId, or a stand-in carrying only the friendly id
+	 */
+	public DuccId getDuccId() {
+		if(_job != null) {
+			return _job.getDuccId();
+		}
+		return new DuccId(_summary.getId());
+	}
+	
+	public long getFriendly() {
+		if(_job != null) {
+			return _job.getDuccId().getFriendly();
+		}
+		return _summary.getId();
+	}
+	
+	public String getUser() {
+		if(_job != null) {
+			return _job.getStandardInfo().getUser();
+		}
+		return _summary.getUser();
+	}
+	
+	public boolean isCompleted() {
+		if(_job != null) {
+			return _job.isCompleted();
+		}
+		return _summary.isCompleted();
 	}
 	
 	public boolean isOperational() {
-		return _job.isOperational();
+		if(_job != null) {
+			return _job.isOperational();
+		}
+		return _summary.isOperational();
 	}
 	
 	
@@ -41,8 +96,8 @@ public class JobInfo implements Comparable<JobInfo> {
 		int retVal = 0;
 		JobInfo j1 = this;
 		JobInfo j2 = job;
-		long f1 = j1.getJob().getDuccId().getFriendly();
-		long f2 = j2.getJob().getDuccId().getFriendly();
+		long f1 = j1.getFriendly();
+		long f2 = j2.getFriendly();
 		if(f1 != f2) {
 			if(!j1.isOperational() && j2.isOperational()) {
 				retVal = 1;
@@ -66,11 +121,7 @@ public class JobInfo implements Comparable<JobInfo> {
 		try {
 			JobInfo i1 = this;
 			JobInfo i2 = (JobInfo)object;
-			DuccWorkJob j1 = i1.getJob();
-			DuccWorkJob j2 = i2.getJob();
-			String s1 = j1.getDuccId().toString();
-			String s2 = j2.getDuccId().toString();
-			retVal = s1.equals(s2);
+			retVal = i1.getFriendly() == i2.getFriendly();
 		}
 		catch(Throwable t) {	
 		}
@@ -80,8 +131,7 @@ public class JobInfo implements Comparable<JobInfo> {
 	 
 	public int hashCode() {
 		JobInfo i1 = this;
-		DuccWorkJob j1 = i1.getJob();
-		String s1 = j1.getDuccId().toString();
+		String s1 = ""+i1.getFriendly();
 		return s1.hashCode();
 	}
 }
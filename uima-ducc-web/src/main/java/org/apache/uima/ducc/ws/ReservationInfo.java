@@ -18,22 +18,77 @@
 */
 package org.apache.uima.ducc.ws;
 
+import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
 
 public class ReservationInfo implements Comparable<ReservationInfo> {
 
 	private DuccWorkReservation _reservation;
+	private HistorySummary _summary;
 	
 	public ReservationInfo(DuccWorkReservation reservation) {
 		_reservation = reservation;
 	}
 
+	/**
+	 * History entry known by summary only; the reservation itself is restored
+	 * through the HistoryCache when first asked for.
+	 */
+	public ReservationInfo(HistorySummary summary) {
+		_summary = summary;
+	}
+	
+	/**
+	 * @return the reservation, or null if a summarized reservation is no longer in history
+	 */
 	public DuccWorkReservation getReservation() {
-		return _reservation;
+		if(_reservation != null) {
+			return _reservation;
+		}
+		return (DuccWorkReservation) HistoryCache.getInstance().get(_summary.getType(), _summary.getId());
+	}
+	
+	public HistorySummary getSummary() {
+		return _summary;
+	}
+	
+	/**
+	 * @return the work's DuccId, or a stand-in carrying only the friendly id
+	 */
+	public DuccId getDuccId() {
+		if(_reservation != null) {
+			return _reservation.getDuccId();
+		}
+		return new DuccId(_summary.getId());
+	}
+	
+	public long getFriendly() {
+		if(_reservation != null) {
+			return _reservation.getDuccId().getFriendly();
+		}
+		return _summary.getId();
+	}
+	
+	public String getUser() {
+		if(_reservation != null) {
+			return _reservation.getStandardInfo().getUser();
+		}
+		return _summary.getUser();
+	}
+	
+	public boolean isCompleted() {
+		if(_reservation != null) {
+			return _reservation.isCompleted();
+		}
+		return _summary.isCompleted();
 	}
 	
 	public boolean isOperational() {
-		return _reservation.isOperational();
+		if(_reservation != null) {
+			return _reservation.isOperational();
+		}
+		return _summary.isOperational();
 	}
 	
 	
@@ -41,8 +96,8 @@ public class ReservationInfo implements Comparable<ReservationInfo> {
 		int retVal = 0;
 		ReservationInfo r1 = this;
 		ReservationInfo r2 = reservation;
-		long f1 = r1.getReservation().getDuccId().getFriendly();
-		long f2 = r2.getReservation().getDuccId().getFriendly();
+		long f1 = r1.getFriendly();
+		long f2 = r2.getFriendly();
 		if(f1 != f2) {
 			if(!r1.isOperational() && r2.isOperational()) {
 				retVal = 1;
@@ -66,11 +121,7 @@ public class ReservationInfo implements Comparable<ReservationInfo> {
 		try {
 			ReservationInfo i1 = this;
 			ReservationInfo i2 = (ReservationInfo)object;
-			DuccWorkReservation j1 = i1.getReservation();
-			DuccWorkReservation j2 = i2.getReservation();
-			String s1 = j1.getDuccId().toString();
-			String s2 = j2.getDuccId().toString();
-			retVal = s1.equals(s2);
+			retVal = i1.getFriendly() == i2.getFriendly();
 		}
 		catch(Throwable t) {	
 		}
@@ -80,8 +131,7 @@ public class ReservationInfo implements Comparable<ReservationInfo> {
 	 
 	public int hashCode() {
 		ReservationInfo i1 = this;
-		DuccWorkReservation j1 = i1.getReservation();
-		String s1 = j1.getDuccId().toString();
+		String s1 = ""+i1.getFriendly();
 		return s1.hashCode();
 	}
 }
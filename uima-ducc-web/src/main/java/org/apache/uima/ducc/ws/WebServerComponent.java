@@ -40,6 +40,8 @@ import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
 import org.apache.uima.ducc.ws.registry.ServicesRegistry;
+import org.apache.uima.ducc.ws.server.DuccEventStream;
+import org.apache.uima.ducc.ws.server.DuccJsonCache;
 import org.apache.uima.ducc.ws.server.DuccListeners;
 import org.apache.uima.ducc.ws.server.DuccWebServer;
 import org.apache.uima.ducc.ws.utils.DatedNodeMetricsUpdateDuccEvent;
@@ -144,6 +146,8 @@ implements IWebServer {
 		DuccData.getInstance().put(wm);
 		DuccPlugins.getInstance().update(wm);
 		DuccListeners.getInstance().update(duccEvent);
+		DuccJsonCache.getInstance().advance();
+		DuccEventStream.getInstance().publishWork();
 		duccLogger.trace(methodName, jobid, duccMsg.fetch("exit"));
 	}
 
@@ -158,6 +162,8 @@ implements IWebServer {
 			boolean success = updateLast.compareAndSet(last, now);
 			if(success) {
 				DuccMachinesData.getInstance().updateSortedMachines();
+				DuccJsonCache.getInstance().advance();
+				DuccEventStream.getInstance().publishMachines();
 			}
 		}
 	}
@@ -177,6 +183,7 @@ implements IWebServer {
 		duccLogger.trace(methodName, jobid, duccMsg.fetch("enter"));
 		duccLogger.debug(methodName, jobid, duccMsg.fetchLabel("received")+"RmStateDuccEvent");
 		DuccDaemonsData.getInstance().put(duccEvent);
+		DuccJsonCache.getInstance().advance();
 		duccLogger.trace(methodName, jobid, duccMsg.fetch("exit"));
 	}
 	
@@ -187,6 +194,7 @@ implements IWebServer {
 		duccLogger.debug(methodName, jobid, duccMsg.fetchLabel("received")+"SmStateDuccEvent");
 		DuccDaemonsData.getInstance().put(duccEvent);
 		ServicesRegistry.getInstance().update();
+		DuccJsonCache.getInstance().advance();
 		duccLogger.trace(methodName, jobid, duccMsg.fetch("exit"));
 	}
 	
@@ -26,6 +26,7 @@ import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReplica;
 import org.apache.uima.ducc.transport.event.PmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SmStateDuccEvent;
@@ -38,6 +39,7 @@ public class WebServerEventListener implements DuccEventDelegateListener {
 	private DuccId jobid = null;
 	
 	private IWebServer webServer;
+	private OrchestratorStateReplica orchestratorStateReplica = new OrchestratorStateReplica("WS");
 	
 	public WebServerEventListener(IWebServer webServer) {
 		this.webServer = webServer;
@@ -53,6 +55,10 @@ public class WebServerEventListener implements DuccEventDelegateListener {
 		String location = "onOrchestratorStateDuccEvent";
 		try {
 			duccEvent.setEventSize(pubSize);
+			if(!orchestratorStateReplica.apply(duccEvent)) {
+				duccLogger.info(location, jobid, "awaiting snapshot");
+				return;
+			}
 			webServer.update(duccEvent);
 		}
 		catch(Throwable t) {
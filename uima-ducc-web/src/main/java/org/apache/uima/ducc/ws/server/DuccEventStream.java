@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletResponse;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.IDuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkExecutable;
+import org.apache.uima.ducc.transport.event.common.history.HistorySummary;
+import org.apache.uima.ducc.ws.DuccData;
+import org.apache.uima.ducc.ws.DuccMachinesData;
+import org.apache.uima.ducc.ws.Info;
+import org.apache.uima.ducc.ws.JobInfo;
+import org.apache.uima.ducc.ws.MachineInfo;
+import org.apache.uima.ducc.ws.server.DuccCookies.FilterUsersStyle;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.io.EndPoint;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Server-sent events for the Jobs, Reservations, Services and Machines
+ * pages.  Each publication is compared once against the previous one and
+ * a subscriber is sent a bare change notice for a view only when a row it
+ * can see (after its users filter) changed or went away; the page then
+ * fetches the cached aaData.  A subscriber that cannot keep up has its
+ * backlog discarded and is told to resync instead.
+ * 
+ * Writes block, so each subscriber drains on its own pooled thread and a
+ * write that does not complete within writeTimeoutMillis closes the
+ * connection and drops the subscriber.
+ */
+public class DuccEventStream {
+	
+	private static DuccLogger duccLogger = DuccLoggerComponents.getWsLogger(DuccEventStream.class.getName());
+	private static DuccId jobid = null;
+	
+	private static DuccEventStream instance = new DuccEventStream();
+	
+	public static DuccEventStream getInstance() {
+		return instance;
+	}
+	
+	public static enum View { jobs, reservations, services, machines };
+	
+	private static final int backlog = 16;
+	private static final long keepaliveSeconds = 30;
+	private static final long writeTimeoutMillis = 10*1000;
+	
+	static class Row {
+		
+		private String id;
+		private String user;
+		private boolean active;
+		private String fingerprint;
+		
+		Row(String id, String user, boolean active, JsonObject json) {
+			this.id = id;
+			this.user = user;
+			this.active = active;
+			this.fingerprint = json.toString();
+		}
+	}
+	
+	public static class Subscriber {
+		
+		private static AtomicLong sequence = new AtomicLong(0);
+		
+		private long id = sequence.incrementAndGet();
+		private String remote;
+		private EnumSet<View> views;
+		private EnumMap<View,List<String>> users;
+		private FilterUsersStyle filterUsersStyle;
+		private Continuation continuation;
+		private ServletResponse response;
+		private EndPoint endPoint;
+		
+		private ArrayBlockingQueue<String> queue = new ArrayBlockingQueue<String>(backlog);
+		private AtomicBoolean scheduled = new AtomicBoolean(false);
+		private AtomicInteger resyncs = new AtomicInteger(0);
+		private volatile boolean closed = false;
+		private volatile long writeStarted = 0;
+		
+		public Subscriber(String remote, EnumSet<View> views, EnumMap<View,List<String>> users, FilterUsersStyle filterUsersStyle, Continuation continuation, ServletResponse response, EndPoint endPoint) {
+			this.remote = remote;
+			this.views = views;
+			this.users = users;
+			this.filterUsersStyle = filterUsersStyle;
+			this.continuation = continuation;
+			this.response = response;
+			this.endPoint = endPoint;
+		}
+		
+		boolean isListable(View view, Row row) {
+			List<String> list = users.get(view);
+			if(list == null || list.isEmpty() || row.user == null) {
+				return true;
+			}
+			boolean listed = list.contains(row.user);
+			switch(filterUsersStyle) {
+			case IncludePlusActive:
+				return row.active || listed;
+			case ExcludePlusActive:
+				return row.active || !listed;
+			case Exclude:
+				return !listed;
+			case Include:
+			default:
+				return listed;
+			}
+		}
+		
+		int getResyncs() {
+			return resyncs.get();
+		}
+		
+		/**
+		 * @return true when everything queued has been written
+		 */
+		boolean isDrained() {
+			return queue.isEmpty() && !scheduled.get();
+		}
+		
+		public String toString() {
+			return "id:"+id+" remote:"+remote+" views:"+views;
+		}
+	}
+	
+	private ConcurrentHashMap<Long,Subscriber> subscribers = new ConcurrentHashMap<Long,Subscriber>();
+	
+	private EnumMap<View,Map<String,Row>> baseline = new EnumMap<View,Map<String,Row>>(View.class);
+	
+	private AtomicLong epoch = new AtomicLong(0);
+	private AtomicLong resyncs = new AtomicLong(0);
+	
+	private ExecutorService executor;
+	private ScheduledExecutorService timer;
+	
+	private DuccEventStream() {
+		// at most one drain per subscriber is in flight, so a stalled
+		// client holds only its own thread
+		executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			private AtomicInteger count = new AtomicInteger(0);
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "DuccEventStream-"+count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "DuccEventStream-Timer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		timer.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				keepalive();
+			}
+		}, keepaliveSeconds, keepaliveSeconds, TimeUnit.SECONDS);
+		timer.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				expireWrites();
+			}
+		}, writeTimeoutMillis, writeTimeoutMillis/2, TimeUnit.MILLISECONDS);
+	}
+	
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+	
+	public void subscribe(Subscriber subscriber) {
+		String methodName = "subscribe";
+		subscribers.put(subscriber.id, subscriber);
+		enqueue(subscriber, event("open", "{\"epoch\":"+epoch.get()+"}"));
+		duccLogger.info(methodName, jobid, subscriber+" "+"subscribers:"+subscribers.size());
+	}
+	
+	public void unsubscribe(Subscriber subscriber) {
+		String methodName = "unsubscribe";
+		subscriber.closed = true;
+		if(subscribers.remove(subscriber.id) != null) {
+			duccLogger.info(methodName, jobid, subscriber+" "+"resyncs:"+subscriber.resyncs.get()+" "+"subscribers:"+subscribers.size());
+			try {
+				subscriber.continuation.complete();
+			}
+			catch(Exception e) {
+				duccLogger.debug(methodName, jobid, e);
+			}
+		}
+	}
+	
+	/**
+	 * With nobody listening there is no point diffing; forget the baseline
+	 * so a later subscriber starts from the next publication.
+	 */
+	private boolean isIdle() {
+		if(subscribers.isEmpty()) {
+			synchronized(baseline) {
+				baseline.clear();
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Called after DuccData has ingested an OR publication.
+	 */
+	public void publishWork() {
+		if(isIdle()) {
+			return;
+		}
+		DuccData duccData = DuccData.getInstance();
+		ArrayList<Row> rows = new ArrayList<Row>();
+		for(JobInfo jobInfo : duccData.getSortedJobs().keySet()) {
+			if(jobInfo.getSummary() != null) {
+				rows.add(getRow(jobInfo.getSummary()));
+			}
+			else {
+				rows.add(getRow(jobInfo.getJob()));
+			}
+		}
+		publish(View.jobs, rows);
+		rows = new ArrayList<Row>();
+		for(Info info : duccData.getSortedCombinedReservations().keySet()) {
+			if(info.getSummary() != null) {
+				rows.add(getRow(info.getSummary()));
+			}
+			else {
+				rows.add(getRow(info.getDuccWork()));
+			}
+		}
+		publish(View.reservations, rows);
+		rows = new ArrayList<Row>();
+		for(JobInfo jobInfo : duccData.getSortedServices().keySet()) {
+			if(jobInfo.getSummary() != null) {
+				rows.add(getRow(jobInfo.getSummary()));
+			}
+			else {
+				rows.add(getRow(jobInfo.getJob()));
+			}
+		}
+		publish(View.services, rows);
+	}
+	
+	/**
+	 * Called after DuccMachinesData has refreshed its sorted machines.
+	 */
+	public void publishMachines() {
+		if(isIdle()) {
+			return;
+		}
+		ArrayList<Row> rows = new ArrayList<Row>();
+		for(MachineInfo machineInfo : DuccMachinesData.getInstance().getSortedMachines().keySet()) {
+			rows.add(getRow(machineInfo));
+		}
+		publish(View.machines, rows);
+	}
+	
+	private Row getRow(IDuccWork dw) {
+		String id = ""+dw.getDuccId().getFriendly();
+		String user = dw.getStandardInfo().getUser();
+		JsonObject json = new JsonObject();
+		json.addProperty("id", id);
+		json.addProperty("user", user);
+		json.addProperty("state", ""+dw.getStateObject());
+		json.addProperty("completion", ""+dw.getCompletionTypeObject());
+		IDuccSchedulingInfo si = dw.getSchedulingInfo();
+		if(si != null) {
+			json.addProperty("workItemsTotal", si.getWorkItemsTotal());
+			json.addProperty("workItemsCompleted", si.getWorkItemsCompleted());
+			json.addProperty("workItemsError", si.getWorkItemsError());
+		}
+		if(dw instanceof IDuccWorkExecutable) {
+			IDuccWorkExecutable dwe = (IDuccWorkExecutable) dw;
+			if(dwe.getProcessMap() != null) {
+				json.addProperty("processes", dwe.getProcessMap().getAliveProcessCount());
+			}
+		}
+		return new Row(id, user, dw.isOperational(), json);
+	}
+	
+	/**
+	 * Rows for history restored at boot are built from the summary so that
+	 * publishing does not fault every completed entry back into memory.
+	 */
+	private Row getRow(HistorySummary summary) {
+		String id = ""+summary.getId();
+		String user = summary.getUser();
+		JsonObject json = new JsonObject();
+		json.addProperty("id", id);
+		json.addProperty("user", user);
+		json.addProperty("state", summary.getState());
+		json.addProperty("completion", summary.getCompletion());
+		if(summary.getWorkItemsTotal() != null) {
+			json.addProperty("workItemsTotal", summary.getWorkItemsTotal());
+			json.addProperty("workItemsCompleted", summary.getWorkItemsCompleted());
+			json.addProperty("workItemsError", summary.getWorkItemsError());
+		}
+		if(summary.getType() != DuccType.Reservation) {
+			json.addProperty("processes", 0);
+		}
+		return new Row(id, user, summary.isOperational(), json);
+	}
+	
+	private Row getRow(MachineInfo machineInfo) {
+		String id = machineInfo.getName();
+		JsonObject json = new JsonObject();
+		json.addProperty("id", id);
+		json.addProperty("ip", machineInfo.getIp());
+		json.addProperty("status", machineInfo.getStatus());
+		json.addProperty("memTotal", machineInfo.getMemTotal());
+		json.addProperty("memFree", machineInfo.getMemFree());
+		json.addProperty("swapInuse", machineInfo.getSwapInuse());
+		json.addProperty("swapFree", machineInfo.getSwapFree());
+		json.addProperty("aliens", machineInfo.getAlienPidsCount());
+		return new Row(id, null, true, json);
+	}
+	
+	void publish(View view, List<Row> rows) {
+		String methodName = "publish";
+		ArrayList<Row> changed = new ArrayList<Row>();
+		ArrayList<Row> removed = new ArrayList<Row>();
+		synchronized(baseline) {
+			Map<String,Row> previous = baseline.get(view);
+			Map<String,Row> current = new HashMap<String,Row>();
+			for(Row row : rows) {
+				current.put(row.id, row);
+				Row prior = null;
+				if(previous != null) {
+					prior = previous.remove(row.id);
+				}
+				if(prior == null || !prior.fingerprint.equals(row.fingerprint)) {
+					changed.add(row);
+				}
+			}
+			if(previous != null) {
+				removed.addAll(previous.values());
+			}
+			baseline.put(view, current);
+		}
+		if(changed.isEmpty() && removed.isEmpty()) {
+			return;
+		}
+		long e = epoch.incrementAndGet();
+		duccLogger.debug(methodName, jobid, view+" "+"changed:"+changed.size()+" "+"removed:"+removed.size()+" "+"epoch:"+e);
+		Iterator<Subscriber> iterator = subscribers.values().iterator();
+		while(iterator.hasNext()) {
+			Subscriber subscriber = iterator.next();
+			if(!subscriber.views.contains(view)) {
+				continue;
+			}
+			if(isListable(subscriber, view, changed) || isListable(subscriber, view, removed)) {
+				enqueue(subscriber, event(view.name(), "{\"epoch\":"+e+"}"));
+			}
+		}
+	}
+	
+	private boolean isListable(Subscriber subscriber, View view, List<Row> rows) {
+		for(Row row : rows) {
+			if(subscriber.isListable(view, row)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private String event(String name, String data) {
+		return "event: "+name+"\n"+"data: "+data+"\n\n";
+	}
+	
+	private void keepalive() {
+		for(Subscriber subscriber : subscribers.values()) {
+			enqueue(subscriber, ": keepalive\n\n");
+		}
+	}
+	
+	/**
+	 * Queue without blocking the publisher; a full queue means the client
+	 * is behind, so replace its backlog with a single resync.
+	 */
+	private void enqueue(Subscriber subscriber, String message) {
+		String methodName = "enqueue";
+		if(subscriber.closed) {
+			return;
+		}
+		if(!subscriber.queue.offer(message)) {
+			subscriber.queue.clear();
+			subscriber.queue.offer(event("resync", "{\"epoch\":"+epoch.get()+"}"));
+			subscriber.resyncs.incrementAndGet();
+			resyncs.incrementAndGet();
+			duccLogger.debug(methodName, jobid, subscriber+" "+"resyncs:"+subscriber.resyncs.get());
+		}
+		schedule(subscriber);
+	}
+	
+	private void schedule(final Subscriber subscriber) {
+		if(subscriber.scheduled.compareAndSet(false, true)) {
+			executor.execute(new Runnable() {
+				public void run() {
+					drain(subscriber);
+				}
+			});
+		}
+	}
+	
+	private void drain(Subscriber subscriber) {
+		String methodName = "drain";
+		try {
+			subscriber.writeStarted = System.currentTimeMillis();
+			PrintWriter writer = subscriber.response.getWriter();
+			String message = subscriber.queue.poll();
+			while(message != null) {
+				writer.write(message);
+				message = subscriber.queue.poll();
+			}
+			writer.flush();
+			if(writer.checkError()) {
+				throw new IOException("write failed");
+			}
+		}
+		catch(Exception e) {
+			duccLogger.debug(methodName, jobid, subscriber+" "+e);
+			unsubscribe(subscriber);
+		}
+		finally {
+			subscriber.writeStarted = 0;
+			subscriber.scheduled.set(false);
+		}
+		if(!subscriber.closed && !subscriber.queue.isEmpty()) {
+			schedule(subscriber);
+		}
+	}
+	
+	/**
+	 * Closing the connection makes a write stuck on a stalled client fail,
+	 * which releases its drain thread.
+	 */
+	private void expireWrites() {
+		String methodName = "expireWrites";
+		long now = System.currentTimeMillis();
+		for(Subscriber subscriber : subscribers.values()) {
+			long started = subscriber.writeStarted;
+			if(started > 0 && now-started > writeTimeoutMillis) {
+				duccLogger.info(methodName, jobid, subscriber+" "+"write blocked for "+(now-started)+" ms");
+				try {
+					subscriber.endPoint.close();
+				}
+				catch(Exception e) {
+					duccLogger.debug(methodName, jobid, e);
+				}
+				unsubscribe(subscriber);
+			}
+		}
+	}
+}
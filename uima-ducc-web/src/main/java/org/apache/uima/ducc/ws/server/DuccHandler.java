@@ -1513,6 +1513,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(job == null) {
+			job = (IDuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Job, jobno);
+		}
 		return job;
 	}
 	
@@ -1550,6 +1553,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(job == null) {
+			job = (DuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Job, jobno);
+		}
 		if(job != null) {
 			String directory = job.getLogDirectory()+File.separator+job.getId();
 			Map<String, FileInfo> fileInfoMap = getFileInfoMap(eu, directory);
@@ -1612,6 +1618,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(job == null) {
+			job = (DuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Job, jobNo);
+		}
 		return job;
 	}
 	
@@ -1630,6 +1639,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(managedReservation == null) {
+			managedReservation = (DuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Service, reservationNo);
+		}
 		return managedReservation;
 	}
 	
@@ -2559,6 +2571,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(managedReservation == null) {
+			managedReservation = (DuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Service, reservationNo);
+		}
 		if(managedReservation != null) {
 			EffectiveUser eu = EffectiveUser.create(request);
 			String directory = managedReservation.getUserLogsDir()+managedReservation.getDuccId().getFriendly()+File.separator;
@@ -4039,6 +4054,9 @@ public class DuccHandler extends DuccAbstractHandler {
 				}
 			}
 		}
+		if(job == null) {
+			job = (DuccWorkJob) DuccData.getInstance().findDuccWork(DuccType.Job, idJob);
+		}
 		if(job != null) {
 			IDuccProcess process = job.getProcess(idPro);
 			if(process != null) {
@@ -4058,6 +4076,18 @@ public class DuccHandler extends DuccAbstractHandler {
 						}
 					}
 				}
+				List<IUimaPipelineAEComponent> threadInitTimes = process.getThreadInitTimes();
+				if(threadInitTimes != null) {
+					for(IUimaPipelineAEComponent upc : threadInitTimes) {
+						String iName = upc.getAeName();
+						String iState = upc.getAeState().toString();
+						String iTime = FormatHelper.duration(upc.getInitializationTime(),Precision.Whole);
+						sb.append("<tr>");
+						sb.append("<td>"+iName);
+						sb.append("<td>"+iState);
+						sb.append("<td align=\"right\">"+iTime);
+					}
+				}
 			}
 		}
 		if(sb.length() == 0) {
@@ -338,7 +338,15 @@ public class DuccHandlerClassic extends DuccAbstractHandler {
 			double min = Math.round(perWorkItemStatistics.getMin()/100.0)/10.0;
 			double avg = Math.round(perWorkItemStatistics.getMean()/100.0)/10.0;
 			double dev = Math.round(perWorkItemStatistics.getStandardDeviation()/100.0)/10.0;
-			done = "<span title=\""+"seconds-per-work-item "+"Max:"+max+" "+"Min:"+min+" "+"Avg:"+avg+" "+"Dev:"+dev+"\""+">"+done+"</span>";
+			String percentiles = "";
+			if(perWorkItemStatistics.getPercentile50() > 0) {
+				double p50 = Math.round(perWorkItemStatistics.getPercentile50()/100.0)/10.0;
+				double p95 = Math.round(perWorkItemStatistics.getPercentile95()/100.0)/10.0;
+				double p99 = Math.round(perWorkItemStatistics.getPercentile99()/100.0)/10.0;
+				double p999 = Math.round(perWorkItemStatistics.getPercentile999()/100.0)/10.0;
+				percentiles = " "+"P50:"+p50+" "+"P95:"+p95+" "+"P99:"+p99+" "+"P99.9:"+p999;
+			}
+			done = "<span title=\""+"seconds-per-work-item "+"Max:"+max+" "+"Min:"+min+" "+"Avg:"+avg+" "+"Dev:"+dev+percentiles+"\""+">"+done+"</span>";
 		}
 		sb.append(done);
 		sb.append("</td>");
@@ -427,8 +435,12 @@ public class DuccHandlerClassic extends DuccAbstractHandler {
 			int counter = 0;
 			while(iterator.hasNext()) {
 				JobInfo jobInfo = iterator.next().getValue();
-				DuccWorkJob job = jobInfo.getJob();
-				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, job);
+				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, jobInfo.isCompleted(), jobInfo.getUser());
+				DuccWorkJob job = null;
+				if(list) {
+					job = jobInfo.getJob();
+					list = (job != null);
+				}
 				if(list) {
 					counter++;
 					sb.append(trGet(counter));
@@ -847,8 +859,12 @@ public class DuccHandlerClassic extends DuccAbstractHandler {
 			Iterator<Entry<Info, Info>> iR = sortedCombinedReservations.entrySet().iterator();
 			while(iR.hasNext()) {
 				Info info = iR.next().getValue();
-				IDuccWork dw = info.getDuccWork();
-				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, dw);
+				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, info.isCompleted(), info.getUser());
+				IDuccWork dw = null;
+				if(list) {
+					dw = info.getDuccWork();
+					list = (dw != null);
+				}
 				if(list) {
 					counter++;
 					if(dw instanceof DuccWorkReservation) {
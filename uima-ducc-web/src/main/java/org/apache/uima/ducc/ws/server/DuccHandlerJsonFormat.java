@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.servlet.ServletException;
@@ -107,6 +108,8 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 	private static BrokerHelper brokerHelper = BrokerHelper.getInstance();
 	private static DatabaseHelper databaseHelper = DatabaseHelper.getInstance();
 	
+	private static DuccJsonCache jsonCache = DuccJsonCache.getInstance();
+	
 	//private static PagingObserver pagingObserver = PagingObserver.getInstance();
 	
 	private final String jsonFormatJobsAaData					= duccContextJsonFormat+"-aaData-jobs";
@@ -121,6 +124,8 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 	private final String jsonFormatMachines 		= duccContextJsonFormat+"-machines";
 	private final String jsonFormatReservations 	= duccContextJsonFormat+"-reservations";
 	
+	private final String jsonFormatCacheStatistics 	= duccContextJsonFormat+"-cache-statistics";
+	
 	public DuccHandlerJsonFormat(DuccWebServer duccWebServer) {
 		super.init(duccWebServer);
 	}
@@ -375,7 +380,15 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			double min = Math.round(perWorkItemStatistics.getMin()/100.0)/10.0;
 			double avg = Math.round(perWorkItemStatistics.getMean()/100.0)/10.0;
 			double dev = Math.round(perWorkItemStatistics.getStandardDeviation()/100.0)/10.0;
-			done = "<span title=\""+"seconds-per-work-item "+"Max:"+max+" "+"Min:"+min+" "+"Avg:"+avg+" "+"Dev:"+dev+"\""+">"+done+"</span>";
+			String percentiles = "";
+			if(perWorkItemStatistics.getPercentile50() > 0) {
+				double p50 = Math.round(perWorkItemStatistics.getPercentile50()/100.0)/10.0;
+				double p95 = Math.round(perWorkItemStatistics.getPercentile95()/100.0)/10.0;
+				double p99 = Math.round(perWorkItemStatistics.getPercentile99()/100.0)/10.0;
+				double p999 = Math.round(perWorkItemStatistics.getPercentile999()/100.0)/10.0;
+				percentiles = " "+"P50:"+p50+" "+"P95:"+p95+" "+"P99:"+p99+" "+"P99.9:"+p999;
+			}
+			done = "<span title=\""+"seconds-per-work-item "+"Max:"+max+" "+"Min:"+min+" "+"Avg:"+avg+" "+"Dev:"+dev+percentiles+"\""+">"+done+"</span>";
 		}
 		sb.append(done);
 		sb.append("</span>");
@@ -474,8 +487,12 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			int counter = 0;
 			while(iterator.hasNext()) {
 				JobInfo jobInfo = iterator.next().getValue();
-				DuccWorkJob job = jobInfo.getJob();
-				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, job);
+				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, jobInfo.isCompleted(), jobInfo.getUser());
+				DuccWorkJob job = null;
+				if(list) {
+					job = jobInfo.getJob();
+					list = (job != null);
+				}
 				if(list) {
 					counter++;
 					JsonArray row = buildJobRow(request, job, duccData, now, servicesRegistry);
@@ -948,8 +965,12 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			Iterator<Entry<Info, Info>> iR = sortedCombinedReservations.entrySet().iterator();
 			while(iR.hasNext()) {
 				Info info = iR.next().getValue();
-				IDuccWork dw = info.getDuccWork();
-				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, dw);
+				boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, info.isCompleted(), info.getUser());
+				IDuccWork dw = null;
+				if(list) {
+					dw = info.getDuccWork();
+					list = (dw != null);
+				}
 				if(list) {
 					counter++;
 					if(dw instanceof DuccWorkReservation) {
@@ -2062,32 +2083,29 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			nextReservation:
 			while(iterator.hasNext()) {
 				ReservationInfo reservationInfo = iterator.next().getValue();
-				DuccWorkReservation reservation = reservationInfo.getReservation();
-				ReservationState reservationState = reservation.getReservationState();
+				boolean completed = reservationInfo.isCompleted();
 				switch(requestStateType) {
 				case All:
 					break;
 				case Active:
-					switch(reservationState) {
-					case Completed:
+					if(completed) {
 						continue nextReservation;
-					default:
-						break;
 					}
 					break;
 				case Inactive:
-					switch(reservationState) {
-					case Completed:
-						break;
-					default:
+					if(!completed) {
 						continue nextReservation;
 					}
 					break;
 				}
-				String reservationUser = reservation.getStandardInfo().getUser().trim();
+				String reservationUser = reservationInfo.getUser().trim();
 				if(isIncludeUser(users,reservationUser)) {
 					if(maxRecords > 0) {
 						if (counter++ < maxRecords) {
+							DuccWorkReservation reservation = reservationInfo.getReservation();
+							if(reservation == null) {
+								continue nextReservation;
+							}
 							String id = reservation.getId(); 
 							String start = getTimeStamp(request,reservation.getDuccId(), reservation.getStandardInfo().getDateOfSubmission());;
 							String end = getTimeStamp(request,reservation.getDuccId(), reservation.getStandardInfo().getDateOfCompletion());
@@ -2131,6 +2149,68 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		duccLogger.trace(methodName, jobid, messages.fetch("exit"));
 	}
 	
+	private void handleServletJsonFormatCacheStatistics(String target,Request baseRequest,HttpServletRequest request,HttpServletResponse response) 
+	throws IOException, ServletException
+	{
+		String methodName = "handleServletJsonFormatCacheStatistics";
+		duccLogger.trace(methodName, jobid, messages.fetch("enter"));
+		JsonObject jsonResponse = new JsonObject();
+		jsonResponse.addProperty("epoch", jsonCache.getEpoch());
+		jsonResponse.addProperty("entries", jsonCache.getEntries());
+		jsonResponse.addProperty("hits", jsonCache.getHits());
+		jsonResponse.addProperty("misses", jsonCache.getMisses());
+		jsonResponse.addProperty("shared", jsonCache.getShared());
+		jsonResponse.addProperty("notModified", jsonCache.getNotModified());
+		String json = jsonResponse.toString();
+		duccLogger.debug(methodName, jobid, json);
+		response.getWriter().println(json);
+		response.setContentType("application/json");
+		duccLogger.trace(methodName, jobid, messages.fetch("exit"));
+	}
+	
+	private boolean isCacheable(String reqURI) {
+		boolean retVal = false;
+		if(jsonCache.isEnabled()) {
+			if(reqURI.startsWith(jsonFormatJobsAaData)) {
+				retVal = true;
+			}
+			else if(reqURI.startsWith(jsonFormatReservationsAaData)) {
+				retVal = true;
+			}
+			else if(reqURI.startsWith(jsonFormatServicesAaData)) {
+				retVal = true;
+			}
+			else if(reqURI.startsWith(jsonFormatMachinesAaData)) {
+				retVal = true;
+			}
+		}
+		return retVal;
+	}
+	
+	private void handleCachedRequest(final String target,final Request baseRequest,final HttpServletRequest request,final HttpServletResponse response) 
+	throws Exception
+	{
+		final String methodName = "handleCachedRequest";
+		String reqURI = request.getRequestURI()+"";
+		String userId = "";
+		if(isAuthenticated(request, response)) {
+			userId = duccWebSessionManager.getUserId(request);
+		}
+		final String key = jsonCache.getKey(reqURI, request, userId);
+		DuccJsonCache.Entry entry = jsonCache.get(key);
+		if(entry == null) {
+			entry = jsonCache.render(key, new Callable<String>() {
+				public String call() throws Exception {
+					DuccJsonCache.CapturingResponse capture = new DuccJsonCache.CapturingResponse(response);
+					handleDuccRequest(target, baseRequest, request, capture);
+					duccLogger.debug(methodName, jobid, "render key:"+key);
+					return capture.getText();
+				}
+			});
+		}
+		jsonCache.send(entry, request, response);
+	}
+	
 	private void handleDuccRequest(String target,Request baseRequest,HttpServletRequest request,HttpServletResponse response) 
 	throws Exception
 	{
@@ -2169,6 +2249,9 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		else if(reqURI.startsWith(jsonFormatReservations)) {
 			handleServletJsonFormatReservations(target, baseRequest, request, response);
 		}
+		else if(reqURI.startsWith(jsonFormatCacheStatistics)) {
+			handleServletJsonFormatCacheStatistics(target, baseRequest, request, response);
+		}
 		else {
 			handleServletUnknown(target, baseRequest, request, response);
 		}
@@ -2187,8 +2270,13 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 				response.setContentType("text/html;charset=utf-8");
 				response.setStatus(HttpServletResponse.SC_OK);
 				baseRequest.setHandled(true);
-				handleDuccRequest(target, baseRequest, request, response);
-				DuccWebUtil.noCache(response);
+				if(isCacheable(reqURI)) {
+					handleCachedRequest(target, baseRequest, request, response);
+				}
+				else {
+					handleDuccRequest(target, baseRequest, request, response);
+					DuccWebUtil.noCache(response);
+				}
 			}
 		}
 		catch(Throwable t) {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.ws.server.DuccEventStream.Subscriber;
+import org.apache.uima.ducc.ws.server.DuccEventStream.View;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationListener;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+import org.eclipse.jetty.server.Request;
+
+/**
+ * Long lived text/event-stream responses fed by DuccEventStream.
+ * 
+ * /ducc-servlet/stream?views=jobs,services
+ */
+public class DuccHandlerStream extends DuccAbstractHandler {
+	
+	private static DuccLogger duccLogger = DuccLoggerComponents.getWsLogger(DuccHandlerStream.class.getName());
+	private static DuccId jobid = null;
+	
+	private DuccEventStream eventStream = DuccEventStream.getInstance();
+	
+	private EnumSet<View> getViews(HttpServletRequest request) {
+		String methodName = "getViews";
+		EnumSet<View> views = EnumSet.noneOf(View.class);
+		String value = request.getParameter("views");
+		if(value != null) {
+			for(String name : value.split(",")) {
+				try {
+					views.add(View.valueOf(name.trim()));
+				}
+				catch(Exception e) {
+					duccLogger.debug(methodName, jobid, "unknown view: "+name);
+				}
+			}
+		}
+		if(views.isEmpty()) {
+			views = EnumSet.allOf(View.class);
+		}
+		return views;
+	}
+	
+	private EnumMap<View,List<String>> getUsers(HttpServletRequest request) {
+		EnumMap<View,List<String>> users = new EnumMap<View,List<String>>(View.class);
+		users.put(View.jobs, getJobsUsers(request));
+		users.put(View.reservations, getReservationsUsers(request));
+		users.put(View.services, getServicesUsers(request));
+		return users;
+	}
+	
+	private void handleServletStream(String target,Request baseRequest,HttpServletRequest request,HttpServletResponse response) 
+	throws IOException, ServletException
+	{
+		String methodName = "handleServletStream";
+		Continuation continuation = ContinuationSupport.getContinuation(request);
+		if(continuation.isExpired()) {
+			return;
+		}
+		response.setContentType("text/event-stream;charset=utf-8");
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setHeader("Cache-Control", "no-cache");
+		continuation.setTimeout(0);
+		continuation.suspend(response);
+		final Subscriber subscriber = new Subscriber(request.getRemoteAddr(), getViews(request), getUsers(request), DuccCookies.getFilterUsersStyle(request), continuation, response, baseRequest.getConnection().getEndPoint());
+		continuation.addContinuationListener(new ContinuationListener() {
+			public void onComplete(Continuation continuation) {
+				eventStream.unsubscribe(subscriber);
+			}
+			public void onTimeout(Continuation continuation) {
+				eventStream.unsubscribe(subscriber);
+			}
+		});
+		eventStream.subscribe(subscriber);
+		duccLogger.debug(methodName, jobid, subscriber);
+	}
+	
+	public void handle(String target,Request baseRequest,HttpServletRequest request,HttpServletResponse response) 
+			throws IOException, ServletException {
+		String methodName = "handle";
+		try { 
+			duccLogger.debug(methodName, jobid,request.toString());
+			duccLogger.debug(methodName, jobid,"getRequestURI():"+request.getRequestURI());
+			String reqURI = request.getRequestURI()+"";
+			if(reqURI.startsWith(duccContextStream)) {
+				baseRequest.setHandled(true);
+				handleServletStream(target, baseRequest, request, response);
+			}
+		}
+		catch(Throwable t) {
+			if(isIgnorable(t)) {
+				duccLogger.debug(methodName, jobid, t);
+			}
+			else {
+				duccLogger.info(methodName, jobid, "", t.getMessage(), t);
+				duccLogger.error(methodName, jobid, t);
+			}
+		}
+	}
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccLoggerComponents;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Rendered JSON for the aaData views, kept per view key (uri, query string
+ * less cache busters, ducc cookies and user) for the current publication
+ * epoch.  The epoch is advanced whenever OR, SM or RM state (or the sorted
+ * machines list) is updated, so identical polls between publications share
+ * one render.
+ */
+public class DuccJsonCache {
+	
+	private static DuccLogger duccLogger = DuccLoggerComponents.getWsLogger(DuccJsonCache.class.getName());
+	private static DuccId jobid = null;
+	
+	private static DuccJsonCache instance = new DuccJsonCache();
+	
+	public static DuccJsonCache getInstance() {
+		return instance;
+	}
+	
+	private static final String encoding = "UTF-8";
+	private static final String gzip = "gzip";
+	
+	// query parameters added by clients only to defeat caching, e.g. jQuery's _=<timestamp>
+	private static final String[] cacheBusters = { "_" };
+	
+	private static final int defaultEntries = 1024;
+	private static final long reportInterval = 1000;
+	
+	public static class Entry {
+		
+		private long epoch;
+		private String etag;
+		private byte[] plain;
+		private byte[] compressed;
+		
+		private Entry(long epoch, String text) throws IOException {
+			this.epoch = epoch;
+			this.plain = text.getBytes(encoding);
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(plain.length/4+64);
+			GZIPOutputStream gzos = new GZIPOutputStream(baos);
+			gzos.write(plain);
+			gzos.close();
+			this.compressed = baos.toByteArray();
+			this.etag = "\""+digest(plain)+"\"";
+		}
+		
+		public long getEpoch() {
+			return epoch;
+		}
+		
+		public String getETag() {
+			return etag;
+		}
+	}
+	
+	/**
+	 * Collects everything a handler prints so it can be cached rather
+	 * than written straight to the client.
+	 */
+	public static class CapturingResponse extends HttpServletResponseWrapper {
+		
+		private StringWriter sw = new StringWriter();
+		private PrintWriter pw = new PrintWriter(sw);
+		
+		public CapturingResponse(HttpServletResponse response) {
+			super(response);
+		}
+		
+		@Override
+		public PrintWriter getWriter() {
+			return pw;
+		}
+		
+		public String getText() {
+			pw.flush();
+			return sw.toString();
+		}
+	}
+	
+	private AtomicLong epoch = new AtomicLong(0);
+	
+	private AtomicLong hits = new AtomicLong(0);
+	private AtomicLong misses = new AtomicLong(0);
+	private AtomicLong notModified = new AtomicLong(0);
+	private AtomicLong shared = new AtomicLong(0);
+	private AtomicLong compressed = new AtomicLong(0);
+	
+	// each send takes its own number, so exactly one in reportInterval logs
+	private AtomicLong sends = new AtomicLong(0);
+	
+	private ConcurrentHashMap<String,Entry> map = new ConcurrentHashMap<String,Entry>();
+	
+	// renders in progress, by epoch and key
+	private ConcurrentHashMap<String,FutureTask<Entry>> renders = new ConcurrentHashMap<String,FutureTask<Entry>>();
+	
+	private int maxEntries = defaultEntries;
+	
+	private DuccJsonCache() {
+		String methodName = "DuccJsonCache";
+		try {
+			String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_ws_json_cache_entries);
+			if(value != null) {
+				maxEntries = Integer.parseInt(value.trim());
+			}
+		}
+		catch(Exception e) {
+			duccLogger.warn(methodName, jobid, e);
+		}
+		duccLogger.info(methodName, jobid, "entries:"+maxEntries);
+	}
+	
+	public boolean isEnabled() {
+		return maxEntries > 0;
+	}
+	
+	public long getEpoch() {
+		return epoch.get();
+	}
+	
+	/**
+	 * Invalidate all rendered views; called for each publication received.
+	 */
+	public void advance() {
+		epoch.incrementAndGet();
+	}
+	
+	public String getKey(String view, HttpServletRequest request, String userId) {
+		StringBuffer sb = new StringBuffer(view);
+		sb.append('?');
+		String query = getQuery(request.getQueryString());
+		if(query != null) {
+			sb.append(query);
+		}
+		sb.append('|');
+		sb.append(userId);
+		Cookie[] cookies = request.getCookies();
+		if(cookies != null) {
+			TreeMap<String,String> sorted = new TreeMap<String,String>();
+			for(Cookie cookie : cookies) {
+				String name = cookie.getName();
+				if(name.startsWith(DuccCookies.application)) {
+					sorted.put(name, cookie.getValue());
+				}
+			}
+			for(Map.Entry<String,String> cookie : sorted.entrySet()) {
+				sb.append('|');
+				sb.append(cookie.getKey());
+				sb.append('=');
+				sb.append(cookie.getValue());
+			}
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * The query string less any cache busting parameters, which differ on
+	 * every poll and so would make every poll a miss.
+	 */
+	public static String getQuery(String query) {
+		String retVal = query;
+		if(query != null) {
+			StringBuffer sb = new StringBuffer();
+			for(String parameter : query.split("&")) {
+				String name = parameter;
+				int index = parameter.indexOf('=');
+				if(index >= 0) {
+					name = parameter.substring(0, index);
+				}
+				if(!isCacheBuster(name)) {
+					if(sb.length() > 0) {
+						sb.append('&');
+					}
+					sb.append(parameter);
+				}
+			}
+			retVal = sb.toString();
+		}
+		return retVal;
+	}
+	
+	private static boolean isCacheBuster(String name) {
+		for(String cacheBuster : cacheBusters) {
+			if(cacheBuster.equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the entry rendered for the current epoch, or null
+	 */
+	public Entry get(String key) {
+		Entry entry = map.get(key);
+		if(entry != null) {
+			if(entry.epoch == epoch.get()) {
+				hits.incrementAndGet();
+				return entry;
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+	
+	/**
+	 * @param renderEpoch the epoch observed before rendering began, so that
+	 * a render racing with a publication is never mistaken for a fresh one
+	 */
+	public Entry put(String key, long renderEpoch, String text) throws IOException {
+		String methodName = "put";
+		Entry entry = new Entry(renderEpoch, text);
+		if(map.size() >= maxEntries) {
+			long current = epoch.get();
+			for(Map.Entry<String,Entry> mapEntry : map.entrySet()) {
+				if(mapEntry.getValue().epoch != current) {
+					map.remove(mapEntry.getKey(), mapEntry.getValue());
+				}
+			}
+			if(map.size() >= maxEntries) {
+				duccLogger.debug(methodName, jobid, "full:"+map.size());
+				return entry;
+			}
+		}
+		map.put(key, entry);
+		return entry;
+	}
+	
+	/**
+	 * Render the view for the current epoch and cache it.  Concurrent
+	 * misses on the same key and epoch share a single render: the first
+	 * runs the renderer, the others wait for its result.
+	 */
+	public Entry render(final String key, final Callable<String> renderer) throws Exception {
+		final long renderEpoch = epoch.get();
+		String flight = renderEpoch+"|"+key;
+		FutureTask<Entry> task = new FutureTask<Entry>(new Callable<Entry>() {
+			public Entry call() throws Exception {
+				return put(key, renderEpoch, renderer.call());
+			}
+		});
+		FutureTask<Entry> inflight = renders.putIfAbsent(flight, task);
+		if(inflight == null) {
+			inflight = task;
+			try {
+				task.run();
+			}
+			finally {
+				renders.remove(flight, task);
+			}
+		}
+		else {
+			shared.incrementAndGet();
+		}
+		try {
+			return inflight.get();
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Answer 304 when the client already holds this render, otherwise
+	 * send the pre-built bytes (gzip'd when the client accepts it).
+	 */
+	public void send(Entry entry, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader("ETag", entry.etag);
+		response.setHeader("Vary", "Accept-Encoding, Cookie");
+		response.setHeader("Cache-Control", "no-cache, must-revalidate");
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if(ifNoneMatch != null) {
+			if(ifNoneMatch.contains(entry.etag)) {
+				notModified.incrementAndGet();
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				report();
+				return;
+			}
+		}
+		response.setContentType("application/json;charset=utf-8");
+		byte[] bytes = entry.plain;
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		if(acceptEncoding != null) {
+			if(acceptEncoding.contains(gzip)) {
+				response.setHeader("Content-Encoding", gzip);
+				bytes = entry.compressed;
+				compressed.incrementAndGet();
+			}
+		}
+		response.setContentLength(bytes.length);
+		OutputStream os = response.getOutputStream();
+		os.write(bytes);
+		os.flush();
+		report();
+	}
+	
+	private void report() {
+		String methodName = "report";
+		long count = sends.incrementAndGet();
+		if(count % reportInterval == 0) {
+			duccLogger.info(methodName, jobid, getStatistics());
+		}
+	}
+	
+	public String getStatistics() {
+		long h = hits.get();
+		long m = misses.get();
+		long total = h+m;
+		long rate = 0;
+		if(total > 0) {
+			rate = (100*h)/total;
+		}
+		StringBuffer sb = new StringBuffer();
+		sb.append("epoch:"+epoch.get());
+		sb.append(" entries:"+map.size());
+		sb.append(" hits:"+h);
+		sb.append(" misses:"+m);
+		sb.append(" hit-rate:"+rate+"%");
+		sb.append(" shared:"+shared.get());
+		sb.append(" not-modified:"+notModified.get());
+		sb.append(" gzip:"+compressed.get());
+		return sb.toString();
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+	
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	public long getNotModified() {
+		return notModified.get();
+	}
+	
+	public long getShared() {
+		return shared.get();
+	}
+	
+	public int getEntries() {
+		return map.size();
+	}
+	
+	private static String digest(byte[] bytes) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			byte[] hash = md.digest(bytes);
+			StringBuffer sb = new StringBuffer();
+			for(int i=0; i<8; i++) {
+				sb.append(String.format("%02x", hash[i]));
+			}
+			return sb.toString();
+		}
+		catch(Exception e) {
+			return Integer.toHexString(Arrays.hashCode(bytes));
+		}
+	}
+}
@@ -227,6 +227,13 @@ public class DuccWebMonitorReservation {
 		
 		DuccWorkReservation dwr = (DuccWorkReservation) dw;
 		
+		if(dwr == null) {
+			// no longer published nor in history
+			duccLogger.info(location, duccId, "work not found");
+			duccLogger.trace(location, jobid, "exit");
+			return monitorInfo;
+		}
+		
 		ArrayList<String> stateSequence = monitorInfo.stateSequence;
 		ReservationState reservationState = dwr.getReservationState();
 		if(reservationState != null) {
@@ -238,6 +238,7 @@ public class DuccWebServer {
 		DuccHandlerJsonFormat duccHandlerJson = new DuccHandlerJsonFormat(this);
 		DuccHandlerProxy duccHandlerProxy = new DuccHandlerProxy();
 		DuccHandlerViz duccHandlerViz = new DuccHandlerViz();
+		DuccHandlerStream duccHandlerStream = new DuccHandlerStream();
 		DuccHandlerUserAuthentication duccHandlerUserAuthentication = new DuccHandlerUserAuthentication();
 		SessionHandler sessionHandler = new SessionHandler();
 		handlers.addHandler(sessionHandler);
@@ -246,6 +247,7 @@ public class DuccWebServer {
 			handlers.addHandler(handler);
 		}
 		handlers.addHandler(duccHandlerJson);
+		handlers.addHandler(duccHandlerStream);
 		handlers.addHandler(duccHandlerProxy);
 		handlers.addHandler(duccHandlerClassic);
 		handlers.addHandler(duccHandlerViz);
@@ -47,13 +47,24 @@ public class DuccWebUtil {
 	}
 	
 	public static final boolean isListable(HttpServletRequest request, ArrayList<String> users, int maxRecords, int counter, IDuccWork dw) {
+		return isListable(request, users, maxRecords, counter, dw.isCompleted(), dw.getStandardInfo().getUser());
+	}
+	
+	/**
+	 * As above, from the few fields that history summaries also carry, so
+	 * entries that will not be listed need not be restored.
+	 */
+	public static final boolean isListable(HttpServletRequest request, ArrayList<String> users, int maxRecords, int counter, boolean completed, String user) {
 		boolean list = false;
 		DuccCookies.FilterUsersStyle filterUsersStyle = DuccCookies.getFilterUsersStyle(request);
 		if(!users.isEmpty()) {
-			String jobUser = dw.getStandardInfo().getUser().trim();
+			String jobUser = "";
+			if(user != null) {
+				jobUser = user.trim();
+			}
 			switch(filterUsersStyle) {
 			case IncludePlusActive:
-				if(!dw.isCompleted()) {
+				if(!completed) {
 					list = true;
 				}
 				else if(users.contains(jobUser)) {
@@ -65,7 +76,7 @@ public class DuccWebUtil {
 				}
 				break;
 			case ExcludePlusActive:
-				if(!dw.isCompleted()) {
+				if(!completed) {
 					list = true;
 				}
 				else if(!users.contains(jobUser)) {
@@ -97,7 +108,7 @@ public class DuccWebUtil {
 			}	
 		}
 		else {
-			if(!dw.isCompleted()) {
+			if(!completed) {
 				list = true;
 			}
 			else if(maxRecords > 0) {
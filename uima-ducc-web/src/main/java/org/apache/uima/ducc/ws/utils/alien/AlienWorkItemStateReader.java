@@ -62,11 +62,17 @@ public class AlienWorkItemStateReader extends WorkItemStateReader {
 		String location = "getMap";
 		ConcurrentSkipListMap<Long,IWorkItemState> map = null;
 		map = new ConcurrentSkipListMap<Long,IWorkItemState>();
-		fetch(map,fnActiveJson);
-		int sizeActive = map.size();
-		fetch(map,fnJson);
-		int sizeInactive = map.size() - sizeActive;
-		logger.debug(location, jobid, "active:"+sizeActive+" "+"inactive:"+sizeInactive);
+		fetch(map,fnJournal);
+		if(map.isEmpty()) {
+			fetch(map,fnActiveJson);
+			int sizeActive = map.size();
+			fetch(map,fnJson);
+			int sizeInactive = map.size() - sizeActive;
+			logger.debug(location, jobid, "active:"+sizeActive+" "+"inactive:"+sizeInactive);
+		}
+		else {
+			logger.debug(location, jobid, "journal:"+map.size());
+		}
 		return map;
 	}
 	
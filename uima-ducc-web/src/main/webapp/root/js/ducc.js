@@ -128,6 +128,18 @@ function ducc_error(loc, err) {
     alert(txt);
 }
 
+// Reload a scroll table from one of the cached aaData views.  DataTables
+// adds a _=<timestamp> cache buster to its ajax calls unless told otherwise;
+// with cache: true the browser keeps the last response and revalidates it
+// with If-None-Match, so an unchanged view costs a 304 rather than the full body.
+function ducc_reload_cached(url, callback) {
+    var settings = oTable.fnSettings();
+    if (!$.isPlainObject(settings.ajax)) {
+        settings.ajax = { "url": url, "cache": true };
+    }
+    oTable.fnReloadAjax(url, callback);
+}
+
 function ducc_window_close() {
     var fname = "ducc_window_close";
     try {
@@ -625,7 +637,7 @@ function ducc_load_classic_jobs_data() {
 function ducc_load_scroll_jobs_data() {
     var fname = "ducc_load_scroll_jobs_data";
     try {
-        oTable.fnReloadAjax("/ducc-servlet/json-format-aaData-jobs", ducc_load_scroll_jobs_callback);
+        ducc_reload_cached("/ducc-servlet/json-format-aaData-jobs", ducc_load_scroll_jobs_callback);
     } catch (err) {
         ducc_error(fname, err);
     }
@@ -716,7 +728,7 @@ function ducc_load_classic_services_data() {
 function ducc_load_scroll_services_data() {
     var fname = "ducc_load_scroll_services_data";
     try {
-        oTable.fnReloadAjax("/ducc-servlet/json-format-aaData-services", ducc_load_scroll_services_callback);
+        ducc_reload_cached("/ducc-servlet/json-format-aaData-services", ducc_load_scroll_services_callback);
     } catch (err) {
         ducc_error(fname, err);
     }
@@ -1726,7 +1738,7 @@ function ducc_load_classic_machines_data() {
 function ducc_load_scroll_machines_data() {
     var fname = "ducc_load_scroll_machines_data";
     try {
-        oTable.fnReloadAjax("/ducc-servlet/json-format-aaData-machines", ducc_load_scroll_machines_callback);
+        ducc_reload_cached("/ducc-servlet/json-format-aaData-machines", ducc_load_scroll_machines_callback);
     } catch (err) {
         ducc_error(fname, err);
     }
@@ -1846,7 +1858,7 @@ function ducc_load_classic_reservations_data() {
 function ducc_load_scroll_reservations_data() {
     var fname = "ducc_load_scroll_reservations_data";
     try {
-        oTable.fnReloadAjax("/ducc-servlet/json-format-aaData-reservations", ducc_load_scroll_reservations_callback);
+        ducc_reload_cached("/ducc-servlet/json-format-aaData-reservations", ducc_load_scroll_reservations_callback);
     } catch (err) {
         ducc_error(fname, err);
     }
@@ -3124,6 +3136,80 @@ function ducc_refresh(type) {
     ducc_console_exit(fname);
 }
 
+var ducc_stream = null;
+var ducc_stream_connected = false;
+var ducc_stream_refresh_pending = null;
+var ducc_stream_refresh_last = 0;
+// pushed changes never refresh more often than the timed loop used to poll
+var ducc_stream_refresh_interval = 30000;
+// while connected, refresh this often anyway in case a notice was lost
+var ducc_stream_fallback_interval = 120000;
+
+function ducc_stream_refresh(type) {
+    if (ducc_stream_refresh_pending != null) {
+        return;
+    }
+    var wait = ducc_stream_refresh_last + ducc_stream_refresh_interval - new Date().getTime();
+    if (wait < 0) {
+        wait = 0;
+    }
+    ducc_stream_refresh_pending = setTimeout(function() {
+        ducc_stream_refresh_pending = null;
+        ducc_stream_refresh_last = new Date().getTime();
+        ducc_refresh(type);
+    }, wait);
+}
+
+function ducc_stream_view(type) {
+    if (type == "jobs") {
+        return "jobs";
+    }
+    if (type == "reservations") {
+        return "reservations";
+    }
+    if (type == "services") {
+        return "services";
+    }
+    if (type == "system-machines") {
+        return "machines";
+    }
+    return null;
+}
+
+function ducc_stream_open(type) {
+    var fname = "ducc_stream_open";
+    try {
+        if (ducc_stream != null) {
+            return;
+        }
+        if (typeof(EventSource) == "undefined") {
+            return;
+        }
+        var view = ducc_stream_view(type);
+        if (view == null) {
+            return;
+        }
+        ducc_stream = new EventSource("/ducc-servlet/stream?views=" + view);
+        ducc_stream.onopen = function() {
+            ducc_stream_connected = true;
+        };
+        ducc_stream.onerror = function() {
+            ducc_stream_connected = false;
+        };
+        var listener = function(event) {
+            var refreshmode = ducc_appl("refreshmode");
+            if (ducc_get_cookie(refreshmode) == "automatic") {
+                ducc_stream_refresh(type);
+            }
+        };
+        ducc_stream.addEventListener(view, listener, false);
+        ducc_stream.addEventListener("resync", listener, false);
+    } catch (err) {
+        ducc_stream = null;
+        ducc_console_warn(fname + ".warn: " + "caught = " + err);
+    }
+}
+
 var to_timed_loop = null;
 
 function ducc_timed_loop(type) {
@@ -3136,8 +3222,16 @@ function ducc_timed_loop(type) {
             c_value = "automatic";
             ducc_put_cookie(refreshmode, c_value);
         }
+        ducc_stream_open(type);
         if (c_value == "automatic") {
-            ducc_refresh(type);
+            // pushed updates drive the refresh while the stream is connected,
+            // with a slow fallback refresh
+            if (!ducc_stream_connected) {
+                ducc_refresh(type);
+            }
+            else if (new Date().getTime() - ducc_stream_refresh_last >= ducc_stream_fallback_interval) {
+                ducc_stream_refresh(type);
+            }
         }
         if(to_timed_loop != null) {
             clearTimeout(to_timed_loop);
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+import org.junit.Test;
+
+public class HistoryCacheTest {
+	
+	// history that counts restores and holds every id except those listed as gone
+	private static class History implements InvocationHandler {
+		
+		private int restores = 0;
+		private Set<Long> gone = new HashSet<Long>();
+		
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if(name.equals("restoreJob")) {
+				restores++;
+				long id = (Long) args[0];
+				return gone.contains(id) ? null : new DuccWorkJob(new DuccId(id));
+			}
+			if(name.equals("restoreReservation")) {
+				restores++;
+				long id = (Long) args[0];
+				return gone.contains(id) ? null : new DuccWorkReservation(new DuccId(id));
+			}
+			throw new UnsupportedOperationException(name);
+		}
+		
+		private IHistoryPersistenceManager getHpm() {
+			return (IHistoryPersistenceManager) Proxy.newProxyInstance(
+					IHistoryPersistenceManager.class.getClassLoader(),
+					new Class<?>[] { IHistoryPersistenceManager.class },
+					this);
+		}
+	}
+	
+	@Test
+	public void test_01() {
+		// least recently used entry is evicted
+		History history = new History();
+		HistoryCache cache = new HistoryCache(history.getHpm(), 2);
+		IDuccWork j1 = cache.get(DuccType.Job, 1);
+		IDuccWork j2 = cache.get(DuccType.Job, 2);
+		assertEquals(2, history.restores);
+		// touch 1 so that 2 is the eldest
+		assertSame(j1, cache.get(DuccType.Job, 1));
+		assertEquals(2, history.restores);
+		cache.get(DuccType.Job, 3);
+		assertEquals(3, history.restores);
+		assertSame(j1, cache.get(DuccType.Job, 1));
+		assertEquals(3, history.restores);
+		IDuccWork j2again = cache.get(DuccType.Job, 2);
+		assertEquals(4, history.restores);
+		assertNotSame(j2, j2again);
+		assertEquals(2, j2again.getDuccId().getFriendly());
+		assertTrue(cache.getStatistics().startsWith("size:2 "));
+	}
+	
+	@Test
+	public void test_02() {
+		// miss restores through the hpm, then hits
+		History history = new History();
+		HistoryCache cache = new HistoryCache(history.getHpm(), 8);
+		IDuccWork r5 = cache.get(DuccType.Reservation, 5);
+		assertNotNull(r5);
+		assertTrue(r5 instanceof DuccWorkReservation);
+		assertEquals(5, r5.getDuccId().getFriendly());
+		assertEquals(1, history.restores);
+		assertSame(r5, cache.get(DuccType.Reservation, 5));
+		assertEquals(1, history.restores);
+		// same id, other type, is another entry
+		IDuccWork j5 = cache.get(DuccType.Job, 5);
+		assertTrue(j5 instanceof DuccWorkJob);
+		assertEquals(2, history.restores);
+		// no longer in history: null, and not cached
+		history.gone.add(9L);
+		assertNull(cache.get(DuccType.Job, 9));
+		assertNull(cache.get(DuccType.Job, 9));
+		assertEquals(4, history.restores);
+		assertEquals("size:2 hits:1 misses:4", cache.getStatistics());
+	}
+}
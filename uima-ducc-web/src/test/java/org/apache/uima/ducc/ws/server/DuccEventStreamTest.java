@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.servlet.ServletResponse;
+
+import org.apache.uima.ducc.ws.server.DuccCookies.FilterUsersStyle;
+import org.apache.uima.ducc.ws.server.DuccEventStream.Row;
+import org.apache.uima.ducc.ws.server.DuccEventStream.Subscriber;
+import org.apache.uima.ducc.ws.server.DuccEventStream.View;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.io.EndPoint;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+public class DuccEventStreamTest {
+	
+	// proxy whose methods do nothing
+	@SuppressWarnings("unchecked")
+	private static <T> T nothing(Class<T> type) {
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				return null;
+			}
+		};
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+	
+	// response that writes into sw, once the gate (if any) is opened
+	private static ServletResponse response(final StringWriter sw, final CountDownLatch gate) {
+		final PrintWriter pw = new PrintWriter(sw);
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+				String name = method.getName();
+				if(name.equals("getWriter")) {
+					if(gate != null) {
+						gate.await();
+					}
+					return pw;
+				}
+				throw new UnsupportedOperationException(name);
+			}
+		};
+		return (ServletResponse) Proxy.newProxyInstance(
+				ServletResponse.class.getClassLoader(),
+				new Class<?>[] { ServletResponse.class },
+				handler);
+	}
+	
+	private static Subscriber subscriber(View view, List<String> users, FilterUsersStyle style, StringWriter sw, CountDownLatch gate) {
+		EnumMap<View,List<String>> map = new EnumMap<View,List<String>>(View.class);
+		if(users != null) {
+			map.put(view, users);
+		}
+		return new Subscriber("test", EnumSet.of(view), map, style, nothing(Continuation.class), response(sw, gate), nothing(EndPoint.class));
+	}
+	
+	private static Row row(String id, String user, boolean active, String state) {
+		JsonObject json = new JsonObject();
+		json.addProperty("id", id);
+		json.addProperty("user", user);
+		json.addProperty("state", state);
+		return new Row(id, user, active, json);
+	}
+	
+	private static List<Row> rows(Row... rows) {
+		return new ArrayList<Row>(Arrays.asList(rows));
+	}
+	
+	private static void await(Subscriber subscriber) throws InterruptedException {
+		long deadline = System.currentTimeMillis()+10000;
+		while(!subscriber.isDrained()) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+	
+	private static int count(StringWriter sw, String event) {
+		String text = sw.toString();
+		String marker = "event: "+event+"\n";
+		int retVal = 0;
+		int index = text.indexOf(marker);
+		while(index >= 0) {
+			retVal++;
+			index = text.indexOf(marker, index+marker.length());
+		}
+		return retVal;
+	}
+	
+	// a view notice goes out only when a row the subscriber can see changed or went away
+	@Test
+	public void test_01() throws Exception {
+		DuccEventStream stream = DuccEventStream.getInstance();
+		StringWriter all = new StringWriter();
+		StringWriter alice = new StringWriter();
+		Subscriber s1 = subscriber(View.jobs, null, FilterUsersStyle.Include, all, null);
+		Subscriber s2 = subscriber(View.jobs, Arrays.asList("alice"), FilterUsersStyle.Include, alice, null);
+		stream.subscribe(s1);
+		stream.subscribe(s2);
+		try {
+			stream.publish(View.jobs, rows(row("1", "alice", true, "Running"), row("2", "bob", true, "Running")));
+			await(s1);
+			await(s2);
+			assertEquals(1, count(all, "open"));
+			int c1 = count(all, "jobs");
+			int c2 = count(alice, "jobs");
+			// unchanged
+			stream.publish(View.jobs, rows(row("1", "alice", true, "Running"), row("2", "bob", true, "Running")));
+			await(s1);
+			await(s2);
+			assertEquals(c1, count(all, "jobs"));
+			assertEquals(c2, count(alice, "jobs"));
+			// a row alice cannot see changed
+			stream.publish(View.jobs, rows(row("1", "alice", true, "Running"), row("2", "bob", true, "Completing")));
+			await(s1);
+			await(s2);
+			assertEquals(c1+1, count(all, "jobs"));
+			assertEquals(c2, count(alice, "jobs"));
+			// a row alice can see changed
+			stream.publish(View.jobs, rows(row("1", "alice", true, "Completing"), row("2", "bob", true, "Completing")));
+			await(s1);
+			await(s2);
+			assertEquals(c1+2, count(all, "jobs"));
+			assertEquals(c2+1, count(alice, "jobs"));
+			// a row went away
+			stream.publish(View.jobs, rows(row("1", "alice", true, "Completing")));
+			await(s1);
+			await(s2);
+			assertEquals(c1+3, count(all, "jobs"));
+			assertEquals(c2+1, count(alice, "jobs"));
+		}
+		finally {
+			stream.unsubscribe(s1);
+			stream.unsubscribe(s2);
+		}
+	}
+	
+	private static boolean listable(FilterUsersStyle style, Row row) {
+		Subscriber subscriber = subscriber(View.jobs, Arrays.asList("alice"), style, new StringWriter(), null);
+		return subscriber.isListable(View.jobs, row);
+	}
+	
+	// the users filter, for each of the four styles
+	@Test
+	public void test_02() {
+		Row aliceIdle = row("1", "alice", false, "Completed");
+		Row aliceActive = row("2", "alice", true, "Running");
+		Row bobIdle = row("3", "bob", false, "Completed");
+		Row bobActive = row("4", "bob", true, "Running");
+		Row machine = row("node1", null, true, "up");
+		
+		assertTrue(listable(FilterUsersStyle.Include, aliceIdle));
+		assertTrue(listable(FilterUsersStyle.Include, aliceActive));
+		assertFalse(listable(FilterUsersStyle.Include, bobIdle));
+		assertFalse(listable(FilterUsersStyle.Include, bobActive));
+		
+		assertTrue(listable(FilterUsersStyle.IncludePlusActive, aliceIdle));
+		assertTrue(listable(FilterUsersStyle.IncludePlusActive, aliceActive));
+		assertFalse(listable(FilterUsersStyle.IncludePlusActive, bobIdle));
+		assertTrue(listable(FilterUsersStyle.IncludePlusActive, bobActive));
+		
+		assertFalse(listable(FilterUsersStyle.Exclude, aliceIdle));
+		assertFalse(listable(FilterUsersStyle.Exclude, aliceActive));
+		assertTrue(listable(FilterUsersStyle.Exclude, bobIdle));
+		assertTrue(listable(FilterUsersStyle.Exclude, bobActive));
+		
+		assertFalse(listable(FilterUsersStyle.ExcludePlusActive, aliceIdle));
+		assertTrue(listable(FilterUsersStyle.ExcludePlusActive, aliceActive));
+		assertTrue(listable(FilterUsersStyle.ExcludePlusActive, bobIdle));
+		assertTrue(listable(FilterUsersStyle.ExcludePlusActive, bobActive));
+		
+		// rows without a user, and views without a filter, are always listable
+		for(FilterUsersStyle style : FilterUsersStyle.values()) {
+			assertTrue(listable(style, machine));
+			Subscriber subscriber = subscriber(View.jobs, null, style, new StringWriter(), null);
+			assertTrue(subscriber.isListable(View.jobs, bobIdle));
+		}
+	}
+	
+	// a subscriber that falls behind has its backlog replaced by a single resync
+	@Test
+	public void test_03() throws Exception {
+		DuccEventStream stream = DuccEventStream.getInstance();
+		StringWriter sw = new StringWriter();
+		CountDownLatch gate = new CountDownLatch(1);
+		Subscriber subscriber = subscriber(View.services, null, FilterUsersStyle.Include, sw, gate);
+		stream.subscribe(subscriber);
+		try {
+			// the open event plus 15 notices fill the queue, the 16th overflows it
+			int publications = 20;
+			for(int i=0; i<publications; i++) {
+				stream.publish(View.services, rows(row("1", "alice", true, "state"+i)));
+			}
+			assertEquals(1, subscriber.getResyncs());
+			gate.countDown();
+			await(subscriber);
+			assertEquals(0, count(sw, "open"));
+			assertEquals(1, count(sw, "resync"));
+			assertEquals(4, count(sw, "services"));
+			assertTrue(sw.toString().startsWith("event: resync\n"));
+		}
+		finally {
+			gate.countDown();
+			stream.unsubscribe(subscriber);
+		}
+	}
+}
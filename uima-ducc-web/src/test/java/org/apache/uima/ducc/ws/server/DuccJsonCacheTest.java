@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.uima.ducc.ws.server.DuccJsonCache.Entry;
+import org.junit.Test;
+
+public class DuccJsonCacheTest {
+	
+	// request that carries only a query string
+	private static HttpServletRequest request(final String query) {
+		InvocationHandler handler = new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if(name.equals("getQueryString")) {
+					return query;
+				}
+				if(name.equals("getCookies")) {
+					return null;
+				}
+				throw new UnsupportedOperationException(name);
+			}
+		};
+		return (HttpServletRequest) Proxy.newProxyInstance(
+				HttpServletRequest.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class },
+				handler);
+	}
+	
+	@Test
+	public void test_01() {
+		// cache busters are dropped, other parameters are kept in order
+		assertEquals("maxRecords=20&users=a", DuccJsonCache.getQuery("maxRecords=20&_=1416000000001&users=a"));
+		assertEquals("", DuccJsonCache.getQuery("_=1416000000001"));
+		assertEquals("_x=1", DuccJsonCache.getQuery("_x=1"));
+		assertNull(DuccJsonCache.getQuery(null));
+	}
+	
+	@Test
+	public void test_02() throws Exception {
+		// two DataTables polls in the same epoch share one render
+		DuccJsonCache cache = DuccJsonCache.getInstance();
+		String view = "/ducc-servlet/json-format-aaData-jobs";
+		String key1 = cache.getKey(view, request("_=1416000000001"), "user");
+		String key2 = cache.getKey(view, request("_=1416000005001"), "user");
+		assertEquals(key1, key2);
+		long epoch = cache.getEpoch();
+		assertNull(cache.get(key1));
+		Entry rendered = cache.put(key1, epoch, "{ \"aaData\": [] }");
+		int entries = cache.getEntries();
+		long hits = cache.getHits();
+		Entry entry = cache.get(key2);
+		assertNotNull(entry);
+		assertSame(rendered, entry);
+		assertEquals(hits+1, cache.getHits());
+		assertEquals(entries, cache.getEntries());
+		// a publication invalidates the render
+		cache.advance();
+		assertNull(cache.get(key2));
+	}
+	
+	@Test
+	public void test_03() throws Exception {
+		// concurrent misses on one key share a single render
+		final DuccJsonCache cache = DuccJsonCache.getInstance();
+		cache.advance();
+		final String key = cache.getKey("/ducc-servlet/json-format-aaData-machines", request("_=1416000000001"), "user");
+		final CountDownLatch gate = new CountDownLatch(1);
+		final AtomicInteger renders = new AtomicInteger(0);
+		final Callable<String> renderer = new Callable<String>() {
+			public String call() throws Exception {
+				renders.incrementAndGet();
+				gate.await();
+				return "{ \"aaData\": [] }";
+			}
+		};
+		int clients = 8;
+		long shared = cache.getShared();
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		try {
+			List<Future<Entry>> results = new ArrayList<Future<Entry>>();
+			for(int i=0; i<clients; i++) {
+				results.add(pool.submit(new Callable<Entry>() {
+					public Entry call() throws Exception {
+						return cache.render(key, renderer);
+					}
+				}));
+			}
+			long deadline = System.currentTimeMillis()+10000;
+			while(cache.getShared() < shared+clients-1) {
+				assertTrue(System.currentTimeMillis() < deadline);
+				Thread.sleep(10);
+			}
+			gate.countDown();
+			Entry first = results.get(0).get(10, TimeUnit.SECONDS);
+			for(Future<Entry> result : results) {
+				assertSame(first, result.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(1, renders.get());
+			assertSame(first, cache.get(key));
+		}
+		finally {
+			gate.countDown();
+			pool.shutdownNow();
+		}
+	}
+}